@@ -1,4 +1,5 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { RouterModule } from '@angular/router';
 import { DashboardService } from '../../services/dashboard.service';
@@ -68,8 +69,9 @@ import { DashboardService } from '../../services/dashboard.service';
     .action-icon { font-size: 1.5rem; }
   `]
 })
-export class DashboardContentComponent implements OnInit {
+export class DashboardContentComponent implements OnInit, OnDestroy {
   stats: any = {};
+  private liveUpdates?: Subscription;
 
   constructor(private dashboardService: DashboardService) {}
 
@@ -78,5 +80,10 @@ export class DashboardContentComponent implements OnInit {
       next: stats => this.stats = stats,
       error: () => this.stats = { totalPatients: 0, totalMedecins: 0, rendezVousAujourdhui: 0 }
     });
+    this.liveUpdates = this.dashboardService.dashboardUpdates().subscribe(update => this.stats = update.stats);
+  }
+
+  ngOnDestroy(): void {
+    this.liveUpdates?.unsubscribe();
   }
 }
\ No newline at end of file
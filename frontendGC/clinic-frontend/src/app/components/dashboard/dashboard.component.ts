@@ -1,4 +1,5 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { Router, RouterModule } from '@angular/router';
 import { AuthService } from '../../services/auth.service';
@@ -713,7 +714,7 @@ import { User } from '../../models/auth.model';
     }
   `]
 })
-export class DashboardComponent implements OnInit {
+export class DashboardComponent implements OnInit, OnDestroy {
   currentUser: User | null = null;
   stats: DashboardStats | null = null;
   recentRendezVous: any[] = [];
@@ -725,6 +726,7 @@ export class DashboardComponent implements OnInit {
   selectedMonth = new Date().getMonth() + 1;
   revenuAnnuel = 0;
   revenuMensuel = 0;
+  private revenusParMois: { [mois: number]: number } = {};
   months = [
     { value: 1, name: 'Janvier' },
     { value: 2, name: 'Février' },
@@ -746,6 +748,7 @@ export class DashboardComponent implements OnInit {
   showLogoutPopup = false;
   logoutPopupTitle = '';
   logoutPopupMessage = '';
+  private liveUpdates?: Subscription;
 
   constructor(
     private authService: AuthService,
@@ -762,13 +765,21 @@ export class DashboardComponent implements OnInit {
         this.notificationService.connectWebSocket();
         if (user.role === 'ADMIN') {
           this.loadRevenue();
-          this.loadRevenuMensuel();
         }
         // Ajouter des notifications de test
         this.addTestNotifications();
       }
     });
     this.loadDashboardData();
+    // Chargement initial puis mises à jour poussées sur /topic/dashboard
+    this.liveUpdates = this.dashboardService.dashboardUpdates().subscribe(update => {
+      this.stats = update.stats;
+      this.recentRendezVous = this.dashboardService.mergeRecent(this.recentRendezVous, update.nouveaux);
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.liveUpdates?.unsubscribe();
   }
 
   loadDashboardData(): void {
@@ -913,33 +924,30 @@ export class DashboardComponent implements OnInit {
     return this.currentUser?.role === 'ADMIN';
   }
 
+  // Revenus des douze mois de l'année en un seul appel ; le changement de mois les relit sans requête
   loadRevenue(): void {
-    this.dashboardService.getRevenuAnnuel(this.selectedYear).subscribe({
+    this.dashboardService.getRevenusParMois(this.selectedYear).subscribe({
       next: (data) => {
         this.revenuAnnuel = data.revenuAnnuel || 0;
+        this.revenusParMois = {};
+        (data.mois || []).forEach((m: any) => this.revenusParMois[m.mois] = m.revenuMensuel || 0);
+        this.loadRevenuMensuel();
       },
       error: (error) => {
-        console.warn('Erreur chargement revenus annuels:', error);
+        console.warn('Erreur chargement revenus:', error);
         this.revenuAnnuel = 0;
+        this.revenusParMois = {};
+        this.revenuMensuel = 0;
       }
     });
   }
 
   loadRevenuMensuel(): void {
-    this.dashboardService.getRevenuMensuel(this.selectedYear, this.selectedMonth).subscribe({
-      next: (data) => {
-        this.revenuMensuel = data.revenuMensuel || 0;
-      },
-      error: (error) => {
-        console.warn('Erreur chargement revenus mensuels:', error);
-        this.revenuMensuel = 0;
-      }
-    });
+    this.revenuMensuel = this.revenusParMois[Number(this.selectedMonth)] || 0;
   }
 
   onYearChange(): void {
     this.loadRevenue();
-    this.loadRevenuMensuel();
   }
 
   onMonthChange(): void {
@@ -1,4 +1,5 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { RouterModule, Router } from '@angular/router';
 import { FormsModule } from '@angular/forms';
@@ -302,7 +303,7 @@ import { LogoutPopupComponent } from '../shared/logout-popup.component';
     .year-label { font-size: 1.1rem; opacity: 0.9; }
   `]
 })
-export class MedecinDashboardComponent implements OnInit {
+export class MedecinDashboardComponent implements OnInit, OnDestroy {
   currentUser: User | null = null;
   stats: any = {};
   todayAppointments: any[] = [];
@@ -319,6 +320,7 @@ export class MedecinDashboardComponent implements OnInit {
   logoutPopupMessage = '';
   revenuAnnuel = 0;
   revenuMensuel = 0;
+  private revenusParMois: { [mois: number]: number } = {};
   selectedYear = new Date().getFullYear();
   selectedMonth = new Date().getMonth() + 1;
   years = [2023, 2024, 2025, 2026];
@@ -336,6 +338,7 @@ export class MedecinDashboardComponent implements OnInit {
     { value: 11, name: 'Novembre' },
     { value: 12, name: 'Décembre' }
   ];
+  private liveUpdates = new Subscription();
 
   constructor(
     private authService: AuthService,
@@ -352,9 +355,11 @@ export class MedecinDashboardComponent implements OnInit {
         this.notificationService.connectWebSocket();
         this.subscribeToNotifications();
         this.loadData(); // Charger après avoir l'utilisateur
+        if (user.id) {
+          this.subscribeToLiveUpdates(user.id);
+        }
         if (user.role === 'ADMIN') {
           this.loadRevenuAnnuel();
-          this.loadRevenuMensuel();
         }
         // Ajouter quelques notifications de test
         this.addTestNotifications();
@@ -362,6 +367,19 @@ export class MedecinDashboardComponent implements OnInit {
     });
   }
 
+  ngOnDestroy(): void {
+    this.liveUpdates.unsubscribe();
+  }
+
+  // Mises à jour poussées sur /topic/dashboard et /topic/dashboard/medecin/{id}
+  private subscribeToLiveUpdates(medecinId: number): void {
+    this.liveUpdates.unsubscribe();
+    this.liveUpdates = new Subscription();
+    this.liveUpdates.add(this.dashboardService.medecinStatsUpdates(medecinId).subscribe(stats => this.stats = stats));
+    this.liveUpdates.add(this.dashboardService.dashboardUpdates().subscribe(update =>
+      this.todayAppointments = this.dashboardService.mergeRecent(this.todayAppointments, update.nouveaux)));
+  }
+
   loadData(): void {
     if (this.currentUser?.id) {
       this.dashboardService.getMedecinStats(this.currentUser.id).subscribe({
@@ -385,33 +403,30 @@ export class MedecinDashboardComponent implements OnInit {
     });
   }
 
+  // Revenus des douze mois de l'année en un seul appel ; le changement de mois les relit sans requête
   loadRevenuAnnuel(): void {
-    this.dashboardService.getRevenuAnnuel(this.selectedYear).subscribe({
+    this.dashboardService.getRevenusParMois(this.selectedYear).subscribe({
       next: (data) => {
-        this.revenuAnnuel = data.revenuAnnuel;
+        this.revenuAnnuel = data.revenuAnnuel || 0;
+        this.revenusParMois = {};
+        (data.mois || []).forEach((m: any) => this.revenusParMois[m.mois] = m.revenuMensuel || 0);
+        this.loadRevenuMensuel();
       },
       error: (error) => {
-        console.warn('Erreur chargement revenus annuels:', error);
+        console.warn('Erreur chargement revenus:', error);
         this.revenuAnnuel = 0;
+        this.revenusParMois = {};
+        this.revenuMensuel = 0;
       }
     });
   }
 
   loadRevenuMensuel(): void {
-    this.dashboardService.getRevenuMensuel(this.selectedYear, this.selectedMonth).subscribe({
-      next: (data) => {
-        this.revenuMensuel = data.revenuMensuel;
-      },
-      error: (error) => {
-        console.warn('Erreur chargement revenus mensuels:', error);
-        this.revenuMensuel = 0;
-      }
-    });
+    this.revenuMensuel = this.revenusParMois[Number(this.selectedMonth)] || 0;
   }
 
   onYearChange(): void {
     this.loadRevenuAnnuel();
-    this.loadRevenuMensuel();
   }
 
   onMonthChange(): void {
@@ -490,6 +505,7 @@ export class MedecinDashboardComponent implements OnInit {
       case 'CONFIRME': return 'Confirmé';
       case 'ANNULE': return 'Annulé';
       case 'TERMINE': return 'Terminé';
+      case 'ABSENT': return 'Absent';
       case 'EN_ATTENTE': return 'En attente';
       default: return statut;
     }
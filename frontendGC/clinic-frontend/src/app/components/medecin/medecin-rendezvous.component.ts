@@ -360,6 +360,7 @@ export class MedecinRendezVousComponent implements OnInit {
       case 'CONFIRME': return 'Confirmé';
       case 'ANNULE': return 'Annulé';
       case 'TERMINE': return 'Terminé';
+      case 'ABSENT': return 'Absent';
       case 'EN_ATTENTE': return 'En attente';
       default: return statut;
     }
@@ -242,6 +242,7 @@ export class PatientHistoryModalComponent implements OnChanges {
       case 'CONFIRME': return 'Confirmé';
       case 'ANNULE': return 'Annulé';
       case 'TERMINE': return 'Terminé';
+      case 'ABSENT': return 'Absent';
       default: return statut || 'Non défini';
     }
   }
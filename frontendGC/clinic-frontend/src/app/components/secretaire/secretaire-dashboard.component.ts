@@ -1,4 +1,5 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { RouterModule, Router } from '@angular/router';
 import { FormsModule } from '@angular/forms';
@@ -249,7 +250,7 @@ import { ChatService } from '../../services/chat.service';
     .global-footer { background: #f8f9fa; border-top: 1px solid #dee2e6; padding: 1rem 0; text-align: center; color: #666; }
   `]
 })
-export class SecretaireDashboardComponent implements OnInit {
+export class SecretaireDashboardComponent implements OnInit, OnDestroy {
   currentUser: User | null = null;
   stats: any = {};
   todayAppointments: any[] = [];
@@ -261,6 +262,7 @@ export class SecretaireDashboardComponent implements OnInit {
   showChat = false;
   selectedChatUser: any = null;
   totalUnreadMessages = 0;
+  private liveUpdates?: Subscription;
 
   constructor(
     private authService: AuthService,
@@ -279,6 +281,15 @@ export class SecretaireDashboardComponent implements OnInit {
       }
     });
     this.loadData();
+    // Chargement initial puis mises à jour poussées sur /topic/dashboard
+    this.liveUpdates = this.dashboardService.dashboardUpdates().subscribe(update => {
+      this.stats = update.stats;
+      this.todayAppointments = this.dashboardService.mergeRecent(this.todayAppointments, update.nouveaux);
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.liveUpdates?.unsubscribe();
   }
 
   loadData(): void {
@@ -627,6 +627,7 @@ export class SecretaireRendezVousComponent implements OnInit {
       case 'CONFIRME': return 'Confirmé';
       case 'ANNULE': return 'Annulé';
       case 'TERMINE': return 'Terminé';
+      case 'ABSENT': return 'Absent';
       case 'EN_ATTENTE': return 'En attente';
       default: return statut;
     }
@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpResponse } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { WebSocketService } from './websocket.service';
 
 export interface DashboardStats {
   totalPatients: number;
@@ -10,13 +11,21 @@ export interface DashboardStats {
   rendezVousEnAttente: number;
 }
 
+// Message de /topic/dashboard : compteurs, écart depuis le message précédent, rendez-vous créés
+export interface DashboardUpdate {
+  stats: DashboardStats;
+  deltas?: DashboardStats;
+  nouveaux: any[];
+  emisLe: string;
+}
+
 @Injectable({
   providedIn: 'root'
 })
 export class DashboardService {
   private apiUrl = 'http://localhost:8080/api';
 
-  constructor(private http: HttpClient) {}
+  constructor(private http: HttpClient, private webSocketService: WebSocketService) {}
 
   getStats(): Observable<DashboardStats> {
     return this.http.get<DashboardStats>(`${this.apiUrl}/dashboard/stats`);
@@ -30,12 +39,29 @@ export class DashboardService {
     return this.http.get<any>(`${this.apiUrl}/dashboard/medecin/${medecinId}/stats`);
   }
 
-  getRevenuAnnuel(annee: number): Observable<any> {
-    return this.http.get(`http://localhost:8080/api/factures/revenus/${annee}`);
+  // Mises à jour poussées par le serveur (au plus une par intervalle) : plus de rechargement périodique
+  dashboardUpdates(): Observable<DashboardUpdate> {
+    return this.webSocketService.watch<DashboardUpdate>('/topic/dashboard');
+  }
+
+  medecinStatsUpdates(medecinId: number): Observable<any> {
+    return this.webSocketService.watch<any>(`/topic/dashboard/medecin/${medecinId}`);
+  }
+
+  // Fusionne les rendez-vous créés dans la liste récente (plus récents d'abord, 5 entrées)
+  mergeRecent(recent: any[], nouveaux: any[]): any[] {
+    if (!nouveaux?.length) {
+      return recent;
+    }
+    const ids = new Set(nouveaux.map(rdv => rdv.id));
+    return [...nouveaux, ...recent.filter(rdv => !ids.has(rdv.id))]
+      .sort((a, b) => (b.dateHeure || '').localeCompare(a.dateHeure || ''))
+      .slice(0, 5);
   }
 
-  getRevenuMensuel(annee: number, mois: number): Observable<any> {
-    return this.http.get(`http://localhost:8080/api/factures/revenus/${annee}/${mois}`);
+  // Douze mois de l'année en un seul appel : { annee, revenuAnnuel, mois: [{ mois, revenuMensuel }] }
+  getRevenusParMois(annee: number): Observable<any> {
+    return this.http.get(`http://localhost:8080/api/factures/revenus/${annee}/par-mois`);
   }
 
   downloadFacturePdf(factureId: number): Observable<any> {
@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { Client } from '@stomp/stompjs';
+import { Client, StompSubscription } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { BehaviorSubject, Observable } from 'rxjs';
 import { AuthService } from './auth.service';
@@ -13,6 +13,13 @@ export interface Notification {
   recipientId: number;
 }
 
+// Abonnement ouvert par watch() ; subscription vaut undefined tant que la connexion n'est pas établie
+interface Watcher {
+  destination: string;
+  onMessage: (body: any) => void;
+  subscription?: StompSubscription;
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -21,6 +28,8 @@ export class WebSocketService {
   private connected = false;
   private notificationsSubject = new BehaviorSubject<Notification[]>([]);
   public notifications$ = this.notificationsSubject.asObservable();
+  // abonnements de watch() encore actifs : stompjs ne les rétablit pas après une reconnexion
+  private watchers = new Set<Watcher>();
 
   constructor(private authService: AuthService) {
     this.client = new Client();
@@ -39,11 +48,19 @@ export class WebSocketService {
       console.log('WebSocket connecté avec succès');
       this.connected = true;
       this.subscribeToNotifications();
+      this.watchers.forEach(watcher => this.subscribeWatcher(watcher));
     };
 
     this.client.onDisconnect = () => {
       console.log('WebSocket déconnecté');
       this.connected = false;
+      this.watchers.forEach(watcher => watcher.subscription = undefined);
+    };
+
+    // coupure réseau : les abonnements du serveur sont perdus, repris au prochain onConnect
+    this.client.onWebSocketClose = () => {
+      this.connected = false;
+      this.watchers.forEach(watcher => watcher.subscription = undefined);
     };
 
     this.client.onStompError = (frame) => {
@@ -103,6 +120,29 @@ export class WebSocketService {
     });
   }
 
+  // Abonnement à une destination STOMP, ouvert dès que la connexion est établie et repris à chaque reconnexion
+  watch<T>(destination: string): Observable<T> {
+    return new Observable<T>(observer => {
+      const watcher: Watcher = { destination, onMessage: (body) => observer.next(body) };
+      this.watchers.add(watcher);
+      if (this.client.connected) {
+        this.subscribeWatcher(watcher);
+      } else {
+        this.connect();
+      }
+      return () => {
+        this.watchers.delete(watcher);
+        if (this.client.connected) {
+          watcher.subscription?.unsubscribe();
+        }
+      };
+    });
+  }
+
+  private subscribeWatcher(watcher: Watcher): void {
+    watcher.subscription = this.client.subscribe(watcher.destination, (message) => watcher.onMessage(JSON.parse(message.body)));
+  }
+
   private addNotification(notification: Notification): void {
     const currentNotifications = this.notificationsSubject.value;
     const updatedNotifications = [notification, ...currentNotifications].slice(0, 50); // Garder max 50 notifications
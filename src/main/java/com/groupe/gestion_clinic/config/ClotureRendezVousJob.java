@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.services.ClotureRendezVousService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz de clôture des rendez-vous passés (TERMINE / ABSENT).
+ * Job store JDBC en cluster : un seul noeud exécute chaque déclenchement.
+ */
+@DisallowConcurrentExecution
+public class ClotureRendezVousJob extends QuartzJobBean {
+
+    @Autowired
+    private ClotureRendezVousService clotureRendezVousService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        clotureRendezVousService.cloturer();
+    }
+}
@@ -0,0 +1,37 @@
+package com.groupe.gestion_clinic.config;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Planification de la clôture automatique des rendez-vous, fréquence réglée par
+ * app.rendezvous.cloture.cron.
+ */
+@Configuration
+public class ClotureSchedulerConfig {
+
+    @Bean
+    public JobDetail clotureRendezVousJobDetail() {
+        return JobBuilder.newJob(ClotureRendezVousJob.class)
+                .withIdentity("clotureRendezVousJob", "rendezvous")
+                .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    @Bean
+    public Trigger clotureRendezVousTrigger(JobDetail clotureRendezVousJobDetail,
+                                            @Value("${app.rendezvous.cloture.cron:0 */15 * * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(clotureRendezVousJobDetail)
+                .withIdentity("clotureRendezVousTrigger", "rendezvous")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.services.FacturationLotService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz de facturation par lot du mois écoulé.
+ * Job store JDBC en cluster : un seul noeud exécute chaque déclenchement, et un déclenchement
+ * interrompu par l'arrêt du noeud est rejoué (requestRecovery) à partir du dernier paquet commité.
+ */
+@DisallowConcurrentExecution
+public class FacturationLotJob extends QuartzJobBean {
+
+    @Autowired
+    private FacturationLotService facturationLotService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        facturationLotService.facturerMoisPrecedent();
+    }
+}
@@ -0,0 +1,37 @@
+package com.groupe.gestion_clinic.config;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Planification de la facturation par lot, le 1er de chaque mois par défaut
+ * (app.facturation.lot.cron).
+ */
+@Configuration
+public class FacturationLotSchedulerConfig {
+
+    @Bean
+    public JobDetail facturationLotJobDetail() {
+        return JobBuilder.newJob(FacturationLotJob.class)
+                .withIdentity("facturationLotJob", "facturation")
+                .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    @Bean
+    public Trigger facturationLotTrigger(JobDetail facturationLotJobDetail,
+                                         @Value("${app.facturation.lot.cron:0 0 2 1 * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(facturationLotJobDetail)
+                .withIdentity("facturationLotTrigger", "facturation")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.groupe.gestion_clinic.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/*
+ * Renumérotation unique des numéros de facture en double, avant la contrainte d'unicité
+ * idx_facture_numero (@Index unique de Facture).
+ *
+ * ddl-auto (update) pose la contrainte au démarrage de l'EntityManagerFactory ; sur une base où
+ * l'ancienne numérotation a produit des doublons, l'ajout échoue sans bloquer le démarrage et
+ * l'unicité n'est jamais garantie. Ce bean est initialisé avant l'EntityManagerFactory
+ * (facturesAvantSchema) : tant que la contrainte n'existe pas, chaque doublon autre que la
+ * facture la plus ancienne (plus petit id) devient <numéro>-<id>, le numéro d'origine reste
+ * lisible. Une fois la contrainte posée, plus rien n'est fait.
+ * Table absente (première installation) : rien à renuméroter.
+ */
+@Configuration
+public class FactureNumerosInitializer {
+
+    static final String TABLE = "facture";
+    static final String CONTRAINTE = "idx_facture_numero";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // JdbcTemplate propre : celui de l'auto-configuration attend les initialisations de la base
+    public FactureNumerosInitializer(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor facturesAvantSchema() {
+        return new EntityManagerFactoryDependsOnPostProcessor(FactureNumerosInitializer.class);
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            int renumerotees = renumeroterDoublons();
+            if (renumerotees > 0) {
+                System.out.println(renumerotees + " facture(s) en double renumérotée(s) avant la contrainte " + CONTRAINTE);
+            }
+        } catch (Exception e) {
+            System.err.println("Numéros de facture en double non renumérotés: " + e.getMessage());
+        }
+    }
+
+    // Nombre de factures renumérotées ; 0 si la contrainte existe déjà ou si la table est absente
+    int renumeroterDoublons() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.tables WHERE lower(table_name) = ?", Integer.class, TABLE);
+        if (tables == null || tables == 0) {
+            return 0;
+        }
+        Integer contraintes = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.table_constraints WHERE lower(constraint_name) = ?",
+                Integer.class, CONTRAINTE);
+        if (contraintes != null && contraintes > 0) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE facture f SET numero_facture = f.numero_facture || '-' || CAST(f.id AS VARCHAR(20)) "
+                + "WHERE EXISTS (SELECT 1 FROM facture g WHERE g.numero_facture = f.numero_facture AND g.id < f.id)");
+    }
+}
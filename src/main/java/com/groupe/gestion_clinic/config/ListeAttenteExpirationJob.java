@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.services.ListeAttenteService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz d'expiration des créneaux proposés aux patients de la liste d'attente :
+ * la demande retourne en attente et le créneau est proposé à la demande suivante.
+ */
+@DisallowConcurrentExecution
+public class ListeAttenteExpirationJob extends QuartzJobBean {
+
+    @Autowired
+    private ListeAttenteService listeAttenteService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        listeAttenteService.expirerPropositions();
+    }
+}
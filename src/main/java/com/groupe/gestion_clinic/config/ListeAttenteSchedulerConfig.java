@@ -0,0 +1,37 @@
+package com.groupe.gestion_clinic.config;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Planification de l'expiration des propositions de la liste d'attente, fréquence réglée par
+ * app.liste-attente.expiration.cron.
+ */
+@Configuration
+public class ListeAttenteSchedulerConfig {
+
+    @Bean
+    public JobDetail listeAttenteExpirationJobDetail() {
+        return JobBuilder.newJob(ListeAttenteExpirationJob.class)
+                .withIdentity("listeAttenteExpirationJob", "listeAttente")
+                .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    @Bean
+    public Trigger listeAttenteExpirationTrigger(JobDetail listeAttenteExpirationJobDetail,
+                                                 @Value("${app.liste-attente.expiration.cron:0 * * * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(listeAttenteExpirationJobDetail)
+                .withIdentity("listeAttenteExpirationTrigger", "listeAttente")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/*
+ * Contraintes d'exclusion PostgreSQL sur la table rendezvous : deux rendez-vous actifs
+ * (non annulés, avec une fin après le début) d'un même médecin, d'un même patient ou dans
+ * une même salle ne peuvent pas se chevaucher, quel que soit le noeud qui les enregistre.
+ *
+ * ddl-auto ne sait pas générer ce type de contrainte, elles sont donc ajoutées au démarrage
+ * si elles n'existent pas encore. Ignoré sur les autres bases (H2 en test).
+ *
+ * ddl-auto ne met pas non plus à jour le CHECK généré sur l'ordinal de statut quand
+ * StatutRendezVous gagne une valeur : il est élargi ici.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RendezvousConstraintsInitializer {
+
+    public static final String EXCLUSION_MEDECIN = "excl_rendezvous_medecin_creneau";
+    public static final String EXCLUSION_PATIENT = "excl_rendezvous_patient_creneau";
+    public static final String EXCLUSION_SALLE = "excl_rendezvous_salle_creneau";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Violation d'une des contraintes d'exclusion (chevauchement enregistré par un autre noeud)
+    public static boolean estChevauchement(DataIntegrityViolationException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+        return cause.contains(EXCLUSION_MEDECIN) || cause.contains(EXCLUSION_PATIENT) || cause.contains(EXCLUSION_SALLE);
+    }
+
+    @Bean
+    public CommandLineRunner initRendezvousConstraints() {
+        return args -> {
+            try {
+                String base = jdbcTemplate.execute((java.sql.Connection connection) ->
+                        connection.getMetaData().getDatabaseProductName());
+                if (!"PostgreSQL".equalsIgnoreCase(base)) {
+                    return;
+                }
+            } catch (Exception e) {
+                System.err.println("Contraintes des rendez-vous non appliquées: " + e.getMessage());
+                return;
+            }
+            // indépendant de btree_gist : le CHECK est élargi même sans les contraintes d'exclusion
+            try {
+                elargirControleStatut();
+            } catch (Exception e) {
+                System.err.println("Contrôle du statut des rendez-vous non élargi: " + e.getMessage());
+            }
+            try {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            } catch (Exception e) {
+                System.err.println("Contraintes d'exclusion des rendez-vous non appliquées: " + e.getMessage());
+                return;
+            }
+            for (String[] contrainte : List.of(
+                    new String[]{EXCLUSION_MEDECIN, "medecin_id"},
+                    new String[]{EXCLUSION_PATIENT, "patient_id"},
+                    // même normalisation que SalleOccupationService.cle
+                    new String[]{EXCLUSION_SALLE, "(lower(trim(salle)))"})) {
+                try {
+                    ajouterContrainte(contrainte[0], contrainte[1]);
+                } catch (Exception e) {
+                    // échoue notamment si l'historique contient déjà des chevauchements
+                    System.err.println("Contrainte d'exclusion " + contrainte[0] + " non appliquée: " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    private void elargirControleStatut() {
+        int max = StatutRendezVous.values().length - 1;
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = 'rendezvous_statut_check'", String.class);
+        if (definitions.isEmpty() || definitions.get(0).contains("<= " + max + ")")) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE rendezvous DROP CONSTRAINT rendezvous_statut_check");
+        jdbcTemplate.execute("ALTER TABLE rendezvous ADD CONSTRAINT rendezvous_statut_check CHECK (statut BETWEEN 0 AND " + max + ")");
+        System.out.println("Contrôle rendezvous_statut_check élargi à " + max);
+    }
+
+    private void ajouterContrainte(String nom, String colonne) {
+        Integer existe = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = ?", Integer.class, nom);
+        if (existe != null && existe > 0) {
+            return;
+        }
+        // statut est stocké en ordinal
+        jdbcTemplate.execute("ALTER TABLE rendezvous ADD CONSTRAINT " + nom
+                + " EXCLUDE USING gist (" + colonne + " WITH =, tsrange(date_heure_debut, date_heure_fin) WITH &&)"
+                + " WHERE (statut <> " + StatutRendezVous.ANNULE.ordinal()
+                + " AND " + colonne + " IS NOT NULL AND date_heure_fin > date_heure_debut)");
+        System.out.println("Contrainte d'exclusion ajoutée: " + nom);
+    }
+}
@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.services.StatistiqueService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz de consolidation nocturne des statistiques quotidiennes.
+ * Job store JDBC en cluster : un seul noeud exécute chaque déclenchement.
+ */
+@DisallowConcurrentExecution
+public class StatistiqueJob extends QuartzJobBean {
+
+    @Autowired
+    private StatistiqueService statistiqueService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        statistiqueService.consolider();
+    }
+}
@@ -0,0 +1,37 @@
+package com.groupe.gestion_clinic.config;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Planification de la consolidation des statistiques, chaque nuit par défaut
+ * (app.statistiques.cron).
+ */
+@Configuration
+public class StatistiqueSchedulerConfig {
+
+    @Bean
+    public JobDetail statistiqueJobDetail() {
+        return JobBuilder.newJob(StatistiqueJob.class)
+                .withIdentity("statistiqueJob", "statistiques")
+                .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    @Bean
+    public Trigger statistiqueTrigger(JobDetail statistiqueJobDetail,
+                                      @Value("${app.statistiques.cron:0 30 1 * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(statistiqueJobDetail)
+                .withIdentity("statistiqueTrigger", "statistiques")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+}
@@ -2,7 +2,10 @@ package com.groupe.gestion_clinic.controllers;
 
 import com.groupe.gestion_clinic.model.*;
 import com.groupe.gestion_clinic.repositories.UtilisateurRepository;
+import com.groupe.gestion_clinic.services.AgendaService;
+import com.groupe.gestion_clinic.services.EffectifModifieEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +18,8 @@ public class AdminController {
 
     private final UtilisateurRepository utilisateurRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AgendaService agendaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PostMapping("/reset")
     public ResponseEntity<?> resetAdmin() {
@@ -89,7 +94,11 @@ public class AdminController {
             user.setMotDePasse(passwordEncoder.encode(motDePasse));
             user.setRole(userRole);
             
-            return ResponseEntity.ok(utilisateurRepository.save(user));
+            Utilisateur saved = utilisateurRepository.save(user);
+            if (saved instanceof Medecin) {
+                eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.MEDECIN, 1));
+            }
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur: " + e.getMessage());
         }
@@ -114,7 +123,11 @@ public class AdminController {
             user.setEmail(email);
             user.setRole(Role.valueOf(role));
             
-            return ResponseEntity.ok(utilisateurRepository.save(user));
+            Utilisateur saved = utilisateurRepository.save(user);
+            if (saved instanceof Medecin medecin) {
+                agendaService.renommerMedecin(medecin);
+            }
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur: " + e.getMessage());
         }
@@ -123,7 +136,11 @@ public class AdminController {
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Integer id) {
         try {
+            boolean medecin = utilisateurRepository.findById(id).filter(Medecin.class::isInstance).isPresent();
             utilisateurRepository.deleteById(id);
+            if (medecin) {
+                eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.MEDECIN, -1));
+            }
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur: " + e.getMessage());
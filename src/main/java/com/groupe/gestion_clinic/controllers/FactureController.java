@@ -1,13 +1,23 @@
 package com.groupe.gestion_clinic.controllers;
 
 import com.groupe.gestion_clinic.dto.FactureDto;
+import com.groupe.gestion_clinic.dto.LotFacturationDto;
+import com.groupe.gestion_clinic.model.ModeFacturation;
 import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.services.FacturationLotService;
 import com.groupe.gestion_clinic.services.FacturationService;
+import com.groupe.gestion_clinic.services.FactureExportService;
+import com.groupe.gestion_clinic.services.PdfCacheService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +28,8 @@ import java.util.Map;
 public class FactureController {
 
     private final FacturationService facturationService;
+    private final FacturationLotService facturationLotService;
+    private final FactureExportService factureExportService;
 
     @PostMapping("/creer")
     public ResponseEntity<FactureDto> creerFacture(@RequestBody Map<String, Object> request) {
@@ -54,15 +66,56 @@ public class FactureController {
         ));
     }
 
+    // Revenus des douze mois de l'année en un appel (au lieu d'un appel par mois)
+    @GetMapping("/revenus/{annee}/par-mois")
+    public ResponseEntity<Map<String, Object>> getRevenusParMois(@PathVariable int annee) {
+        Map<Integer, BigDecimal> revenus = facturationService.getRevenusParMois(annee);
+        List<Map<String, Object>> mois = revenus.entrySet().stream()
+                .map(e -> Map.<String, Object>of("mois", e.getKey(), "revenuMensuel", e.getValue()))
+                .toList();
+        BigDecimal total = revenus.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return ResponseEntity.ok(Map.of(
+            "annee", annee,
+            "revenuAnnuel", total,
+            "mois", mois
+        ));
+    }
+
+    // Facturation par lot des prescriptions non facturées d'un mois (reprend un passage interrompu)
+    @PostMapping("/lots")
+    public ResponseEntity<LotFacturationDto> facturerMois(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth mois,
+                                                          @RequestParam(required = false) ModeFacturation mode) {
+        return ResponseEntity.ok(facturationLotService.facturer(mois, mode));
+    }
+
+    @GetMapping("/lots/{id}")
+    public ResponseEntity<LotFacturationDto> getLot(@PathVariable Integer id) {
+        return ResponseEntity.ok(facturationLotService.getLot(id));
+    }
+
+    // Archive ZIP des PDF des factures émises entre deux dates incluses, écrite en flux
+    @GetMapping(value = "/export", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> exporterFactures(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        factureExportService.verifierPeriode(debut, fin);
+        return ResponseEntity.ok()
+                .contentType(org.springframework.http.MediaType.parseMediaType("application/zip"))
+                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"factures_" + debut + "_" + fin + ".zip\"")
+                .body(out -> factureExportService.exporter(debut, fin, out));
+    }
+
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> getFacturePdf(@PathVariable Integer id) {
-        byte[] pdfBytes = facturationService.generateFacturePdf(id);
+    public ResponseEntity<Resource> getFacturePdf(@PathVariable Integer id) {
+        // servi depuis le cache disque, sans copie complète en mémoire
+        PdfCacheService.Pdf pdf = facturationService.getFacturePdf(id);
         
         org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "facture_" + id + ".pdf");
+        headers.setContentLength(pdf.taille());
         
-        return new ResponseEntity<>(pdfBytes, headers, org.springframework.http.HttpStatus.OK);
+        return new ResponseEntity<>(pdf.contenu(), headers, org.springframework.http.HttpStatus.OK);
     }
 
     @PutMapping("/{id}/status")
@@ -0,0 +1,47 @@
+package com.groupe.gestion_clinic.controllers;
+
+import com.groupe.gestion_clinic.dto.ListeAttenteDto;
+import com.groupe.gestion_clinic.dto.requestDto.ListeAttenteRequestDto;
+import com.groupe.gestion_clinic.services.ListeAttenteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Liste d'attente", description = "Waitlist backfilling cancelled appointments")
+@RestController
+@RequestMapping("/api/liste-attente")
+@CrossOrigin(origins = {"http://localhost:4200", "http://localhost:4203"})
+@RequiredArgsConstructor
+public class ListeAttenteController {
+
+    private final ListeAttenteService listeAttenteService;
+
+    @Operation(summary = "Join a doctor's waitlist", description = "The patient is offered (or booked into) the next compatible cancelled slot")
+    @PostMapping
+    public ResponseEntity<ListeAttenteDto> inscrire(@RequestBody ListeAttenteRequestDto request) {
+        return ResponseEntity.ok(listeAttenteService.inscrire(request));
+    }
+
+    @Operation(summary = "Open waitlist of a doctor", description = "Pending and offered requests, in registration order")
+    @GetMapping("/medecin/{medecinId}")
+    public ResponseEntity<List<ListeAttenteDto>> getListeAttente(@PathVariable Integer medecinId) {
+        return ResponseEntity.ok(listeAttenteService.getListeAttente(medecinId));
+    }
+
+    @Operation(summary = "Accept an offered slot", description = "Books the slot offered after a cancellation, if still valid")
+    @PostMapping("/{id}/accepter")
+    public ResponseEntity<ListeAttenteDto> accepter(@PathVariable Integer id) {
+        return ResponseEntity.ok(listeAttenteService.accepter(id));
+    }
+
+    @Operation(summary = "Leave the waitlist")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> retirer(@PathVariable Integer id) {
+        listeAttenteService.retirer(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,11 +1,14 @@
 package com.groupe.gestion_clinic.controllers;
 
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.PatientDto;
 import com.groupe.gestion_clinic.dto.PatientHistoryDto;
 import com.groupe.gestion_clinic.services.PatientService;
+import com.groupe.gestion_clinic.services.PdfCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -52,6 +55,14 @@ public class PatientController {
         return ResponseEntity.ok(((com.groupe.gestion_clinic.services.serviceImpl.PatientServiceImpl) patientService).findAllPaginated(page, size));
     }
 
+    // mode curseur : actif dès que le paramètre cursor est présent (vide pour la première page)
+    @GetMapping(value = "/paginated", params = "cursor")
+    public ResponseEntity<CursorPageDto<PatientDto>> findAllPatientsCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(((com.groupe.gestion_clinic.services.serviceImpl.PatientServiceImpl) patientService).findAllCursor(cursor, size));
+    }
+
     @Operation(summary = "Delete Patient by ID", description = "Deletes a Patient entity by its ID")
     @DeleteMapping("/{patientId}")
     public ResponseEntity<PatientDto> deletePatient(@PathVariable Integer patientId) {
@@ -61,12 +72,13 @@ public class PatientController {
 
     @Operation(summary = "Generate Patient History PDF", description = "Generates a PDF with complete patient history")
     @GetMapping("/{patientId}/history/pdf")
-    public ResponseEntity<byte[]> generatePatientHistoryPdf(@PathVariable Integer patientId) {
-        byte[] pdfBytes = patientService.generatePatientHistoryPdf(patientId);
+    public ResponseEntity<Resource> generatePatientHistoryPdf(@PathVariable Integer patientId) {
+        PdfCacheService.Pdf pdf = patientService.getPatientHistoryPdf(patientId);
         return ResponseEntity.ok()
                 .header("Content-Type", "application/pdf")
                 .header("Content-Disposition", "attachment; filename=historique_patient_" + patientId + ".pdf")
-                .body(pdfBytes);
+                .contentLength(pdf.taille())
+                .body(pdf.contenu());
     }
 
     @Operation(summary = "Get Patient History Data", description = "Retrieves complete patient history data")
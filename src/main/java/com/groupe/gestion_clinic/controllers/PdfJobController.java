@@ -0,0 +1,62 @@
+package com.groupe.gestion_clinic.controllers;
+
+import com.groupe.gestion_clinic.dto.PdfJobDto;
+import com.groupe.gestion_clinic.services.PdfCacheService;
+import com.groupe.gestion_clinic.services.PdfJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pdf/jobs")
+@CrossOrigin(origins = {"http://localhost:4200", "http://localhost:4203"})
+@RequiredArgsConstructor
+public class PdfJobController {
+
+    private final PdfJobService pdfJobService;
+
+    // Met un rendu PDF en file : 202 et suivi sur /api/pdf/jobs/{jobId} ou /topic/pdf/jobs/{jobId}, 429 si la file est pleine
+    @PostMapping
+    public ResponseEntity<PdfJobDto> soumettre(@RequestParam PdfJobDto.Type type, @RequestParam Integer id) {
+        PdfJobDto job = pdfJobService.soumettre(type, id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/pdf/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<PdfJobDto> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(pdfJobService.getJob(jobId));
+    }
+
+    /*
+     * Document du job ; 202 avec l'état du job tant que le rendu n'est pas terminé,
+     * 410 si le document a quitté le cache depuis, 404 pour un job inconnu ou expiré
+     */
+    @GetMapping("/{jobId}/document")
+    public ResponseEntity<?> telecharger(@PathVariable String jobId) {
+        PdfCacheService.Pdf pdf = pdfJobService.telecharger(jobId);
+        if (pdf == null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(pdfJobService.getJob(jobId));
+        }
+        PdfJobDto job = pdfJobService.getJob(jobId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", job.getType().name().toLowerCase() + "_" + job.getEntiteId() + ".pdf");
+        headers.setContentLength(pdf.taille());
+        return new ResponseEntity<>(pdf.contenu(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/metriques")
+    public ResponseEntity<Map<String, Object>> getMetriques() {
+        return ResponseEntity.ok(pdfJobService.getMetriques());
+    }
+}
@@ -1,10 +1,13 @@
 package com.groupe.gestion_clinic.controllers;
 
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.PrescriptionDto;
 import com.groupe.gestion_clinic.dto.requestDto.PrescriptionRequestDto;
 import com.groupe.gestion_clinic.dto.requestDto.MultiplePrescriptionRequestDto;
+import com.groupe.gestion_clinic.services.PdfCacheService;
 import com.groupe.gestion_clinic.services.PrescriptionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -79,6 +82,14 @@ public class PrescriptionController {
         return ResponseEntity.ok(((com.groupe.gestion_clinic.services.serviceImpl.PrescriptionServiceImpl) prescriptionService).getAllPrescriptionsPaginated(page, size));
     }
 
+    // mode curseur : actif dès que le paramètre cursor est présent (vide pour la première page)
+    @GetMapping(value = "/all/paginated", params = "cursor")
+    public ResponseEntity<CursorPageDto<PrescriptionDto>> getAllPrescriptionsCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(((com.groupe.gestion_clinic.services.serviceImpl.PrescriptionServiceImpl) prescriptionService).getAllPrescriptionsCursor(cursor, size));
+    }
+
     @PostMapping("/create-multiple")
     public ResponseEntity<List<PrescriptionDto>> createMultiplePrescriptions(@RequestBody MultiplePrescriptionRequestDto requestDto) {
         List<PrescriptionDto> createdPrescriptions = prescriptionService.createMultiplePrescriptions(requestDto);
@@ -87,15 +98,15 @@ public class PrescriptionController {
 
     //  générer et télécharger une ordonnance (prescription) en format PDF.
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> getPrescriptionPdf(@PathVariable Integer id) {
+    public ResponseEntity<Resource> getPrescriptionPdf(@PathVariable Integer id) {
         /*
-        * Appel du service generatePrescriptionPdf, qui doit "
+        * Appel du service getPrescriptionPdf, qui doit "
         *  Récupérer la prescription depuis la base de données
-        *  Générer un PDF avec PDFBox
-        *  Retourner le contenu du PDF sous forme de byte[
+        *  Servir le PDF du cache disque, ou le générer avec PDFBox si son contenu a changé
+        *  Retourner le fichier sans le charger en mémoire
         *
          * */
-        byte[] pdfBytes = prescriptionService.generatePrescriptionPdf(id);
+        PdfCacheService.Pdf pdf = prescriptionService.getPrescriptionPdf(id);
 
         /*
         * Indique au navigateur ou au client  que le contenu est un fichier PDF
@@ -111,7 +122,9 @@ public class PrescriptionController {
         // contrôle la mise en cache, pour s'assurer que le navigateur télécharge toujours la version la plus récente.
         headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        headers.setContentLength(pdf.taille());
+
+        return new ResponseEntity<>(pdf.contenu(), headers, HttpStatus.OK);
     }
 
 }
@@ -1,14 +1,37 @@
 package com.groupe.gestion_clinic.controllers;
 
+import com.groupe.gestion_clinic.dto.CreneauDisponibleDto;
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.RendezvousImportRapportDto;
+import com.groupe.gestion_clinic.dto.RendezvousResumeDto;
 import com.groupe.gestion_clinic.dto.RendezvousSearchDto;
+import com.groupe.gestion_clinic.dto.SerieRendezVousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieModificationRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieRendezVousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
 import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.services.CalendrierService;
+import com.groupe.gestion_clinic.services.DisponibiliteService;
+import com.groupe.gestion_clinic.services.RendezvousImportService;
 import com.groupe.gestion_clinic.services.RendezvousServiceNew;
+import com.groupe.gestion_clinic.services.SerieRendezVousService;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,9 +41,21 @@ import java.util.List;
 public class RendezvousController {
 
     private final RendezvousServiceNew rendezvousService;
+    private final DisponibiliteService disponibiliteService;
+    private final RendezvousImportService rendezvousImportService;
+    private final SerieRendezVousService serieRendezVousService;
+    private final CalendrierService calendrierService;
     
-    public RendezvousController(@Qualifier("rendezvousServiceNew") RendezvousServiceNew rendezvousService) {
+    public RendezvousController(@Qualifier("rendezvousServiceNew") RendezvousServiceNew rendezvousService,
+                                DisponibiliteService disponibiliteService,
+                                RendezvousImportService rendezvousImportService,
+                                SerieRendezVousService serieRendezVousService,
+                                CalendrierService calendrierService) {
         this.rendezvousService = rendezvousService;
+        this.disponibiliteService = disponibiliteService;
+        this.rendezvousImportService = rendezvousImportService;
+        this.serieRendezVousService = serieRendezVousService;
+        this.calendrierService = calendrierService;
     }
 
     @PostMapping("/create")
@@ -35,6 +70,44 @@ public class RendezvousController {
         }
     }
 
+    // création par lot : un résultat par demande (CREE, CONFLIT, INVALIDE)
+    @PostMapping("/batch")
+    public ResponseEntity<RendezvousImportRapportDto> createRendezVousBatch(@RequestBody List<RendezvousRequestDto> demandes) {
+        return ResponseEntity.ok(rendezvousImportService.importer(demandes));
+    }
+
+    // import CSV lu en flux, envoyé tel quel (text/csv) ou en fichier (multipart, champ "file")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<RendezvousImportRapportDto> importRendezVousCsv(InputStream csv) {
+        return ResponseEntity.ok(rendezvousImportService.importerCsv(csv));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RendezvousImportRapportDto> importRendezVousFichier(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(rendezvousImportService.importerCsv(csv));
+        }
+    }
+
+    // série récurrente (règle FREQ=...;INTERVAL=...;COUNT=...|UNTIL=...)
+    @PostMapping("/series")
+    public ResponseEntity<SerieRendezVousDto> createSerie(@RequestBody SerieRendezVousRequestDto request) {
+        return ResponseEntity.ok(serieRendezVousService.creerSerie(request));
+    }
+
+    // modifie cette occurrence et les suivantes
+    @PutMapping("/series/occurrences/{rendezvousId}")
+    public ResponseEntity<SerieRendezVousDto> updateSerie(@PathVariable Integer rendezvousId,
+                                                          @RequestBody SerieModificationRequestDto modification) {
+        return ResponseEntity.ok(serieRendezVousService.modifierSerie(rendezvousId, modification));
+    }
+
+    // annule cette occurrence et les suivantes, renvoie le nombre de rendez-vous annulés
+    @DeleteMapping("/series/occurrences/{rendezvousId}")
+    public ResponseEntity<Integer> cancelSerie(@PathVariable Integer rendezvousId) {
+        return ResponseEntity.ok(serieRendezVousService.annulerSerie(rendezvousId));
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<RendezvousDto> updateRendezVous(@PathVariable Integer id, @RequestBody Object requestDto) {
         return ResponseEntity.ok(rendezvousService.updateRendezVous(id, requestDto));
@@ -75,6 +148,14 @@ public class RendezvousController {
         return ResponseEntity.ok(rendezvousService.getAllRendezVousPaginated(page, size));
     }
 
+    // mode curseur : actif dès que le paramètre cursor est présent (vide pour la première page)
+    @GetMapping(value = "/all/paginated", params = "cursor")
+    public ResponseEntity<CursorPageDto<RendezvousDto>> getAllRendezVousCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(rendezvousService.getAllRendezVousCursor(cursor, size));
+    }
+
     @GetMapping("/all/upcoming")
     public ResponseEntity<List<RendezvousDto>> getUpcomingRendezVousForMedecin() {
         return ResponseEntity.ok(rendezvousService.getUpcomingRendezVousForMedecin());
@@ -90,9 +171,44 @@ public class RendezvousController {
     }
 
 
+    /*
+     * agenda d'un médecin au format iCalendar, à s'abonner depuis un téléphone ;
+     * If-None-Match identique à l'ETag courant : 304 sans lire l'agenda
+     */
+    @GetMapping(value = "/medecin/{medecinId}/calendar.ics", produces = "text/calendar")
+    public ResponseEntity<StreamingResponseBody> getCalendrierMedecin(@PathVariable Integer medecinId, WebRequest request) {
+        String etag = calendrierService.getEtag(medecinId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Medecin medecin = calendrierService.getMedecin(medecinId);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"medecin-" + medecinId + ".ics\"")
+                .body(out -> calendrierService.ecrireAgenda(medecin, out));
+    }
+
+    // prochains créneaux libres d'un médecin ou de tous les médecins d'une spécialité
+    @GetMapping("/disponibilites")
+    public ResponseEntity<List<CreneauDisponibleDto>> getProchainsCreneauxLibres(
+                                @RequestParam(required = false) Integer medecinId,
+                                @RequestParam(required = false) String specialite,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam(defaultValue = "30") int duree,
+                                @RequestParam(defaultValue = "5") int nombre) {
+        return ResponseEntity.ok(disponibiliteService.getProchainsCreneauxLibres(
+                medecinId, specialite, from, Duration.ofMinutes(duree), nombre));
+    }
+
+
     @PostMapping("/all/search")
-    public ResponseEntity<List<RendezvousDto>> searchRendezVous(@RequestBody RendezvousSearchDto searchDTO) {
-        return ResponseEntity.ok(rendezvousService.searchRendezVous(searchDTO));
+    public ResponseEntity<org.springframework.data.domain.Page<RendezvousResumeDto>> searchRendezVous(
+                                @RequestBody RendezvousSearchDto searchDTO,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(rendezvousService.searchRendezVous(searchDTO, page, size));
     }
 
 
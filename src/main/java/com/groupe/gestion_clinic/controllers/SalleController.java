@@ -0,0 +1,64 @@
+package com.groupe.gestion_clinic.controllers;
+
+import com.groupe.gestion_clinic.dto.SalleDto;
+import com.groupe.gestion_clinic.dto.SalleOccupationDto;
+import com.groupe.gestion_clinic.services.SalleOccupationService;
+import com.groupe.gestion_clinic.services.SalleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag(name = "Salle Management", description = "Operations related to consultation rooms")
+@RestController
+@RequestMapping("/api/salles")
+@CrossOrigin(origins = {"http://localhost:4200", "http://localhost:4203"})
+@RequiredArgsConstructor
+public class SalleController {
+
+    private final SalleService salleService;
+    private final SalleOccupationService salleOccupationService;
+
+    @Operation(summary = "Create a new Salle", description = "Declares a bookable consultation room")
+    @PostMapping
+    public ResponseEntity<SalleDto> createSalle(@RequestBody SalleDto salleDto) {
+        return ResponseEntity.ok(salleService.createSalle(salleDto));
+    }
+
+    @Operation(summary = "Update a Salle", description = "Updates description / active flag, the name is immutable")
+    @PutMapping("/{salleId}")
+    public ResponseEntity<SalleDto> updateSalle(@PathVariable Integer salleId, @RequestBody SalleDto salleDto) {
+        return ResponseEntity.ok(salleService.updateSalle(salleId, salleDto));
+    }
+
+    @GetMapping("/{salleId}")
+    public ResponseEntity<SalleDto> findSalleById(@PathVariable Integer salleId) {
+        return ResponseEntity.ok(salleService.findById(salleId));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SalleDto>> findAllSalles() {
+        return ResponseEntity.ok(salleService.findAll());
+    }
+
+    @Operation(summary = "Deactivate a Salle", description = "The room can no longer be booked, its history is kept")
+    @DeleteMapping("/{salleId}")
+    public ResponseEntity<Void> deleteSalle(@PathVariable Integer salleId) {
+        salleService.deleteSalle(salleId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // taux d'occupation de chaque salle sur [from, to], calculé depuis l'index en mémoire
+    @Operation(summary = "Room utilisation", description = "Occupancy rate of each room over a period")
+    @GetMapping("/occupation")
+    public ResponseEntity<List<SalleOccupationDto>> getOccupation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salleOccupationService.getOccupation(from, to));
+    }
+}
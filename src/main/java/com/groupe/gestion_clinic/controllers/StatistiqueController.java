@@ -0,0 +1,34 @@
+package com.groupe.gestion_clinic.controllers;
+
+import com.groupe.gestion_clinic.dto.StatistiquePeriodeDto;
+import com.groupe.gestion_clinic.services.StatistiqueService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag(name = "Statistiques", description = "Historical series read from the daily rollups")
+@RestController
+@RequestMapping("/api/statistiques")
+@CrossOrigin(origins = {"http://localhost:4200", "http://localhost:4203"})
+@RequiredArgsConstructor
+public class StatistiqueController {
+
+    private final StatistiqueService statistiqueService;
+
+    @Operation(summary = "Activity series", description = "Appointments, cancellations, completions, no-shows and revenue "
+            + "per day, week, month or year, for the whole clinic or one doctor")
+    @GetMapping("/serie")
+    public ResponseEntity<List<StatistiquePeriodeDto>> getSerie(
+                                @RequestParam(defaultValue = "MOIS") StatistiqueService.Granularite granularite,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(required = false) Integer medecinId) {
+        return ResponseEntity.ok(statistiqueService.getSerie(granularite, from, to, medecinId));
+    }
+}
@@ -0,0 +1,25 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreneauDisponibleDto {
+
+    private Integer medecinId;
+
+    private String medecinNom;
+
+    private String specialite;
+
+    private LocalDateTime dateHeureDebut;
+
+    private LocalDateTime dateHeureFin;
+}
@@ -0,0 +1,40 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.AbstractEntity;
+import com.groupe.gestion_clinic.utils.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * Page renvoyée en mode curseur : pas de total (aucun COUNT), seulement le jeton
+ * à renvoyer dans ?cursor= pour obtenir la page suivante.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    // rows contient jusqu'à size + 1 lignes : la ligne en trop indique qu'une page suivante existe
+    public static <E extends AbstractEntity, T> CursorPageDto<T> of(List<E> rows, int size, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(page.stream().map(mapper).toList(), page.size(), hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,30 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Message publié sur /topic/dashboard : compteurs courants, écart depuis le message précédent
+ * (null pour le premier message du noeud) et rendez-vous créés depuis, au format de
+ * /api/dashboard/recent-rendezvous.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardMiseAJourDto {
+
+    private DashboardStatsDto stats;
+
+    private DashboardStatsDto deltas;
+
+    private List<Map<String, Object>> nouveaux;
+
+    private LocalDateTime emisLe;
+}
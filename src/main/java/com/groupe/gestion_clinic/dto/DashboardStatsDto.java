@@ -0,0 +1,26 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Compteurs du tableau de bord global, calculés en une seule requête agrégée
+ * (RendezvousRepository.getDashboardStats).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStatsDto {
+
+    private Long totalPatients;
+
+    private Long totalMedecins;
+
+    private Long totalRendezVous;
+
+    private Long rendezVousAujourdhui;
+
+    // rendez-vous au statut PLANIFIE
+    private Long rendezVousEnAttente;
+}
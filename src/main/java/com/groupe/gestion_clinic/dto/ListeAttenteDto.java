@@ -0,0 +1,66 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.ListeAttente;
+import com.groupe.gestion_clinic.model.StatutListeAttente;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListeAttenteDto {
+
+    private Integer id;
+
+    private Integer patientId;
+
+    private String patientNom;
+
+    private Integer medecinId;
+
+    private Integer dureeMinutes;
+
+    private LocalDateTime dateMin;
+
+    private LocalDateTime dateMax;
+
+    private String motif;
+
+    private boolean reservationAuto;
+
+    private StatutListeAttente statut;
+
+    private LocalDateTime propositionDebut;
+
+    private LocalDateTime propositionExpireLe;
+
+    private Integer rendezvousId;
+
+    private LocalDateTime createdAt;
+
+    public static ListeAttenteDto fromEntity(ListeAttente entree) {
+        if (entree == null) return null;
+        return ListeAttenteDto.builder()
+                .id(entree.getId())
+                .patientId(entree.getPatient() != null ? entree.getPatient().getId() : null)
+                .patientNom(entree.getPatient() != null
+                        ? entree.getPatient().getPrenom() + " " + entree.getPatient().getNom() : null)
+                .medecinId(entree.getMedecin() != null ? entree.getMedecin().getId() : null)
+                .dureeMinutes(entree.getDureeMinutes())
+                .dateMin(entree.getDateMin())
+                .dateMax(entree.getDateMax())
+                .motif(entree.getMotif())
+                .reservationAuto(entree.isReservationAuto())
+                .statut(entree.getStatut())
+                .propositionDebut(entree.getPropositionDebut())
+                .propositionExpireLe(entree.getPropositionExpireLe())
+                .rendezvousId(entree.getRendezvousId())
+                .createdAt(entree.getCreatedAt())
+                .build();
+    }
+}
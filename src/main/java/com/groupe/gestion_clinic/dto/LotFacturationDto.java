@@ -0,0 +1,70 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.LotFacturation;
+import com.groupe.gestion_clinic.model.ModeFacturation;
+import com.groupe.gestion_clinic.model.StatutLotFacturation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * Rapport d'un passage de facturation par lot : volumes, durée cumulée des paquets et débit.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotFacturationDto {
+
+    private Integer id;
+
+    private LocalDate mois;
+
+    private ModeFacturation mode;
+
+    private StatutLotFacturation statut;
+
+    private long prescriptions;
+
+    private long factures;
+
+    private double montant;
+
+    private int paquets;
+
+    private LocalDateTime debut;
+
+    private LocalDateTime fin;
+
+    private long dureeMs;
+
+    private double prescriptionsParSeconde;
+
+    private double facturesParSeconde;
+
+    private String erreur;
+
+    public static LotFacturationDto fromEntity(LotFacturation lot) {
+        double secondes = Math.max(lot.getDureeMs(), 1) / 1000.0;
+        return LotFacturationDto.builder()
+                .id(lot.getId())
+                .mois(lot.getMois())
+                .mode(lot.getMode())
+                .statut(lot.getStatut())
+                .prescriptions(lot.getPrescriptions())
+                .factures(lot.getFactures())
+                .montant(lot.getMontant())
+                .paquets(lot.getPaquets())
+                .debut(lot.getDebut())
+                .fin(lot.getFin())
+                .dureeMs(lot.getDureeMs())
+                .prescriptionsParSeconde(lot.getPrescriptions() / secondes)
+                .facturesParSeconde(lot.getFactures() / secondes)
+                .erreur(lot.getErreur())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Compteurs du tableau de bord d'un médecin, calculés en une seule requête agrégée
+ * sur l'index (medecinId, dateHeureDebut).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedecinStatsDto {
+
+    // patients distincts ayant eu au moins un rendez-vous avec le médecin
+    private Long mesPatients;
+
+    private Long rdvAujourdhui;
+
+    private Long rdvEnAttente;
+}
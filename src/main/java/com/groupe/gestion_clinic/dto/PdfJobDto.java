@@ -0,0 +1,49 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * État d'un rendu PDF asynchrone, renvoyé à la soumission, au suivi et sur /topic/pdf/jobs/{id}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfJobDto {
+
+    public enum Type { FACTURE, PRESCRIPTION, HISTORIQUE }
+
+    public enum Statut { EN_ATTENTE, EN_COURS, TERMINE, ECHOUE }
+
+    private String id;
+
+    private Type type;
+
+    private Integer entiteId;
+
+    private Statut statut;
+
+    private String erreur;
+
+    private LocalDateTime soumisLe;
+
+    private LocalDateTime termineLe;
+
+    // temps passé dans la file, puis temps de rendu
+    private Long attenteMs;
+
+    private Long renduMs;
+
+    private Long taille;
+
+    // position dans la file à la soumission
+    private Integer position;
+
+    // GET du document une fois le statut TERMINE
+    private String telechargement;
+}
@@ -1,7 +1,9 @@
 package com.groupe.gestion_clinic.dto;
 
 import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.AgendaRendezvous;
 import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
 import com.groupe.gestion_clinic.model.StatutRendezVous;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
@@ -33,6 +35,9 @@ public class RendezvousDto {
 
     private StatutRendezVous statut;
 
+    // série récurrente d'appartenance, null pour un rendez-vous isolé
+    private Integer serieId;
+
     public static RendezvousDto fromEntity(Rendezvous rendezvous) {
         return
                 RendezvousDto.builder()
@@ -43,11 +48,36 @@ public class RendezvousDto {
                         .dateHeureDebut(rendezvous.getDateHeureDebut())
                         .statut(rendezvous.getStatut())
                         .dateHeureFin(rendezvous.getDateHeureFin())
+                        .serieId(rendezvous.getSerie() != null ? rendezvous.getSerie().getId() : null)
                         .patientId(rendezvous.getPatient().getId()!=null ? rendezvous.getPatient().getId() : null)
                         .patientNom(rendezvous.getPatient().getNom()!=null ? rendezvous.getPatient().getNom() : null)
                         .build();
     }
 
+    // ligne d'agenda dénormalisée : médecin réduit aux champs recopiés, sans adresse
+    public static RendezvousDto fromAgenda(AgendaRendezvous agenda) {
+        return
+                RendezvousDto.builder()
+                        .id(agenda.getRendezvousId())
+                        .motif(agenda.getMotif())
+                        .salle(agenda.getSalle())
+                        .medecinDTO(agenda.getMedecinId() == null ? null : MedecinDto.builder()
+                                .id(agenda.getMedecinId())
+                                .nom(agenda.getMedecinNom())
+                                .prenom(agenda.getMedecinPrenom())
+                                .specialite(agenda.getMedecinSpecialite())
+                                .email(agenda.getMedecinEmail())
+                                .role(Role.MEDECIN)
+                                .build())
+                        .dateHeureDebut(agenda.getDateHeureDebut())
+                        .dateHeureFin(agenda.getDateHeureFin())
+                        .statut(agenda.getStatut())
+                        .serieId(agenda.getSerieId())
+                        .patientId(agenda.getPatientId())
+                        .patientNom(agenda.getPatientNom())
+                        .build();
+    }
+
     public static Rendezvous toDto(RendezvousDto rendezvousDto) {
         return
                 Rendezvous
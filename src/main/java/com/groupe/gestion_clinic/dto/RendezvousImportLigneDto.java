@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RendezvousImportLigneDto {
+
+    // numéro de ligne (CSV) ou position dans la liste, à partir de 1
+    private int ligne;
+
+    // CREE, CONFLIT ou INVALIDE
+    private String statut;
+
+    private Integer rendezvousId;
+
+    private String message;
+}
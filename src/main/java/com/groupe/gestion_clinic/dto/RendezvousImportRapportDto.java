@@ -0,0 +1,25 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RendezvousImportRapportDto {
+
+    private int total;
+
+    private int crees;
+
+    private int rejetes;
+
+    @Builder.Default
+    private List<RendezvousImportLigneDto> lignes = new ArrayList<>();
+}
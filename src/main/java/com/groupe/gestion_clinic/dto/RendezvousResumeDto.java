@@ -0,0 +1,44 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * Projection d'un rendez-vous pour les listes et la recherche :
+ * construite directement par la requête SQL, sans charger les entités Patient / Medecin.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RendezvousResumeDto {
+
+    private Integer id;
+
+    private LocalDateTime dateHeureDebut;
+
+    private LocalDateTime dateHeureFin;
+
+    private String motif;
+
+    private String salle;
+
+    private StatutRendezVous statut;
+
+    private Integer patientId;
+
+    private String patientPrenom;
+
+    private String patientNom;
+
+    private Integer medecinId;
+
+    private String medecinPrenom;
+
+    private String medecinNom;
+
+    private String specialite;
+}
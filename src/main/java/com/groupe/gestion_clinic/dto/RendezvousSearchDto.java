@@ -3,6 +3,7 @@ package com.groupe.gestion_clinic.dto;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Builder
 @Getter
@@ -11,7 +12,12 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class RendezvousSearchDto {
     private Long medecinId;
+    private Integer patientId;
     private LocalDate date;
+    // plage [dateDebut, dateFin[ sur dateHeureDebut
+    private LocalDateTime dateDebut;
+    private LocalDateTime dateFin;
     private String salle;
     private String statut;
+    private String motif;
 }
@@ -0,0 +1,43 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.Salle;
+import lombok.*;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalleDto {
+
+    private Integer id;
+
+    private String nom;
+
+    private String description;
+
+    private Boolean active;
+
+    public static SalleDto fromEntity(Salle salle) {
+
+        if (salle == null) return null;
+        return
+                SalleDto.builder()
+                        .id(salle.getId())
+                        .nom(salle.getNom())
+                        .description(salle.getDescription())
+                        .active(salle.isActive())
+                        .build();
+    }
+
+    public static Salle toDto(SalleDto salleDto) {
+
+        if (salleDto == null) return null;
+        return
+                Salle.builder()
+                        .nom(salleDto.getNom() != null ? salleDto.getNom().trim() : null)
+                        .description(salleDto.getDescription())
+                        .active(salleDto.getActive() == null || salleDto.getActive())
+                        .build();
+    }
+}
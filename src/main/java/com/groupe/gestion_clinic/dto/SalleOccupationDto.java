@@ -0,0 +1,27 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalleOccupationDto {
+
+    private Integer salleId;
+
+    private String salle;
+
+    private long nombreRendezVous;
+
+    // minutes occupées pendant les heures d'ouverture de la période
+    private long minutesOccupees;
+
+    private long minutesOuvertes;
+
+    // minutesOccupees / minutesOuvertes, entre 0 et 1
+    private double tauxOccupation;
+}
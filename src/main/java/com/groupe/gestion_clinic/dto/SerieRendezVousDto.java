@@ -0,0 +1,51 @@
+package com.groupe.gestion_clinic.dto;
+
+import com.groupe.gestion_clinic.model.SerieRendezVous;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieRendezVousDto {
+
+    private Integer id;
+
+    private String regle;
+
+    private Integer medecinId;
+
+    private Integer patientId;
+
+    private LocalDateTime dateHeureDebut;
+
+    private Integer dureeMinutes;
+
+    private String motif;
+
+    private String salle;
+
+    // occurrences créées ou modifiées par l'opération
+    private List<Integer> rendezvousIds;
+
+    private List<LocalDateTime> occurrences;
+
+    public static SerieRendezVousDto fromEntity(SerieRendezVous serie) {
+        return SerieRendezVousDto.builder()
+                .id(serie.getId())
+                .regle(serie.getRegle())
+                .medecinId(serie.getMedecin() != null ? serie.getMedecin().getId() : null)
+                .patientId(serie.getPatient() != null ? serie.getPatient().getId() : null)
+                .dateHeureDebut(serie.getDateHeureDebut())
+                .dureeMinutes(serie.getDureeMinutes())
+                .motif(serie.getMotif())
+                .salle(serie.getSalle())
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.groupe.gestion_clinic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/*
+ * Point d'une série statistique : cumul des agrégats quotidiens sur [debut, fin].
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiquePeriodeDto {
+
+    private LocalDate debut;
+
+    private LocalDate fin;
+
+    private long rendezVous;
+
+    private long annules;
+
+    private long termines;
+
+    private long absents;
+
+    private double chiffreAffaires;
+}
@@ -0,0 +1,34 @@
+package com.groupe.gestion_clinic.dto.requestDto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListeAttenteRequestDto {
+
+    @NotNull
+    private Integer patientId;
+
+    @NotNull
+    private Integer medecinId;
+
+    // durée souhaitée, 30 minutes par défaut
+    private Duration duree;
+
+    // fenêtre acceptée, bornes optionnelles
+    private LocalDateTime dateMin;
+
+    private LocalDateTime dateMax;
+
+    private String motif;
+
+    // true : le créneau libéré est réservé directement, sinon il est proposé au patient
+    private Boolean reservationAuto;
+}
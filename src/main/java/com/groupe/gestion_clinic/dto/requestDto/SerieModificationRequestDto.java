@@ -0,0 +1,26 @@
+package com.groupe.gestion_clinic.dto.requestDto;
+
+import lombok.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+
+/*
+ * Modification "cette occurrence et les suivantes" : seuls les champs renseignés changent.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieModificationRequestDto {
+
+    // nouvelle heure de début, le jour de chaque occurrence est conservé
+    private LocalTime heure;
+
+    private Duration duree;
+
+    private String motif;
+
+    private String salle;
+}
@@ -0,0 +1,38 @@
+package com.groupe.gestion_clinic.dto.requestDto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieRendezVousRequestDto {
+
+    @NotNull
+    private Integer patientId;
+
+    @NotNull
+    private Integer medecinId;
+
+    // début de la première occurrence
+    @Future
+    @NotNull
+    private LocalDateTime dateHeureDebut;
+
+    private Duration duree;
+
+    // ex: FREQ=WEEKLY;INTERVAL=1;COUNT=52 ou FREQ=MONTHLY;UNTIL=20271231
+    @NotBlank
+    private String regle;
+
+    private String motif;
+
+    private String salle;
+}
@@ -0,0 +1,8 @@
+package com.groupe.gestion_clinic.exceptions;
+
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.groupe.gestion_clinic.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    // délai conseillé avant une nouvelle tentative (en-tête Retry-After)
+    private final long retryAfterSecondes;
+
+    public TooManyRequestsException(String message, long retryAfterSecondes) {
+        super(message);
+        this.retryAfterSecondes = retryAfterSecondes;
+    }
+
+    public long getRetryAfterSecondes() {
+        return retryAfterSecondes;
+    }
+}
@@ -1,6 +1,7 @@
 package com.groupe.gestion_clinic.handler;
 
 import com.groupe.gestion_clinic.exceptions.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,6 +24,36 @@ public class GlobalHandlerException {
 
     }
 
+    // Ressource inconnue : vrai statut 404 (clients calendrier, téléchargements)
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<?> handlerException(NotFoundException exception) {
+
+        final HttpStatus status = HttpStatus.NOT_FOUND;
+        ErrorResponse errorResponse =
+                ErrorResponse
+                        .builder()
+                        .message(exception.getMessage())
+                        .status(status.value())
+                        .build();
+        return ResponseEntity.status(status).body(errorResponse);
+
+    }
+
+    // Ressource qui a existé mais n'est plus disponible (document d'un job PDF supprimé du cache)
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<?> handlerException(GoneException exception) {
+
+        final HttpStatus status = HttpStatus.GONE;
+        ErrorResponse errorResponse =
+                ErrorResponse
+                        .builder()
+                        .message(exception.getMessage())
+                        .status(status.value())
+                        .build();
+        return ResponseEntity.status(status).body(errorResponse);
+
+    }
+
     @ExceptionHandler(ObjectValidationException.class)
     public ResponseEntity<?> handlerException(ObjectValidationException exception) {
 
@@ -79,4 +110,21 @@ public class GlobalHandlerException {
         return ResponseEntity.ok(errorResponse);
 
     }
+
+    // File de traitement saturée : vrai statut 429 et délai conseillé pour le client
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handlerException(TooManyRequestsException exception) {
+
+        final HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        ErrorResponse errorResponse =
+                ErrorResponse
+                        .builder()
+                        .message(exception.getMessage())
+                        .status(status.value())
+                        .build();
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSecondes()))
+                .body(errorResponse);
+
+    }
 }
@@ -0,0 +1,60 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * Agenda dénormalisé : une ligne compacte par rendez-vous, avec les noms du patient et du
+ * médecin recopiés. Les vues calendrier (semaine, mois) sont servies par un seul parcours
+ * d'index sur (medecinId, dateHeureDebut) ou (dateHeureDebut), sans jointure.
+ *
+ * Tenue à jour par AgendaService à chaque écriture sur les rendez-vous ; l'identifiant est
+ * celui du rendez-vous.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_agenda_medecin_debut", columnList = "medecinId, dateHeureDebut"),
+        @Index(name = "idx_agenda_debut", columnList = "dateHeureDebut")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaRendezvous {
+
+    @Id
+    private Integer rendezvousId;
+
+    private Integer medecinId;
+
+    private Integer patientId;
+
+    private Integer serieId;
+
+    private LocalDateTime dateHeureDebut;
+
+    private LocalDateTime dateHeureFin;
+
+    // ordinal, comme sur Rendezvous
+    private StatutRendezVous statut;
+
+    private String motif;
+
+    private String salle;
+
+    // "prénom nom", tel qu'affiché dans le calendrier
+    private String patientNom;
+
+    private String medecinNom;
+
+    private String medecinPrenom;
+
+    private String medecinSpecialite;
+
+    private String medecinEmail;
+}
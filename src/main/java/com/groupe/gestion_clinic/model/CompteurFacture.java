@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Compteur des numéros de facture d'une année : prochain numéro non encore réservé.
+ * Avancé par blocs par NumeroFactureService, jamais numéro par numéro.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteurFacture {
+
+    @Id
+    private Integer annee;
+
+    private Long prochain;
+}
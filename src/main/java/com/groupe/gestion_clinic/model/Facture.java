@@ -12,6 +12,11 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_facture_created", columnList = "createdAt"),
+        @Index(name = "idx_facture_statut_created", columnList = "statut, createdAt"),
+        @Index(name = "idx_facture_numero", columnList = "numeroFacture", unique = true)
+})
 @Getter
 @Setter
 @SuperBuilder
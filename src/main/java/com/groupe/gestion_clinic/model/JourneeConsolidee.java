@@ -0,0 +1,26 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * Jour déjà consolidé dans StatistiqueJournaliere, y compris un jour sans activité (aucune
+ * ligne d'agrégat) : le rattrapage ne recalcule que les jours absents de cette table.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneeConsolidee {
+
+    @Id
+    private LocalDate jour;
+
+    private LocalDateTime consolideeLe;
+}
@@ -0,0 +1,54 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/*
+ * Inscription d'un patient sur la liste d'attente d'un médecin : dès qu'un créneau compatible
+ * se libère (annulation), il est proposé au patient ou réservé directement (reservationAuto).
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_liste_attente_medecin_statut", columnList = "medecinId, statut, createdAt"))
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListeAttente extends AbstractEntity {
+
+    @ManyToOne
+    @JoinColumn(name = "patientId", nullable = false)
+    private Patient patient;
+
+    @ManyToOne
+    @JoinColumn(name = "medecinId", nullable = false)
+    private Medecin medecin;
+
+    @Column(nullable = false)
+    private Integer dureeMinutes;
+
+    // fenêtre acceptée par le patient, bornes optionnelles
+    private LocalDateTime dateMin;
+
+    private LocalDateTime dateMax;
+
+    private String motif;
+
+    private boolean reservationAuto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutListeAttente statut;
+
+    // créneau proposé, en attente de réponse jusqu'à propositionExpireLe
+    private LocalDateTime propositionDebut;
+
+    private LocalDateTime propositionExpireLe;
+
+    // rendez-vous obtenu une fois la demande satisfaite
+    private Integer rendezvousId;
+}
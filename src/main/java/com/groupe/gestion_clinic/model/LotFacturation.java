@@ -0,0 +1,57 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * Passage de facturation par lot d'un mois (FacturationLotService). Le curseur (dernier patient
+ * ou rendez-vous facturé) et les compteurs sont écrits dans la transaction de chaque paquet :
+ * un passage interrompu reprend au paquet suivant le dernier commité.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_lot_facturation_mois", columnList = "mois, mode"))
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotFacturation extends AbstractEntity {
+
+    // premier jour du mois facturé
+    @Column(nullable = false)
+    private LocalDate mois;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ModeFacturation mode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutLotFacturation statut;
+
+    // clé du dernier groupe facturé (patient ou rendez-vous), 0 au départ
+    private Integer curseur;
+
+    private long prescriptions;
+
+    private long factures;
+
+    private double montant;
+
+    private int paquets;
+
+    private LocalDateTime debut;
+
+    private LocalDateTime fin;
+
+    // temps passé dans les paquets, reprises comprises
+    private long dureeMs;
+
+    @Column(columnDefinition = "TEXT")
+    private String erreur;
+}
@@ -0,0 +1,7 @@
+package com.groupe.gestion_clinic.model;
+
+// regroupement des prescriptions en factures lors de la facturation par lot
+public enum ModeFacturation {
+    PAR_PATIENT,
+    PAR_RENDEZVOUS
+}
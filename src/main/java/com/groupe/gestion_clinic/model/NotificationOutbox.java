@@ -0,0 +1,54 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/*
+ * Notification WebSocket à envoyer, écrite dans la même transaction que le rendez-vous
+ * (pas de notification fantôme après un rollback) puis diffusée par NotificationOutboxJob.
+ * destinataireId null : notification publique (/topic/publicNotifications).
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_notification_outbox_statut_essai", columnList = "statut, prochainEssai, id"))
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox extends AbstractEntity {
+
+    private Long destinataireId;
+
+    // contenu de la NotificationDto
+    @Column(nullable = false)
+    private String objMessage;
+
+    @Column(length = 1000)
+    private String message;
+
+    private Integer rdvId;
+
+    private LocalDateTime dateNotification;
+
+    private String recipientType;
+
+    private Long recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutNotificationOutbox statut;
+
+    private int tentatives;
+
+    @Column(nullable = false)
+    private LocalDateTime prochainEssai;
+
+    private LocalDateTime envoyeeLe;
+
+    @Column(length = 500)
+    private String derniereErreur;
+}
@@ -2,9 +2,14 @@ package com.groupe.gestion_clinic.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,6 +18,10 @@ import lombok.experimental.SuperBuilder;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_prescription_created_id", columnList = "createdAt, id"),
+        @Index(name = "idx_prescription_facture", columnList = "factureId")
+})
 @Getter
 @Setter
 @SuperBuilder
@@ -37,9 +46,10 @@ public class Prescription extends AbstractEntity{
     @Column(columnDefinition = "TEXT")
     private String examensNecessaires;
 
-    // @jakarta.persistence.Enumerated(jakarta.persistence.EnumType.STRING)
-    // @Column(nullable = false)
-    // private StatutFacturation statutFacturation = StatutFacturation.NON_FACTUREE;
+    // null pour les prescriptions antérieures à la facturation par lot, équivaut à NON_FACTUREE
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StatutFacturation statutFacturation = StatutFacturation.NON_FACTUREE;
 
     @ManyToOne
     @JoinColumn(name = "rendezvousId")
@@ -0,0 +1,33 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/*
+ * Trace d'un rappel envoyé : une ligne par (rendez-vous, heure de début rappelée).
+ * La contrainte d'unicité garantit qu'un même créneau n'est jamais rappelé deux fois,
+ * un rendez-vous déplacé sera à nouveau rappelé pour sa nouvelle heure.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_rappel_rendezvous_debut", columnNames = {"rendezvousId", "dateHeureDebut"}))
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RappelRendezVous extends AbstractEntity {
+
+    @Column(nullable = false)
+    private Integer rendezvousId;
+
+    @Column(nullable = false)
+    private LocalDateTime dateHeureDebut;
+
+    @Column(nullable = false)
+    private LocalDateTime envoyeLe;
+}
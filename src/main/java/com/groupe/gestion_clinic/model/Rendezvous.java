@@ -13,6 +13,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_rendezvous_medecin_debut", columnList = "medecinId, dateHeureDebut"),
+        @Index(name = "idx_rendezvous_patient_debut", columnList = "patientId, dateHeureDebut"),
+        @Index(name = "idx_rendezvous_statut_debut", columnList = "statut, dateHeureDebut"),
+        @Index(name = "idx_rendezvous_salle_debut", columnList = "salle, dateHeureDebut"),
+        @Index(name = "idx_rendezvous_debut", columnList = "dateHeureDebut"),
+        @Index(name = "idx_rendezvous_created_id", columnList = "createdAt, id"),
+        @Index(name = "idx_rendezvous_serie_debut", columnList = "serieId, dateHeureDebut")
+})
+// lastUpdate suit chaque modification (ETag du flux iCalendar, CalendrierService)
+@AttributeOverride(name = "lastUpdate", column = @Column(name = "last_update", nullable = false))
 @Data
 @Getter
 @Setter
@@ -52,4 +63,9 @@ public class Rendezvous extends AbstractEntity {
     @ManyToOne
     @JoinColumn(name = "medecinId")
     private Medecin medecin;
+
+    // occurrence d'une série récurrente, null pour un rendez-vous isolé
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "serieId")
+    private SerieRendezVous serie;
 }
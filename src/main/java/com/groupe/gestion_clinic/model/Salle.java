@@ -0,0 +1,26 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+/*
+ * Salle de consultation : ressource réservable, référencée par son nom dans Rendezvous.salle.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_salle_nom", columnNames = "nom"))
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Salle extends AbstractEntity {
+
+    @Column(nullable = false)
+    private String nom;
+
+    private String description;
+
+    private boolean active;
+}
@@ -0,0 +1,43 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/*
+ * Série de rendez-vous récurrents (suivi de patients chroniques) : chaque occurrence est un
+ * Rendezvous ordinaire rattaché à la série, la règle (sous-ensemble RRULE) sert à l'expansion.
+ */
+@Entity
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieRendezVous extends AbstractEntity {
+
+    // ex: FREQ=WEEKLY;INTERVAL=1;COUNT=52
+    @Column(nullable = false)
+    private String regle;
+
+    // début de la première occurrence
+    @Column(nullable = false)
+    private LocalDateTime dateHeureDebut;
+
+    private Integer dureeMinutes;
+
+    private String motif;
+
+    private String salle;
+
+    @ManyToOne
+    @JoinColumn(name = "patientId")
+    private Patient patient;
+
+    @ManyToOne
+    @JoinColumn(name = "medecinId")
+    private Medecin medecin;
+}
@@ -0,0 +1,44 @@
+package com.groupe.gestion_clinic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDate;
+
+/*
+ * Agrégat quotidien par médecin, écrit par le job de consolidation nocturne
+ * (StatistiqueService) : les séries historiques sont lues ici, jamais sur rendezvous / facture.
+ *
+ * Les rendez-vous sont comptés au jour de leur début, le chiffre d'affaires au jour d'émission
+ * de la facture. medecinId est null pour les factures sans prescription rattachée.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_stat_jour_medecin", columnList = "medecinId, jour"),
+        @Index(name = "idx_stat_jour", columnList = "jour")
+})
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiqueJournaliere extends AbstractEntity {
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    private Integer medecinId;
+
+    private long rendezVous;
+
+    private long annules;
+
+    private long termines;
+
+    private long absents;
+
+    // factures non annulées émises ce jour
+    private double chiffreAffaires;
+}
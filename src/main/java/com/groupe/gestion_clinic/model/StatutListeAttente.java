@@ -0,0 +1,8 @@
+package com.groupe.gestion_clinic.model;
+
+public enum StatutListeAttente {
+    EN_ATTENTE,
+    PROPOSE,
+    SATISFAIT,
+    RETIRE
+}
@@ -0,0 +1,7 @@
+package com.groupe.gestion_clinic.model;
+
+public enum StatutLotFacturation {
+    EN_COURS,
+    TERMINE,
+    ECHOUE
+}
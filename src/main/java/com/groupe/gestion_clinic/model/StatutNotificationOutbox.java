@@ -0,0 +1,7 @@
+package com.groupe.gestion_clinic.model;
+
+public enum StatutNotificationOutbox {
+    EN_ATTENTE,
+    ENVOYEE,
+    ECHEC
+}
@@ -5,5 +5,7 @@ public enum StatutRendezVous {
     PLANIFIE,
     CONFIRME,
     ANNULE,
-    TERMINE
+    TERMINE,
+    // patient non venu, posé par la clôture automatique (stocké en ordinal : toujours ajouter en fin)
+    ABSENT
 }
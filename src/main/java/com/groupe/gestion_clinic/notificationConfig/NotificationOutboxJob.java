@@ -0,0 +1,23 @@
+package com.groupe.gestion_clinic.notificationConfig;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz de diffusion de l'outbox des notifications.
+ * Comme pour les rappels, un seul noeud du cluster exécute chaque déclenchement :
+ * l'ordre d'envoi est conservé et une notification n'est pas diffusée deux fois.
+ */
+@DisallowConcurrentExecution
+public class NotificationOutboxJob extends QuartzJobBean {
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        notificationOutboxService.diffuser();
+    }
+}
@@ -0,0 +1,171 @@
+package com.groupe.gestion_clinic.notificationConfig;
+
+import com.groupe.gestion_clinic.dto.NotificationDto;
+import com.groupe.gestion_clinic.model.NotificationOutbox;
+import com.groupe.gestion_clinic.model.StatutNotificationOutbox;
+import com.groupe.gestion_clinic.repositories.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * ---------------------- outbox des notifications --------------------------
+ *
+ * Les services métier n'appellent plus le broker STOMP : ils écrivent la notification dans
+ * NotificationOutbox, dans la transaction qui enregistre le rendez-vous. Une réservation
+ * n'attend donc jamais le broker, et un rollback n'envoie rien.
+ *
+ * NotificationOutboxJob (Quartz, cluster) vide la table par lots de taille-lot : chaque
+ * notification est diffusée via NotificationService ; en cas d'échec elle est retentée avec
+ * un délai croissant, puis abandonnée (ECHEC) après max-tentatives.
+ *
+ * Métriques : clinic.notifications.outbox.envoyees / echecs, clinic.notifications.outbox.retard
+ * (écriture -> diffusion), clinic.notifications.outbox.en_attente et .age_max (secondes depuis
+ * l'écriture de la plus ancienne notification non diffusée, croît si le job est arrêté).
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final long DELAI_MAX_SECONDES = 300;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter envoyees;
+    private final Counter echecs;
+    private final Timer retard;
+    private final Timer dureeDiffusion;
+    private final AtomicLong enAttente = new AtomicLong();
+    private final AtomicReference<LocalDateTime> plusAncienne = new AtomicReference<>();
+
+    @Value("${app.notification.outbox.taille-lot:200}")
+    private int tailleLot;
+
+    @Value("${app.notification.outbox.max-tentatives:10}")
+    private int maxTentatives;
+
+    @Value("${app.notification.outbox.retention-jours:7}")
+    private long retentionJours;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     NotificationService notificationService,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.envoyees = meterRegistry.counter("clinic.notifications.outbox.envoyees");
+        this.echecs = meterRegistry.counter("clinic.notifications.outbox.echecs");
+        this.retard = meterRegistry.timer("clinic.notifications.outbox.retard");
+        this.dureeDiffusion = meterRegistry.timer("clinic.notifications.outbox.diffusion");
+        meterRegistry.gauge("clinic.notifications.outbox.en_attente", enAttente);
+        meterRegistry.gauge("clinic.notifications.outbox.age_max", plusAncienne, reference -> {
+            LocalDateTime date = reference.get();
+            return date == null ? 0 : Duration.between(date, LocalDateTime.now()).toSeconds();
+        });
+    }
+
+    // Notification privée, diffusée après commit de la transaction courante
+    public void publierPrivee(Long userId, NotificationDto notification) {
+        enregistrer(userId, notification);
+    }
+
+    // Notification publique (secrétaires), diffusée après commit de la transaction courante
+    public void publierPublique(NotificationDto notification) {
+        enregistrer(null, notification);
+    }
+
+    private void enregistrer(Long destinataireId, NotificationDto notification) {
+        outboxRepository.save(NotificationOutbox.builder()
+                .destinataireId(destinataireId)
+                .objMessage(notification.getObjMessage())
+                .message(notification.getMessage())
+                .rdvId(notification.getRdvId())
+                .dateNotification(notification.getTimestamp())
+                .recipientType(notification.getRecipientType())
+                .recipientId(notification.getRecipientId())
+                .statut(StatutNotificationOutbox.EN_ATTENTE)
+                .prochainEssai(LocalDateTime.now())
+                .build());
+    }
+
+    // Retourne le nombre de notifications diffusées lors de ce passage
+    public int diffuser() {
+        return dureeDiffusion.record(() -> {
+            int diffusees = 0;
+            Integer lot;
+            do {
+                int[] compteur = new int[2];
+                lot = transactionTemplate.execute(status -> {
+                    // entités gérées : les mises à jour partent en batch JDBC au commit
+                    List<NotificationOutbox> notifications = outboxRepository.findAEnvoyer(
+                            LocalDateTime.now(), PageRequest.ofSize(tailleLot));
+                    for (NotificationOutbox notification : notifications) {
+                        if (envoyer(notification)) {
+                            compteur[0]++;
+                        }
+                    }
+                    return notifications.size();
+                });
+                diffusees += compteur[0];
+            } while (lot != null && lot == tailleLot);
+
+            outboxRepository.purgerEnvoyees(LocalDateTime.now().minusDays(retentionJours));
+            enAttente.set(outboxRepository.countByStatut(StatutNotificationOutbox.EN_ATTENTE));
+            plusAncienne.set(outboxRepository.findPlusAncienneEnAttente());
+            return diffusees;
+        });
+    }
+
+    private boolean envoyer(NotificationOutbox notification) {
+        NotificationDto dto = new NotificationDto(
+                notification.getObjMessage(),
+                notification.getMessage(),
+                notification.getRdvId(),
+                notification.getDateNotification(),
+                notification.getRecipientType(),
+                notification.getRecipientId());
+        LocalDateTime maintenant = LocalDateTime.now();
+        try {
+            if (notification.getDestinataireId() != null) {
+                notificationService.sendPrivateNotification(notification.getDestinataireId(), dto);
+            } else {
+                notificationService.sendPublicNotification(dto);
+            }
+        } catch (RuntimeException e) {
+            echecs.increment();
+            int tentatives = notification.getTentatives() + 1;
+            notification.setTentatives(tentatives);
+            notification.setDerniereErreur(e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage());
+            if (tentatives >= maxTentatives) {
+                System.err.println("Notification " + notification.getId() + " abandonnée après " + tentatives + " tentatives");
+                notification.setStatut(StatutNotificationOutbox.ECHEC);
+            } else {
+                // 2s, 4s, 8s ... plafonné à 5 minutes
+                long delai = Math.min(DELAI_MAX_SECONDES, 1L << Math.min(tentatives, 20));
+                notification.setProchainEssai(maintenant.plusSeconds(delai));
+            }
+            return false;
+        }
+
+        notification.setStatut(StatutNotificationOutbox.ENVOYEE);
+        notification.setEnvoyeeLe(maintenant);
+        envoyees.increment();
+        if (notification.getCreatedAt() != null && maintenant.isAfter(notification.getCreatedAt())) {
+            retard.record(Duration.between(notification.getCreatedAt(), maintenant));
+        }
+        return true;
+    }
+}
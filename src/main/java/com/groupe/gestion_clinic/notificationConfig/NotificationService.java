@@ -88,6 +88,22 @@ public class NotificationService {
                                         "Rappel : RDV avec Dr. "+rdv.getMedecin().getNom()+" à "+rdv.getDateHeureDebut().toLocalTime());
     }
 
+    // Créneau libéré attribué (WAITLIST_BOOKED) ou proposé (WAITLIST_OFFER) à un patient de la liste d'attente
+    public void sendListeAttenteNotification(com.groupe.gestion_clinic.model.ListeAttente entree, String type,
+                                             Integer rendezvousId, String message) {
+        Long medecinId = entree.getMedecin().getId().longValue();
+        NotificationDto notif = new NotificationDto(type, message, rendezvousId, LocalDateTime.now(), "MEDECIN", medecinId);
+        sendPrivateNotification(medecinId, notif);
+        sendPublicNotification(new NotificationDto(type, message, rendezvousId, LocalDateTime.now(), "SECRETAIRE", medecinId));
+
+        if (entree.getPatient().getEmail() != null) {
+            emailService.sendConfirmationEmail(
+                    entree.getPatient().getEmail(),
+                    "WAITLIST_OFFER".equals(type) ? "Un créneau s'est libéré" : "Rendez-vous confirmé",
+                    message);
+        }
+    }
+
     public void sendPrescriptionNotification(com.groupe.gestion_clinic.model.Prescription prescription) {
         // Notification WebSocket
         NotificationDto notif = new NotificationDto(
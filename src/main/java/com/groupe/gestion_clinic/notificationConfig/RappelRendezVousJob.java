@@ -0,0 +1,24 @@
+package com.groupe.gestion_clinic.notificationConfig;
+
+import com.groupe.gestion_clinic.services.RappelRendezVousService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/*
+ * Job Quartz de rappel des rendez-vous.
+ * Le job store JDBC est en mode cluster : un seul noeud exécute chaque déclenchement,
+ * et @DisallowConcurrentExecution empêche deux passages de se chevaucher.
+ */
+@DisallowConcurrentExecution
+public class RappelRendezVousJob extends QuartzJobBean {
+
+    @Autowired
+    private RappelRendezVousService rappelRendezVousService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        rappelRendezVousService.envoyerRappels();
+    }
+}
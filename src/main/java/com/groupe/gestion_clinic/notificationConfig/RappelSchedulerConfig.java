@@ -0,0 +1,60 @@
+package com.groupe.gestion_clinic.notificationConfig;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Planification des rappels et de l'outbox des notifications : Spring Boot enregistre ces beans
+ * dans le scheduler Quartz (spring.quartz.*), les fréquences sont réglées par
+ * app.notification.rappel.cron et app.notification.outbox.intervalle-ms.
+ */
+@Configuration
+public class RappelSchedulerConfig {
+
+    @Bean
+    public JobDetail rappelRendezVousJobDetail() {
+        return JobBuilder.newJob(RappelRendezVousJob.class)
+                .withIdentity("rappelRendezVousJob", "notifications")
+                .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    @Bean
+    public Trigger rappelRendezVousTrigger(JobDetail rappelRendezVousJobDetail,
+                                           @Value("${app.notification.rappel.cron:0 */5 * * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(rappelRendezVousJobDetail)
+                .withIdentity("rappelRendezVousTrigger", "notifications")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+
+    @Bean
+    public JobDetail notificationOutboxJobDetail() {
+        return JobBuilder.newJob(NotificationOutboxJob.class)
+                .withIdentity("notificationOutboxJob", "notifications")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger notificationOutboxTrigger(JobDetail notificationOutboxJobDetail,
+                                             @Value("${app.notification.outbox.intervalle-ms:1000}") long intervalle) {
+        return TriggerBuilder.newTrigger()
+                .forJob(notificationOutboxJobDetail)
+                .withIdentity("notificationOutboxTrigger", "notifications")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMilliseconds(intervalle)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.AgendaRendezvous;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AgendaRendezvousRepository extends JpaRepository<AgendaRendezvous, Integer> {
+
+    // mêmes bornes exclusives que RendezvousSpecifications.debutAfter / debutBefore
+    @Query("SELECT a FROM AgendaRendezvous a " +
+            "WHERE a.dateHeureDebut > :start AND a.dateHeureDebut < :end " +
+            "ORDER BY a.dateHeureDebut")
+    List<AgendaRendezvous> findPeriode(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT a FROM AgendaRendezvous a " +
+            "WHERE a.medecinId = :medecinId " +
+            "AND a.dateHeureDebut > :start AND a.dateHeureDebut < :end " +
+            "ORDER BY a.dateHeureDebut")
+    List<AgendaRendezvous> findPeriodeMedecin(@Param("medecinId") Integer medecinId,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+
+    // état [id, medecinId, patientId, dateHeureDebut, statut] des lignes, sans entité gérée
+    @Query("SELECT a.rendezvousId, a.medecinId, a.patientId, a.dateHeureDebut, a.statut " +
+            "FROM AgendaRendezvous a WHERE a.rendezvousId IN :ids")
+    List<Object[]> findEtats(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AgendaRendezvous a WHERE a.rendezvousId IN :ids")
+    int supprimerTous(@Param("ids") Collection<Integer> ids);
+
+/*
+    recopie des rendez-vous donnés en un seul INSERT ... SELECT, sans charger les entités ;
+    copierManquants rattrape au démarrage ceux qui n'ont pas encore de ligne d'agenda
+ */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO AgendaRendezvous (rendezvousId, medecinId, patientId, serieId, dateHeureDebut, dateHeureFin, " +
+            "statut, motif, salle, patientNom, medecinNom, medecinPrenom, medecinSpecialite, medecinEmail) " +
+            "SELECT r.id, m.id, p.id, s.id, r.dateHeureDebut, r.dateHeureFin, " +
+            "r.statut, r.motif, r.salle, CONCAT(p.prenom, ' ', p.nom), m.nom, m.prenom, m.specialite, m.email " +
+            "FROM Rendezvous r LEFT JOIN r.patient p LEFT JOIN r.medecin m LEFT JOIN r.serie s " +
+            "WHERE r.id IN :ids")
+    int copierTous(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO AgendaRendezvous (rendezvousId, medecinId, patientId, serieId, dateHeureDebut, dateHeureFin, " +
+            "statut, motif, salle, patientNom, medecinNom, medecinPrenom, medecinSpecialite, medecinEmail) " +
+            "SELECT r.id, m.id, p.id, s.id, r.dateHeureDebut, r.dateHeureFin, " +
+            "r.statut, r.motif, r.salle, CONCAT(p.prenom, ' ', p.nom), m.nom, m.prenom, m.specialite, m.email " +
+            "FROM Rendezvous r LEFT JOIN r.patient p LEFT JOIN r.medecin m LEFT JOIN r.serie s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM AgendaRendezvous a WHERE a.rendezvousId = r.id)")
+    int copierManquants();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AgendaRendezvous a SET a.patientNom = :patientNom WHERE a.patientId = :patientId")
+    int renommerPatient(@Param("patientId") Integer patientId, @Param("patientNom") String patientNom);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AgendaRendezvous a SET a.medecinNom = :nom, a.medecinPrenom = :prenom, " +
+            "a.medecinSpecialite = :specialite, a.medecinEmail = :email WHERE a.medecinId = :medecinId")
+    int renommerMedecin(@Param("medecinId") Integer medecinId,
+                        @Param("nom") String nom,
+                        @Param("prenom") String prenom,
+                        @Param("specialite") String specialite,
+                        @Param("email") String email);
+}
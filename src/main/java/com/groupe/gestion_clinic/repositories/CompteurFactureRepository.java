@@ -0,0 +1,25 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.CompteurFacture;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CompteurFactureRepository extends JpaRepository<CompteurFacture, Integer> {
+
+    // réserve un bloc : le verrou de ligne est tenu jusqu'au commit de la transaction appelante
+    @Modifying
+    @Query("UPDATE CompteurFacture c SET c.prochain = c.prochain + :taille WHERE c.annee = :annee")
+    int avancer(@Param("annee") Integer annee, @Param("taille") long taille);
+
+    // insertion seule (jamais de merge) : échoue sur la clé si un autre noeud a créé l'année
+    @Modifying
+    @Query("INSERT INTO CompteurFacture (annee, prochain) VALUES (:annee, :prochain)")
+    int creer(@Param("annee") Integer annee, @Param("prochain") long prochain);
+
+    @Query("SELECT c.prochain FROM CompteurFacture c WHERE c.annee = :annee")
+    Long findProchain(@Param("annee") Integer annee);
+}
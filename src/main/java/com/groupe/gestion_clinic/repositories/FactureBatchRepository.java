@@ -0,0 +1,73 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.Facture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Insertion de factures en batch JDBC (facturation par lot), pour la même raison que
+ * RendezvousBatchRepository : l'identifiant IDENTITY empêche Hibernate de regrouper les INSERT.
+ * Aucune transaction n'est ouverte ici, c'est à l'appelant de l'encadrer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FactureBatchRepository {
+
+    private static final String INSERT_FACTURE =
+            "INSERT INTO facture (created_at, last_update, numero_facture, montant_total, frais_consultation, "
+                    + "frais_hospitalisation, frais_examen, date_echeance, statut) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insère des factures neuves en un seul batch et renseigne leurs id / createdAt
+    public void insererTous(List<Facture> factures) {
+        if (factures.isEmpty()) {
+            return;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_FACTURE, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Facture facture = factures.get(i);
+                        ps.setObject(1, maintenant);
+                        ps.setObject(2, maintenant);
+                        ps.setString(3, facture.getNumeroFacture());
+                        ps.setDouble(4, facture.getMontantTotal());
+                        ps.setObject(5, facture.getFraisConsultation());
+                        ps.setObject(6, facture.getFraisHospitalisation());
+                        ps.setObject(7, facture.getFraisExamen());
+                        ps.setObject(8, facture.getDateEcheance());
+                        // statut stocké en texte
+                        ps.setString(9, facture.getStatut().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return factures.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> cles = keyHolder.getKeyList();
+        for (int i = 0; i < factures.size() && i < cles.size(); i++) {
+            Facture facture = factures.get(i);
+            facture.setId(((Number) cles.get(i).values().iterator().next()).intValue());
+            facture.setCreatedAt(maintenant);
+            facture.setLastUpdate(maintenant);
+        }
+    }
+}
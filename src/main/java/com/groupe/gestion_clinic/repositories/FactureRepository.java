@@ -1,9 +1,14 @@
 package com.groupe.gestion_clinic.repositories;
 
 import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,46 @@ public interface FactureRepository extends JpaRepository<Facture, Integer> {
     //Optional<Facture> findByPrescriptions_Id(Integer prescriptionId);
 
     //List<Facture> findByDateEmissionBetween(LocalDate startDate, LocalDate endDate);
+
+/*
+    factures non annulées émises dans [debut, fin[ : [medecinId, montantTotal], le médecin étant celui
+    du rendez-vous de la première prescription de la facture (null sans prescription)
+ */
+    @Query("SELECT (SELECT r.medecin.id FROM Prescription p JOIN p.rendezvous r " +
+            "        WHERE p.id = (SELECT MIN(p2.id) FROM Prescription p2 WHERE p2.facture = f)), " +
+            "f.montantTotal " +
+            "FROM Facture f " +
+            "WHERE f.createdAt >= :debut AND f.createdAt < :fin " +
+            "AND f.statut <> com.groupe.gestion_clinic.model.StatutFacture.ANNULEE")
+    List<Object[]> findMontantsParMedecin(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+/*
+    revenus : somme des montants des factures au statut donné émises dans [debut, fin[,
+    parcours de l'index (statut, createdAt)
+ */
+    @Query("SELECT COALESCE(SUM(f.montantTotal), 0.0) FROM Facture f " +
+            "WHERE f.statut = :statut AND f.createdAt >= :debut AND f.createdAt < :fin")
+    Double sommeMontants(@Param("statut") StatutFacture statut,
+                         @Param("debut") LocalDateTime debut,
+                         @Param("fin") LocalDateTime fin);
+
+    // même somme par mois : [mois (1-12), montant], mois sans facture absents
+    @Query("SELECT EXTRACT(MONTH FROM f.createdAt), SUM(f.montantTotal) FROM Facture f " +
+            "WHERE f.statut = :statut AND f.createdAt >= :debut AND f.createdAt < :fin " +
+            "GROUP BY EXTRACT(MONTH FROM f.createdAt)")
+    List<Object[]> sommeMontantsParMois(@Param("statut") StatutFacture statut,
+                                        @Param("debut") LocalDateTime debut,
+                                        @Param("fin") LocalDateTime fin);
+
+    @Query("SELECT MIN(f.createdAt) FROM Facture f")
+    LocalDateTime findPremiereEmission();
+
+    // factures émises dans [debut, fin[ par id croissant après apresId : [id, numeroFacture]
+    @Query("SELECT f.id, f.numeroFacture FROM Facture f " +
+            "WHERE f.createdAt >= :debut AND f.createdAt < :fin AND f.id > :apresId " +
+            "ORDER BY f.id")
+    List<Object[]> findNumerosEmises(@Param("debut") LocalDateTime debut,
+                                     @Param("fin") LocalDateTime fin,
+                                     @Param("apresId") Integer apresId,
+                                     Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.JourneeConsolidee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface JourneeConsolideeRepository extends JpaRepository<JourneeConsolidee, LocalDate> {
+
+    @Query("SELECT j.jour FROM JourneeConsolidee j WHERE j.jour >= :from AND j.jour <= :to")
+    List<LocalDate> findJours(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
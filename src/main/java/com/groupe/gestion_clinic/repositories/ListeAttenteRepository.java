@@ -0,0 +1,75 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.ListeAttente;
+import com.groupe.gestion_clinic.model.StatutListeAttente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ListeAttenteRepository extends JpaRepository<ListeAttente, Integer> {
+
+/*
+    demandes pouvant prendre un créneau libéré chez un médecin : en attente, durée compatible,
+    fenêtre du patient respectée. Premier inscrit, premier servi. Une proposition expirée n'y
+    figure qu'une fois remise en attente par expirerProposition.
+ */
+    @Query("SELECT l FROM ListeAttente l JOIN FETCH l.patient JOIN FETCH l.medecin " +
+            "WHERE l.medecin.id = :medecinId " +
+            "AND l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.EN_ATTENTE " +
+            "AND l.dureeMinutes <= :dureeMinutes " +
+            "AND (l.dateMin IS NULL OR l.dateMin <= :debut) " +
+            "AND (l.dateMax IS NULL OR l.dateMax >= :debut) " +
+            "ORDER BY l.createdAt ASC, l.id ASC")
+    List<ListeAttente> findCandidats(@Param("medecinId") Integer medecinId,
+                                     @Param("debut") LocalDateTime debut,
+                                     @Param("dureeMinutes") int dureeMinutes);
+
+/*
+    prise en charge atomique d'une demande : une seule annulation concurrente (ou un seul noeud)
+    peut la faire passer à nouveauStatut, retourne 0 si elle a déjà été prise
+ */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ListeAttente l SET l.statut = :nouveauStatut " +
+            "WHERE l.id = :id " +
+            "AND l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.EN_ATTENTE")
+    int reclamer(@Param("id") Integer id, @Param("nouveauStatut") StatutListeAttente nouveauStatut);
+
+    // acceptation d'une proposition encore valable, une seule fois
+    @Modifying
+    @Transactional
+    @Query("UPDATE ListeAttente l SET l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.SATISFAIT " +
+            "WHERE l.id = :id " +
+            "AND l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.PROPOSE " +
+            "AND l.propositionExpireLe >= :maintenant")
+    int accepterProposition(@Param("id") Integer id, @Param("maintenant") LocalDateTime maintenant);
+
+    // propositions sans réponse dans le délai, à remettre en attente
+    @Query("SELECT l FROM ListeAttente l JOIN FETCH l.medecin " +
+            "WHERE l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.PROPOSE " +
+            "AND l.propositionExpireLe < :maintenant " +
+            "ORDER BY l.propositionExpireLe ASC")
+    List<ListeAttente> findPropositionsExpirees(@Param("maintenant") LocalDateTime maintenant);
+
+/*
+    retour en attente d'une proposition expirée, une seule fois : une acceptation simultanée
+    ou un autre noeud qui l'a déjà traitée la laissent inchangée (retourne 0)
+ */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ListeAttente l SET l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.EN_ATTENTE, " +
+            "l.propositionDebut = NULL, l.propositionExpireLe = NULL " +
+            "WHERE l.id = :id " +
+            "AND l.statut = com.groupe.gestion_clinic.model.StatutListeAttente.PROPOSE " +
+            "AND l.propositionExpireLe < :maintenant")
+    int expirerProposition(@Param("id") Integer id, @Param("maintenant") LocalDateTime maintenant);
+
+    List<ListeAttente> findByMedecinIdAndStatutInOrderByCreatedAtAsc(Integer medecinId,
+                                                                      Collection<StatutListeAttente> statuts);
+}
@@ -0,0 +1,18 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.LotFacturation;
+import com.groupe.gestion_clinic.model.ModeFacturation;
+import com.groupe.gestion_clinic.model.StatutLotFacturation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface LotFacturationRepository extends JpaRepository<LotFacturation, Integer> {
+
+    // passage à reprendre : le dernier non terminé du mois
+    Optional<LotFacturation> findFirstByMoisAndModeAndStatutNotOrderByIdDesc(LocalDate mois, ModeFacturation mode,
+                                                                           StatutLotFacturation statut);
+}
@@ -8,4 +8,6 @@ import java.util.List;
 public interface MedecinRepository extends JpaRepository<Medecin, Integer> {
     // Méthodes pour la recherche
     List<Medecin> findByNomContainingIgnoreCaseOrPrenomContainingIgnoreCase(String nom, String prenom);
+
+    List<Medecin> findBySpecialiteIgnoreCase(String specialite);
 }
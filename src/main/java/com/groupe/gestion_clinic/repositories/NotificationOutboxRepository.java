@@ -0,0 +1,40 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.NotificationOutbox;
+import com.groupe.gestion_clinic.model.StatutNotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Integer> {
+
+/*
+    prochain lot de notifications à diffuser, dans l'ordre d'écriture,
+    appuyé sur l'index (statut, prochainEssai, id)
+ */
+    @Query("SELECT n FROM NotificationOutbox n " +
+            "WHERE n.statut = com.groupe.gestion_clinic.model.StatutNotificationOutbox.EN_ATTENTE " +
+            "AND n.prochainEssai <= :maintenant " +
+            "ORDER BY n.id")
+    List<NotificationOutbox> findAEnvoyer(@Param("maintenant") LocalDateTime maintenant, Pageable pageable);
+
+    // plus ancienne notification encore en attente : mesure du retard de diffusion
+    @Query("SELECT MIN(n.createdAt) FROM NotificationOutbox n " +
+            "WHERE n.statut = com.groupe.gestion_clinic.model.StatutNotificationOutbox.EN_ATTENTE")
+    LocalDateTime findPlusAncienneEnAttente();
+
+    long countByStatut(StatutNotificationOutbox statut);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutbox n " +
+            "WHERE n.statut = com.groupe.gestion_clinic.model.StatutNotificationOutbox.ENVOYEE " +
+            "AND n.envoyeeLe < :avant")
+    int purgerEnvoyees(@Param("avant") LocalDateTime avant);
+}
@@ -2,10 +2,13 @@ package com.groupe.gestion_clinic.repositories;
 
 import com.groupe.gestion_clinic.model.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,15 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
     
     // Tri par date de création
     List<Patient> findAllByOrderByCreatedAtDesc();
+
+    // pagination par clé (createdAt, id) décroissante : pas d'OFFSET ni de COUNT
+    @Query("SELECT p FROM Patient p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Patient> findKeysetFirstPage(Pageable pageable);
+
+    @Query("SELECT p FROM Patient p " +
+            "WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Patient> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Integer id,
+                                      Pageable pageable);
 }
@@ -1,12 +1,22 @@
 package com.groupe.gestion_clinic.repositories;
 
+import com.groupe.gestion_clinic.model.Facture;
 import com.groupe.gestion_clinic.model.Prescription;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Integer> {
@@ -30,4 +40,66 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Inte
             "LEFT JOIN FETCH r.medecin " +
             "WHERE p.facture.id = :factureId")
     List<Prescription> findByFactureId(Integer factureId);
+
+/*
+    facturation par lot : prescriptions non facturées créées dans [debut, fin[, rattachées à un
+    rendez-vous. Groupes (patient ou rendez-vous) parcourus par clé croissante après :apres,
+    puis lignes des groupes retenus lues en curseur :
+    [clé du groupe, prescription id, rendez-vous id, hospitalisation nécessaire, examens nécessaires]
+ */
+    @Query("SELECT DISTINCT r.patient.id FROM Prescription p JOIN p.rendezvous r " +
+            "WHERE p.facture IS NULL AND p.createdAt >= :debut AND p.createdAt < :fin " +
+            "AND r.patient.id > :apres " +
+            "ORDER BY r.patient.id")
+    List<Integer> findPatientsAFacturer(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin,
+                                        @Param("apres") Integer apres, Pageable pageable);
+
+    @Query("SELECT DISTINCT r.id FROM Prescription p JOIN p.rendezvous r " +
+            "WHERE p.facture IS NULL AND p.createdAt >= :debut AND p.createdAt < :fin " +
+            "AND r.id > :apres " +
+            "ORDER BY r.id")
+    List<Integer> findRendezvousAFacturer(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin,
+                                          @Param("apres") Integer apres, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.patient.id, p.id, r.id, p.hospitalisationNecessaire, p.examensNecessaires " +
+            "FROM Prescription p JOIN p.rendezvous r " +
+            "WHERE p.facture IS NULL AND p.createdAt >= :debut AND p.createdAt < :fin " +
+            "AND r.patient.id IN :groupes " +
+            "ORDER BY r.patient.id, p.id")
+    Stream<Object[]> streamAFacturerParPatient(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin,
+                                               @Param("groupes") Collection<Integer> groupes);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.id, p.id, r.id, p.hospitalisationNecessaire, p.examensNecessaires " +
+            "FROM Prescription p JOIN p.rendezvous r " +
+            "WHERE p.facture IS NULL AND p.createdAt >= :debut AND p.createdAt < :fin " +
+            "AND r.id IN :groupes " +
+            "ORDER BY r.id, p.id")
+    Stream<Object[]> streamAFacturerParRendezvous(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin,
+                                                  @Param("groupes") Collection<Integer> groupes);
+
+    // rattachement ensembliste ; une prescription déjà facturée entre-temps n'est pas comptée
+    @Modifying
+    @Query("UPDATE Prescription p SET p.facture = :facture, " +
+            "p.statutFacturation = com.groupe.gestion_clinic.model.StatutFacturation.FACTUREE " +
+            "WHERE p.id IN :ids AND p.facture IS NULL")
+    int marquerFacturees(@Param("facture") Facture facture, @Param("ids") Collection<Integer> ids);
+
+    // pagination par clé (createdAt, id) décroissante : pas d'OFFSET ni de COUNT
+    @Query("SELECT p FROM Prescription p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Prescription> findKeysetFirstPage(Pageable pageable);
+
+    @Query("SELECT p FROM Prescription p " +
+            "WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Prescription> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Integer id,
+                                           Pageable pageable);
 }
\ No newline at end of file
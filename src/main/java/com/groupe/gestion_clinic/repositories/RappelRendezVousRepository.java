@@ -0,0 +1,7 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.RappelRendezVous;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RappelRendezVousRepository extends JpaRepository<RappelRendezVous, Integer> {
+}
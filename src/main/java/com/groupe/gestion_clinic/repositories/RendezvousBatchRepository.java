@@ -0,0 +1,74 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.Rendezvous;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Insertion de rendez-vous en batch JDBC (import, séries) : l'identifiant IDENTITY empêche
+ * Hibernate de regrouper les INSERT, on passe donc par JdbcTemplate.
+ * Aucune transaction n'est ouverte ici, c'est à l'appelant de l'encadrer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RendezvousBatchRepository {
+
+    private static final String INSERT_RENDEZVOUS =
+            "INSERT INTO rendezvous (created_at, last_update, date_heure_debut, date_heure_fin, motif, salle, statut, patient_id, medecin_id, serie_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insère des rendez-vous neufs en un seul batch et renseigne leurs id / createdAt
+    public void insererTous(List<Rendezvous> rendezvous) {
+        if (rendezvous.isEmpty()) {
+            return;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_RENDEZVOUS, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Rendezvous rdv = rendezvous.get(i);
+                        ps.setObject(1, maintenant);
+                        ps.setObject(2, maintenant);
+                        ps.setObject(3, rdv.getDateHeureDebut());
+                        ps.setObject(4, rdv.getDateHeureFin());
+                        ps.setString(5, rdv.getMotif());
+                        ps.setString(6, rdv.getSalle());
+                        // statut stocké en ordinal
+                        ps.setInt(7, rdv.getStatut().ordinal());
+                        ps.setObject(8, rdv.getPatient() != null ? rdv.getPatient().getId() : null, Types.INTEGER);
+                        ps.setObject(9, rdv.getMedecin() != null ? rdv.getMedecin().getId() : null, Types.INTEGER);
+                        ps.setObject(10, rdv.getSerie() != null ? rdv.getSerie().getId() : null, Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rendezvous.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> cles = keyHolder.getKeyList();
+        for (int i = 0; i < rendezvous.size() && i < cles.size(); i++) {
+            Rendezvous rdv = rendezvous.get(i);
+            rdv.setId(((Number) cles.get(i).values().iterator().next()).intValue());
+            rdv.setCreatedAt(maintenant);
+            rdv.setLastUpdate(maintenant);
+        }
+    }
+}
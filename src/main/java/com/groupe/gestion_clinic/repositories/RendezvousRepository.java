@@ -1,31 +1,154 @@
 package com.groupe.gestion_clinic.repositories;
 
+import com.groupe.gestion_clinic.dto.DashboardStatsDto;
 import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RendezvousRepository extends JpaRepository<Rendezvous, Integer> , JpaSpecificationExecutor<Rendezvous> {
+public interface RendezvousRepository extends JpaRepository<Rendezvous, Integer> , JpaSpecificationExecutor<Rendezvous>, RendezvousRepositoryCustom {
 
-// verifier si un médecin a des rendez-vous non annulés qui se chevauchent avec la plage horaire [start, end]
+/*
+    verifier si un médecin a des rendez-vous non annulés qui se chevauchent avec la plage horaire [start, end[
+    la borne earliestStart (start - durée max d'un rdv) limite le parcours de l'index (medecinId, dateHeureDebut)
+    aux seuls rendez-vous susceptibles de chevaucher, quelle que soit la taille de l'historique.
+    Les anciens rendez-vous sans dateHeureFin exploitable ne sont comparés que sur leur heure de début.
+ */
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
             "FROM Rendezvous r " +
             "WHERE r.medecin.id = :medecinId " +
+            "AND (:excludeId IS NULL OR r.id <> :excludeId) " +
             "AND r.statut <> com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE " +
-            "AND ((r.dateHeureDebut < :end AND r.dateHeureFin > :start))")
+            "AND r.dateHeureDebut > :earliestStart AND r.dateHeureDebut < :end " +
+            "AND (r.dateHeureFin > :start " +
+            "     OR ((r.dateHeureFin IS NULL OR r.dateHeureFin <= r.dateHeureDebut) AND r.dateHeureDebut >= :start))")
     boolean existsConflictingMedecinRendezVous(
                                                 @Param("medecinId") Integer medecinId,
                                                 @Param("start") LocalDateTime start,
-                                                @Param("end") LocalDateTime end);
+                                                @Param("end") LocalDateTime end,
+                                                @Param("earliestStart") LocalDateTime earliestStart,
+                                                @Param("excludeId") Integer excludeId);
+
+/*
+    meme verification que existsConflictingMedecinRendezVous pour un patient,
+    appuyée sur l'index (patientId, dateHeureDebut)
+ */
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
+            "FROM Rendezvous r " +
+            "WHERE r.patient.id = :patientId " +
+            "AND (:excludeId IS NULL OR r.id <> :excludeId) " +
+            "AND r.statut <> com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE " +
+            "AND r.dateHeureDebut > :earliestStart AND r.dateHeureDebut < :end " +
+            "AND (r.dateHeureFin > :start " +
+            "     OR ((r.dateHeureFin IS NULL OR r.dateHeureFin <= r.dateHeureDebut) AND r.dateHeureDebut >= :start))")
+    boolean existsConflictingPatientRendezVous(
+                                                @Param("patientId") Integer patientId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("earliestStart") LocalDateTime earliestStart,
+                                                @Param("excludeId") Integer excludeId);
+
+/*
+    créneaux actifs (medecinId, patientId, dateHeureDebut, dateHeureFin, id) des médecins ou patients
+    donnés dont le début tombe dans ]from, to[ : préchargement de l'index de conflits d'un import
+ */
+    @Query("SELECT m.id, p.id, r.dateHeureDebut, r.dateHeureFin, r.id " +
+            "FROM Rendezvous r LEFT JOIN r.medecin m LEFT JOIN r.patient p " +
+            "WHERE r.statut <> com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE " +
+            "AND r.dateHeureDebut > :from AND r.dateHeureDebut < :to " +
+            "AND (m.id IN :medecinIds OR p.id IN :patientIds)")
+    List<Object[]> findCreneauxOccupes(
+                                        @Param("medecinIds") Collection<Integer> medecinIds,
+                                        @Param("patientIds") Collection<Integer> patientIds,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+/*
+    rendez-vous actifs avec une salle (id, salle, dateHeureDebut, dateHeureFin) depuis une date :
+    construction de l'index d'occupation des salles
+ */
+    @Query("SELECT r.id, r.salle, r.dateHeureDebut, r.dateHeureFin FROM Rendezvous r " +
+            "WHERE r.salle IS NOT NULL " +
+            "AND r.statut <> com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE " +
+            "AND r.dateHeureDebut >= :from")
+    List<Object[]> findOccupationsSalles(@Param("from") LocalDateTime from);
+
+/*
+    occurrences encore modifiables (ni annulées ni terminées) d'une série à partir d'une date,
+    appuyée sur l'index (serieId, dateHeureDebut)
+ */
+    @Query("SELECT r FROM Rendezvous r " +
+            "WHERE r.serie.id = :serieId AND r.dateHeureDebut >= :from " +
+            "AND r.statut NOT IN (com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE, " +
+            "                     com.groupe.gestion_clinic.model.StatutRendezVous.TERMINE) " +
+            "ORDER BY r.dateHeureDebut")
+    List<Rendezvous> findOccurrencesModifiables(@Param("serieId") Integer serieId,
+                                                @Param("from") LocalDateTime from);
+
+    // nombre d'occurrences d'une série antérieures à une date (position d'une occurrence dans la série)
+    @Query("SELECT COUNT(r) FROM Rendezvous r WHERE r.serie.id = :serieId AND r.dateHeureDebut < :before")
+    long countOccurrencesAvant(@Param("serieId") Integer serieId,
+                               @Param("before") LocalDateTime before);
+
+/*
+    rendez-vous encore ouverts terminés avant :limite (id, medecinId, statut, prescription existante, dateHeureDebut),
+    parcourus par clé (dateHeureDebut, id) sur l'index (statut, dateHeureDebut) : clôture automatique
+ */
+    @Query("SELECT r.id, m.id, r.statut, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM Prescription p WHERE p.rendezvous = r) THEN true ELSE false END, " +
+            "r.dateHeureDebut " +
+            "FROM Rendezvous r LEFT JOIN r.medecin m " +
+            "WHERE r.statut IN :statuts AND r.dateHeureDebut < :limite " +
+            "AND COALESCE(r.dateHeureFin, r.dateHeureDebut) < :limite " +
+            "AND (r.dateHeureDebut > :afterDebut OR (r.dateHeureDebut = :afterDebut AND r.id > :afterId)) " +
+            "ORDER BY r.dateHeureDebut, r.id")
+    List<Object[]> findRendezVousACloturer(@Param("statuts") Collection<StatutRendezVous> statuts,
+                                           @Param("limite") LocalDateTime limite,
+                                           @Param("afterDebut") LocalDateTime afterDebut,
+                                           @Param("afterId") Integer afterId,
+                                           Pageable pageable);
+
+/*
+    clôture d'un lot : TERMINE si le rendez-vous était confirmé ou a donné lieu à une prescription
+    (terminerTous), puis ABSENT pour les autres (marquerAbsentsTous). Les lignes modifiées entre-temps
+    (plus dans :statuts) sont ignorées ; chaque UPDATE retourne le nombre de lignes passées au statut.
+ */
+    @Modifying
+    @Query("UPDATE Rendezvous r SET r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.TERMINE, " +
+            "r.lastUpdate = LOCAL DATETIME " +
+            "WHERE r.id IN :ids AND r.statut IN :statuts " +
+            "AND (r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.CONFIRME " +
+            "  OR EXISTS (SELECT 1 FROM Prescription p WHERE p.rendezvous.id = r.id))")
+    int terminerTous(@Param("ids") Collection<Integer> ids,
+                     @Param("statuts") Collection<StatutRendezVous> statuts);
+
+    @Modifying
+    @Query("UPDATE Rendezvous r SET r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.ABSENT, " +
+            "r.lastUpdate = LOCAL DATETIME " +
+            "WHERE r.id IN :ids AND r.statut IN :statuts")
+    int marquerAbsentsTous(@Param("ids") Collection<Integer> ids,
+                           @Param("statuts") Collection<StatutRendezVous> statuts);
+
+    @Modifying
+    @Query("UPDATE Rendezvous r SET r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE, " +
+            "r.dateAnnulation = :dateAnnulation, r.lastUpdate = :dateAnnulation WHERE r.id IN :ids")
+    int annulerTous(@Param("ids") Collection<Integer> ids,
+                    @Param("dateAnnulation") LocalDateTime dateAnnulation);
 
 /*
     verifier si un patient a des rendez-vous non annulés prévus dans un intervale de temps
@@ -54,6 +177,37 @@ public interface RendezvousRepository extends JpaRepository<Rendezvous, Integer>
                                                 @Param("start") LocalDateTime start,
                                                 @Param("end") LocalDateTime end);
 
+/*
+    même sélection que findAllByMedecinAndPeriod pour un médecin, en projection et en curseur
+    (fetch size) : le flux iCalendar est écrit au fil de la lecture, sans entité en mémoire.
+    (id, dateHeureDebut, dateHeureFin, statut, motif, salle, nom patient, prénom patient, createdAt)
+ */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.id, r.dateHeureDebut, r.dateHeureFin, r.statut, r.motif, r.salle, p.nom, p.prenom, r.createdAt " +
+            "FROM Rendezvous r LEFT JOIN r.patient p " +
+            "WHERE r.medecin.id = :medecinId " +
+            "AND r.dateHeureDebut BETWEEN :start AND :end " +
+            "ORDER BY r.dateHeureDebut")
+    Stream<Object[]> streamAgendaMedecin(
+                                        @Param("medecinId") Integer medecinId,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end);
+
+/*
+    empreinte de la même sélection, sur l'index (medecinId, dateHeureDebut) : une seule ligne
+    (nombre de rendez-vous, dernière modification, somme des ids) ; ETag du flux iCalendar
+ */
+    @Query("SELECT COUNT(r), MAX(r.lastUpdate), SUM(r.id) FROM Rendezvous r " +
+            "WHERE r.medecin.id = :medecinId " +
+            "AND r.dateHeureDebut BETWEEN :start AND :end")
+    List<Object[]> getEmpreinteAgenda(
+                                        @Param("medecinId") Integer medecinId,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end);
+
 /*
     afficher tous les rendevous qui ont le statut PLANIFIER qui se trouve entre une date initiale et une date future
 * */
@@ -64,20 +218,101 @@ public interface RendezvousRepository extends JpaRepository<Rendezvous, Integer>
                                             @Param("now") LocalDateTime now,
                                             @Param("futureDate") LocalDateTime futureDate);
 
-    // Nouvelles méthodes pour le dashboard
-    @Query("SELECT COUNT(r) FROM Rendezvous r WHERE DATE(r.dateHeureDebut) = :date")
-    long countByDateRendezVous(@Param("date") LocalDate date);
+/*
+    lot suivant de rendez-vous PLANIFIE à rappeler : même fenêtre que findUpcomingRendezVous,
+    sans ceux déjà rappelés pour leur heure actuelle, parcourus par clé (dateHeureDebut, id)
+ */
+    @Query("SELECT r FROM Rendezvous r " +
+            "WHERE r.dateHeureDebut BETWEEN :now AND :futureDate " +
+            "AND r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.PLANIFIE " +
+            "AND (r.dateHeureDebut > :afterDebut OR (r.dateHeureDebut = :afterDebut AND r.id > :afterId)) " +
+            "AND NOT EXISTS (SELECT 1 FROM RappelRendezVous rr " +
+            "                WHERE rr.rendezvousId = r.id AND rr.dateHeureDebut = r.dateHeureDebut) " +
+            "ORDER BY r.dateHeureDebut, r.id")
+    List<Rendezvous> findUpcomingRendezVousSansRappel(
+                                            @Param("now") LocalDateTime now,
+                                            @Param("futureDate") LocalDateTime futureDate,
+                                            @Param("afterDebut") LocalDateTime afterDebut,
+                                            @Param("afterId") Integer afterId,
+                                            Pageable pageable);
+
+/*
+    tableau de bord : tous les compteurs en un aller-retour ; les totaux patients / médecins
+    sont des sous-requêtes, les rendez-vous du jour et planifiés des agrégats conditionnels
+    sur le même parcours de rendezvous
+ */
+    @Query("SELECT new com.groupe.gestion_clinic.dto.DashboardStatsDto(" +
+            "(SELECT COUNT(p) FROM Patient p), " +
+            "(SELECT COUNT(m) FROM Medecin m), " +
+            "COUNT(r), " +
+            "COALESCE(SUM(CASE WHEN r.dateHeureDebut >= :debutJour AND r.dateHeureDebut < :finJour THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.PLANIFIE THEN 1L ELSE 0L END), 0L)) " +
+            "FROM Rendezvous r")
+    DashboardStatsDto getDashboardStats(@Param("debutJour") LocalDateTime debutJour,
+                                        @Param("finJour") LocalDateTime finJour);
+
+/*
+    compteurs par (médecin, patient) : [medecinId, patientId, rendez-vous du jour, planifiés],
+    recharge des compteurs en mémoire du tableau de bord
+ */
+    @Query("SELECT r.medecin.id, r.patient.id, COUNT(r), " +
+            "COALESCE(SUM(CASE WHEN r.dateHeureDebut >= :debutJour AND r.dateHeureDebut < :finJour THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.PLANIFIE THEN 1L ELSE 0L END), 0L) " +
+            "FROM Rendezvous r WHERE r.medecin IS NOT NULL " +
+            "GROUP BY r.medecin.id, r.patient.id")
+    List<Object[]> getStatsParMedecinEtPatient(@Param("debutJour") LocalDateTime debutJour,
+                                               @Param("finJour") LocalDateTime finJour);
+
+/*
+    consolidation quotidienne : [medecinId, rendez-vous, annulés, terminés, absents] des rendez-vous
+    commençant dans [debut, fin[, parcours de l'index dateHeureDebut
+ */
+    @Query("SELECT r.medecin.id, COUNT(r), " +
+            "COALESCE(SUM(CASE WHEN r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.ANNULE THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.TERMINE THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN r.statut = com.groupe.gestion_clinic.model.StatutRendezVous.ABSENT THEN 1L ELSE 0L END), 0L) " +
+            "FROM Rendezvous r " +
+            "WHERE r.dateHeureDebut >= :debut AND r.dateHeureDebut < :fin " +
+            "GROUP BY r.medecin.id")
+    List<Object[]> getStatsJournee(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    @Query("SELECT MIN(r.dateHeureDebut) FROM Rendezvous r")
+    LocalDateTime findPremierDebut();
 
-    @Query("SELECT COUNT(r) FROM Rendezvous r WHERE r.statut = :statut")
-    long countByStatut(@Param("statut") String statut);
+/*
+    lignes d'affichage du tableau de bord : [id, dateHeureDebut, motif, statut, patient nom, patient prénom,
+    médecin nom, médecin prénom], sans entité gérée
+ */
+    @Query("SELECT r.id, r.dateHeureDebut, r.motif, r.statut, p.nom, p.prenom, m.nom, m.prenom " +
+            "FROM Rendezvous r LEFT JOIN r.patient p LEFT JOIN r.medecin m " +
+            "WHERE r.id IN :ids")
+    List<Object[]> findAffichages(@Param("ids") Collection<Integer> ids);
 
-    @Query("SELECT r FROM Rendezvous r ORDER BY r.dateHeureDebut DESC LIMIT 10")
-    List<Rendezvous> findRecentRendezVous();
+/*
+    mêmes lignes d'affichage que findAffichages pour les rendez-vous les plus récents (dateHeureDebut
+    décroissante), chargement du tampon des rendez-vous récents du tableau de bord
+ */
+    @Query("SELECT r.id, r.dateHeureDebut, r.motif, r.statut, p.nom, p.prenom, m.nom, m.prenom " +
+            "FROM Rendezvous r LEFT JOIN r.patient p LEFT JOIN r.medecin m " +
+            "WHERE r.dateHeureDebut IS NOT NULL " +
+            "ORDER BY r.dateHeureDebut DESC, r.id DESC")
+    List<Object[]> findRecentRendezVous(Pageable pageable);
     
     List<Rendezvous> findAllByOrderByCreatedAtDesc();
     
     org.springframework.data.domain.Page<Rendezvous> findAllByOrderByCreatedAtDesc(org.springframework.data.domain.Pageable pageable);
     
     List<Rendezvous> findByPatientIdOrderByDateHeureDebutDesc(Integer patientId);
+
+    // pagination par clé (createdAt, id) décroissante : pas d'OFFSET ni de COUNT
+    @Query("SELECT r FROM Rendezvous r ORDER BY r.createdAt DESC, r.id DESC")
+    List<Rendezvous> findKeysetFirstPage(Pageable pageable);
+
+    @Query("SELECT r FROM Rendezvous r " +
+            "WHERE r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR r.id < :id) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Rendezvous> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Integer id,
+                                         Pageable pageable);
     
 }
@@ -0,0 +1,13 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.dto.RendezvousResumeDto;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface RendezvousRepositoryCustom {
+
+    // recherche paginée renvoyant directement des projections (une requête + un count si nécessaire)
+    Page<RendezvousResumeDto> findResumes(Specification<Rendezvous> spec, Pageable pageable);
+}
@@ -0,0 +1,75 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.dto.RendezvousResumeDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class RendezvousRepositoryCustomImpl implements RendezvousRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<RendezvousResumeDto> findResumes(Specification<Rendezvous> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<RendezvousResumeDto> query = cb.createQuery(RendezvousResumeDto.class);
+        Root<Rendezvous> root = query.from(Rendezvous.class);
+        Join<Rendezvous, Patient> patient = root.join("patient", JoinType.LEFT);
+        Join<Rendezvous, Medecin> medecin = root.join("medecin", JoinType.LEFT);
+        query.select(cb.construct(RendezvousResumeDto.class,
+                root.get("id"),
+                root.get("dateHeureDebut"),
+                root.get("dateHeureFin"),
+                root.get("motif"),
+                root.get("salle"),
+                root.get("statut"),
+                patient.get("id"),
+                patient.get("prenom"),
+                patient.get("nom"),
+                medecin.get("id"),
+                medecin.get("prenom"),
+                medecin.get("nom"),
+                medecin.get("specialite")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("dateHeureDebut")), cb.desc(root.get("id")));
+
+        List<RendezvousResumeDto> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // le count n'est exécuté que si la page ne suffit pas à déduire le total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Rendezvous> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Rendezvous> root = query.from(Rendezvous.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,101 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.dto.RendezvousSearchDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/*
+ * Critères de recherche des rendez-vous, tous traduits en prédicats SQL.
+ * Les bornes de date portent toujours sur dateHeureDebut (comparaisons simples, sans fonction)
+ * pour rester compatibles avec les index (medecinId|patientId|statut|salle, dateHeureDebut).
+ */
+public final class RendezvousSpecifications {
+
+    private RendezvousSpecifications() {
+    }
+
+    public static Specification<Rendezvous> fromSearch(RendezvousSearchDto search) {
+        // critère neutre (toujours vrai), enrichi par and()
+        Specification<Rendezvous> spec = (root, query, cb) -> cb.conjunction();
+        if (search == null) {
+            return spec;
+        }
+        if (search.getMedecinId() != null) {
+            spec = spec.and(hasMedecin(search.getMedecinId().intValue()));
+        }
+        if (search.getPatientId() != null) {
+            spec = spec.and(hasPatient(search.getPatientId()));
+        }
+        if (search.getStatut() != null && !search.getStatut().isBlank()) {
+            spec = spec.and(hasStatut(parseStatut(search.getStatut())));
+        }
+        if (search.getDate() != null) {
+            spec = spec.and(debutBetween(search.getDate().atStartOfDay(), search.getDate().plusDays(1).atStartOfDay()));
+        }
+        if (search.getDateDebut() != null || search.getDateFin() != null) {
+            spec = spec.and(debutBetween(search.getDateDebut(), search.getDateFin()));
+        }
+        if (search.getSalle() != null && !search.getSalle().isBlank()) {
+            spec = spec.and(hasSalle(search.getSalle().trim()));
+        }
+        if (search.getMotif() != null && !search.getMotif().isBlank()) {
+            spec = spec.and(motifContains(search.getMotif().trim()));
+        }
+        return spec;
+    }
+
+    public static Specification<Rendezvous> hasMedecin(Integer medecinId) {
+        return (root, query, cb) -> cb.equal(root.get("medecin").get("id"), medecinId);
+    }
+
+    public static Specification<Rendezvous> hasPatient(Integer patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    public static Specification<Rendezvous> hasStatut(StatutRendezVous statut) {
+        return (root, query, cb) -> cb.equal(root.get("statut"), statut);
+    }
+
+    public static Specification<Rendezvous> hasSalle(String salle) {
+        return (root, query, cb) -> cb.equal(root.get("salle"), salle);
+    }
+
+    // rendez-vous commençant dans ]start, end[ (bornes optionnelles)
+    public static Specification<Rendezvous> debutAfter(LocalDateTime start) {
+        return (root, query, cb) -> cb.greaterThan(root.get("dateHeureDebut"), start);
+    }
+
+    public static Specification<Rendezvous> debutBefore(LocalDateTime end) {
+        return (root, query, cb) -> cb.lessThan(root.get("dateHeureDebut"), end);
+    }
+
+    // rendez-vous commençant dans [start, end[ (bornes optionnelles)
+    public static Specification<Rendezvous> debutBetween(LocalDateTime start, LocalDateTime end) {
+        return (root, query, cb) -> {
+            if (start != null && end != null) {
+                return cb.and(
+                        cb.greaterThanOrEqualTo(root.get("dateHeureDebut"), start),
+                        cb.lessThan(root.get("dateHeureDebut"), end));
+            }
+            return start != null
+                    ? cb.greaterThanOrEqualTo(root.get("dateHeureDebut"), start)
+                    : cb.lessThan(root.get("dateHeureDebut"), end);
+        };
+    }
+
+    public static Specification<Rendezvous> motifContains(String motif) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("motif")), "%" + motif.toLowerCase() + "%");
+    }
+
+    private static StatutRendezVous parseStatut(String statut) {
+        try {
+            return StatutRendezVous.valueOf(statut.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Statut de rendez-vous inconnu: " + statut);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.Salle;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SalleRepository extends JpaRepository<Salle, Integer> {
+
+    Optional<Salle> findByNomIgnoreCase(String nom);
+
+    List<Salle> findAllByOrderByNomAsc();
+}
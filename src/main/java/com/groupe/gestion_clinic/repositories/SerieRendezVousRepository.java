@@ -0,0 +1,9 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.SerieRendezVous;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SerieRendezVousRepository extends JpaRepository<SerieRendezVous, Integer> {
+}
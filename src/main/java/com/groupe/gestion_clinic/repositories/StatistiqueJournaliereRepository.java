@@ -0,0 +1,40 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.model.StatistiqueJournaliere;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatistiqueJournaliereRepository extends JpaRepository<StatistiqueJournaliere, Integer> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StatistiqueJournaliere s WHERE s.jour = :jour")
+    int supprimerJour(@Param("jour") LocalDate jour);
+
+/*
+    série quotidienne, tous médecins confondus :
+    [jour, rendez-vous, annulés, terminés, absents, chiffre d'affaires]
+ */
+    @Query("SELECT s.jour, SUM(s.rendezVous), SUM(s.annules), SUM(s.termines), SUM(s.absents), SUM(s.chiffreAffaires) " +
+            "FROM StatistiqueJournaliere s " +
+            "WHERE s.jour >= :from AND s.jour <= :to " +
+            "GROUP BY s.jour ORDER BY s.jour")
+    List<Object[]> findSerie(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // même série pour un médecin, index (medecinId, jour)
+    @Query("SELECT s.jour, SUM(s.rendezVous), SUM(s.annules), SUM(s.termines), SUM(s.absents), SUM(s.chiffreAffaires) " +
+            "FROM StatistiqueJournaliere s " +
+            "WHERE s.medecinId = :medecinId AND s.jour >= :from AND s.jour <= :to " +
+            "GROUP BY s.jour ORDER BY s.jour")
+    List<Object[]> findSerieMedecin(@Param("medecinId") Integer medecinId,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+}
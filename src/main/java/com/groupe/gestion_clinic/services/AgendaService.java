@@ -0,0 +1,104 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.repositories.AgendaRendezvousRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * ---------------------- agenda dénormalisé (AgendaRendezvous) --------------------------
+ *
+ * Les vues calendrier lisent AgendaRendezvous : un parcours d'index, aucune jointure ni
+ * chargement paresseux de Patient / Medecin par ligne.
+ *
+ * Chaque écriture sur les rendez-vous (création, modification, statut, annulation, suppression,
+ * import, séries, clôture) appelle synchroniser dans sa transaction : les lignes concernées
+ * sont supprimées puis recopiées depuis rendezvous par INSERT ... SELECT. Un renommage de
+ * patient ou de médecin met à jour les noms recopiés et recharge les rendez-vous récents.
+ *
+ * L'état des lignes avant et après chaque synchronisation est publié (RendezvousModifiesEvent)
+ * pour les compteurs du tableau de bord.
+ */
+@Service
+@RequiredArgsConstructor
+public class AgendaService {
+
+    // taille maximale des listes IN
+    private static final int TAILLE_LOT = 500;
+
+    private final AgendaRendezvousRepository agendaRepository;
+    private final RendezvousRepository rendezvousRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RendezvousRecentsService rendezvousRecentsService;
+
+    public List<RendezvousDto> getAgenda(LocalDateTime start, LocalDateTime end, Integer medecinId) {
+        return (medecinId != null
+                ? agendaRepository.findPeriodeMedecin(medecinId, start, end)
+                : agendaRepository.findPeriode(start, end)).stream()
+                .map(RendezvousDto::fromAgenda)
+                .toList();
+    }
+
+    public void synchroniser(Integer rendezvousId) {
+        if (rendezvousId != null) {
+            synchroniser(List.of(rendezvousId));
+        }
+    }
+
+    // Recopie l'état courant des rendez-vous donnés ; un rendez-vous supprimé disparaît de l'agenda
+    @Transactional
+    public void synchroniser(Collection<Integer> rendezvousIds) {
+        if (rendezvousIds.isEmpty()) {
+            return;
+        }
+        // les modifications en attente sur rendezvous doivent être visibles de l'INSERT ... SELECT
+        rendezvousRepository.flush();
+        List<Integer> ids = new ArrayList<>(rendezvousIds);
+        List<RendezvousModifiesEvent.Etat> avant = new ArrayList<>();
+        List<RendezvousModifiesEvent.Etat> apres = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += TAILLE_LOT) {
+            List<Integer> lot = ids.subList(i, Math.min(i + TAILLE_LOT, ids.size()));
+            agendaRepository.findEtats(lot).forEach(ligne -> avant.add(RendezvousModifiesEvent.Etat.de(ligne)));
+            agendaRepository.supprimerTous(lot);
+            agendaRepository.copierTous(lot);
+            agendaRepository.findEtats(lot).forEach(ligne -> apres.add(RendezvousModifiesEvent.Etat.de(ligne)));
+        }
+        eventPublisher.publishEvent(new RendezvousModifiesEvent(avant, apres));
+    }
+
+    public void renommerPatient(Patient patient) {
+        agendaRepository.renommerPatient(patient.getId(), patient.getPrenom() + " " + patient.getNom());
+        rendezvousRecentsService.recharger();
+    }
+
+    public void renommerMedecin(Medecin medecin) {
+        agendaRepository.renommerMedecin(medecin.getId(), medecin.getNom(), medecin.getPrenom(),
+                medecin.getSpecialite(), medecin.getEmail());
+        rendezvousRecentsService.recharger();
+    }
+
+    // Rattrapage au démarrage : rendez-vous antérieurs à l'agenda ou écrits hors de l'application
+    @EventListener(ApplicationReadyEvent.class)
+    public void completer() {
+        try {
+            int copies = agendaRepository.copierManquants();
+            if (copies > 0) {
+                System.err.println("Agenda : " + copies + " rendez-vous recopiés");
+            }
+        } catch (Exception e) {
+            System.err.println("Agenda non complété au démarrage: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.utils.ICalendarWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+ * ---------------------- flux iCalendar de l'agenda d'un médecin --------------------------
+ *
+ * Le flux est écrit au fil d'un curseur en lecture seule (streamAgendaMedecin) : mémoire
+ * constante quelle que soit la taille de l'agenda.
+ *
+ * Les clients calendrier interrogent le flux toutes les quelques minutes. L'ETag est l'empreinte
+ * des rendez-vous de la période servie (nombre, dernière modification, somme des ids), lue en
+ * une requête d'agrégat sur l'index (medecinId, dateHeureDebut) : tant qu'elle n'a pas changé,
+ * If-None-Match donne un 304 sans lire l'agenda. Calculé depuis la base, il est le même sur
+ * tous les noeuds et suit aussi les écritures en masse (import, séries, clôture).
+ */
+@Service
+public class CalendrierService {
+
+    private static final DateTimeFormatter HORODATAGE = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS");
+
+    private final RendezvousRepository rendezvousRepository;
+    private final MedecinRepository medecinRepository;
+    private final TransactionTemplate lectureSeule;
+
+    @Value("${app.calendrier.jours-passes:30}")
+    private long joursPasses;
+
+    @Value("${app.calendrier.jours-futurs:180}")
+    private long joursFuturs;
+
+    @Value("${app.calendrier.fuseau:}")
+    private String fuseauConfig;
+
+    private ZoneId fuseau;
+
+    public CalendrierService(RendezvousRepository rendezvousRepository,
+                             MedecinRepository medecinRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.rendezvousRepository = rendezvousRepository;
+        this.medecinRepository = medecinRepository;
+        this.lectureSeule = new TransactionTemplate(transactionManager);
+        this.lectureSeule.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        fuseau = fuseauConfig == null || fuseauConfig.isBlank() ? ZoneId.systemDefault() : ZoneId.of(fuseauConfig);
+    }
+
+    /*
+     * ETag courant de l'agenda d'un médecin. Un agenda vide sur la période vérifie que le
+     * médecin existe : un id inconnu donne un 404 plutôt qu'un ETag.
+     */
+    public String getEtag(Integer medecinId) {
+        if (medecinId == null) {
+            throw new NotFoundException("Médecin non trouvé");
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        Object[] empreinte = rendezvousRepository.getEmpreinteAgenda(
+                medecinId, maintenant.minusDays(joursPasses), maintenant.plusDays(joursFuturs)).get(0);
+        long nombre = ((Number) empreinte[0]).longValue();
+        if (nombre == 0 && !medecinRepository.existsById(medecinId)) {
+            throw new NotFoundException("Médecin non trouvé: " + medecinId);
+        }
+        LocalDateTime derniereModification = (LocalDateTime) empreinte[1];
+        Number sommeIds = (Number) empreinte[2];
+        return "\"" + medecinId + "-" + nombre
+                + "-" + (derniereModification != null ? derniereModification.format(HORODATAGE) : "0")
+                + "-" + (sommeIds != null ? sommeIds.longValue() : 0) + "\"";
+    }
+
+    public Medecin getMedecin(Integer medecinId) {
+        return medecinRepository.findById(medecinId)
+                .orElseThrow(() -> new NotFoundException("Médecin non trouvé: " + medecinId));
+    }
+
+    public void ecrireAgenda(Medecin medecin, OutputStream out) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        ICalendarWriter writer = new ICalendarWriter(out, fuseau);
+        lectureSeule.executeWithoutResult(status -> {
+            try (Stream<Object[]> lignes = rendezvousRepository.streamAgendaMedecin(
+                    medecin.getId(), maintenant.minusDays(joursPasses), maintenant.plusDays(joursFuturs))) {
+                writer.debut("Dr " + medecin.getPrenom() + " " + medecin.getNom());
+                Iterator<Object[]> iterator = lignes.iterator();
+                while (iterator.hasNext()) {
+                    ecrireEvenement(writer, iterator.next(), maintenant);
+                }
+                writer.fin();
+            } catch (IOException e) {
+                // client déconnecté en cours de flux
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void ecrireEvenement(ICalendarWriter writer, Object[] ligne, LocalDateTime maintenant) throws IOException {
+        Integer id = (Integer) ligne[0];
+        LocalDateTime debut = (LocalDateTime) ligne[1];
+        LocalDateTime fin = (LocalDateTime) ligne[2];
+        StatutRendezVous statut = (StatutRendezVous) ligne[3];
+        String motif = (String) ligne[4];
+        String salle = (String) ligne[5];
+        String patient = ligne[6] != null ? ligne[7] + " " + ligne[6] : "Patient";
+        LocalDateTime creation = (LocalDateTime) ligne[8];
+
+        writer.evenement(
+                "rdv-" + id + "@gestion-clinic",
+                creation != null ? creation : maintenant,
+                debut,
+                fin != null && fin.isAfter(debut) ? fin : debut.plus(RendezvousServiceNew.DUREE_PAR_DEFAUT),
+                "RDV " + patient + (statut == StatutRendezVous.ABSENT ? " (absent)" : ""),
+                motif,
+                salle,
+                statutIcal(statut));
+    }
+
+    private static String statutIcal(StatutRendezVous statut) {
+        if (statut == null) {
+            return "TENTATIVE";
+        }
+        return switch (statut) {
+            case ANNULE -> "CANCELLED";
+            case EN_ATTENTE, PLANIFIE -> "TENTATIVE";
+            default -> "CONFIRMED";
+        };
+    }
+}
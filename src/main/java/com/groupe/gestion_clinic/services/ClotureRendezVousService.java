@@ -0,0 +1,126 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.NotificationDto;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.notificationConfig.NotificationOutboxService;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Clôture automatique des rendez-vous passés, déclenchée par ClotureRendezVousJob (Quartz).
+ *
+ * Les rendez-vous encore EN_ATTENTE / PLANIFIE / CONFIRME terminés depuis delai-minutes sont
+ * parcourus par lots de taille-lot (projection, aucune entité chargée) et clôturés par médecin
+ * du lot en deux UPDATE : TERMINE s'ils étaient confirmés ou ont donné lieu à une prescription,
+ * ABSENT sinon.
+ *
+ * Métriques et récapitulatif sont comptés sur les lignes modifiées par ces UPDATE : un
+ * rendez-vous changé entre la lecture du lot et sa clôture (annulé, confirmé) n'est pas compté
+ * à tort. Chaque médecin concerné reçoit une seule notification récapitulative par passage.
+ */
+@Service
+public class ClotureRendezVousService {
+
+    static final List<StatutRendezVous> STATUTS_OUVERTS =
+            List.of(StatutRendezVous.EN_ATTENTE, StatutRendezVous.PLANIFIE, StatutRendezVous.CONFIRME);
+
+    // borne basse du parcours par clé
+    private static final LocalDateTime DEBUT_PARCOURS = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RendezvousRepository rendezvousRepository;
+    private final NotificationOutboxService notificationOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final AgendaService agendaService;
+
+    private final Counter termines;
+    private final Counter absents;
+
+    @Value("${app.rendezvous.cloture.delai-minutes:60}")
+    private long delaiMinutes;
+
+    @Value("${app.rendezvous.cloture.taille-lot:500}")
+    private int tailleLot;
+
+    public ClotureRendezVousService(RendezvousRepository rendezvousRepository,
+                                    NotificationOutboxService notificationOutbox,
+                                    TransactionTemplate transactionTemplate,
+                                    AgendaService agendaService,
+                                    MeterRegistry meterRegistry) {
+        this.rendezvousRepository = rendezvousRepository;
+        this.notificationOutbox = notificationOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.agendaService = agendaService;
+        this.termines = meterRegistry.counter("clinic.rendezvous.cloture.termines");
+        this.absents = meterRegistry.counter("clinic.rendezvous.cloture.absents");
+    }
+
+    // Retourne le nombre de rendez-vous clôturés lors de ce passage
+    public int cloturer() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(delaiMinutes);
+        // par médecin : [terminés, absents]
+        Map<Integer, int[]> parMedecin = new HashMap<>();
+        LocalDateTime afterDebut = DEBUT_PARCOURS;
+        Integer afterId = 0;
+
+        List<Object[]> lot;
+        do {
+            lot = rendezvousRepository.findRendezVousACloturer(
+                    STATUTS_OUVERTS, limite, afterDebut, afterId, PageRequest.ofSize(tailleLot));
+            if (lot.isEmpty()) {
+                break;
+            }
+            // ids du lot par médecin (clé null : rendez-vous sans médecin)
+            List<Integer> idsLot = lot.stream().map(ligne -> (Integer) ligne[0]).toList();
+            Map<Integer, List<Integer>> idsParMedecin = new HashMap<>();
+            for (Object[] ligne : lot) {
+                idsParMedecin.computeIfAbsent((Integer) ligne[1], id -> new ArrayList<>()).add((Integer) ligne[0]);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                idsParMedecin.forEach((medecinId, ids) -> {
+                    int[] compteurs = parMedecin.computeIfAbsent(medecinId, id -> new int[2]);
+                    compteurs[0] += rendezvousRepository.terminerTous(ids, STATUTS_OUVERTS);
+                    compteurs[1] += rendezvousRepository.marquerAbsentsTous(ids, STATUTS_OUVERTS);
+                });
+                agendaService.synchroniser(idsLot);
+            });
+
+            Object[] dernier = lot.get(lot.size() - 1);
+            afterDebut = (LocalDateTime) dernier[4];
+            afterId = (Integer) dernier[0];
+        } while (lot.size() == tailleLot);
+
+        int clotures = 0;
+        for (Map.Entry<Integer, int[]> entree : parMedecin.entrySet()) {
+            int[] compteurs = entree.getValue();
+            termines.increment(compteurs[0]);
+            absents.increment(compteurs[1]);
+            clotures += compteurs[0] + compteurs[1];
+            if (entree.getKey() != null && compteurs[0] + compteurs[1] > 0) {
+                notifierMedecin(entree.getKey(), compteurs);
+            }
+        }
+        return clotures;
+    }
+
+    private void notifierMedecin(Integer medecinId, int[] compteurs) {
+        notificationOutbox.publierPrivee(medecinId.longValue(), new NotificationDto(
+                "RDV_CLOTURE",
+                "Clôture automatique : " + compteurs[0] + " rendez-vous terminé(s), "
+                        + compteurs[1] + " patient(s) absent(s)",
+                null,
+                LocalDateTime.now(),
+                "MEDECIN",
+                medecinId.longValue()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.DashboardMiseAJourDto;
+import com.groupe.gestion_clinic.dto.DashboardStatsDto;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+ * ---------------------- diffusion du tableau de bord par WebSocket --------------------------
+ *
+ * Remplace l'interrogation périodique de /api/dashboard/stats et /recent-rendezvous : les
+ * écritures (RendezvousModifiesEvent, EffectifModifieEvent) marquent le tableau de bord comme
+ * modifié, et un seul envoi est planifié diffusion-ms plus tard. Une rafale de prises de
+ * rendez-vous produit donc un message par intervalle :
+ *  - /topic/dashboard : compteurs, écart depuis le message précédent, rendez-vous créés ;
+ *  - /topic/dashboard/medecin/{id} : compteurs des médecins concernés.
+ *
+ * Le broker STOMP est local au noeud : chaque noeud diffuse les écritures qu'il a traitées à
+ * ses propres clients, les compteurs envoyés étant ceux de DashboardService.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardDiffusionService {
+
+    public static final String TOPIC = "/topic/dashboard";
+
+    // nombre d'entrées de /recent-rendezvous
+    static final int NOUVEAUX_MAX = 5;
+
+    // plus récents d'abord, comme /recent-rendezvous
+    private static final Comparator<RendezvousModifiesEvent.Etat> PLUS_RECENT =
+            Comparator.comparing(RendezvousModifiesEvent.Etat::dateHeureDebut)
+                    .thenComparing(RendezvousModifiesEvent.Etat::rendezvousId)
+                    .reversed();
+
+    private final DashboardService dashboardService;
+    private final RendezvousRepository rendezvousRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.dashboard.diffusion-ms:1000}")
+    private long diffusionMs;
+
+    private ScheduledThreadPoolExecutor planificateur;
+
+    // état accumulé depuis le dernier envoi
+    private final TreeSet<RendezvousModifiesEvent.Etat> nouveaux = new TreeSet<>(PLUS_RECENT);
+    private final Set<Integer> medecins = new HashSet<>();
+    private boolean planifie;
+
+    private DashboardStatsDto dernierEnvoi;
+
+    @PostConstruct
+    void init() {
+        planificateur = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-diffusion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        planificateur.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void arreter() {
+        planificateur.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRendezvousModifies(RendezvousModifiesEvent event) {
+        Set<Integer> existants = event.avant().stream()
+                .map(RendezvousModifiesEvent.Etat::rendezvousId)
+                .collect(Collectors.toSet());
+        for (RendezvousModifiesEvent.Etat etat : event.apres()) {
+            if (!existants.contains(etat.rendezvousId()) && etat.dateHeureDebut() != null) {
+                nouveaux.add(etat);
+                if (nouveaux.size() > NOUVEAUX_MAX) {
+                    nouveaux.pollLast();
+                }
+            }
+        }
+        event.avant().forEach(etat -> ajouterMedecin(etat.medecinId()));
+        event.apres().forEach(etat -> ajouterMedecin(etat.medecinId()));
+        planifier();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEffectifModifie(EffectifModifieEvent event) {
+        planifier();
+    }
+
+    // Envoie l'état accumulé ; /topic/dashboard n'est pas republié si rien n'a bougé
+    void diffuser() {
+        List<Integer> nouveauxIds;
+        Set<Integer> medecinIds;
+        synchronized (this) {
+            planifie = false;
+            nouveauxIds = nouveaux.stream().map(RendezvousModifiesEvent.Etat::rendezvousId).toList();
+            medecinIds = new HashSet<>(medecins);
+            nouveaux.clear();
+            medecins.clear();
+        }
+        try {
+            for (Integer medecinId : medecinIds) {
+                messagingTemplate.convertAndSend(TOPIC + "/medecin/" + medecinId, dashboardService.getMedecinStats(medecinId));
+            }
+            DashboardStatsDto stats = dashboardService.getStats();
+            if (nouveauxIds.isEmpty() && stats.equals(dernierEnvoi)) {
+                return;
+            }
+            messagingTemplate.convertAndSend(TOPIC, DashboardMiseAJourDto.builder()
+                    .stats(stats)
+                    .deltas(dernierEnvoi == null ? null : ecart(dernierEnvoi, stats))
+                    .nouveaux(affichages(nouveauxIds))
+                    .emisLe(LocalDateTime.now())
+                    .build());
+            dernierEnvoi = stats;
+        } catch (Exception e) {
+            System.err.println("Diffusion du tableau de bord impossible: " + e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> affichages(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Map<String, Object>> parId = new HashMap<>();
+        rendezvousRepository.findAffichages(ids).forEach(ligne -> parId.put((Integer) ligne[0], RendezvousRecentsService.affichage(ligne)));
+        // ordre de nouveaux ; un rendez-vous supprimé entre-temps est ignoré
+        return ids.stream().map(parId::get).filter(rdv -> rdv != null).toList();
+    }
+
+    private void ajouterMedecin(Integer medecinId) {
+        if (medecinId != null) {
+            medecins.add(medecinId);
+        }
+    }
+
+    private void planifier() {
+        if (!planifie) {
+            planifie = true;
+            planificateur.schedule(this::diffuser, diffusionMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static DashboardStatsDto ecart(DashboardStatsDto avant, DashboardStatsDto apres) {
+        return new DashboardStatsDto(
+                apres.getTotalPatients() - avant.getTotalPatients(),
+                apres.getTotalMedecins() - avant.getTotalMedecins(),
+                apres.getTotalRendezVous() - avant.getTotalRendezVous(),
+                apres.getRendezVousAujourdhui() - avant.getRendezVousAujourdhui(),
+                apres.getRendezVousEnAttente() - avant.getRendezVousEnAttente());
+    }
+}
@@ -0,0 +1,229 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.DashboardStatsDto;
+import com.groupe.gestion_clinic.dto.MedecinStatsDto;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * ---------------------- compteurs du tableau de bord en mémoire --------------------------
+ *
+ * Le tableau de bord est interrogé en continu : les lectures sont servies par des compteurs
+ * en mémoire, sans requête SQL. Ils sont chargés en deux requêtes agrégées, puis tenus à jour
+ * après commit par les événements des écritures :
+ *  - RendezvousModifiesEvent (AgendaService) : état avant / après des rendez-vous écrits ;
+ *  - EffectifModifieEvent : création / suppression d'un patient ou d'un médecin.
+ *
+ * Les compteurs sont rechargés depuis la base après reconciliation-minutes (écritures d'un
+ * autre noeud, chemins qui ne publient pas d'événement) et au changement de jour, avec les
+ * rendez-vous récents (RendezvousRecentsService).
+ *
+ * Les requêtes de rechargement s'exécutent hors du moniteur du service : lectures et événements
+ * continuent sur les compteurs en place, les nouveaux sont installés sous le verrou. Un
+ * événement reçu pendant la lecture (generation modifiée) peut être absent ou déjà compté dans
+ * le résultat : la lecture est refaite, au plus ESSAIS_CHARGEMENT fois, la dernière étant
+ * installée telle quelle jusqu'à la réconciliation suivante. Un seul rechargement à la fois.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final int ESSAIS_CHARGEMENT = 3;
+
+    private final RendezvousRepository rendezvousRepository;
+    private final RendezvousRecentsService rendezvousRecentsService;
+
+    @Value("${app.dashboard.reconciliation-minutes:5}")
+    private long reconciliationMinutes;
+
+    // compteurs et generation gardés par le moniteur du service
+    private Compteurs compteurs;
+    private long generation;
+
+    // un rechargement à la fois ; pris avant le moniteur du service, jamais après
+    private final Object rechargement = new Object();
+
+    public DashboardStatsDto getStats() {
+        actualiser();
+        synchronized (this) {
+            Compteurs c = compteurs;
+            return new DashboardStatsDto(c.patients, c.medecins, c.rendezVous, c.aujourdhui, c.enAttente);
+        }
+    }
+
+    public MedecinStatsDto getMedecinStats(Integer medecinId) {
+        actualiser();
+        synchronized (this) {
+            return statsMedecin(medecinId);
+        }
+    }
+
+    private MedecinStatsDto statsMedecin(Integer medecinId) {
+        CompteursMedecin m = compteurs.parMedecin.get(medecinId);
+        if (m == null) {
+            return new MedecinStatsDto(0L, 0L, 0L);
+        }
+        return new MedecinStatsDto((long) m.patients.size(), m.aujourdhui, m.enAttente);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRendezvousModifies(RendezvousModifiesEvent event) {
+        generation++;
+        // pas encore chargés : le premier accès lira la base
+        if (compteurs == null) {
+            return;
+        }
+        event.avant().forEach(etat -> compteurs.appliquer(etat, -1));
+        event.apres().forEach(etat -> compteurs.appliquer(etat, 1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEffectifModifie(EffectifModifieEvent event) {
+        generation++;
+        if (compteurs == null) {
+            return;
+        }
+        if (event.effectif() == EffectifModifieEvent.Effectif.PATIENT) {
+            compteurs.patients += event.delta();
+        } else {
+            compteurs.medecins += event.delta();
+        }
+    }
+
+    // Recharge immédiate depuis la base ; retourne les compteurs globaux corrigés
+    public DashboardStatsDto reconcilier() {
+        synchronized (rechargement) {
+            recharger();
+        }
+        return getStats();
+    }
+
+    // Recharge les compteurs absents, expirés ou d'un autre jour
+    private void actualiser() {
+        synchronized (this) {
+            if (!perimes()) {
+                return;
+            }
+        }
+        synchronized (rechargement) {
+            // rechargés par un autre thread pendant l'attente
+            synchronized (this) {
+                if (!perimes()) {
+                    return;
+                }
+            }
+            recharger();
+        }
+    }
+
+    private boolean perimes() {
+        return compteurs == null || System.currentTimeMillis() > compteurs.expireLe
+                || !LocalDate.now().equals(compteurs.jour);
+    }
+
+    // Appelé sous rechargement : requêtes hors du moniteur, échange sous le moniteur
+    private void recharger() {
+        for (int essai = 1; essai <= ESSAIS_CHARGEMENT; essai++) {
+            long lue;
+            synchronized (this) {
+                lue = generation;
+            }
+            Compteurs charges = charger();
+            synchronized (this) {
+                if (generation == lue || essai == ESSAIS_CHARGEMENT) {
+                    installer(charges);
+                    break;
+                }
+            }
+        }
+        rendezvousRecentsService.recharger();
+    }
+
+    private void installer(Compteurs charges) {
+        Compteurs anciens = compteurs;
+        compteurs = charges;
+        if (anciens != null && anciens.jour.equals(compteurs.jour)
+                && (anciens.rendezVous != compteurs.rendezVous || anciens.aujourdhui != compteurs.aujourdhui
+                    || anciens.enAttente != compteurs.enAttente || anciens.patients != compteurs.patients
+                    || anciens.medecins != compteurs.medecins)) {
+            System.err.println("Tableau de bord : écart corrigé (rendez-vous " + anciens.rendezVous + " -> " + compteurs.rendezVous
+                    + ", aujourd'hui " + anciens.aujourdhui + " -> " + compteurs.aujourdhui
+                    + ", planifiés " + anciens.enAttente + " -> " + compteurs.enAttente + ")");
+        }
+    }
+
+    private Compteurs charger() {
+        LocalDate jour = LocalDate.now();
+        LocalDateTime debutJour = jour.atStartOfDay();
+        Compteurs c = new Compteurs(jour, System.currentTimeMillis() + reconciliationMinutes * 60_000);
+
+        DashboardStatsDto globaux = rendezvousRepository.getDashboardStats(debutJour, debutJour.plusDays(1));
+        c.patients = globaux.getTotalPatients();
+        c.medecins = globaux.getTotalMedecins();
+        c.rendezVous = globaux.getTotalRendezVous();
+        c.aujourdhui = globaux.getRendezVousAujourdhui();
+        c.enAttente = globaux.getRendezVousEnAttente();
+
+        for (Object[] ligne : rendezvousRepository.getStatsParMedecinEtPatient(debutJour, debutJour.plusDays(1))) {
+            CompteursMedecin m = c.parMedecin.computeIfAbsent((Integer) ligne[0], id -> new CompteursMedecin());
+            if (ligne[1] != null) {
+                m.patients.put((Integer) ligne[1], ((Number) ligne[2]).longValue());
+            }
+            m.aujourdhui += ((Number) ligne[3]).longValue();
+            m.enAttente += ((Number) ligne[4]).longValue();
+        }
+        return c;
+    }
+
+    private static final class Compteurs {
+
+        private final LocalDate jour;
+        private final long expireLe;
+        private long patients;
+        private long medecins;
+        private long rendezVous;
+        private long aujourdhui;
+        private long enAttente;
+        private final Map<Integer, CompteursMedecin> parMedecin = new HashMap<>();
+
+        Compteurs(LocalDate jour, long expireLe) {
+            this.jour = jour;
+            this.expireLe = expireLe;
+        }
+
+        // ajoute (sens = 1) ou retire (sens = -1) la contribution d'un rendez-vous
+        void appliquer(RendezvousModifiesEvent.Etat etat, int sens) {
+            boolean duJour = etat.dateHeureDebut() != null && etat.dateHeureDebut().toLocalDate().equals(jour);
+            boolean planifie = etat.statut() == StatutRendezVous.PLANIFIE;
+            rendezVous += sens;
+            aujourdhui += duJour ? sens : 0;
+            enAttente += planifie ? sens : 0;
+            if (etat.medecinId() == null) {
+                return;
+            }
+            CompteursMedecin m = parMedecin.computeIfAbsent(etat.medecinId(), id -> new CompteursMedecin());
+            m.aujourdhui += duJour ? sens : 0;
+            m.enAttente += planifie ? sens : 0;
+            if (etat.patientId() != null) {
+                // nombre de rendez-vous par patient : le patient disparaît avec son dernier rendez-vous
+                m.patients.merge(etat.patientId(), (long) sens, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private static final class CompteursMedecin {
+
+        private final Map<Integer, Long> patients = new HashMap<>();
+        private long aujourdhui;
+        private long enAttente;
+    }
+}
@@ -0,0 +1,321 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.CreneauDisponibleDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * ---------------------- calendrier de disponibilité en mémoire --------------------------
+ *
+ * Pour chaque (médecin, jour) on garde un compteur de rendez-vous actifs par créneau
+ * (duree-creneau-minutes) entre l'heure d'ouverture et l'heure de fermeture.
+ * Un créneau est libre quand son compteur vaut 0.
+ *
+ * Les journées sont chargées à la demande via findAllByMedecinAndPeriod (une requête par
+ * semaine manquante), puis mises à jour à chaque création / modification / annulation /
+ * changement de statut par RendezvousServiceNew.
+ *
+ * Le calendrier est indicatif : une journée est rechargée après ttl-minutes pour rattraper
+ * les écritures faites par un autre noeud, la vérification de conflit en base reste la référence.
+ *
+ * Chaque mise à jour incrémente la génération du médecin, sous son verrou. Un chargement ne
+ * remplace les journées que si la génération n'a pas bougé pendant sa requête : sinon une
+ * réservation faite entre-temps serait écrasée par un état lu avant elle, et il est refait.
+ */
+@Service
+@RequiredArgsConstructor
+public class DisponibiliteService {
+
+    private static final int JOURS_PAR_CHARGEMENT = 7;
+
+    // chargements refaits quand des écritures se succèdent pendant la requête
+    private static final int ESSAIS_CHARGEMENT = 3;
+
+    private final RendezvousRepository rendezvousRepository;
+    private final MedecinRepository medecinRepository;
+
+    @Value("${app.disponibilite.heure-ouverture:08:00}")
+    private String heureOuvertureConfig;
+
+    @Value("${app.disponibilite.heure-fermeture:18:00}")
+    private String heureFermetureConfig;
+
+    @Value("${app.disponibilite.duree-creneau-minutes:15}")
+    private int dureeCreneauMinutes;
+
+    @Value("${app.disponibilite.horizon-jours:60}")
+    private int horizonJours;
+
+    @Value("${app.disponibilite.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    private LocalTime heureOuverture;
+    private int nombreCreneaux;
+
+    private final Map<Cle, JourOccupation> occupations = new ConcurrentHashMap<>();
+    private final Map<Integer, Generation> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        heureOuverture = LocalTime.parse(heureOuvertureConfig);
+        LocalTime heureFermeture = LocalTime.parse(heureFermetureConfig);
+        nombreCreneaux = (int) (Duration.between(heureOuverture, heureFermeture).toMinutes() / dureeCreneauMinutes);
+    }
+
+    // Un rendez-vous actif occupe ses créneaux (journées déjà en mémoire uniquement)
+    public void occuper(Rendezvous rendezvous) {
+        if (rendezvous.getStatut() != StatutRendezVous.ANNULE) {
+            appliquer(rendezvous, 1);
+        }
+    }
+
+    // Libère les créneaux d'un rendez-vous qui était actif
+    public void liberer(Rendezvous rendezvous) {
+        appliquer(rendezvous, -1);
+    }
+
+    public void liberer(Integer medecinId, LocalDateTime debut, LocalDateTime fin) {
+        appliquer(medecinId, debut, fin, -1);
+    }
+
+    // Vrai si aucun rendez-vous actif du médecin ne couvre [debut, fin[ dans les heures d'ouverture
+    public boolean estLibre(Integer medecinId, LocalDateTime debut, LocalDateTime fin) {
+        if (medecinId == null || debut == null || fin == null || !fin.isAfter(debut)) {
+            return false;
+        }
+        LocalDate jour = debut.toLocalDate();
+        int[] plage = plage(debut, fin);
+        return getOccupation(medecinId, jour, jour).estLibre(plage[0], plage[1]);
+    }
+
+    public List<CreneauDisponibleDto> getProchainsCreneauxLibres(Integer medecinId, String specialite,
+                                                                  LocalDateTime from, Duration duree, int nombre) {
+        if (duree == null || duree.isNegative() || duree.isZero() || duree.compareTo(RendezvousServiceNew.DUREE_MAX) > 0) {
+            throw new BusinessException("Durée de créneau invalide");
+        }
+        if (nombre <= 0) {
+            return List.of();
+        }
+        LocalDateTime debut = from == null || from.isBefore(LocalDateTime.now()) ? LocalDateTime.now() : from;
+
+        List<Medecin> medecins;
+        if (medecinId != null) {
+            medecins = medecinRepository.findById(medecinId).map(List::of)
+                    .orElseThrow(() -> new BusinessException("Médecin non trouvé"));
+        } else if (specialite != null && !specialite.isBlank()) {
+            medecins = medecinRepository.findBySpecialiteIgnoreCase(specialite.trim());
+        } else {
+            throw new BusinessException("medecinId ou specialite est requis");
+        }
+
+        List<CreneauDisponibleDto> creneaux = new ArrayList<>();
+        for (Medecin medecin : medecins) {
+            creneaux.addAll(prochainsCreneauxLibres(medecin, debut, duree, nombre));
+        }
+        creneaux.sort(Comparator.comparing(CreneauDisponibleDto::getDateHeureDebut));
+        return creneaux.size() > nombre ? creneaux.subList(0, nombre) : creneaux;
+    }
+
+    private List<CreneauDisponibleDto> prochainsCreneauxLibres(Medecin medecin, LocalDateTime from,
+                                                               Duration duree, int nombre) {
+        int longueur = (int) ((duree.toMinutes() + dureeCreneauMinutes - 1) / dureeCreneauMinutes);
+        List<CreneauDisponibleDto> creneaux = new ArrayList<>();
+        LocalDate premierJour = from.toLocalDate();
+        LocalDate dernierJour = premierJour.plusDays(horizonJours);
+
+        for (LocalDate jour = premierJour; !jour.isAfter(dernierJour) && creneaux.size() < nombre; jour = jour.plusDays(1)) {
+            JourOccupation occupation = getOccupation(medecin.getId(), jour, dernierJour);
+            int index = jour.equals(premierJour) ? premierIndexApres(from.toLocalTime()) : 0;
+
+            while (creneaux.size() < nombre) {
+                index = occupation.premierCreneauLibre(index, longueur);
+                if (index < 0) {
+                    break;
+                }
+                LocalDateTime debut = jour.atTime(heureOuverture).plusMinutes((long) index * dureeCreneauMinutes);
+                creneaux.add(CreneauDisponibleDto.builder()
+                        .medecinId(medecin.getId())
+                        .medecinNom(medecin.getPrenom() + " " + medecin.getNom())
+                        .specialite(medecin.getSpecialite())
+                        .dateHeureDebut(debut)
+                        .dateHeureFin(debut.plus(duree))
+                        .build());
+                index += longueur;
+            }
+        }
+        return creneaux;
+    }
+
+    private JourOccupation getOccupation(Integer medecinId, LocalDate jour, LocalDate dernierJour) {
+        JourOccupation occupation = occupations.get(new Cle(medecinId, jour));
+        if (occupation == null || occupation.estExpiree()) {
+            LocalDate fin = jour.plusDays(JOURS_PAR_CHARGEMENT - 1);
+            occupation = charger(medecinId, jour, fin.isAfter(dernierJour) ? dernierJour : fin).get(jour);
+        }
+        return occupation;
+    }
+
+    // Reconstruit les journées [premierJour, dernierJour] d'un médecin, gardées si aucune écriture ne l'a croisé
+    private Map<LocalDate, JourOccupation> charger(Integer medecinId, LocalDate premierJour, LocalDate dernierJour) {
+        LocalDate today = LocalDate.now();
+        occupations.keySet().removeIf(cle -> cle.jour().isBefore(today));
+
+        Generation generation = generation(medecinId);
+        for (int essai = 1; ; essai++) {
+            long lue;
+            synchronized (generation) {
+                lue = generation.valeur;
+            }
+            Map<LocalDate, JourOccupation> jours = lire(medecinId, premierJour, dernierJour);
+            synchronized (generation) {
+                if (generation.valeur == lue) {
+                    jours.forEach((jour, occupation) -> occupations.put(new Cle(medecinId, jour), occupation));
+                    return jours;
+                }
+            }
+            if (essai == ESSAIS_CHARGEMENT) {
+                // écritures continues : état servi à cette lecture sans être gardé
+                return jours;
+            }
+        }
+    }
+
+    // Une requête pour les journées [premierJour, dernierJour]
+    private Map<LocalDate, JourOccupation> lire(Integer medecinId, LocalDate premierJour, LocalDate dernierJour) {
+        Map<LocalDate, JourOccupation> jours = new HashMap<>();
+        for (LocalDate jour = premierJour; !jour.isAfter(dernierJour); jour = jour.plusDays(1)) {
+            jours.put(jour, new JourOccupation(nombreCreneaux, System.currentTimeMillis() + ttlMinutes * 60_000));
+        }
+        List<Rendezvous> rendezvous = rendezvousRepository.findAllByMedecinAndPeriod(
+                medecinId, premierJour.atStartOfDay(), dernierJour.plusDays(1).atStartOfDay());
+        for (Rendezvous rdv : rendezvous) {
+            if (rdv.getStatut() == StatutRendezVous.ANNULE) {
+                continue;
+            }
+            JourOccupation occupation = jours.get(rdv.getDateHeureDebut().toLocalDate());
+            if (occupation != null) {
+                int[] plage = plage(rdv.getDateHeureDebut(), finEffective(rdv.getDateHeureDebut(), rdv.getDateHeureFin()));
+                occupation.ajouter(plage[0], plage[1], 1);
+            }
+        }
+        return jours;
+    }
+
+    private void appliquer(Rendezvous rendezvous, int delta) {
+        if (rendezvous.getMedecin() != null) {
+            appliquer(rendezvous.getMedecin().getId(), rendezvous.getDateHeureDebut(), rendezvous.getDateHeureFin(), delta);
+        }
+    }
+
+    private void appliquer(Integer medecinId, LocalDateTime debut, LocalDateTime fin, int delta) {
+        if (medecinId == null || debut == null) {
+            return;
+        }
+        Generation generation = generation(medecinId);
+        synchronized (generation) {
+            generation.valeur++;
+            JourOccupation occupation = occupations.get(new Cle(medecinId, debut.toLocalDate()));
+            if (occupation != null) {
+                int[] plage = plage(debut, finEffective(debut, fin));
+                occupation.ajouter(plage[0], plage[1], delta);
+            }
+        }
+    }
+
+    private Generation generation(Integer medecinId) {
+        return generations.computeIfAbsent(medecinId, id -> new Generation());
+    }
+
+    // Indices [premier, dernier[ des créneaux couverts par [debut, fin[, bornés aux heures d'ouverture
+    private int[] plage(LocalDateTime debut, LocalDateTime fin) {
+        LocalDateTime ouverture = debut.toLocalDate().atTime(heureOuverture);
+        long premier = Math.floorDiv(Duration.between(ouverture, debut).toMinutes(), dureeCreneauMinutes);
+        long dernier = Math.floorDiv(Duration.between(ouverture, fin).toMinutes() + dureeCreneauMinutes - 1, dureeCreneauMinutes);
+        return new int[]{
+                (int) Math.max(0, Math.min(premier, nombreCreneaux)),
+                (int) Math.max(0, Math.min(dernier, nombreCreneaux))
+        };
+    }
+
+    private int premierIndexApres(LocalTime heure) {
+        long minutes = Duration.between(heureOuverture, heure).toMinutes();
+        if (minutes <= 0) {
+            return 0;
+        }
+        return (int) Math.min(nombreCreneaux, (minutes + dureeCreneauMinutes - 1) / dureeCreneauMinutes);
+    }
+
+    private static LocalDateTime finEffective(LocalDateTime debut, LocalDateTime fin) {
+        return fin != null && fin.isAfter(debut) ? fin : debut.plus(RendezvousServiceNew.DUREE_PAR_DEFAUT);
+    }
+
+    private record Cle(Integer medecinId, LocalDate jour) {
+    }
+
+    // Compteur de mises à jour d'un médecin, verrou de ses chargements
+    private static final class Generation {
+        private long valeur;
+    }
+
+    // Nombre de rendez-vous actifs par créneau pour une journée
+    private static final class JourOccupation {
+
+        private final short[] compteurs;
+        private final long expireLe;
+
+        JourOccupation(int nombreCreneaux, long expireLe) {
+            this.compteurs = new short[nombreCreneaux];
+            this.expireLe = expireLe;
+        }
+
+        boolean estExpiree() {
+            return System.currentTimeMillis() > expireLe;
+        }
+
+        synchronized void ajouter(int premier, int dernier, int delta) {
+            for (int i = premier; i < dernier; i++) {
+                compteurs[i] = (short) Math.max(0, compteurs[i] + delta);
+            }
+        }
+
+        synchronized boolean estLibre(int premier, int dernier) {
+            for (int i = premier; i < dernier; i++) {
+                if (compteurs[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Premier index >= depuis suivi de longueur créneaux libres, -1 si aucun
+        synchronized int premierCreneauLibre(int depuis, int longueur) {
+            int libres = 0;
+            for (int i = depuis; i < compteurs.length; i++) {
+                libres = compteurs[i] == 0 ? libres + 1 : 0;
+                if (libres == longueur) {
+                    return i - longueur + 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
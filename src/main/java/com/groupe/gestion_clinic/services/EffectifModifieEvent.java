@@ -0,0 +1,13 @@
+package com.groupe.gestion_clinic.services;
+
+/*
+ * Publié à la création (+1) ou à la suppression (-1) d'un patient ou d'un médecin.
+ * Consommé après commit par les compteurs du tableau de bord.
+ */
+public record EffectifModifieEvent(Effectif effectif, int delta) {
+
+    public enum Effectif {
+        PATIENT,
+        MEDECIN
+    }
+}
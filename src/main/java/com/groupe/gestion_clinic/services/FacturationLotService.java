@@ -0,0 +1,244 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.LotFacturationDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.LotFacturation;
+import com.groupe.gestion_clinic.model.ModeFacturation;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.model.StatutLotFacturation;
+import com.groupe.gestion_clinic.repositories.FactureBatchRepository;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import com.groupe.gestion_clinic.repositories.LotFacturationRepository;
+import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/*
+ * ---------------------- facturation mensuelle par lot --------------------------
+ *
+ * Regroupe les prescriptions non facturées d'un mois en factures, par patient ou par
+ * rendez-vous (ModeFacturation). Le passage avance par paquets de taille-lot groupes, chacun
+ * dans sa propre transaction :
+ *  - clés des groupes suivants lues après le curseur du passage (LotFacturation.curseur) ;
+ *  - prescriptions de ces groupes lues en curseur (fetch size), en projection ;
+ *  - factures insérées en un batch JDBC (FactureBatchRepository), numéros NumeroFactureService ;
+ *  - prescriptions rattachées par un UPDATE ensembliste par facture ;
+ *  - curseur et compteurs du passage écrits dans la même transaction.
+ * Après un arrêt, le passage non terminé du mois reprend au paquet suivant le dernier commité.
+ * Une prescription facturée entre-temps par un autre passage annule le paquet (ConflictException).
+ *
+ * Montants : frais de consultation par rendez-vous, frais d'hospitalisation et d'examens par
+ * rendez-vous dont une prescription les demande (app.facturation.lot.*).
+ *
+ * Seules les prescriptions créées depuis app.facturation.lot.depuis sont facturées par lot : les
+ * précédentes ont pu l'être une à une (/api/factures/creer) sans être rattachées à leur facture.
+ * Non renseignée, la facturation par lot est refusée plutôt que de facturer deux fois.
+ */
+@Service
+@RequiredArgsConstructor
+public class FacturationLotService {
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final FactureRepository factureRepository;
+    private final FactureBatchRepository factureBatchRepository;
+    private final LotFacturationRepository lotRepository;
+    private final NumeroFactureService numeroFactureService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.facturation.lot.taille-lot:200}")
+    private int tailleLot;
+
+    @Value("${app.facturation.lot.mode:PAR_PATIENT}")
+    private ModeFacturation modeParDefaut;
+
+    @Value("${app.facturation.lot.frais-consultation:10000}")
+    private double fraisConsultation;
+
+    @Value("${app.facturation.lot.frais-hospitalisation:50000}")
+    private double fraisHospitalisation;
+
+    @Value("${app.facturation.lot.frais-examen:15000}")
+    private double fraisExamen;
+
+    @Value("${app.facturation.lot.delai-echeance-jours:30}")
+    private long delaiEcheanceJours;
+
+    // date de mise en service de la facturation par lot (yyyy-MM-dd)
+    @Value("${app.facturation.lot.depuis:}")
+    private String depuis;
+
+    // Passage planifié en début de mois : facture le mois écoulé
+    public LotFacturationDto facturerMoisPrecedent() {
+        return facturer(YearMonth.now().minusMonths(1), null);
+    }
+
+    public synchronized LotFacturationDto facturer(YearMonth mois, ModeFacturation mode) {
+        if (mois == null || mois.isAfter(YearMonth.now())) {
+            throw new BusinessException("Mois à facturer invalide: " + mois);
+        }
+        if (depuis == null || depuis.isBlank()) {
+            throw new BusinessException("Facturation par lot désactivée : app.facturation.lot.depuis non renseigné");
+        }
+        LocalDateTime miseEnService = LocalDate.parse(depuis.trim()).atStartOfDay();
+        LocalDateTime debut = mois.atDay(1).atStartOfDay();
+        LocalDateTime fin = debut.plusMonths(1);
+        if (!fin.isAfter(miseEnService)) {
+            throw new BusinessException("Mois " + mois + " antérieur à la facturation par lot (depuis " + depuis.trim() + ")");
+        }
+        // mois de la mise en service : prescriptions créées à partir de cette date seulement
+        if (debut.isBefore(miseEnService)) {
+            debut = miseEnService;
+        }
+        ModeFacturation modeLot = mode != null ? mode : modeParDefaut;
+        LotFacturation lot = ouvrir(mois, modeLot);
+        try {
+            while (paquet(lot, debut, fin)) {
+                // paquet suivant
+            }
+            lot.setStatut(StatutLotFacturation.TERMINE);
+            lot.setFin(LocalDateTime.now());
+            lot = lotRepository.save(lot);
+            LotFacturationDto rapport = LotFacturationDto.fromEntity(lot);
+            System.err.println("Facturation " + mois + " (" + modeLot + ") : " + rapport.getFactures() + " facture(s), "
+                    + rapport.getPrescriptions() + " prescription(s) en " + rapport.getDureeMs() + " ms ("
+                    + Math.round(rapport.getPrescriptionsParSeconde()) + " prescriptions/s)");
+            return rapport;
+        } catch (RuntimeException e) {
+            // état du dernier paquet commité
+            LotFacturation echoue = lotRepository.findById(lot.getId()).orElse(lot);
+            echoue.setStatut(StatutLotFacturation.ECHOUE);
+            echoue.setErreur(e.getMessage());
+            System.err.println("Facturation " + mois + " interrompue après " + echoue.getPaquets() + " paquet(s): " + e.getMessage());
+            return LotFacturationDto.fromEntity(lotRepository.save(echoue));
+        }
+    }
+
+    public LotFacturationDto getLot(Integer id) {
+        return lotRepository.findById(id)
+                .map(LotFacturationDto::fromEntity)
+                .orElseThrow(() -> new NotFoundException("Lot de facturation non trouvé: " + id));
+    }
+
+    // Reprend le dernier passage non terminé du mois, ou en ouvre un nouveau
+    private LotFacturation ouvrir(YearMonth mois, ModeFacturation mode) {
+        LocalDate premierJour = mois.atDay(1);
+        return lotRepository.findFirstByMoisAndModeAndStatutNotOrderByIdDesc(premierJour, mode, StatutLotFacturation.TERMINE)
+                .map(lot -> {
+                    System.err.println("Facturation " + mois + " : reprise du lot " + lot.getId() + " après " + lot.getPaquets() + " paquet(s)");
+                    lot.setStatut(StatutLotFacturation.EN_COURS);
+                    lot.setErreur(null);
+                    return lotRepository.save(lot);
+                })
+                .orElseGet(() -> lotRepository.save(LotFacturation.builder()
+                        .mois(premierJour)
+                        .mode(mode)
+                        .statut(StatutLotFacturation.EN_COURS)
+                        .curseur(0)
+                        .debut(LocalDateTime.now())
+                        .build()));
+    }
+
+    // Un paquet de groupes dans sa transaction ; false quand il ne reste rien à facturer
+    private boolean paquet(LotFacturation lot, LocalDateTime debut, LocalDateTime fin) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            long depart = System.currentTimeMillis();
+            PageRequest page = PageRequest.of(0, tailleLot);
+            List<Integer> cles = lot.getMode() == ModeFacturation.PAR_PATIENT
+                    ? prescriptionRepository.findPatientsAFacturer(debut, fin, lot.getCurseur(), page)
+                    : prescriptionRepository.findRendezvousAFacturer(debut, fin, lot.getCurseur(), page);
+            if (cles.isEmpty()) {
+                return false;
+            }
+
+            Map<Integer, Groupe> groupes = new LinkedHashMap<>();
+            try (Stream<Object[]> lignes = lot.getMode() == ModeFacturation.PAR_PATIENT
+                    ? prescriptionRepository.streamAFacturerParPatient(debut, fin, cles)
+                    : prescriptionRepository.streamAFacturerParRendezvous(debut, fin, cles)) {
+                lignes.forEach(ligne -> groupes.computeIfAbsent((Integer) ligne[0], cle -> new Groupe()).ajouter(ligne));
+            }
+
+            List<Facture> factures = new ArrayList<>();
+            for (Groupe groupe : groupes.values()) {
+                factures.add(facture(groupe));
+            }
+            factureBatchRepository.insererTous(factures);
+
+            int i = 0;
+            long prescriptions = 0;
+            double montant = 0;
+            for (Map.Entry<Integer, Groupe> entree : groupes.entrySet()) {
+                Facture facture = factures.get(i++);
+                List<Integer> ids = entree.getValue().prescriptions;
+                int marquees = prescriptionRepository.marquerFacturees(factureRepository.getReferenceById(facture.getId()), ids);
+                if (marquees != ids.size()) {
+                    throw new ConflictException("Prescriptions du groupe " + entree.getKey() + " facturées par un autre passage");
+                }
+                prescriptions += ids.size();
+                montant += facture.getMontantTotal();
+            }
+
+            lot.setCurseur(cles.get(cles.size() - 1));
+            lot.setPrescriptions(lot.getPrescriptions() + prescriptions);
+            lot.setFactures(lot.getFactures() + factures.size());
+            lot.setMontant(lot.getMontant() + montant);
+            lot.setPaquets(lot.getPaquets() + 1);
+            lot.setDureeMs(lot.getDureeMs() + System.currentTimeMillis() - depart);
+            lotRepository.save(lot);
+            return true;
+        }));
+    }
+
+    private Facture facture(Groupe groupe) {
+        double consultation = fraisConsultation * groupe.rendezvous.size();
+        double hospitalisation = fraisHospitalisation * groupe.hospitalisations.size();
+        double examen = fraisExamen * groupe.examens.size();
+        return Facture.builder()
+                .numeroFacture(numeroFactureService.prochainNumero())
+                .montantTotal(consultation + hospitalisation + examen)
+                .fraisConsultation(consultation)
+                .fraisHospitalisation(hospitalisation)
+                .fraisExamen(examen)
+                .dateEcheance(LocalDate.now().plusDays(delaiEcheanceJours))
+                .statut(StatutFacture.IMPAYEE)
+                .build();
+    }
+
+    // prescriptions d'une future facture, frais comptés une fois par rendez-vous
+    private static final class Groupe {
+
+        private final List<Integer> prescriptions = new ArrayList<>();
+        private final Set<Integer> rendezvous = new HashSet<>();
+        private final Set<Integer> hospitalisations = new HashSet<>();
+        private final Set<Integer> examens = new HashSet<>();
+
+        // ligne [clé du groupe, prescription id, rendez-vous id, hospitalisation nécessaire, examens nécessaires]
+        void ajouter(Object[] ligne) {
+            Integer rendezvousId = (Integer) ligne[2];
+            prescriptions.add((Integer) ligne[1]);
+            rendezvous.add(rendezvousId);
+            if (Boolean.TRUE.equals(ligne[3])) {
+                hospitalisations.add(rendezvousId);
+            }
+            if (ligne[4] != null && !((String) ligne[4]).isBlank()) {
+                examens.add(rendezvousId);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.groupe.gestion_clinic.dto.FactureDto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface FacturationService {
     FactureDto creerFacture(Integer prescriptionId, BigDecimal fraisConsultation, 
@@ -11,6 +12,8 @@ public interface FacturationService {
     List<FactureDto> getAllFactures();
     BigDecimal getRevenuAnnuel(int annee);
     BigDecimal getRevenuMensuel(int annee, int mois);
+    Map<Integer, BigDecimal> getRevenusParMois(int annee);
     byte[] generateFacturePdf(Integer factureId);
+    PdfCacheService.Pdf getFacturePdf(Integer factureId);
     FactureDto updateFactureStatus(Integer factureId, com.groupe.gestion_clinic.model.StatutFacture statut);
 }
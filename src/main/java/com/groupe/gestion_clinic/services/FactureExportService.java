@@ -0,0 +1,189 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * ---------------------- export ZIP des factures d'une période --------------------------
+ *
+ * GET /api/factures/export écrit une archive ZIP des PDF de toutes les factures émises entre
+ * deux dates, en flux :
+ *  - ids et numéros lus par pages de TAILLE_PAGE (parcours par id, index createdAt) ;
+ *  - PDF rendus en parallèle sur un pool dédié (threads) ; au plus fenetre rendus en cours ou
+ *    en attente d'écriture par export, la mémoire ne dépend donc pas du nombre de factures ;
+ *  - chaque entrée est écrite dans la réponse dès que son rendu se termine (ordre d'achèvement).
+ * Une facture dont le rendu échoue est listée dans erreurs.txt en fin d'archive.
+ *
+ * Les rendus ne passent pas par PdfCacheService : un export de trimestre n'évince pas les
+ * documents consultés au quotidien. File du pool pleine (exports simultanés) : le rendu
+ * s'exécute dans le thread de l'export, qui ralentit d'autant.
+ */
+@Service
+public class FactureExportService {
+
+    private static final int TAILLE_PAGE = 500;
+
+    private final FactureRepository factureRepository;
+    private final FacturationService facturationService;
+    private final TransactionTemplate lecture;
+
+    @Value("${app.facturation.export.threads:4}")
+    private int threads;
+
+    @Value("${app.facturation.export.fenetre:8}")
+    private int fenetre;
+
+    @Value("${app.facturation.export.max-jours:366}")
+    private long maxJours;
+
+    private ThreadPoolExecutor executor;
+
+    public FactureExportService(FactureRepository factureRepository,
+                                FacturationService facturationService,
+                                PlatformTransactionManager transactionManager) {
+        this.factureRepository = factureRepository;
+        this.facturationService = facturationService;
+        // relations de la facture chargées pendant le rendu, hors requête HTTP
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(fenetre * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "facture-export-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdownNow();
+    }
+
+    // Contrôlée avant l'envoi des en-têtes de la réponse
+    public void verifierPeriode(LocalDate debut, LocalDate fin) {
+        if (debut == null || fin == null) {
+            throw new BusinessException("debut et fin sont requis");
+        }
+        if (fin.isBefore(debut)) {
+            throw new BusinessException("fin doit être postérieure ou égale à debut");
+        }
+        if (ChronoUnit.DAYS.between(debut, fin) + 1 > maxJours) {
+            throw new BusinessException("Période d'export limitée à " + maxJours + " jours");
+        }
+    }
+
+    // Factures émises du jour debut au jour fin inclus
+    public void exporter(LocalDate debut, LocalDate fin, OutputStream sortie) throws IOException {
+        verifierPeriode(debut, fin);
+        LocalDateTime de = debut.atStartOfDay();
+        LocalDateTime a = fin.plusDays(1).atStartOfDay();
+        long depart = System.currentTimeMillis();
+
+        CompletionService<Document> rendus = new ExecutorCompletionService<>(executor);
+        // rendus soumis, avec le libellé de la facture pour erreurs.txt
+        Map<Future<Document>, String> enCours = new HashMap<>();
+        Deque<Object[]> aRendre = new ArrayDeque<>();
+        List<String> erreurs = new ArrayList<>();
+        Integer apresId = 0;
+        boolean dernierePage = false;
+        int ecrites = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(sortie);
+        try {
+            while (true) {
+                while (enCours.size() < fenetre) {
+                    if (aRendre.isEmpty() && !dernierePage) {
+                        List<Object[]> page = factureRepository.findNumerosEmises(de, a, apresId, PageRequest.of(0, TAILLE_PAGE));
+                        aRendre.addAll(page);
+                        dernierePage = page.size() < TAILLE_PAGE;
+                        if (!page.isEmpty()) {
+                            apresId = (Integer) page.get(page.size() - 1)[0];
+                        }
+                    }
+                    Object[] ligne = aRendre.poll();
+                    if (ligne == null) {
+                        break;
+                    }
+                    Integer id = (Integer) ligne[0];
+                    String numero = (String) ligne[1];
+                    enCours.put(rendus.submit(() -> new Document(id, numero,
+                            lecture.execute(status -> facturationService.generateFacturePdf(id)))),
+                            numero != null ? numero : "facture " + id);
+                }
+                if (enCours.isEmpty()) {
+                    break;
+                }
+
+                Future<Document> termine = rendus.take();
+                String libelle = enCours.remove(termine);
+                try {
+                    Document document = termine.get();
+                    zip.putNextEntry(new ZipEntry(document.nomEntree()));
+                    zip.write(document.contenu());
+                    zip.closeEntry();
+                    ecrites++;
+                } catch (ExecutionException e) {
+                    erreurs.add(libelle + " : " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                }
+            }
+            if (!erreurs.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("erreurs.txt"));
+                zip.write(String.join("\n", erreurs).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export des factures interrompu", e);
+        } finally {
+            // client déconnecté : les rendus restants sont abandonnés
+            enCours.keySet().forEach(future -> future.cancel(false));
+        }
+        System.err.println("Export factures " + debut + " - " + fin + " : " + ecrites + " PDF, " + erreurs.size()
+                + " erreur(s) en " + (System.currentTimeMillis() - depart) + " ms");
+    }
+
+    private record Document(Integer id, String numero, byte[] contenu) {
+
+        String nomEntree() {
+            return (numero != null ? numero : "facture_" + id) + ".pdf";
+        }
+    }
+}
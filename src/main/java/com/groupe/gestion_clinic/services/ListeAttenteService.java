@@ -0,0 +1,282 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.ListeAttenteDto;
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.ListeAttenteRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.ListeAttente;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.StatutListeAttente;
+import com.groupe.gestion_clinic.notificationConfig.NotificationService;
+import com.groupe.gestion_clinic.repositories.ListeAttenteRepository;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * ---------------------- liste d'attente par médecin --------------------------
+ *
+ * Chaque annulation publie un RendezvousAnnuleEvent ; après commit, le créneau libéré est
+ * traité sur un pool borné (threads / file) pour ne pas rallonger la requête d'annulation.
+ *
+ * Les demandes compatibles (durée, fenêtre du patient) sont parcourues dans l'ordre
+ * d'inscription ; le créneau est vérifié contre le calendrier de disponibilité puis :
+ *  - reservationAuto : le rendez-vous est créé directement (verrous + contrôle de conflit habituels),
+ *  - sinon : le créneau est proposé au patient pendant delai-reponse-minutes (accepter).
+ * Le créneau proposé n'est pas bloqué : l'acceptation passe par le contrôle de conflit de
+ * createRendezVous et échoue si le créneau a été pris entre-temps. Sans réponse dans le délai,
+ * expirerPropositions (job Quartz ListeAttenteExpirationJob) remet la demande en attente et
+ * propose le créneau, s'il est toujours libre, à la demande compatible suivante.
+ *
+ * Une demande est prise par un UPDATE conditionnel (reclamer) : deux annulations simultanées,
+ * sur un ou plusieurs noeuds, ne peuvent pas attribuer deux créneaux au même patient.
+ * Si la file est pleine, l'annulation est ignorée par la liste d'attente (rien n'est bloqué).
+ */
+@Service
+@RequiredArgsConstructor
+public class ListeAttenteService {
+
+    private static final List<StatutListeAttente> STATUTS_OUVERTS = List.of(StatutListeAttente.EN_ATTENTE, StatutListeAttente.PROPOSE);
+
+    private final ListeAttenteRepository listeAttenteRepository;
+    private final PatientRepository patientRepository;
+    private final MedecinRepository medecinRepository;
+    private final RendezvousServiceNew rendezvousService;
+    private final DisponibiliteService disponibiliteService;
+    private final NotificationService notificationService;
+
+    @Value("${app.liste-attente.threads:2}")
+    private int threads;
+
+    @Value("${app.liste-attente.taille-file:1000}")
+    private int tailleFile;
+
+    @Value("${app.liste-attente.delai-reponse-minutes:120}")
+    private long delaiReponseMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(tailleFile),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "liste-attente-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> System.err.println("Liste d'attente saturée, créneau libéré ignoré"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdown();
+    }
+
+    public ListeAttenteDto inscrire(ListeAttenteRequestDto request) {
+        if (request.getPatientId() == null || request.getMedecinId() == null) {
+            throw new BusinessException("patientId et medecinId sont requis");
+        }
+        Duration duree = request.getDuree() != null ? request.getDuree() : RendezvousServiceNew.DUREE_PAR_DEFAUT;
+        if (duree.isNegative() || duree.isZero() || duree.compareTo(RendezvousServiceNew.DUREE_MAX) > 0) {
+            throw new BusinessException("Durée demandée invalide");
+        }
+        if (request.getDateMin() != null && request.getDateMax() != null && request.getDateMax().isBefore(request.getDateMin())) {
+            throw new BusinessException("dateMax doit être postérieure à dateMin");
+        }
+        Patient patient = patientRepository.findById(request.getPatientId())
+                .orElseThrow(() -> new BusinessException("Patient non trouvé"));
+        Medecin medecin = medecinRepository.findById(request.getMedecinId())
+                .orElseThrow(() -> new BusinessException("Médecin non trouvé"));
+
+        ListeAttente entree = listeAttenteRepository.save(ListeAttente.builder()
+                .patient(patient)
+                .medecin(medecin)
+                .dureeMinutes((int) duree.toMinutes())
+                .dateMin(request.getDateMin())
+                .dateMax(request.getDateMax())
+                .motif(request.getMotif())
+                .reservationAuto(Boolean.TRUE.equals(request.getReservationAuto()))
+                .statut(StatutListeAttente.EN_ATTENTE)
+                .build());
+        return ListeAttenteDto.fromEntity(entree);
+    }
+
+    public List<ListeAttenteDto> getListeAttente(Integer medecinId) {
+        return listeAttenteRepository.findByMedecinIdAndStatutInOrderByCreatedAtAsc(medecinId, STATUTS_OUVERTS).stream()
+                .map(ListeAttenteDto::fromEntity)
+                .toList();
+    }
+
+    public void retirer(Integer id) {
+        ListeAttente entree = getEntree(id);
+        if (entree.getStatut() != StatutListeAttente.SATISFAIT) {
+            entree.setStatut(StatutListeAttente.RETIRE);
+            listeAttenteRepository.save(entree);
+        }
+    }
+
+    // Le patient accepte le créneau proposé : réservation avec le contrôle de conflit habituel,
+    // le créneau n'ayant pas été bloqué pendant la proposition
+    public ListeAttenteDto accepter(Integer id) {
+        ListeAttente entree = getEntree(id);
+        if (listeAttenteRepository.accepterProposition(id, LocalDateTime.now()) == 0) {
+            throw new BusinessException("Aucune proposition en cours pour cette demande");
+        }
+        entree.setStatut(StatutListeAttente.SATISFAIT);
+        try {
+            RendezvousDto rendezvous = reserver(entree, entree.getPropositionDebut());
+            entree.setRendezvousId(rendezvous.getId());
+            return ListeAttenteDto.fromEntity(listeAttenteRepository.save(entree));
+        } catch (RuntimeException e) {
+            // créneau repris entre-temps : la demande retourne en attente
+            remettreEnAttente(entree);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRendezvousAnnule(RendezvousAnnuleEvent event) {
+        if (event.debut().isAfter(LocalDateTime.now())) {
+            executor.execute(() -> {
+                try {
+                    combler(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Liste d'attente : échec du traitement de l'annulation "
+                            + event.rendezvousId() + " : " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /*
+     * Propositions restées sans réponse : la demande retourne en attente (à sa place dans la file)
+     * et le créneau est proposé aux autres demandes. La durée libre n'est pas connue ici, elle est
+     * vérifiée pour chaque candidat contre le calendrier de disponibilité.
+     * Retourne le nombre de propositions expirées traitées.
+     */
+    public int expirerPropositions() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        int expirees = 0;
+        for (ListeAttente entree : listeAttenteRepository.findPropositionsExpirees(maintenant)) {
+            LocalDateTime debut = entree.getPropositionDebut();
+            if (listeAttenteRepository.expirerProposition(entree.getId(), maintenant) == 0) {
+                continue;
+            }
+            expirees++;
+            if (debut != null && debut.isAfter(maintenant)) {
+                RendezvousAnnuleEvent creneau = new RendezvousAnnuleEvent(null, entree.getMedecin().getId(),
+                        debut, debut.plus(RendezvousServiceNew.DUREE_MAX));
+                try {
+                    combler(creneau, entree.getId());
+                } catch (RuntimeException e) {
+                    System.err.println("Liste d'attente : créneau du " + debut + " non reproposé : " + e.getMessage());
+                }
+            }
+        }
+        return expirees;
+    }
+
+    void combler(RendezvousAnnuleEvent event) {
+        combler(event, null);
+    }
+
+    // Attribue le créneau libéré à la première demande compatible, hormis exclu (proposition expirée)
+    private void combler(RendezvousAnnuleEvent event, Integer exclu) {
+        int dureeLibre = (int) Duration.between(event.debut(), event.fin()).toMinutes();
+        List<ListeAttente> candidats = listeAttenteRepository.findCandidats(event.medecinId(), event.debut(), dureeLibre);
+
+        for (ListeAttente entree : candidats) {
+            if (entree.getId().equals(exclu)) {
+                continue;
+            }
+            LocalDateTime fin = event.debut().plusMinutes(entree.getDureeMinutes());
+            if (!disponibiliteService.estLibre(event.medecinId(), event.debut(), fin)) {
+                continue;
+            }
+            StatutListeAttente statut = entree.isReservationAuto() ? StatutListeAttente.SATISFAIT : StatutListeAttente.PROPOSE;
+            if (listeAttenteRepository.reclamer(entree.getId(), statut) == 0) {
+                continue;
+            }
+            entree.setStatut(statut);
+            if (entree.isReservationAuto() ? reserverAutomatiquement(entree, event.debut()) : proposer(entree, event.debut())) {
+                return;
+            }
+        }
+    }
+
+    private boolean reserverAutomatiquement(ListeAttente entree, LocalDateTime debut) {
+        RendezvousDto rendezvous;
+        try {
+            rendezvous = reserver(entree, debut);
+        } catch (RuntimeException e) {
+            // conflit (créneau repris, patient déjà occupé) : demande suivante
+            remettreEnAttente(entree);
+            return false;
+        }
+        entree.setRendezvousId(rendezvous.getId());
+        listeAttenteRepository.save(entree);
+        notifier(entree, "WAITLIST_BOOKED", rendezvous.getId(),
+                "Créneau libéré attribué à " + entree.getPatient().getNom() + " le " + debut.toLocalDate()
+                        + " à " + debut.toLocalTime());
+        return true;
+    }
+
+    private boolean proposer(ListeAttente entree, LocalDateTime debut) {
+        entree.setPropositionDebut(debut);
+        entree.setPropositionExpireLe(LocalDateTime.now().plusMinutes(delaiReponseMinutes));
+        listeAttenteRepository.save(entree);
+        notifier(entree, "WAITLIST_OFFER", null,
+                "Un créneau s'est libéré le " + debut.toLocalDate() + " à " + debut.toLocalTime()
+                        + " pour " + entree.getPatient().getNom() + ", réponse attendue avant "
+                        + entree.getPropositionExpireLe().toLocalTime());
+        return true;
+    }
+
+    private RendezvousDto reserver(ListeAttente entree, LocalDateTime debut) {
+        return rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .patientId(entree.getPatient().getId())
+                .medecinId(entree.getMedecin().getId())
+                .dateHeureDebut(debut)
+                .duree(Duration.ofMinutes(entree.getDureeMinutes()))
+                .motif(entree.getMotif())
+                .build());
+    }
+
+    private void remettreEnAttente(ListeAttente entree) {
+        entree.setStatut(StatutListeAttente.EN_ATTENTE);
+        entree.setPropositionDebut(null);
+        entree.setPropositionExpireLe(null);
+        listeAttenteRepository.save(entree);
+    }
+
+    // un échec d'envoi (SMTP, websocket) ne remet pas en cause l'attribution
+    private void notifier(ListeAttente entree, String type, Integer rendezvousId, String message) {
+        try {
+            notificationService.sendListeAttenteNotification(entree, type, rendezvousId, message);
+        } catch (RuntimeException e) {
+            System.err.println("Notification liste d'attente non envoyée : " + e.getMessage());
+        }
+    }
+
+    private ListeAttente getEntree(Integer id) {
+        return listeAttenteRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Demande de liste d'attente non trouvée"));
+    }
+}
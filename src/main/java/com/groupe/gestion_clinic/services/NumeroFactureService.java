@@ -0,0 +1,85 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.repositories.CompteurFactureRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * ---------------------- numérotation des factures --------------------------
+ *
+ * Numéros FACT-<année>-<séquence sur 6 chiffres>, séquentiels par année et uniques sur
+ * tous les noeuds. Chaque noeud réserve un bloc de taille-bloc numéros (hi/lo) en avançant
+ * le compteur de l'année (CompteurFacture) dans sa propre transaction courte, puis distribue
+ * le bloc en mémoire : le verrou de ligne n'est pris qu'une fois par bloc, jamais pendant la
+ * création d'une facture.
+ *
+ * Les numéros non distribués d'un bloc sont perdus à l'arrêt du noeud et au changement
+ * d'année : au plus taille-bloc - 1 trous par noeud et par redémarrage.
+ */
+@Service
+public class NumeroFactureService {
+
+    private static final int ESSAIS_CREATION = 3;
+
+    private final CompteurFactureRepository compteurRepository;
+    private final TransactionTemplate reservation;
+
+    @Value("${app.facturation.taille-bloc:20}")
+    private int tailleBloc;
+
+    // bloc en cours par année : [prochain, fin[
+    private final Map<Integer, long[]> blocs = new HashMap<>();
+
+    public NumeroFactureService(CompteurFactureRepository compteurRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.compteurRepository = compteurRepository;
+        // indépendante de la transaction de la facture : le compteur est libéré dès la réservation
+        this.reservation = new TransactionTemplate(transactionManager);
+        this.reservation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String prochainNumero() {
+        int annee = LocalDate.now().getYear();
+        return String.format("FACT-%d-%06d", annee, prochain(annee));
+    }
+
+    synchronized long prochain(int annee) {
+        long[] bloc = blocs.get(annee);
+        if (bloc == null || bloc[0] >= bloc[1]) {
+            long debut = reserver(annee);
+            bloc = new long[]{debut, debut + tailleBloc};
+            // un bloc par année en cours : celui de l'année précédente est abandonné
+            blocs.clear();
+            blocs.put(annee, bloc);
+        }
+        return bloc[0]++;
+    }
+
+    // Premier numéro du bloc réservé pour l'année
+    private long reserver(int annee) {
+        for (int essai = 0; essai < ESSAIS_CREATION; essai++) {
+            try {
+                return reservation.execute(status -> {
+                    if (compteurRepository.avancer(annee, tailleBloc) == 0) {
+                        // première facture de l'année sur le cluster
+                        compteurRepository.creer(annee, tailleBloc + 1L);
+                        return 1L;
+                    }
+                    return compteurRepository.findProchain(annee) - tailleBloc;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // compteur de l'année créé au même moment par un autre noeud : l'avancer
+            }
+        }
+        throw new ConflictException("Réservation de numéros de facture impossible pour " + annee);
+    }
+}
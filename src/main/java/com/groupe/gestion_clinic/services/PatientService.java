@@ -17,5 +17,6 @@ public interface PatientService {
     List<PrescriptionDto> getPatientPrescriptionsHistory(Integer patientId);
     PatientHistoryDto getPatientHistory(Integer patientId);
     byte[] generatePatientHistoryPdf(Integer patientId);
+    PdfCacheService.Pdf getPatientHistoryPdf(Integer patientId);
 
 }
@@ -0,0 +1,268 @@
+package com.groupe.gestion_clinic.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/*
+ * ---------------------- cache disque des PDF générés --------------------------
+ *
+ * Les PDF de facture, d'ordonnance et d'historique patient ne sont rendus par PDFBox qu'une
+ * fois par version de leurs données. Une entrée est adressée par son contenu source :
+ *  - clé : type + id de l'entité ;
+ *  - empreinte : SHA-256 de la sérialisation JSON des données affichées par le PDF, calculée
+ *    par l'appelant à chaque demande ; une empreinte différente (données modifiées, y compris
+ *    par un autre noeud) remplace l'entrée.
+ * Les fichiers (<type>-<id>-<empreinte>.pdf) sont servis par un FileChannel, sans tableau
+ * d'octets par requête. La taille totale est bornée (taille-max-mo), les entrées les moins
+ * récemment servies sont supprimées en premier. L'index est reconstruit depuis le répertoire
+ * au démarrage.
+ *
+ * invalider() libère l'entrée dès la modification (statut de facture, ordonnance modifiée) ;
+ * la date « générée le » imprimée est celle du premier rendu de la version.
+ */
+@Service
+@RequiredArgsConstructor
+public class PdfCacheService {
+
+    public static final String FACTURE = "facture";
+    public static final String PRESCRIPTION = "prescription";
+    public static final String HISTORIQUE = "historique";
+
+    private static final String EXTENSION = ".pdf";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.pdf.cache.repertoire:}")
+    private String repertoireConfigure;
+
+    @Value("${app.pdf.cache.taille-max-mo:256}")
+    private long tailleMaxMo;
+
+    private Path repertoire;
+    private long tailleMax;
+
+    // ordre d'accès : la première entrée est la moins récemment servie
+    private final LinkedHashMap<String, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+    private long tailleTotale;
+
+    @FunctionalInterface
+    public interface Rendu {
+        void ecrire(OutputStream sortie) throws IOException;
+    }
+
+    // Document à renvoyer tel quel au client ; fichier : version en cache, null si rendu en mémoire
+    public record Pdf(Resource contenu, long taille, Path fichier) {
+    }
+
+    private record Entree(String empreinte, Path fichier, long taille) {
+    }
+
+    @PostConstruct
+    void init() {
+        tailleMax = tailleMaxMo * 1024 * 1024;
+        repertoire = repertoireConfigure == null || repertoireConfigure.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "gestion-clinic-pdf")
+                : Path.of(repertoireConfigure);
+        try {
+            Files.createDirectories(repertoire);
+            charger();
+        } catch (IOException e) {
+            System.err.println("Cache PDF indisponible (" + repertoire + "): " + e.getMessage());
+        }
+    }
+
+    public Pdf obtenir(String type, Integer id, Object source, Rendu rendu) {
+        String cle = type + "-" + id;
+        String empreinte = empreinte(source);
+        synchronized (this) {
+            Entree entree = entrees.get(cle);
+            if (entree != null && entree.empreinte().equals(empreinte)) {
+                try {
+                    return ouvrir(entree);
+                } catch (IOException e) {
+                    // fichier supprimé hors du cache : nouveau rendu
+                    retirer(cle);
+                }
+            }
+        }
+
+        // rendu hors verrou : deux demandes simultanées d'une même version la rendent deux fois
+        Path fichier = repertoire.resolve(cle + "-" + empreinte + EXTENSION);
+        Path temporaire = null;
+        try {
+            temporaire = Files.createTempFile(repertoire, cle + "-", ".tmp");
+            try (OutputStream sortie = new BufferedOutputStream(Files.newOutputStream(temporaire))) {
+                rendu.ecrire(sortie);
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                Entree entree = new Entree(empreinte, fichier, Files.size(fichier));
+                remplacer(cle, entree);
+                evincer();
+                return ouvrir(entree);
+            }
+        } catch (IOException e) {
+            System.err.println("Cache PDF non écrit pour " + cle + ": " + e.getMessage());
+            return enMemoire(rendu);
+        } finally {
+            supprimer(temporaire);
+        }
+    }
+
+    /*
+     * Nouvelle lecture d'un document déjà obtenu, sans rendu : null si son fichier n'existe plus
+     * (version remplacée, invalidée ou évincée). Un document en mémoire se relit tel quel.
+     */
+    public Pdf relire(Pdf pdf) {
+        if (pdf.fichier() == null) {
+            return pdf;
+        }
+        try {
+            return ouvrir(pdf.fichier(), pdf.taille());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void invalider(String type, Integer id) {
+        if (id != null) {
+            retirer(type + "-" + id);
+        }
+    }
+
+    private Pdf ouvrir(Entree entree) throws IOException {
+        return ouvrir(entree.fichier(), entree.taille());
+    }
+
+    private Pdf ouvrir(Path fichier, long taille) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        return new Pdf(new InputStreamResource(Channels.newInputStream(canal)), taille, fichier);
+    }
+
+    // Répertoire inaccessible : rendu servi sans cache
+    private Pdf enMemoire(Rendu rendu) {
+        try {
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            rendu.ecrire(sortie);
+            return new Pdf(new ByteArrayResource(sortie.toByteArray()), sortie.size(), null);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur génération PDF: " + e.getMessage(), e);
+        }
+    }
+
+    private void remplacer(String cle, Entree entree) {
+        Entree precedente = entrees.put(cle, entree);
+        tailleTotale += entree.taille();
+        if (precedente != null) {
+            tailleTotale -= precedente.taille();
+            if (!precedente.fichier().equals(entree.fichier())) {
+                supprimer(precedente.fichier());
+            }
+        }
+    }
+
+    private void retirer(String cle) {
+        Entree entree = entrees.remove(cle);
+        if (entree != null) {
+            tailleTotale -= entree.taille();
+            supprimer(entree.fichier());
+        }
+    }
+
+    // Supprime les moins récemment servies ; la dernière entrée ajoutée est toujours gardée
+    private void evincer() {
+        Iterator<Map.Entry<String, Entree>> iterateur = entrees.entrySet().iterator();
+        while (tailleTotale > tailleMax && entrees.size() > 1 && iterateur.hasNext()) {
+            Entree entree = iterateur.next().getValue();
+            iterateur.remove();
+            tailleTotale -= entree.taille();
+            supprimer(entree.fichier());
+        }
+    }
+
+    // Index reconstruit depuis le disque, du plus ancien au plus récent
+    private void charger() throws IOException {
+        List<Path> fichiers;
+        try (Stream<Path> contenu = Files.list(repertoire)) {
+            fichiers = contenu.filter(Files::isRegularFile).toList();
+        }
+        fichiers.stream()
+                .filter(fichier -> fichier.getFileName().toString().endsWith(".tmp"))
+                .forEach(this::supprimer);
+        List<Path> pdfs = fichiers.stream()
+                .filter(fichier -> fichier.getFileName().toString().endsWith(EXTENSION))
+                .sorted(Comparator.comparing(this::dateModification))
+                .toList();
+        for (Path fichier : pdfs) {
+            String nom = fichier.getFileName().toString();
+            int separateur = nom.lastIndexOf('-');
+            if (separateur <= 0) {
+                supprimer(fichier);
+                continue;
+            }
+            String empreinte = nom.substring(separateur + 1, nom.length() - EXTENSION.length());
+            remplacer(nom.substring(0, separateur), new Entree(empreinte, fichier, Files.size(fichier)));
+        }
+        evincer();
+        System.err.println("Cache PDF " + repertoire + " : " + entrees.size() + " document(s), " + tailleTotale + " octets");
+    }
+
+    private String empreinte(Object source) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(source));
+            return HexFormat.of().formatHex(hash);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Empreinte PDF impossible: " + e.getMessage(), e);
+        }
+    }
+
+    private long dateModification(Path fichier) {
+        try {
+            return Files.getLastModifiedTime(fichier).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void supprimer(Path fichier) {
+        if (fichier == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(fichier);
+        } catch (IOException e) {
+            // fichier encore ouvert (Windows) : retiré de l'index, repris ou remplacé au prochain démarrage
+            System.err.println("Fichier PDF non supprimé " + fichier + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.PdfJobDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.GoneException;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * ---------------------- rendus PDF asynchrones --------------------------
+ *
+ * Les PDF (facture, ordonnance, historique patient) sont rendus hors des threads Tomcat :
+ *  - POST /api/pdf/jobs met le rendu dans la file d'un pool dédié (threads, taille-file) et
+ *    répond 202 avec l'identifiant du job ;
+ *  - le client suit le job (GET /api/pdf/jobs/{id} ou /topic/pdf/jobs/{id}) puis télécharge
+ *    le document : le fichier déposé par le rendu dans PdfCacheService est retenu par le job et
+ *    relu tel quel, jamais rendu à nouveau dans la requête. Version sortie du cache entre-temps
+ *    (données modifiées, éviction) : GoneException (410), le client soumet un nouveau job ;
+ *  - file pleine : TooManyRequestsException (429) avec un Retry-After estimé à partir de la
+ *    profondeur de la file et du temps de rendu moyen.
+ * Profondeur de file, rendus en cours, temps d'attente et de rendu sont publiés dans Micrometer
+ * (clinic.pdf.jobs.*) et résumés par GET /api/pdf/jobs/metriques.
+ *
+ * Les jobs sont gardés en mémoire retention-minutes après la fin du rendu, sur le noeud qui
+ * les a reçus.
+ */
+@Service
+public class PdfJobService {
+
+    public static final String TOPIC = "/topic/pdf/jobs/";
+
+    private static final long RETRY_AFTER_MAX_SECONDES = 60;
+
+    private final FacturationService facturationService;
+    private final PrescriptionService prescriptionService;
+    private final PatientService patientService;
+    private final PdfCacheService pdfCacheService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate lecture;
+
+    private final Timer dureeAttente;
+    private final Timer dureeRendu;
+    private final Counter echecs;
+    private final Counter rejets;
+
+    @Value("${app.pdf.jobs.threads:2}")
+    private int threads;
+
+    @Value("${app.pdf.jobs.taille-file:20}")
+    private int tailleFile;
+
+    @Value("${app.pdf.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public PdfJobService(FacturationService facturationService,
+                         PrescriptionService prescriptionService,
+                         PatientService patientService,
+                         PdfCacheService pdfCacheService,
+                         SimpMessagingTemplate messagingTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.facturationService = facturationService;
+        this.prescriptionService = prescriptionService;
+        this.patientService = patientService;
+        this.pdfCacheService = pdfCacheService;
+        this.messagingTemplate = messagingTemplate;
+        // relations chargées à la demande pendant le rendu, hors requête HTTP
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+        this.dureeAttente = meterRegistry.timer("clinic.pdf.jobs.attente");
+        this.dureeRendu = meterRegistry.timer("clinic.pdf.jobs.rendu");
+        this.echecs = meterRegistry.counter("clinic.pdf.jobs.echecs");
+        this.rejets = meterRegistry.counter("clinic.pdf.jobs.rejets");
+        meterRegistry.gauge("clinic.pdf.jobs.file", this, service -> service.executor != null ? service.executor.getQueue().size() : 0);
+        meterRegistry.gauge("clinic.pdf.jobs.actifs", this, service -> service.executor != null ? service.executor.getActiveCount() : 0);
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(tailleFile),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-rendu-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdownNow();
+    }
+
+    public PdfJobDto soumettre(PdfJobDto.Type type, Integer entiteId) {
+        if (type == null || entiteId == null) {
+            throw new BusinessException("type et id du document sont requis");
+        }
+        purger();
+        Job job = new Job(UUID.randomUUID().toString(), type, entiteId);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> executer(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            rejets.increment();
+            long retryAfter = retryAfterSecondes();
+            throw new TooManyRequestsException("File de rendu PDF pleine, réessayer dans " + retryAfter + " s", retryAfter);
+        }
+        PdfJobDto vue = job.vue();
+        vue.setPosition(executor.getQueue().size());
+        return vue;
+    }
+
+    public PdfJobDto getJob(String jobId) {
+        return trouver(jobId).vue();
+    }
+
+    // Document d'un job terminé, relu sans rendu ; null tant que le rendu n'est pas fini
+    public PdfCacheService.Pdf telecharger(String jobId) {
+        Job job = trouver(jobId);
+        PdfJobDto vue = job.vue();
+        if (vue.getStatut() == PdfJobDto.Statut.ECHOUE) {
+            throw new BusinessException("Rendu PDF échoué: " + vue.getErreur());
+        }
+        if (vue.getStatut() != PdfJobDto.Statut.TERMINE) {
+            return null;
+        }
+        PdfCacheService.Pdf pdf = pdfCacheService.relire(job.document());
+        if (pdf == null) {
+            throw new GoneException("Document du job PDF " + jobId + " retiré du cache, soumettre un nouveau job");
+        }
+        return pdf;
+    }
+
+    public Map<String, Object> getMetriques() {
+        Map<String, Object> metriques = new LinkedHashMap<>();
+        metriques.put("threads", threads);
+        metriques.put("capaciteFile", tailleFile);
+        metriques.put("enFile", executor.getQueue().size());
+        metriques.put("actifs", executor.getActiveCount());
+        metriques.put("rendus", dureeRendu.count());
+        metriques.put("echecs", (long) echecs.count());
+        metriques.put("rejets", (long) rejets.count());
+        metriques.put("attenteMoyenneMs", Math.round(dureeAttente.mean(TimeUnit.MILLISECONDS)));
+        metriques.put("renduMoyenMs", Math.round(dureeRendu.mean(TimeUnit.MILLISECONDS)));
+        metriques.put("renduMaxMs", Math.round(dureeRendu.max(TimeUnit.MILLISECONDS)));
+        return metriques;
+    }
+
+    private void executer(Job job) {
+        long debut = System.nanoTime();
+        job.demarrer();
+        dureeAttente.record(Duration.ofMillis(job.attenteMs));
+        try {
+            PdfCacheService.Pdf pdf = lecture.execute(status -> rendre(job.type, job.entiteId));
+            // le document reste dans le cache : seul le canal ouvert est libéré, le job garde son fichier
+            try (InputStream contenu = pdf.contenu().getInputStream()) {
+                job.terminer(pdf, null);
+            }
+        } catch (Exception e) {
+            echecs.increment();
+            job.terminer(null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            dureeRendu.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+        try {
+            messagingTemplate.convertAndSend(TOPIC + job.id, job.vue());
+        } catch (Exception e) {
+            System.err.println("Notification du job PDF " + job.id + " impossible: " + e.getMessage());
+        }
+    }
+
+    private PdfCacheService.Pdf rendre(PdfJobDto.Type type, Integer entiteId) {
+        return switch (type) {
+            case FACTURE -> facturationService.getFacturePdf(entiteId);
+            case PRESCRIPTION -> prescriptionService.getPrescriptionPdf(entiteId);
+            case HISTORIQUE -> patientService.getPatientHistoryPdf(entiteId);
+        };
+    }
+
+    // Temps estimé pour écouler la file au rythme moyen des rendus
+    private long retryAfterSecondes() {
+        double moyenneMs = dureeRendu.count() > 0 ? dureeRendu.mean(TimeUnit.MILLISECONDS) : 1000;
+        long enAttente = executor.getQueue().size() + executor.getActiveCount();
+        long secondes = (long) Math.ceil(enAttente * moyenneMs / Math.max(threads, 1) / 1000);
+        return Math.max(1, Math.min(secondes, RETRY_AFTER_MAX_SECONDES));
+    }
+
+    private Job trouver(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Job PDF non trouvé: " + jobId);
+        }
+        return job;
+    }
+
+    private void purger() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.terminePlusTot(limite));
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final PdfJobDto.Type type;
+        private final Integer entiteId;
+        private final LocalDateTime soumisLe = LocalDateTime.now();
+        private final long soumisNanos = System.nanoTime();
+
+        private PdfJobDto.Statut statut = PdfJobDto.Statut.EN_ATTENTE;
+        private long debutNanos;
+        private Long attenteMs;
+        private Long renduMs;
+        private Long taille;
+        private PdfCacheService.Pdf document;
+        private String erreur;
+        private LocalDateTime termineLe;
+
+        private Job(String id, PdfJobDto.Type type, Integer entiteId) {
+            this.id = id;
+            this.type = type;
+            this.entiteId = entiteId;
+        }
+
+        synchronized void demarrer() {
+            debutNanos = System.nanoTime();
+            attenteMs = TimeUnit.NANOSECONDS.toMillis(debutNanos - soumisNanos);
+            statut = PdfJobDto.Statut.EN_COURS;
+        }
+
+        synchronized void terminer(PdfCacheService.Pdf document, String erreur) {
+            this.renduMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debutNanos);
+            this.document = document;
+            this.taille = document != null ? document.taille() : null;
+            this.erreur = erreur;
+            this.statut = erreur == null ? PdfJobDto.Statut.TERMINE : PdfJobDto.Statut.ECHOUE;
+            this.termineLe = LocalDateTime.now();
+        }
+
+        synchronized PdfCacheService.Pdf document() {
+            return document;
+        }
+
+        synchronized boolean terminePlusTot(LocalDateTime limite) {
+            return termineLe != null && termineLe.isBefore(limite);
+        }
+
+        synchronized PdfJobDto vue() {
+            return PdfJobDto.builder()
+                    .id(id)
+                    .type(type)
+                    .entiteId(entiteId)
+                    .statut(statut)
+                    .erreur(erreur)
+                    .soumisLe(soumisLe)
+                    .termineLe(termineLe)
+                    .attenteMs(attenteMs)
+                    .renduMs(renduMs)
+                    .taille(taille)
+                    .telechargement(statut == PdfJobDto.Statut.TERMINE ? "/api/pdf/jobs/" + id + "/document" : null)
+                    .build();
+        }
+    }
+}
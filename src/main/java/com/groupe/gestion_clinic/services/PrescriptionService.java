@@ -25,4 +25,6 @@ public interface PrescriptionService {
     List<PrescriptionDto> createMultiplePrescriptions(MultiplePrescriptionRequestDto requestDto);
 
     byte[] generatePrescriptionPdf(Integer prescriptionId);
+
+    PdfCacheService.Pdf getPrescriptionPdf(Integer prescriptionId);
 }
@@ -0,0 +1,125 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.RappelRendezVous;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.notificationConfig.NotificationService;
+import com.groupe.gestion_clinic.repositories.RappelRendezVousRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * Envoi des rappels de rendez-vous, déclenché par RappelRendezVousJob (Quartz).
+ *
+ * Les rendez-vous PLANIFIE des delai-heures à venir sont parcourus par lots de taille-lot.
+ * Pour chacun, le rappel est d'abord enregistré (RappelRendezVous, unique par rendez-vous et
+ * heure de début) puis envoyé : un rendez-vous n'est donc jamais rappelé deux fois, et un envoi
+ * en échec est annulé pour être retenté au passage suivant.
+ */
+@Service
+public class RappelRendezVousService {
+
+    private final RendezvousRepository rendezvousRepository;
+    private final RappelRendezVousRepository rappelRepository;
+    private final NotificationService notificationService;
+
+    private final Counter rappelsEnvoyes;
+    private final Counter rappelsEchecs;
+    private final Timer dureeBalayage;
+    private final Timer retardEnvoi;
+
+    @Value("${app.notification.rappel.delai-heures:24}")
+    private long delaiHeures;
+
+    @Value("${app.notification.rappel.taille-lot:100}")
+    private int tailleLot;
+
+    public RappelRendezVousService(RendezvousRepository rendezvousRepository,
+                                   RappelRendezVousRepository rappelRepository,
+                                   NotificationService notificationService,
+                                   MeterRegistry meterRegistry) {
+        this.rendezvousRepository = rendezvousRepository;
+        this.rappelRepository = rappelRepository;
+        this.notificationService = notificationService;
+        this.rappelsEnvoyes = meterRegistry.counter("clinic.rappels.envoyes");
+        this.rappelsEchecs = meterRegistry.counter("clinic.rappels.echecs");
+        this.dureeBalayage = meterRegistry.timer("clinic.rappels.balayage");
+        // délai entre le moment où le rappel devient dû et son envoi effectif
+        this.retardEnvoi = meterRegistry.timer("clinic.rappels.retard");
+    }
+
+    // Retourne le nombre de rappels envoyés lors de ce passage
+    public int envoyerRappels() {
+        return dureeBalayage.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = now.plusHours(delaiHeures);
+            LocalDateTime afterDebut = now;
+            Integer afterId = 0;
+            int envoyes = 0;
+
+            List<Rendezvous> lot;
+            do {
+                lot = rendezvousRepository.findUpcomingRendezVousSansRappel(
+                        now, horizon, afterDebut, afterId, PageRequest.ofSize(tailleLot));
+                for (Rendezvous rdv : lot) {
+                    if (envoyer(rdv, now)) {
+                        envoyes++;
+                    }
+                }
+                if (!lot.isEmpty()) {
+                    Rendezvous dernier = lot.get(lot.size() - 1);
+                    afterDebut = dernier.getDateHeureDebut();
+                    afterId = dernier.getId();
+                }
+            } while (lot.size() == tailleLot);
+
+            return envoyes;
+        });
+    }
+
+    private boolean envoyer(Rendezvous rdv, LocalDateTime now) {
+        if (rdv.getPatient() == null || rdv.getMedecin() == null) {
+            return false;
+        }
+
+        RappelRendezVous rappel;
+        try {
+            rappel = rappelRepository.saveAndFlush(RappelRendezVous.builder()
+                    .rendezvousId(rdv.getId())
+                    .dateHeureDebut(rdv.getDateHeureDebut())
+                    .envoyeLe(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // déjà rappelé (passage concurrent)
+            return false;
+        }
+
+        try {
+            notificationService.sendRappelRendezVous(rdv);
+        } catch (RuntimeException e) {
+            System.err.println("Echec du rappel pour le rendez-vous " + rdv.getId() + ": " + e.getMessage());
+            rappelRepository.delete(rappel);
+            rappelsEchecs.increment();
+            return false;
+        }
+
+        rappelsEnvoyes.increment();
+        LocalDateTime du = rdv.getDateHeureDebut().minusHours(delaiHeures);
+        if (rdv.getCreatedAt() != null && rdv.getCreatedAt().isAfter(du)) {
+            du = rdv.getCreatedAt();
+        }
+        if (now.isAfter(du)) {
+            retardEnvoi.record(Duration.between(du, now));
+        }
+        return true;
+    }
+}
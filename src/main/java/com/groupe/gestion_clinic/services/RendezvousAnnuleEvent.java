@@ -0,0 +1,20 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.Rendezvous;
+
+import java.time.LocalDateTime;
+
+/*
+ * Publié quand un rendez-vous actif est annulé : le créneau [debut, fin[ du médecin est libre.
+ * Consommé après commit par ListeAttenteService.
+ */
+public record RendezvousAnnuleEvent(Integer rendezvousId, Integer medecinId, LocalDateTime debut, LocalDateTime fin) {
+
+    static RendezvousAnnuleEvent de(Rendezvous rendezvous) {
+        LocalDateTime debut = rendezvous.getDateHeureDebut();
+        LocalDateTime fin = rendezvous.getDateHeureFin() != null && rendezvous.getDateHeureFin().isAfter(debut)
+                ? rendezvous.getDateHeureFin()
+                : debut.plus(RendezvousServiceNew.DUREE_PAR_DEFAUT);
+        return new RendezvousAnnuleEvent(rendezvous.getId(), rendezvous.getMedecin().getId(), debut, fin);
+    }
+}
@@ -0,0 +1,457 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.config.RendezvousConstraintsInitializer;
+import com.groupe.gestion_clinic.dto.NotificationDto;
+import com.groupe.gestion_clinic.dto.RendezvousImportLigneDto;
+import com.groupe.gestion_clinic.dto.RendezvousImportRapportDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.notificationConfig.NotificationOutboxService;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousBatchRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.utils.IntervalIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * ---------------------- import de rendez-vous par lot --------------------------
+ *
+ * Les demandes (liste JSON ou CSV lu en flux) sont traitées par lots de taille-lot lignes :
+ *  - médecins et patients du lot chargés en deux requêtes,
+ *  - verrous RendezvousLocks des médecins / patients / salles du lot pris pour toute la durée du lot,
+ *  - créneaux actifs existants préchargés en une requête dans un IntervalIndex, les conflits
+ *    (avec la base et entre lignes du même import) sont vérifiés en mémoire, les salles
+ *    contre l'index SalleOccupationService,
+ *  - lignes acceptées insérées en un seul batch JDBC (RendezvousBatchRepository) dans une transaction.
+ * Les colonnes sont contrôlées avant le batch (longueur de motif et salle) ; si la base refuse
+ * malgré tout le batch, ses lignes sont reprises une à une et seules les fautives sont rejetées.
+ *
+ * Chaque ligne reçoit un résultat (CREE, CONFLIT, INVALIDE) dans le rapport.
+ */
+@Service
+@RequiredArgsConstructor
+public class RendezvousImportService {
+
+    static final String CREE = "CREE";
+    static final String CONFLIT = "CONFLIT";
+    static final String INVALIDE = "INVALIDE";
+
+    // ordre des colonnes d'un CSV sans ligne d'en-tête
+    private static final List<String> COLONNES_CSV = List.of("medecinid", "patientid", "dateheuredebut", "duree", "motif", "salle");
+
+    // longueur des colonnes motif et salle (VARCHAR par défaut de Rendezvous)
+    private static final int LONGUEUR_TEXTE_MAX = 255;
+
+    private final RendezvousRepository rendezvousRepository;
+    private final MedecinRepository medecinRepository;
+    private final PatientRepository patientRepository;
+    private final NotificationOutboxService notificationOutbox;
+    private final DisponibiliteService disponibiliteService;
+    private final RendezvousLocks rendezvousLocks;
+    private final SalleOccupationService salleOccupationService;
+    private final RendezvousBatchRepository rendezvousBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AgendaService agendaService;
+
+    @Value("${app.rendezvous.import.taille-lot:500}")
+    private int tailleLot;
+
+    public RendezvousImportRapportDto importer(List<RendezvousRequestDto> demandes) {
+        RendezvousImportRapportDto rapport = new RendezvousImportRapportDto();
+        List<Ligne> lot = new ArrayList<>();
+        int numero = 0;
+        for (RendezvousRequestDto demande : demandes) {
+            Ligne ligne = new Ligne(++numero);
+            try {
+                ligne.medecinId = demande.getMedecinId();
+                ligne.patientId = demande.getPatientId();
+                ligne.debut = demande.getDateHeureDebut();
+                ligne.motif = demande.getMotif();
+                ligne.salle = demande.getSalle();
+                ligne.fin = ligne.debut != null
+                        ? RendezvousServiceNew.resolveDateHeureFin(ligne.debut, null, demande.getDuree()) : null;
+            } catch (BusinessException e) {
+                ligne.rejeter(INVALIDE, e.getMessage());
+            }
+            ajouter(lot, ligne, rapport);
+        }
+        traiterLot(lot, rapport);
+        return rapport;
+    }
+
+    /*
+     * CSV séparé par ',' ou ';' : medecinId, patientId, dateHeureDebut (ISO), duree (minutes ou ISO), motif, salle.
+     * Une première ligne d'en-tête reprenant ces noms permet de changer l'ordre des colonnes.
+     * Le séparateur est fixé une fois par la première ligne ; les champs entre guillemets
+     * (RFC 4180 : "" pour un guillemet, séparateur et retours à la ligne permis) sont lus tels quels.
+     */
+    public RendezvousImportRapportDto importerCsv(InputStream csv) {
+        RendezvousImportRapportDto rapport = new RendezvousImportRapportDto();
+        List<Ligne> lot = new ArrayList<>();
+        Map<String, Integer> colonnes = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String texte;
+            int numero = 0;
+            char separateur = 0;
+            while ((texte = reader.readLine()) != null) {
+                numero++;
+                if (numero == 1) {
+                    texte = texte.replace("\uFEFF", "");
+                }
+                if (texte.isBlank()) {
+                    continue;
+                }
+                // champ entre guillemets sur plusieurs lignes : la ligne est numérotée à son début
+                int debutLigne = numero;
+                String suite;
+                while (!guillemetsFermes(texte) && (suite = reader.readLine()) != null) {
+                    numero++;
+                    texte = texte + "\n" + suite;
+                }
+                if (separateur == 0) {
+                    separateur = separateur(texte);
+                }
+                String[] valeurs = decouper(texte, separateur);
+                if (colonnes == null) {
+                    colonnes = new HashMap<>();
+                    boolean entete = valeurs[0].toLowerCase().startsWith("medecin") || valeurs[0].toLowerCase().startsWith("patient");
+                    List<String> noms = entete
+                            ? Arrays.stream(valeurs).map(String::toLowerCase).toList()
+                            : COLONNES_CSV;
+                    for (int i = 0; i < noms.size(); i++) {
+                        colonnes.put(noms.get(i), i);
+                    }
+                    if (entete) {
+                        continue;
+                    }
+                }
+                ajouter(lot, lireLigne(debutLigne, valeurs, colonnes), rapport);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Lecture du fichier CSV impossible: " + e.getMessage());
+        }
+        traiterLot(lot, rapport);
+        return rapport;
+    }
+
+    private Ligne lireLigne(int numero, String[] valeurs, Map<String, Integer> colonnes) {
+        Ligne ligne = new Ligne(numero);
+        try {
+            String medecinId = valeur(valeurs, colonnes, "medecinid");
+            String patientId = valeur(valeurs, colonnes, "patientid");
+            String debut = valeur(valeurs, colonnes, "dateheuredebut");
+            String duree = valeur(valeurs, colonnes, "duree");
+            ligne.medecinId = medecinId != null ? Integer.valueOf(medecinId) : null;
+            ligne.patientId = patientId != null ? Integer.valueOf(patientId) : null;
+            ligne.debut = debut != null ? LocalDateTime.parse(debut) : null;
+            ligne.motif = valeur(valeurs, colonnes, "motif");
+            ligne.salle = valeur(valeurs, colonnes, "salle");
+            if (ligne.debut != null) {
+                // durée en minutes ou au format ISO-8601 (PT45M), comme pour /create
+                Duration dureeRdv = duree == null ? null
+                        : duree.chars().allMatch(Character::isDigit) ? Duration.ofMinutes(Long.parseLong(duree)) : Duration.parse(duree);
+                ligne.fin = RendezvousServiceNew.resolveDateHeureFin(ligne.debut, null, dureeRdv);
+            }
+        } catch (BusinessException e) {
+            ligne.rejeter(INVALIDE, e.getMessage());
+        } catch (RuntimeException e) {
+            ligne.rejeter(INVALIDE, "Ligne illisible: " + e.getMessage());
+        }
+        return ligne;
+    }
+
+    private void ajouter(List<Ligne> lot, Ligne ligne, RendezvousImportRapportDto rapport) {
+        lot.add(ligne);
+        if (lot.size() >= tailleLot) {
+            traiterLot(lot, rapport);
+            lot.clear();
+        }
+    }
+
+    private void traiterLot(List<Ligne> lot, RendezvousImportRapportDto rapport) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        Set<Integer> medecinIds = new HashSet<>();
+        Set<Integer> patientIds = new HashSet<>();
+        for (Ligne ligne : lot) {
+            if (ligne.statut == null) {
+                if (ligne.medecinId == null || ligne.patientId == null || ligne.debut == null) {
+                    ligne.rejeter(INVALIDE, "medecinId, patientId et dateHeureDebut sont requis");
+                } else {
+                    medecinIds.add(ligne.medecinId);
+                    patientIds.add(ligne.patientId);
+                }
+            }
+        }
+
+        Map<Integer, Medecin> medecins = medecinRepository.findAllById(medecinIds).stream()
+                .collect(Collectors.toMap(Medecin::getId, Function.identity()));
+        Map<Integer, Patient> patients = patientRepository.findAllById(patientIds).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        List<Ligne> candidates = new ArrayList<>();
+        for (Ligne ligne : lot) {
+            if (ligne.statut != null) {
+                continue;
+            }
+            if (!medecins.containsKey(ligne.medecinId)) {
+                ligne.rejeter(INVALIDE, "Médecin non trouvé");
+            } else if (!patients.containsKey(ligne.patientId)) {
+                ligne.rejeter(INVALIDE, "Patient non trouvé");
+            } else if (ligne.motif != null && ligne.motif.length() > LONGUEUR_TEXTE_MAX) {
+                ligne.rejeter(INVALIDE, "Motif trop long (" + LONGUEUR_TEXTE_MAX + " caractères maximum)");
+            } else if (ligne.salle != null && ligne.salle.length() > LONGUEUR_TEXTE_MAX) {
+                ligne.rejeter(INVALIDE, "Salle trop longue (" + LONGUEUR_TEXTE_MAX + " caractères maximum)");
+            } else {
+                try {
+                    ligne.rendezvous = Rendezvous.builder()
+                            .medecin(medecins.get(ligne.medecinId)).patient(patients.get(ligne.patientId))
+                            .dateHeureDebut(ligne.debut).dateHeureFin(ligne.fin)
+                            .motif(ligne.motif).salle(salleOccupationService.resoudre(ligne.salle))
+                            .statut(StatutRendezVous.PLANIFIE).build();
+                    candidates.add(ligne);
+                } catch (BusinessException e) {
+                    ligne.rejeter(INVALIDE, e.getMessage());
+                }
+            }
+        }
+
+        Set<String> salles = candidates.stream()
+                .map(ligne -> ligne.rendezvous.getSalle())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<Ligne> creees = candidates.isEmpty() ? List.of()
+                : rendezvousLocks.executerTous(medecins.keySet(), patients.keySet(), salles, () -> verifierEtInserer(candidates));
+
+        for (Ligne ligne : creees) {
+            disponibiliteService.occuper(ligne.rendezvous);
+        }
+        notifierMedecins(creees);
+
+        for (Ligne ligne : lot) {
+            rapport.setTotal(rapport.getTotal() + 1);
+            if (CREE.equals(ligne.statut)) {
+                rapport.setCrees(rapport.getCrees() + 1);
+            } else {
+                rapport.setRejetes(rapport.getRejetes() + 1);
+            }
+            rapport.getLignes().add(RendezvousImportLigneDto.builder()
+                    .ligne(ligne.numero).statut(ligne.statut)
+                    .rendezvousId(ligne.rendezvousId).message(ligne.message)
+                    .build());
+        }
+    }
+
+    // Appelé sous verrou : index des créneaux existants, vérification en mémoire puis insertion
+    private List<Ligne> verifierEtInserer(List<Ligne> candidates) {
+        LocalDateTime from = candidates.get(0).debut;
+        LocalDateTime to = candidates.get(0).fin;
+        Set<Integer> medecinIds = new HashSet<>();
+        Set<Integer> patientIds = new HashSet<>();
+        for (Ligne ligne : candidates) {
+            from = ligne.debut.isBefore(from) ? ligne.debut : from;
+            to = ligne.fin.isAfter(to) ? ligne.fin : to;
+            medecinIds.add(ligne.medecinId);
+            patientIds.add(ligne.patientId);
+        }
+
+        IntervalIndex<Integer> parMedecin = new IntervalIndex<>(RendezvousServiceNew.DUREE_MAX);
+        IntervalIndex<Integer> parPatient = new IntervalIndex<>(RendezvousServiceNew.DUREE_MAX);
+        for (Object[] creneau : rendezvousRepository.findCreneauxOccupes(
+                medecinIds, patientIds, from.minus(RendezvousServiceNew.DUREE_MAX), to)) {
+            parMedecin.ajouter((Integer) creneau[0], (LocalDateTime) creneau[2], (LocalDateTime) creneau[3]);
+            parPatient.ajouter((Integer) creneau[1], (LocalDateTime) creneau[2], (LocalDateTime) creneau[3]);
+        }
+
+        // salles : index d'occupation en mémoire, plus les lignes déjà acceptées de ce lot
+        IntervalIndex<String> parSalle = new IntervalIndex<>(RendezvousServiceNew.DUREE_MAX);
+        List<Ligne> acceptees = new ArrayList<>();
+        for (Ligne ligne : candidates) {
+            String salle = ligne.rendezvous.getSalle();
+            if (parMedecin.chevauche(ligne.medecinId, ligne.debut, ligne.fin)) {
+                ligne.rejeter(CONFLIT, "Le médecin a déjà un rendez-vous sur ce créneau");
+            } else if (parPatient.chevauche(ligne.patientId, ligne.debut, ligne.fin)) {
+                ligne.rejeter(CONFLIT, "Le patient a déjà un rendez-vous sur ce créneau");
+            } else if (parSalle.chevauche(SalleOccupationService.cle(salle), ligne.debut, ligne.fin)
+                    || salleOccupationService.estOccupee(salle, ligne.debut, ligne.fin, Set.of())) {
+                ligne.rejeter(CONFLIT, "La salle " + salle + " est déjà occupée sur ce créneau");
+            } else {
+                parMedecin.ajouter(ligne.medecinId, ligne.debut, ligne.fin);
+                parPatient.ajouter(ligne.patientId, ligne.debut, ligne.fin);
+                parSalle.ajouter(SalleOccupationService.cle(salle), ligne.debut, ligne.fin);
+                acceptees.add(ligne);
+            }
+        }
+        if (acceptees.isEmpty()) {
+            return acceptees;
+        }
+
+        try {
+            inserer(acceptees);
+        } catch (DataIntegrityViolationException e) {
+            System.err.println("Import de rendez-vous: lot de " + acceptees.size() + " lignes refusé, reprise ligne par ligne: "
+                    + e.getMostSpecificCause().getMessage());
+            acceptees = insererUneAUne(acceptees);
+        }
+        acceptees.forEach(ligne -> salleOccupationService.occuper(ligne.rendezvous));
+        return acceptees;
+    }
+
+    // Batch refusé : chaque ligne dans sa transaction, les autres lignes du lot sont gardées
+    private List<Ligne> insererUneAUne(List<Ligne> lignes) {
+        List<Ligne> inserees = new ArrayList<>();
+        for (Ligne ligne : lignes) {
+            try {
+                inserer(List.of(ligne));
+                inserees.add(ligne);
+            } catch (DataIntegrityViolationException e) {
+                if (RendezvousConstraintsInitializer.estChevauchement(e)) {
+                    ligne.rejeter(CONFLIT, "Créneau réservé entre-temps, ligne à réimporter");
+                } else {
+                    ligne.rejeter(INVALIDE, "Ligne refusée par la base de données: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return inserees;
+    }
+
+    private void inserer(List<Ligne> lignes) {
+        List<Rendezvous> rendezvous = lignes.stream().map(ligne -> ligne.rendezvous).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            rendezvousBatchRepository.insererTous(rendezvous);
+            agendaService.synchroniser(rendezvous.stream().map(Rendezvous::getId).toList());
+        });
+        for (Ligne ligne : lignes) {
+            ligne.statut = CREE;
+            ligne.rendezvousId = ligne.rendezvous.getId();
+        }
+    }
+
+    // Une notification par médecin et par lot plutôt qu'une par rendez-vous importé
+    private void notifierMedecins(List<Ligne> creees) {
+        Map<Integer, Long> parMedecin = creees.stream()
+                .collect(Collectors.groupingBy(ligne -> ligne.medecinId, Collectors.counting()));
+        parMedecin.forEach((medecinId, nombre) -> notificationOutbox.publierPrivee(
+                medecinId.longValue(),
+                new NotificationDto(
+                        "NEW_RDV",
+                        nombre + " nouveau(x) rendez-vous importé(s) dans votre agenda",
+                        null,
+                        LocalDateTime.now(),
+                        "MEDECIN",
+                        medecinId.longValue())));
+    }
+
+    // ';' s'il est plus fréquent que ',' hors guillemets, ',' sinon
+    private static char separateur(String texte) {
+        int virgules = 0;
+        int pointsVirgules = 0;
+        boolean entreGuillemets = false;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c == '"') {
+                entreGuillemets = !entreGuillemets;
+            } else if (!entreGuillemets && c == ',') {
+                virgules++;
+            } else if (!entreGuillemets && c == ';') {
+                pointsVirgules++;
+            }
+        }
+        return pointsVirgules > virgules ? ';' : ',';
+    }
+
+    // Nombre pair de guillemets : aucun champ entre guillemets ne continue sur la ligne suivante
+    private static boolean guillemetsFermes(String texte) {
+        return texte.chars().filter(c -> c == '"').count() % 2 == 0;
+    }
+
+    // Champs d'un enregistrement CSV (RFC 4180), sans les guillemets et espaces qui les entourent
+    private static String[] decouper(String texte, char separateur) {
+        List<String> valeurs = new ArrayList<>();
+        StringBuilder valeur = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < texte.length() && texte.charAt(i + 1) == '"') {
+                    valeur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    valeur.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                valeurs.add(valeur.toString().trim());
+                valeur.setLength(0);
+            } else {
+                valeur.append(c);
+            }
+        }
+        valeurs.add(valeur.toString().trim());
+        return valeurs.toArray(String[]::new);
+    }
+
+    private static String valeur(String[] valeurs, Map<String, Integer> colonnes, String colonne) {
+        Integer index = colonnes.get(colonne);
+        if (index == null || index >= valeurs.length || valeurs[index].isEmpty()) {
+            return null;
+        }
+        return valeurs[index];
+    }
+
+    private static final class Ligne {
+
+        private final int numero;
+        private Integer medecinId;
+        private Integer patientId;
+        private LocalDateTime debut;
+        private LocalDateTime fin;
+        private String motif;
+        private String salle;
+        private Rendezvous rendezvous;
+
+        private String statut;
+        private Integer rendezvousId;
+        private String message;
+
+        Ligne(int numero) {
+            this.numero = numero;
+        }
+
+        void rejeter(String statut, String message) {
+            this.statut = statut;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.groupe.gestion_clinic.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * Verrous par médecin, par patient et par salle (répartis sur un nombre fixe de verrous) pour rendre
+ * atomiques la vérification de conflit et l'enregistrement d'un rendez-vous sur ce noeud.
+ *
+ * Deux réservations concurrentes sur des médecins différents ne se bloquent pas (sauf collision
+ * de verrou), le médecin est toujours verrouillé avant le patient, puis la salle, pour éviter
+ * les interblocages.
+ * Entre plusieurs noeuds, ce sont les contraintes d'exclusion PostgreSQL qui tranchent.
+ */
+@Component
+public class RendezvousLocks {
+
+    private static final int NOMBRE_VERROUS = 64;
+
+    private final ReentrantLock[] verrousMedecin = creerVerrous();
+    private final ReentrantLock[] verrousPatient = creerVerrous();
+    private final ReentrantLock[] verrousSalle = creerVerrous();
+
+    public <T> T executer(Integer medecinId, Integer patientId, Supplier<T> action) {
+        return executer(medecinId, patientId, null, action);
+    }
+
+    public <T> T executer(Integer medecinId, Integer patientId, String salle, Supplier<T> action) {
+        return executerTous(
+                medecinId != null ? List.of(medecinId) : List.of(),
+                patientId != null ? List.of(patientId) : List.of(),
+                salle != null ? List.of(salle) : List.of(),
+                action);
+    }
+
+    public <T> T executerTous(Collection<Integer> medecinIds, Collection<Integer> patientIds, Supplier<T> action) {
+        return executerTous(medecinIds, patientIds, List.of(), action);
+    }
+
+    /*
+     * Variante pour les traitements par lot : tous les verrous concernés sont pris dans un
+     * ordre global (médecins, patients puis salles, par indice croissant), compatible avec executer.
+     */
+    public <T> T executerTous(Collection<Integer> medecinIds, Collection<Integer> patientIds,
+                              Collection<String> salles, Supplier<T> action) {
+        List<ReentrantLock> verrous = new ArrayList<>();
+        ajouterVerrous(verrous, verrousMedecin, medecinIds);
+        ajouterVerrous(verrous, verrousPatient, patientIds);
+        List<Integer> cles = new ArrayList<>();
+        for (String salle : salles) {
+            String cle = SalleOccupationService.cle(salle);
+            if (cle != null) {
+                cles.add(cle.hashCode());
+            }
+        }
+        ajouterVerrous(verrous, verrousSalle, cles);
+
+        int pris = 0;
+        try {
+            for (ReentrantLock verrou : verrous) {
+                verrou.lock();
+                pris++;
+            }
+            return action.get();
+        } finally {
+            for (int i = pris - 1; i >= 0; i--) {
+                verrous.get(i).unlock();
+            }
+        }
+    }
+
+    private static void ajouterVerrous(List<ReentrantLock> verrous, ReentrantLock[] repartition, Collection<Integer> ids) {
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                indices.add(Math.floorMod(id, repartition.length));
+            }
+        }
+        for (Integer indice : indices) {
+            verrous.add(repartition[indice]);
+        }
+    }
+
+    private static ReentrantLock[] creerVerrous() {
+        ReentrantLock[] verrous = new ReentrantLock[NOMBRE_VERROUS];
+        for (int i = 0; i < verrous.length; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+        return verrous;
+    }
+}
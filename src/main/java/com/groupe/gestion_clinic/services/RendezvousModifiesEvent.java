@@ -0,0 +1,24 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * Publié par AgendaService à chaque écriture sur des rendez-vous : état des lignes avant et
+ * après l'écriture (un rendez-vous créé n'a pas d'état avant, un rendez-vous supprimé pas
+ * d'état après). Consommé après commit par les compteurs du tableau de bord.
+ */
+public record RendezvousModifiesEvent(List<Etat> avant, List<Etat> apres) {
+
+    public record Etat(Integer rendezvousId, Integer medecinId, Integer patientId,
+                       LocalDateTime dateHeureDebut, StatutRendezVous statut) {
+
+        // ligne [id, medecinId, patientId, dateHeureDebut, statut] de AgendaRendezvousRepository.findEtats
+        static Etat de(Object[] ligne) {
+            return new Etat((Integer) ligne[0], (Integer) ligne[1], (Integer) ligne[2],
+                    (LocalDateTime) ligne[3], (StatutRendezVous) ligne[4]);
+        }
+    }
+}
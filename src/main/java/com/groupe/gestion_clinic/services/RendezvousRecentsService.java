@@ -0,0 +1,166 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * ---------------------- rendez-vous récents du tableau de bord --------------------------
+ *
+ * /api/dashboard/recent-rendezvous renvoie une liste précalculée : aucune requête, aucune
+ * construction de map par appel. Un tampon borné (capacite lignes, dateHeureDebut décroissante)
+ * garde les lignes d'affichage déjà construites :
+ *  - chargé au démarrage par une requête limitée (findRecentRendezVous) ;
+ *  - tenu à jour après commit par RendezvousModifiesEvent : une ligne modifiée ou plus récente
+ *    que la dernière du tampon est relue par id, une ligne supprimée est retirée ;
+ *  - rechargé quand les suppressions le vident sous AFFICHES lignes, après un renommage de
+ *    patient ou de médecin et à chaque réconciliation du tableau de bord (écritures des autres noeuds).
+ */
+@Service
+@RequiredArgsConstructor
+public class RendezvousRecentsService {
+
+    // nombre d'entrées renvoyées par /recent-rendezvous
+    static final int AFFICHES = 5;
+
+    private final RendezvousRepository rendezvousRepository;
+
+    @Value("${app.dashboard.recents-capacite:20}")
+    private int capacite;
+
+    // plus récents d'abord : dateHeureDebut puis id décroissants
+    private final TreeMap<Cle, Map<String, Object>> tampon = new TreeMap<>();
+    private final Map<Integer, Cle> cles = new HashMap<>();
+
+    // la base contenait plus de lignes que le tampon au dernier chargement
+    private boolean tronque;
+
+    // AFFICHES premières lignes, republiées à chaque modification du tampon
+    private volatile List<Map<String, Object>> vue = List.of();
+
+    public List<Map<String, Object>> getRecents() {
+        return vue;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        try {
+            recharger();
+        } catch (Exception e) {
+            System.err.println("Rendez-vous récents non chargés au démarrage: " + e.getMessage());
+        }
+    }
+
+    public synchronized void recharger() {
+        tampon.clear();
+        cles.clear();
+        List<Object[]> lignes = rendezvousRepository.findRecentRendezVous(PageRequest.of(0, capacite));
+        lignes.forEach(this::placer);
+        tronque = lignes.size() >= capacite;
+        publier();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRendezvousModifies(RendezvousModifiesEvent event) {
+        List<Integer> relus = new ArrayList<>();
+        for (RendezvousModifiesEvent.Etat etat : event.apres()) {
+            if (cles.containsKey(etat.rendezvousId()) || entre(etat)) {
+                relus.add(etat.rendezvousId());
+            }
+        }
+        event.avant().forEach(etat -> retirer(etat.rendezvousId()));
+        if (!relus.isEmpty()) {
+            rendezvousRepository.findAffichages(relus).forEach(this::placer);
+        }
+        while (tampon.size() > capacite) {
+            cles.remove(tampon.pollLastEntry().getKey().id());
+            tronque = true;
+        }
+        if (tronque && tampon.size() < AFFICHES) {
+            recharger();
+            return;
+        }
+        publier();
+    }
+
+    // Ligne [id, dateHeureDebut, motif, statut, patient nom, prénom, médecin nom, prénom] au format de /recent-rendezvous
+    public static Map<String, Object> affichage(Object[] ligne) {
+        Map<String, Object> rdvMap = new HashMap<>();
+        rdvMap.put("id", ligne[0]);
+        rdvMap.put("dateHeure", ligne[1].toString());
+        rdvMap.put("motif", ligne[2]);
+        rdvMap.put("statut", ligne[3] != null ? ((StatutRendezVous) ligne[3]).name() : "PLANIFIE");
+        if (ligne[4] != null || ligne[5] != null) {
+            Map<String, Object> patient = new HashMap<>();
+            patient.put("nom", ligne[4]);
+            patient.put("prenom", ligne[5]);
+            rdvMap.put("patient", Collections.unmodifiableMap(patient));
+        }
+        if (ligne[6] != null || ligne[7] != null) {
+            Map<String, Object> medecin = new HashMap<>();
+            medecin.put("nom", ligne[6]);
+            medecin.put("prenom", ligne[7]);
+            rdvMap.put("medecin", Collections.unmodifiableMap(medecin));
+        }
+        return Collections.unmodifiableMap(rdvMap);
+    }
+
+    // Une ligne absente du tampon n'y entre que si aucune ligne de la base ne peut la précéder hors du tampon
+    private boolean entre(RendezvousModifiesEvent.Etat etat) {
+        if (etat.dateHeureDebut() == null) {
+            return false;
+        }
+        if (!tronque) {
+            return true;
+        }
+        return !tampon.isEmpty() && new Cle(etat.dateHeureDebut(), etat.rendezvousId()).compareTo(tampon.lastKey()) < 0;
+    }
+
+    private void placer(Object[] ligne) {
+        retirer((Integer) ligne[0]);
+        if (ligne[1] == null) {
+            return;
+        }
+        Cle cle = new Cle((LocalDateTime) ligne[1], (Integer) ligne[0]);
+        tampon.put(cle, affichage(ligne));
+        cles.put(cle.id(), cle);
+    }
+
+    private void retirer(Integer rendezvousId) {
+        Cle cle = cles.remove(rendezvousId);
+        if (cle != null) {
+            tampon.remove(cle);
+        }
+    }
+
+    private void publier() {
+        vue = List.copyOf(tampon.values().stream().limit(AFFICHES).toList());
+    }
+
+    private record Cle(LocalDateTime debut, Integer id) implements Comparable<Cle> {
+
+        private static final Comparator<Cle> ORDRE = Comparator.comparing(Cle::debut)
+                .thenComparing(Cle::id)
+                .reversed();
+
+        @Override
+        public int compareTo(Cle autre) {
+            return ORDRE.compare(this, autre);
+        }
+    }
+}
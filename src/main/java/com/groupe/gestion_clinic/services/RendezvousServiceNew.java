@@ -1,18 +1,33 @@
 package com.groupe.gestion_clinic.services;
 
+import com.groupe.gestion_clinic.config.RendezvousConstraintsInitializer;
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.MedecinDto;
 import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.RendezvousResumeDto;
+import com.groupe.gestion_clinic.dto.RendezvousSearchDto;
 import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
 import com.groupe.gestion_clinic.exceptions.ConflictException;
 import com.groupe.gestion_clinic.exceptions.TooLateToCancelException;
 import com.groupe.gestion_clinic.model.*;
 import com.groupe.gestion_clinic.repositories.*;
+import com.groupe.gestion_clinic.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service("rendezvousServiceNew")
@@ -22,12 +37,26 @@ public class RendezvousServiceNew {
     private final RendezvousRepository rendezvousRepository;
     private final PatientRepository patientRepository;
     private final MedecinRepository medecinRepository;
-    private final com.groupe.gestion_clinic.notificationConfig.NotificationService notificationService;
+    private final com.groupe.gestion_clinic.notificationConfig.NotificationOutboxService notificationOutbox;
+    private final DisponibiliteService disponibiliteService;
+    private final RendezvousLocks rendezvousLocks;
+    private final SalleOccupationService salleOccupationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final AgendaService agendaService;
+
+    // Durée appliquée quand le client ne fournit ni dateHeureFin ni durée exploitable
+    static final Duration DUREE_PAR_DEFAUT = Duration.ofMinutes(30);
+
+    // Durée maximale d'un rendez-vous, borne basse du parcours d'index lors de la détection de conflits
+    static final Duration DUREE_MAX = Duration.ofHours(4);
+
+    private static final int TAILLE_PAGE_MAX = 100;
 
     public RendezvousDto createRendezVous(Object requestDto) {
         // Gérer les données du frontend (Map ou DTO)
         Integer medecinId, patientId;
-        LocalDateTime dateHeure;
+        LocalDateTime dateHeure, dateHeureFin;
         String motif, salle;
         
         if (requestDto instanceof java.util.Map) {
@@ -39,6 +68,10 @@ public class RendezvousServiceNew {
             medecinId = medecinIdObj instanceof String ? Integer.parseInt((String) medecinIdObj) : (Integer) medecinIdObj;
             patientId = patientIdObj instanceof String ? Integer.parseInt((String) patientIdObj) : (Integer) patientIdObj;
             dateHeure = LocalDateTime.parse((String) map.get("dateHeureDebut"));
+            Object dateHeureFinObj = map.get("dateHeureFin");
+            dateHeureFin = resolveDateHeureFin(dateHeure,
+                    dateHeureFinObj != null ? LocalDateTime.parse((String) dateHeureFinObj) : null,
+                    parseDuree(map.get("duree")));
             motif = (String) map.get("motif");
             salle = (String) map.get("salle");
         } else {
@@ -46,13 +79,57 @@ public class RendezvousServiceNew {
             medecinId = request.getMedecinId();
             patientId = request.getPatientId();
             dateHeure = request.getDateHeureDebut();
+            dateHeureFin = resolveDateHeureFin(dateHeure, null, request.getDuree());
             motif = request.getMotif();
             salle = request.getSalle();
         }
         
-        // Validation des conflits
+        String salleResolue = salleOccupationService.resoudre(salle);
+        Rendezvous rendezvous = new Rendezvous();
+        rendezvous.setStatut(StatutRendezVous.PLANIFIE);
+        rendezvous.setDateHeureDebut(dateHeure);
+        rendezvous.setDateHeureFin(dateHeureFin);
+        rendezvous.setMotif(motif);
+        rendezvous.setSalle(salleResolue);
+        
+        // Associer patient et médecin
+        if (patientId != null) {
+            Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient non trouvé"));
+            rendezvous.setPatient(patient);
+        }
+        
+        if (medecinId != null) {
+            Medecin medecin = medecinRepository.findById(medecinId)
+                .orElseThrow(() -> new RuntimeException("Médecin non trouvé"));
+            rendezvous.setMedecin(medecin);
+        }
+        
+        // Validation des conflits et enregistrement, atomiques pour le médecin, le patient et la salle ;
+        // la notification est écrite dans l'outbox, dans la transaction du rendez-vous
+        Rendezvous saved;
         try {
-            validateRendezVousConflicts(medecinId, patientId, dateHeure, null);
+            saved = rendezvousLocks.executer(medecinId, patientId, salleResolue, () -> {
+                validateRendezVousConflicts(medecinId, patientId, dateHeure, dateHeureFin, null);
+                salleOccupationService.verifierDisponible(salleResolue, dateHeure, dateHeureFin, null);
+                Rendezvous enregistre = transactionTemplate.execute(status -> {
+                    Rendezvous r = saveRendezVous(rendezvous);
+                    agendaService.synchroniser(r.getId());
+                    if (r.getMedecin() != null) {
+                        notificationOutbox.publierPrivee(r.getMedecin().getId().longValue(), new com.groupe.gestion_clinic.dto.NotificationDto(
+                            "NEW_RDV",
+                            "Nouveau rendez-vous planifié pour " + r.getDateHeureDebut().toLocalDate(),
+                            r.getId(),
+                            LocalDateTime.now(),
+                            "MEDECIN",
+                            r.getMedecin().getId().longValue()
+                        ));
+                    }
+                    return r;
+                });
+                salleOccupationService.occuper(enregistre);
+                return enregistre;
+            });
         } catch (ConflictException e) {
             // Notifier le médecin concerné
             if (medecinId != null) {
@@ -64,7 +141,7 @@ public class RendezvousServiceNew {
                     "MEDECIN",
                     medecinId.longValue()
                 );
-                notificationService.sendPrivateNotification(medecinId.longValue(), conflictNotif);
+                notificationOutbox.publierPrivee(medecinId.longValue(), conflictNotif);
             }
             
             // Notifier toutes les secrétaires
@@ -76,44 +153,12 @@ public class RendezvousServiceNew {
                 "SECRETAIRE",
                 null
             );
-            notificationService.sendPublicNotification(globalNotif);
+            notificationOutbox.publierPublique(globalNotif);
             
             throw e;
         }
         
-        Rendezvous rendezvous = new Rendezvous();
-        rendezvous.setStatut(StatutRendezVous.PLANIFIE);
-        rendezvous.setDateHeureDebut(dateHeure);
-        rendezvous.setMotif(motif);
-        rendezvous.setSalle(salle);
-        
-        // Associer patient et médecin
-        if (patientId != null) {
-            Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Patient non trouvé"));
-            rendezvous.setPatient(patient);
-        }
-        
-        if (medecinId != null) {
-            Medecin medecin = medecinRepository.findById(medecinId)
-                .orElseThrow(() -> new RuntimeException("Médecin non trouvé"));
-            rendezvous.setMedecin(medecin);
-        }
-        
-        Rendezvous saved = rendezvousRepository.save(rendezvous);
-        
-        // Send notification
-        if (saved.getMedecin() != null) {
-            com.groupe.gestion_clinic.dto.NotificationDto notif = new com.groupe.gestion_clinic.dto.NotificationDto(
-                "NEW_RDV",
-                "Nouveau rendez-vous planifié pour " + saved.getDateHeureDebut().toLocalDate(),
-                saved.getId(),
-                LocalDateTime.now(),
-                "MEDECIN",
-                saved.getMedecin().getId().longValue()
-            );
-            notificationService.sendPrivateNotification(saved.getMedecin().getId().longValue(), notif);
-        }
+        disponibiliteService.occuper(saved);
         
         return convertToDto(saved);
     }
@@ -121,7 +166,7 @@ public class RendezvousServiceNew {
     public RendezvousDto updateRendezVous(Integer id, Object requestDto) {
         // Gérer les données du frontend
         Integer medecinId, patientId;
-        LocalDateTime dateHeure;
+        LocalDateTime dateHeure, dateHeureFin;
         String motif, salle;
         
         if (requestDto instanceof java.util.Map) {
@@ -133,6 +178,10 @@ public class RendezvousServiceNew {
             medecinId = medecinIdObj instanceof String ? Integer.parseInt((String) medecinIdObj) : (Integer) medecinIdObj;
             patientId = patientIdObj instanceof String ? Integer.parseInt((String) patientIdObj) : (Integer) patientIdObj;
             dateHeure = LocalDateTime.parse((String) map.get("dateHeureDebut"));
+            Object dateHeureFinObj = map.get("dateHeureFin");
+            dateHeureFin = resolveDateHeureFin(dateHeure,
+                    dateHeureFinObj != null ? LocalDateTime.parse((String) dateHeureFinObj) : null,
+                    parseDuree(map.get("duree")));
             motif = (String) map.get("motif");
             salle = (String) map.get("salle");
         } else {
@@ -140,6 +189,7 @@ public class RendezvousServiceNew {
             medecinId = request.getMedecinId();
             patientId = request.getPatientId();
             dateHeure = request.getDateHeureDebut();
+            dateHeureFin = resolveDateHeureFin(dateHeure, null, request.getDuree());
             motif = request.getMotif();
             salle = request.getSalle();
         }
@@ -147,14 +197,32 @@ public class RendezvousServiceNew {
         Rendezvous rendezvous = rendezvousRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rendez-vous non trouvé"));
         
-        // Validation des conflits (exclure le RDV actuel)
-        validateRendezVousConflicts(medecinId, patientId, dateHeure, id);
-        
+        String salleResolue = salleOccupationService.resoudre(salle);
+        LocalDateTime ancienDebut = rendezvous.getDateHeureDebut();
+        LocalDateTime ancienneFin = rendezvous.getDateHeureFin();
         rendezvous.setDateHeureDebut(dateHeure);
+        rendezvous.setDateHeureFin(dateHeureFin);
         rendezvous.setMotif(motif);
-        rendezvous.setSalle(salle);
+        rendezvous.setSalle(salleResolue);
         
-        Rendezvous updated = rendezvousRepository.save(rendezvous);
+        // Validation des conflits (exclure le RDV actuel) et enregistrement sous verrou
+        Rendezvous updated = rendezvousLocks.executer(medecinId, patientId, salleResolue, () -> {
+            validateRendezVousConflicts(medecinId, patientId, dateHeure, dateHeureFin, id);
+            if (rendezvous.getStatut() != StatutRendezVous.ANNULE) {
+                salleOccupationService.verifierDisponible(salleResolue, dateHeure, dateHeureFin, id);
+            }
+            Rendezvous enregistre = transactionTemplate.execute(status -> {
+                Rendezvous r = saveRendezVous(rendezvous);
+                agendaService.synchroniser(r.getId());
+                return r;
+            });
+            salleOccupationService.occuper(enregistre);
+            return enregistre;
+        });
+        if (updated.getStatut() != StatutRendezVous.ANNULE && updated.getMedecin() != null) {
+            disponibiliteService.liberer(updated.getMedecin().getId(), ancienDebut, ancienneFin);
+            disponibiliteService.occuper(updated);
+        }
         return convertToDto(updated);
     }
 
@@ -162,13 +230,12 @@ public class RendezvousServiceNew {
         Rendezvous rendezvous = rendezvousRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rendez-vous non trouvé"));
         
+        StatutRendezVous ancienStatut = rendezvous.getStatut();
         rendezvous.setStatut(statut);
         if (statut == StatutRendezVous.ANNULE) {
             rendezvous.setDateAnnulation(LocalDateTime.now());
         }
         
-        Rendezvous updated = rendezvousRepository.save(rendezvous);
-        
         // Send notifications based on status
         String objMessage = "";
         String message = "";
@@ -176,7 +243,7 @@ public class RendezvousServiceNew {
         switch (statut) {
             case CONFIRME:
                 objMessage = "RDV_CONFIRMED";
-                message = "Rendez-vous confirmé pour " + updated.getDateHeureDebut().toLocalDate();
+                message = "Rendez-vous confirmé pour " + rendezvous.getDateHeureDebut().toLocalDate();
                 break;
             case TERMINE:
                 objMessage = "RDV_COMPLETED";
@@ -184,20 +251,58 @@ public class RendezvousServiceNew {
                 break;
             case ANNULE:
                 objMessage = "RDV_CANCELLED";
-                message = "Rendez-vous annulé pour " + updated.getDateHeureDebut().toLocalDate();
+                message = "Rendez-vous annulé pour " + rendezvous.getDateHeureDebut().toLocalDate();
                 break;
         }
         
-        if (!objMessage.isEmpty() && updated.getMedecin() != null) {
-            com.groupe.gestion_clinic.dto.NotificationDto notif = new com.groupe.gestion_clinic.dto.NotificationDto(
-                objMessage,
-                message,
-                updated.getId(),
-                LocalDateTime.now(),
-                "MEDECIN",
-                updated.getMedecin().getId().longValue()
-            );
-            notificationService.sendPrivateNotification(updated.getMedecin().getId().longValue(), notif);
+        // statut et notification (outbox) enregistrés dans la même transaction
+        String type = objMessage;
+        String texte = message;
+        Supplier<Rendezvous> enregistrer = () -> {
+            Rendezvous enregistre = transactionTemplate.execute(status -> {
+                Rendezvous r = saveRendezVous(rendezvous);
+                agendaService.synchroniser(r.getId());
+                if (!type.isEmpty() && r.getMedecin() != null) {
+                    com.groupe.gestion_clinic.dto.NotificationDto notif = new com.groupe.gestion_clinic.dto.NotificationDto(
+                        type,
+                        texte,
+                        r.getId(),
+                        LocalDateTime.now(),
+                        "MEDECIN",
+                        r.getMedecin().getId().longValue()
+                    );
+                    notificationOutbox.publierPrivee(r.getMedecin().getId().longValue(), notif);
+                }
+                return r;
+            });
+            salleOccupationService.occuper(enregistre);
+            return enregistre;
+        };
+
+        Rendezvous updated;
+        boolean reactivation = ancienStatut == StatutRendezVous.ANNULE && statut != StatutRendezVous.ANNULE;
+        if (!reactivation || rendezvous.getDateHeureDebut() == null) {
+            // le créneau reste tel quel : pas de contrôle, un chevauchement hérité n'empêche pas de clôturer
+            updated = enregistrer.get();
+        } else {
+            // rendez-vous annulé réactivé : son créneau a pu être repris, mêmes contrôles que la création, sous verrou
+            Integer medecinId = rendezvous.getMedecin() != null ? rendezvous.getMedecin().getId() : null;
+            Integer patientId = rendezvous.getPatient() != null ? rendezvous.getPatient().getId() : null;
+            LocalDateTime debut = rendezvous.getDateHeureDebut();
+            LocalDateTime fin = rendezvous.getDateHeureFin() != null && rendezvous.getDateHeureFin().isAfter(debut)
+                    ? rendezvous.getDateHeureFin()
+                    : debut.plus(DUREE_PAR_DEFAUT);
+            updated = rendezvousLocks.executer(medecinId, patientId, rendezvous.getSalle(), () -> {
+                validateRendezVousConflicts(medecinId, patientId, debut, fin, id);
+                salleOccupationService.verifierDisponible(rendezvous.getSalle(), debut, fin, id);
+                return enregistrer.get();
+            });
+        }
+        if (ancienStatut != StatutRendezVous.ANNULE && statut == StatutRendezVous.ANNULE) {
+            disponibiliteService.liberer(updated);
+            publierAnnulation(updated);
+        } else if (ancienStatut == StatutRendezVous.ANNULE && statut != StatutRendezVous.ANNULE) {
+            disponibiliteService.occuper(updated);
         }
         
         return convertToDto(updated);
@@ -214,6 +319,15 @@ public class RendezvousServiceNew {
         return rendezvousRepository.findAllByOrderByCreatedAtDesc(pageable).map(this::convertToDto);
     }
 
+    public CursorPageDto<RendezvousDto> getAllRendezVousCursor(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.ofSize(Math.min(Math.max(size, 1), TAILLE_PAGE_MAX) + 1);
+        List<Rendezvous> rows = position == null
+                ? rendezvousRepository.findKeysetFirstPage(limit)
+                : rendezvousRepository.findKeysetPageAfter(position.getCreatedAt(), position.getId(), limit);
+        return CursorPageDto.of(rows, limit.getPageSize() - 1, this::convertToDto);
+    }
+
     public RendezvousDto getRendezVousById(Integer id) {
         Rendezvous rendezvous = rendezvousRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rendez-vous non trouvé"));
@@ -229,33 +343,56 @@ public class RendezvousServiceNew {
             throw new TooLateToCancelException("Impossible d'annuler un rendez-vous moins de 24h avant");
         }
         
+        boolean etaitActif = rendezvous.getStatut() != StatutRendezVous.ANNULE;
         rendezvous.setStatut(StatutRendezVous.ANNULE);
         rendezvous.setDateAnnulation(LocalDateTime.now());
-        rendezvousRepository.save(rendezvous);
+        transactionTemplate.executeWithoutResult(status -> {
+            rendezvousRepository.save(rendezvous);
+            agendaService.synchroniser(id);
+        });
+        salleOccupationService.liberer(id);
+        if (etaitActif) {
+            disponibiliteService.liberer(rendezvous);
+            publierAnnulation(rendezvous);
+        }
         return null;
     }
 
+    // Créneau libéré : la liste d'attente du médecin est traitée après commit, hors du thread de la requête
+    private void publierAnnulation(Rendezvous rendezvous) {
+        if (rendezvous.getMedecin() != null && rendezvous.getDateHeureDebut() != null) {
+            eventPublisher.publishEvent(RendezvousAnnuleEvent.de(rendezvous));
+        }
+    }
+
     public void deleteRendezVous(Integer id) {
-        rendezvousRepository.deleteById(id);
+        rendezvousRepository.findById(id).ifPresent(rendezvous -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                rendezvousRepository.delete(rendezvous);
+                agendaService.synchroniser(id);
+            });
+            salleOccupationService.liberer(id);
+            if (rendezvous.getStatut() != StatutRendezVous.ANNULE) {
+                disponibiliteService.liberer(rendezvous);
+            }
+        });
     }
 
     public List<RendezvousDto> getUpcomingRendezVousForMedecin() {
-        return rendezvousRepository.findAll().stream()
-                .filter(rdv -> rdv.getDateHeureDebut() != null && rdv.getDateHeureDebut().isAfter(LocalDateTime.now()))
+        return rendezvousRepository.findAll(RendezvousSpecifications.debutAfter(LocalDateTime.now()),
+                        Sort.by("dateHeureDebut")).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    // vues calendrier : servies par l'agenda dénormalisé, sans jointure
     public List<RendezvousDto> getRendezVousBetweenDates(LocalDateTime start, LocalDateTime end, Integer medecinId) {
-        return rendezvousRepository.findAll().stream()
-                .filter(rdv -> rdv.getDateHeureDebut() != null && rdv.getDateHeureDebut().isAfter(start) && rdv.getDateHeureDebut().isBefore(end))
-                .filter(rdv -> medecinId == null || (rdv.getMedecin() != null && rdv.getMedecin().getId().equals(medecinId)))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return agendaService.getAgenda(start, end, medecinId);
     }
 
-    public List<RendezvousDto> searchRendezVous(Object searchDto) {
-        return getAllRendezVous();
+    public Page<RendezvousResumeDto> searchRendezVous(RendezvousSearchDto searchDto, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), TAILLE_PAGE_MAX));
+        return rendezvousRepository.findResumes(RendezvousSpecifications.fromSearch(searchDto), pageable);
     }
 
     private RendezvousDto convertToDto(Rendezvous rendezvous) {
@@ -278,34 +415,63 @@ public class RendezvousServiceNew {
         return dto;
     }
     
-    private void validateRendezVousConflicts(Integer medecinId, Integer patientId, 
-                                           LocalDateTime dateHeure, Integer excludeId) {
-        // Vérifier conflit médecin (même heure)
-        if (medecinId != null) {
-            List<Rendezvous> medecinRdv = rendezvousRepository.findAll().stream()
-                .filter(rdv -> rdv.getMedecin() != null && rdv.getMedecin().getId().equals(medecinId))
-                .filter(rdv -> rdv.getStatut() != StatutRendezVous.ANNULE)
-                .filter(rdv -> excludeId == null || !rdv.getId().equals(excludeId))
-                .filter(rdv -> rdv.getDateHeureDebut() != null && rdv.getDateHeureDebut().equals(dateHeure))
-                .collect(Collectors.toList());
-                
-            if (!medecinRdv.isEmpty()) {
-                throw new ConflictException("Le médecin a déjà un rendez-vous à cette heure");
+    /*
+     * Enregistrement d'un rendez-vous actif : sur PostgreSQL les contraintes d'exclusion
+     * (RendezvousConstraintsInitializer) rejettent un chevauchement créé par un autre noeud.
+     */
+    private Rendezvous saveRendezVous(Rendezvous rendezvous) {
+        try {
+            return rendezvousRepository.saveAndFlush(rendezvous);
+        } catch (DataIntegrityViolationException e) {
+            if (RendezvousConstraintsInitializer.estChevauchement(e)) {
+                throw new ConflictException("Ce créneau vient d'être réservé");
             }
+            throw e;
         }
-        
-        // Vérifier conflit patient (même heure exacte au lieu du même jour)
-        if (patientId != null) {
-            List<Rendezvous> patientRdv = rendezvousRepository.findAll().stream()
-                .filter(rdv -> rdv.getPatient() != null && rdv.getPatient().getId().equals(patientId))
-                .filter(rdv -> rdv.getStatut() != StatutRendezVous.ANNULE)
-                .filter(rdv -> excludeId == null || !rdv.getId().equals(excludeId))
-                .filter(rdv -> rdv.getDateHeureDebut() != null && rdv.getDateHeureDebut().equals(dateHeure))
-                .collect(Collectors.toList());
-                
-            if (!patientRdv.isEmpty()) {
-                throw new ConflictException("Le patient a déjà un rendez-vous à cette heure exacte");
-            }
+    }
+
+    /*
+     * Détection des chevauchements [debut, fin[ par requêtes indexées :
+     * seuls les rendez-vous du médecin / patient dont le début tombe dans
+     * ]debut - DUREE_MAX, fin[ sont examinés, la latence ne dépend donc pas de l'historique.
+     */
+    private void validateRendezVousConflicts(Integer medecinId, Integer patientId,
+                                           LocalDateTime dateHeure, LocalDateTime dateHeureFin, Integer excludeId) {
+        LocalDateTime earliestStart = dateHeure.minus(DUREE_MAX);
+
+        // Vérifier conflit médecin (chevauchement de créneaux)
+        if (medecinId != null
+                && rendezvousRepository.existsConflictingMedecinRendezVous(medecinId, dateHeure, dateHeureFin, earliestStart, excludeId)) {
+            throw new ConflictException("Le médecin a déjà un rendez-vous sur ce créneau");
+        }
+
+        // Vérifier conflit patient (chevauchement de créneaux)
+        if (patientId != null
+                && rendezvousRepository.existsConflictingPatientRendezVous(patientId, dateHeure, dateHeureFin, earliestStart, excludeId)) {
+            throw new ConflictException("Le patient a déjà un rendez-vous sur ce créneau");
+        }
+    }
+
+    // Fin du créneau : dateHeureFin si cohérente, sinon début + durée (ou durée par défaut)
+    static LocalDateTime resolveDateHeureFin(LocalDateTime dateHeure, LocalDateTime dateHeureFin, Duration duree) {
+        if (dateHeureFin == null || !dateHeureFin.isAfter(dateHeure)) {
+            boolean dureeValide = duree != null && !duree.isNegative() && !duree.isZero();
+            dateHeureFin = dateHeure.plus(dureeValide ? duree : DUREE_PAR_DEFAUT);
+        }
+        if (Duration.between(dateHeure, dateHeureFin).compareTo(DUREE_MAX) > 0) {
+            throw new BusinessException("La durée d'un rendez-vous ne peut pas dépasser " + DUREE_MAX.toHours() + "h");
         }
+        return dateHeureFin;
+    }
+
+    // Durée envoyée par le frontend : nombre de minutes ou format ISO-8601 (PT45M)
+    private Duration parseDuree(Object dureeObj) {
+        if (dureeObj instanceof Number) {
+            return Duration.ofMinutes(((Number) dureeObj).longValue());
+        }
+        if (dureeObj instanceof String && !((String) dureeObj).isBlank()) {
+            return Duration.parse((String) dureeObj);
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,326 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.SalleOccupationDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Salle;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.repositories.SalleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * ---------------------- occupation des salles en mémoire --------------------------
+ *
+ * Pour chaque salle (nom normalisé) : les rendez-vous actifs triés par début, depuis
+ * historique-jours jours. L'index est construit en une requête, puis tenu à jour par les
+ * écritures de RendezvousServiceNew / import / séries, sous les verrous RendezvousLocks.
+ *
+ * Il sert à refuser les doubles réservations d'une salle et à calculer les taux d'occupation
+ * sans parcourir la table des rendez-vous. Il est reconstruit après ttl-minutes pour rattraper
+ * les écritures d'un autre noeud ; sur PostgreSQL une contrainte d'exclusion fait foi.
+ *
+ * La reconstruction s'exécute hors du moniteur du service : vérifications et écritures
+ * continuent sur l'index en place, même périmé, le nouveau est installé sous le verrou. Une écriture reçue
+ * pendant la lecture (generation modifiée) peut manquer au résultat : la lecture est refaite,
+ * au plus ESSAIS_CHARGEMENT fois, la dernière étant installée telle quelle. Un seul
+ * rechargement à la fois.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalleOccupationService {
+
+    private static final int ESSAIS_CHARGEMENT = 3;
+
+    private final RendezvousRepository rendezvousRepository;
+    private final SalleRepository salleRepository;
+
+    @Value("${app.salles.historique-jours:90}")
+    private int historiqueJours;
+
+    @Value("${app.salles.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    // true : seules les salles déclarées sont acceptées dans un rendez-vous
+    @Value("${app.salles.strict:false}")
+    private boolean strict;
+
+    @Value("${app.disponibilite.heure-ouverture:08:00}")
+    private String heureOuverture;
+
+    @Value("${app.disponibilite.heure-fermeture:18:00}")
+    private String heureFermeture;
+
+    // index, generation et invalidation gardés par le moniteur du service
+    private Occupations occupations;
+    private long generation;
+    private boolean invalide;
+    private boolean enChargement;
+
+    // un rechargement à la fois ; pris avant le moniteur du service, jamais après
+    private final Object rechargement = new Object();
+
+    public static String cle(String salle) {
+        return salle == null || salle.isBlank() ? null : salle.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Nom de salle à enregistrer : nom déclaré si la salle existe, texte libre sinon (refusé en mode strict)
+    public String resoudre(String salle) {
+        String cle = cle(salle);
+        if (cle == null) {
+            return null;
+        }
+        actualiser();
+        Salle declaree;
+        synchronized (this) {
+            declaree = occupations.salles.get(cle);
+        }
+        if (declaree == null) {
+            if (strict) {
+                throw new BusinessException("Salle inconnue: " + salle.trim());
+            }
+            return salle.trim();
+        }
+        if (!declaree.isActive()) {
+            throw new BusinessException("La salle " + declaree.getNom() + " n'est plus réservable");
+        }
+        return declaree.getNom();
+    }
+
+    public void verifierDisponible(String salle, LocalDateTime debut, LocalDateTime fin, Integer excludeId) {
+        if (estOccupee(salle, debut, fin, excludeId != null ? Set.of(excludeId) : Set.of())) {
+            throw new ConflictException("La salle " + salle.trim() + " est déjà occupée sur ce créneau");
+        }
+    }
+
+    public boolean estOccupee(String salle, LocalDateTime debut, LocalDateTime fin, Collection<Integer> exclus) {
+        String cle = cle(salle);
+        if (cle == null || debut == null) {
+            return false;
+        }
+        actualiser();
+        synchronized (this) {
+            TreeMap<LocalDateTime, Map<Integer, LocalDateTime>> parDebut = occupations.parSalle.get(cle);
+            if (parDebut == null) {
+                return false;
+            }
+            for (Map<Integer, LocalDateTime> memeDebut : parDebut.subMap(debut.minus(RendezvousServiceNew.DUREE_MAX), false, fin, false).values()) {
+                for (Map.Entry<Integer, LocalDateTime> occupation : memeDebut.entrySet()) {
+                    if (!exclus.contains(occupation.getKey()) && occupation.getValue().isAfter(debut)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    // Enregistre (ou déplace) un rendez-vous dans l'index ; annulé ou sans salle, il en est retiré
+    public void occuper(Rendezvous rendezvous) {
+        if (rendezvous.getId() == null) {
+            return;
+        }
+        actualiser();
+        synchronized (this) {
+            generation++;
+            occupations.retirer(rendezvous.getId());
+            if (rendezvous.getStatut() != StatutRendezVous.ANNULE) {
+                occupations.ajouter(rendezvous.getId(), rendezvous.getSalle(), rendezvous.getDateHeureDebut(), rendezvous.getDateHeureFin());
+            }
+        }
+    }
+
+    public synchronized void liberer(Integer rendezvousId) {
+        generation++;
+        if (occupations != null && rendezvousId != null) {
+            occupations.retirer(rendezvousId);
+        }
+    }
+
+    // Après une modification des salles déclarées : l'index en place sert jusqu'au rechargement
+    public synchronized void invalider() {
+        generation++;
+        invalide = true;
+    }
+
+    public List<SalleOccupationDto> getOccupation(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BusinessException("Période invalide");
+        }
+        actualiser();
+        return occupation(from, to);
+    }
+
+    private synchronized List<SalleOccupationDto> occupation(LocalDate from, LocalDate to) {
+        Occupations index = occupations;
+        if (from.atStartOfDay().isBefore(index.depuis)) {
+            throw new BusinessException("L'occupation n'est disponible qu'à partir du " + index.depuis.toLocalDate());
+        }
+        LocalTime ouverture = LocalTime.parse(heureOuverture);
+        LocalTime fermeture = LocalTime.parse(heureFermeture);
+        long jours = Duration.between(from.atStartOfDay(), to.plusDays(1).atStartOfDay()).toDays();
+        long minutesOuvertes = jours * Duration.between(ouverture, fermeture).toMinutes();
+
+        List<SalleOccupationDto> resultats = new ArrayList<>();
+        for (Salle salle : index.salles.values()) {
+            TreeMap<LocalDateTime, Map<Integer, LocalDateTime>> parDebut = index.parSalle.getOrDefault(cle(salle.getNom()), new TreeMap<>());
+            long nombre = 0;
+            long minutesOccupees = 0;
+            LocalDateTime finFusion = null;
+            // parcours par début croissant : union des intervalles, bornés aux heures d'ouverture du jour
+            for (Map.Entry<LocalDateTime, Map<Integer, LocalDateTime>> entree
+                    : parDebut.subMap(from.atStartOfDay(), true, to.plusDays(1).atStartOfDay(), false).entrySet()) {
+                LocalDateTime debut = entree.getKey();
+                nombre += entree.getValue().size();
+                LocalDateTime finMax = entree.getValue().values().stream().max(LocalDateTime::compareTo).orElse(debut);
+                LocalDateTime debutBorne = max(debut, debut.toLocalDate().atTime(ouverture));
+                LocalDateTime finBornee = min(finMax, debut.toLocalDate().atTime(fermeture));
+                if (finFusion != null) {
+                    debutBorne = max(debutBorne, finFusion);
+                }
+                if (finBornee.isAfter(debutBorne)) {
+                    minutesOccupees += Duration.between(debutBorne, finBornee).toMinutes();
+                    finFusion = finBornee;
+                }
+            }
+            resultats.add(SalleOccupationDto.builder()
+                    .salleId(salle.getId())
+                    .salle(salle.getNom())
+                    .nombreRendezVous(nombre)
+                    .minutesOccupees(minutesOccupees)
+                    .minutesOuvertes(minutesOuvertes)
+                    .tauxOccupation(minutesOuvertes > 0 ? Math.min(1.0, (double) minutesOccupees / minutesOuvertes) : 0)
+                    .build());
+        }
+        resultats.sort((a, b) -> a.getSalle().compareToIgnoreCase(b.getSalle()));
+        return resultats;
+    }
+
+    // Recharge l'index absent, invalidé ou expiré
+    private void actualiser() {
+        synchronized (this) {
+            // un index en place sert pendant le rechargement lancé par un autre thread
+            if (!perime() || (occupations != null && enChargement)) {
+                return;
+            }
+        }
+        synchronized (rechargement) {
+            // rechargé par un autre thread pendant l'attente
+            synchronized (this) {
+                if (!perime()) {
+                    return;
+                }
+            }
+            recharger();
+        }
+    }
+
+    private boolean perime() {
+        return occupations == null || invalide || System.currentTimeMillis() > occupations.expireLe;
+    }
+
+    // Appelé sous rechargement : requêtes hors du moniteur, échange sous le moniteur
+    private void recharger() {
+        try {
+            for (int essai = 1; essai <= ESSAIS_CHARGEMENT; essai++) {
+                long lue;
+                synchronized (this) {
+                    enChargement = true;
+                    lue = generation;
+                }
+                Occupations chargees = charger();
+                synchronized (this) {
+                    if (generation == lue || essai == ESSAIS_CHARGEMENT) {
+                        // une invalidation reçue pendant la dernière lecture reste à traiter
+                        invalide = invalide && generation != lue;
+                        occupations = chargees;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            synchronized (this) {
+                enChargement = false;
+            }
+        }
+    }
+
+    private Occupations charger() {
+        LocalDateTime depuis = LocalDate.now().minusDays(historiqueJours).atStartOfDay();
+        Occupations index = new Occupations(depuis, System.currentTimeMillis() + ttlMinutes * 60_000);
+        for (Salle salle : salleRepository.findAll()) {
+            index.salles.put(cle(salle.getNom()), salle);
+        }
+        for (Object[] occupation : rendezvousRepository.findOccupationsSalles(depuis)) {
+            index.ajouter((Integer) occupation[0], (String) occupation[1], (LocalDateTime) occupation[2], (LocalDateTime) occupation[3]);
+        }
+        return index;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record Occupation(String cle, LocalDateTime debut) {
+    }
+
+    private static final class Occupations {
+
+        private final Map<String, TreeMap<LocalDateTime, Map<Integer, LocalDateTime>>> parSalle = new HashMap<>();
+        private final Map<Integer, Occupation> parRendezVous = new HashMap<>();
+        private final Map<String, Salle> salles = new HashMap<>();
+        private final LocalDateTime depuis;
+        private final long expireLe;
+
+        Occupations(LocalDateTime depuis, long expireLe) {
+            this.depuis = depuis;
+            this.expireLe = expireLe;
+        }
+
+        void ajouter(Integer id, String salle, LocalDateTime debut, LocalDateTime fin) {
+            String cle = cle(salle);
+            if (cle == null || debut == null || debut.isBefore(depuis)) {
+                return;
+            }
+            // sans fin exploitable : occupe uniquement l'instant de début
+            LocalDateTime finEffective = fin != null && fin.isAfter(debut) ? fin : debut.plusNanos(1);
+            parSalle.computeIfAbsent(cle, k -> new TreeMap<>())
+                    .computeIfAbsent(debut, k -> new HashMap<>())
+                    .put(id, finEffective);
+            parRendezVous.put(id, new Occupation(cle, debut));
+        }
+
+        void retirer(Integer id) {
+            Occupation occupation = parRendezVous.remove(id);
+            if (occupation == null) {
+                return;
+            }
+            TreeMap<LocalDateTime, Map<Integer, LocalDateTime>> parDebut = parSalle.get(occupation.cle());
+            Map<Integer, LocalDateTime> memeDebut = parDebut.get(occupation.debut());
+            memeDebut.remove(id);
+            if (memeDebut.isEmpty()) {
+                parDebut.remove(occupation.debut());
+            }
+        }
+    }
+}
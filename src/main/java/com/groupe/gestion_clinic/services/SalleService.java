@@ -0,0 +1,14 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.SalleDto;
+
+import java.util.List;
+
+public interface SalleService {
+
+    SalleDto createSalle(SalleDto salleDto);
+    SalleDto updateSalle(Integer id, SalleDto salleDto);
+    SalleDto findById(Integer id);
+    List<SalleDto> findAll();
+    void deleteSalle(Integer id);
+}
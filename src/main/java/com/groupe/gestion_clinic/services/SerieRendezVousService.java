@@ -0,0 +1,330 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.config.RendezvousConstraintsInitializer;
+import com.groupe.gestion_clinic.dto.NotificationDto;
+import com.groupe.gestion_clinic.dto.SerieRendezVousDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieModificationRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieRendezVousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.SerieRendezVous;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.notificationConfig.NotificationOutboxService;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousBatchRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.repositories.SerieRendezVousRepository;
+import com.groupe.gestion_clinic.utils.IntervalIndex;
+import com.groupe.gestion_clinic.utils.RegleRecurrence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/*
+ * ---------------------- séries de rendez-vous récurrents --------------------------
+ *
+ * Une série est développée en occurrences (RegleRecurrence), toutes vérifiées en un seul
+ * passage contre l'occupation du médecin et du patient sur tout l'horizon de la série
+ * (une requête, IntervalIndex en mémoire) et contre l'index des salles, puis enregistrées
+ * en une transaction :
+ * la série via JPA, les occurrences en un batch JDBC.
+ *
+ * "Cette occurrence et les suivantes" ne touche que les occurrences concernées ; la série
+ * d'origine est arrêtée la veille et les occurrences modifiées passent dans une nouvelle série.
+ */
+@Service
+@RequiredArgsConstructor
+public class SerieRendezVousService {
+
+    private static final int CONFLITS_AFFICHES = 10;
+
+    private final SerieRendezVousRepository serieRepository;
+    private final RendezvousRepository rendezvousRepository;
+    private final RendezvousBatchRepository rendezvousBatchRepository;
+    private final MedecinRepository medecinRepository;
+    private final PatientRepository patientRepository;
+    private final NotificationOutboxService notificationOutbox;
+    private final DisponibiliteService disponibiliteService;
+    private final RendezvousLocks rendezvousLocks;
+    private final SalleOccupationService salleOccupationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AgendaService agendaService;
+
+    @Value("${app.rendezvous.serie.max-occurrences:366}")
+    private int maxOccurrences;
+
+    @Value("${app.rendezvous.serie.horizon-mois:12}")
+    private int horizonMois;
+
+    public SerieRendezVousDto creerSerie(SerieRendezVousRequestDto request) {
+        if (request.getMedecinId() == null || request.getPatientId() == null || request.getDateHeureDebut() == null) {
+            throw new BusinessException("medecinId, patientId et dateHeureDebut sont requis");
+        }
+        RegleRecurrence regle = RegleRecurrence.parse(request.getRegle());
+        LocalDateTime premier = request.getDateHeureDebut();
+        Duration duree = Duration.between(premier, RendezvousServiceNew.resolveDateHeureFin(premier, null, request.getDuree()));
+        Medecin medecin = medecinRepository.findById(request.getMedecinId())
+                .orElseThrow(() -> new BusinessException("Médecin non trouvé"));
+        Patient patient = patientRepository.findById(request.getPatientId())
+                .orElseThrow(() -> new BusinessException("Patient non trouvé"));
+
+        String salle = salleOccupationService.resoudre(request.getSalle());
+
+        List<LocalDateTime> dates = regle.occurrences(premier, premier.toLocalDate().plusMonths(horizonMois), maxOccurrences);
+        if (dates.isEmpty()) {
+            // UNTIL antérieur à la première date : rien à créer
+            throw new BusinessException("la règle ne produit aucune occurrence");
+        }
+        SerieRendezVous serie = SerieRendezVous.builder()
+                .regle(regle.toString())
+                .dateHeureDebut(premier)
+                .dureeMinutes((int) duree.toMinutes())
+                .motif(request.getMotif())
+                .salle(salle)
+                .medecin(medecin)
+                .patient(patient)
+                .build();
+        List<Rendezvous> occurrences = new ArrayList<>();
+        for (LocalDateTime debut : dates) {
+            occurrences.add(Rendezvous.builder()
+                    .dateHeureDebut(debut).dateHeureFin(debut.plus(duree))
+                    .motif(request.getMotif()).salle(salle)
+                    .statut(StatutRendezVous.PLANIFIE)
+                    .medecin(medecin).patient(patient).serie(serie)
+                    .build());
+        }
+
+        SerieRendezVous saved = sousVerrou(medecin.getId(), patient.getId(), salle, () -> {
+            verifierConflits(medecin.getId(), patient.getId(), occurrences, Set.of());
+            SerieRendezVous enregistree = transactionTemplate.execute(status -> {
+                SerieRendezVous nouvelle = serieRepository.save(serie);
+                occurrences.forEach(rdv -> rdv.setSerie(nouvelle));
+                rendezvousBatchRepository.insererTous(occurrences);
+                agendaService.synchroniser(occurrences.stream().map(Rendezvous::getId).toList());
+                return nouvelle;
+            });
+            occurrences.forEach(salleOccupationService::occuper);
+            return enregistree;
+        });
+
+        occurrences.forEach(disponibiliteService::occuper);
+        notifierMedecin(medecin.getId(), "Nouvelle série de " + occurrences.size()
+                + " rendez-vous à partir du " + premier.toLocalDate());
+        return resultat(saved, occurrences);
+    }
+
+    // Modifie l'occurrence rendezvousId et toutes les suivantes encore modifiables
+    public SerieRendezVousDto modifierSerie(Integer rendezvousId, SerieModificationRequestDto modification) {
+        Rendezvous pivot = rendezvousRepository.findById(rendezvousId)
+                .orElseThrow(() -> new BusinessException("Rendez-vous non trouvé"));
+        SerieRendezVous serie = serieDe(pivot);
+        Integer medecinId = serie.getMedecin().getId();
+        Integer patientId = serie.getPatient().getId();
+        if (modification.getSalle() != null) {
+            modification.setSalle(salleOccupationService.resoudre(modification.getSalle()));
+        }
+        String salle = modification.getSalle() != null ? modification.getSalle() : serie.getSalle();
+        List<Rendezvous> anciens = new ArrayList<>();
+        List<Rendezvous> suivants = new ArrayList<>();
+
+        // occurrences chargées et modifiées dans la transaction : les UPDATE partent en batch au flush
+        SerieRendezVous cible = sousVerrou(medecinId, patientId, salle, () -> {
+            SerieRendezVous modifiee = transactionTemplate.execute(status -> {
+                suivants.addAll(rendezvousRepository.findOccurrencesModifiables(serie.getId(), pivot.getDateHeureDebut()));
+                if (suivants.isEmpty()) {
+                    throw new BusinessException("Aucune occurrence modifiable à partir de ce rendez-vous");
+                }
+                Set<Integer> ids = new HashSet<>();
+                for (Rendezvous rdv : suivants) {
+                    anciens.add(Rendezvous.builder().medecin(rdv.getMedecin())
+                            .dateHeureDebut(rdv.getDateHeureDebut()).dateHeureFin(rdv.getDateHeureFin()).build());
+                    ids.add(rdv.getId());
+                    appliquer(rdv, modification);
+                }
+                verifierConflits(medecinId, patientId, suivants, ids);
+
+                SerieRendezVous nouvelle = decouper(serie, pivot, suivants.get(0), modification);
+                suivants.forEach(rdv -> rdv.setSerie(nouvelle));
+                agendaService.synchroniser(ids);
+                return nouvelle;
+            });
+            suivants.forEach(salleOccupationService::occuper);
+            return modifiee;
+        });
+
+        anciens.forEach(disponibiliteService::liberer);
+        suivants.forEach(disponibiliteService::occuper);
+        notifierMedecin(medecinId, suivants.size() + " rendez-vous d'une série modifiés à partir du "
+                + pivot.getDateHeureDebut().toLocalDate());
+        return resultat(cible, suivants);
+    }
+
+    // Annule l'occurrence rendezvousId et toutes les suivantes encore modifiables
+    public int annulerSerie(Integer rendezvousId) {
+        Rendezvous pivot = rendezvousRepository.findById(rendezvousId)
+                .orElseThrow(() -> new BusinessException("Rendez-vous non trouvé"));
+        SerieRendezVous serie = serieDe(pivot);
+        List<Rendezvous> suivants = rendezvousRepository.findOccurrencesModifiables(serie.getId(), pivot.getDateHeureDebut());
+        if (suivants.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = suivants.stream().map(Rendezvous::getId).toList();
+        Integer annules = transactionTemplate.execute(status -> {
+            int n = rendezvousRepository.annulerTous(ids, LocalDateTime.now());
+            agendaService.synchroniser(ids);
+            return n;
+        });
+        ids.forEach(salleOccupationService::liberer);
+
+        suivants.forEach(disponibiliteService::liberer);
+        suivants.forEach(rdv -> eventPublisher.publishEvent(RendezvousAnnuleEvent.de(rdv)));
+        notifierMedecin(serie.getMedecin().getId(), suivants.size() + " rendez-vous d'une série annulés à partir du "
+                + pivot.getDateHeureDebut().toLocalDate());
+        return annules != null ? annules : 0;
+    }
+
+    /*
+     * Série portant les occurrences modifiées : la série elle-même si on modifie depuis sa première
+     * occurrence, sinon une nouvelle série démarrant au pivot, l'ancienne étant arrêtée la veille.
+     */
+    private SerieRendezVous decouper(SerieRendezVous serie, Rendezvous pivot, Rendezvous premier,
+                                     SerieModificationRequestDto modification) {
+        RegleRecurrence regle = RegleRecurrence.parse(serie.getRegle());
+        long precedentes = rendezvousRepository.countOccurrencesAvant(serie.getId(), pivot.getDateHeureDebut());
+        Integer dureeMinutes = modification.getDuree() != null ? (int) modification.getDuree().toMinutes() : serie.getDureeMinutes();
+        String motif = modification.getMotif() != null ? modification.getMotif() : serie.getMotif();
+        String salle = modification.getSalle() != null ? modification.getSalle() : serie.getSalle();
+
+        if (precedentes == 0) {
+            serie.setDateHeureDebut(premier.getDateHeureDebut());
+            serie.setDureeMinutes(dureeMinutes);
+            serie.setMotif(motif);
+            serie.setSalle(salle);
+            return serieRepository.save(serie);
+        }
+
+        serie.setRegle(regle.arreteeAvant(pivot.getDateHeureDebut().toLocalDate()).toString());
+        serieRepository.save(serie);
+        return serieRepository.save(SerieRendezVous.builder()
+                .regle(regle.sansLesPremieres((int) precedentes).toString())
+                .dateHeureDebut(premier.getDateHeureDebut())
+                .dureeMinutes(dureeMinutes)
+                .motif(motif)
+                .salle(salle)
+                .medecin(serie.getMedecin())
+                .patient(serie.getPatient())
+                .build());
+    }
+
+    /*
+     * Vérification en un seul passage : l'occupation du médecin et du patient sur tout
+     * l'horizon de la série est chargée en une requête, les occurrences exclues (celles que
+     * l'on modifie) sont ignorées. Toutes les occurrences en conflit sont signalées ensemble.
+     */
+    private void verifierConflits(Integer medecinId, Integer patientId, List<Rendezvous> occurrences, Set<Integer> exclus) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+        LocalDateTime from = occurrences.get(0).getDateHeureDebut();
+        LocalDateTime to = occurrences.get(0).getDateHeureFin();
+        for (Rendezvous rdv : occurrences) {
+            from = rdv.getDateHeureDebut().isBefore(from) ? rdv.getDateHeureDebut() : from;
+            to = rdv.getDateHeureFin().isAfter(to) ? rdv.getDateHeureFin() : to;
+        }
+
+        IntervalIndex<Integer> parMedecin = new IntervalIndex<>(RendezvousServiceNew.DUREE_MAX);
+        IntervalIndex<Integer> parPatient = new IntervalIndex<>(RendezvousServiceNew.DUREE_MAX);
+        for (Object[] creneau : rendezvousRepository.findCreneauxOccupes(
+                Set.of(medecinId), Set.of(patientId), from.minus(RendezvousServiceNew.DUREE_MAX), to)) {
+            if (exclus.contains((Integer) creneau[4])) {
+                continue;
+            }
+            parMedecin.ajouter((Integer) creneau[0], (LocalDateTime) creneau[2], (LocalDateTime) creneau[3]);
+            parPatient.ajouter((Integer) creneau[1], (LocalDateTime) creneau[2], (LocalDateTime) creneau[3]);
+        }
+
+        List<String> conflits = new ArrayList<>();
+        for (Rendezvous rdv : occurrences) {
+            if (parMedecin.chevauche(medecinId, rdv.getDateHeureDebut(), rdv.getDateHeureFin())) {
+                conflits.add(rdv.getDateHeureDebut() + " (médecin)");
+            } else if (parPatient.chevauche(patientId, rdv.getDateHeureDebut(), rdv.getDateHeureFin())) {
+                conflits.add(rdv.getDateHeureDebut() + " (patient)");
+            } else if (salleOccupationService.estOccupee(rdv.getSalle(), rdv.getDateHeureDebut(), rdv.getDateHeureFin(), exclus)) {
+                conflits.add(rdv.getDateHeureDebut() + " (salle)");
+            }
+        }
+        if (!conflits.isEmpty()) {
+            throw new ConflictException(conflits.size() + " occurrence(s) en conflit: "
+                    + String.join(", ", conflits.subList(0, Math.min(CONFLITS_AFFICHES, conflits.size())))
+                    + (conflits.size() > CONFLITS_AFFICHES ? ", ..." : ""));
+        }
+    }
+
+    private <T> T sousVerrou(Integer medecinId, Integer patientId, String salle, Supplier<T> action) {
+        try {
+            return rendezvousLocks.executer(medecinId, patientId, salle, action);
+        } catch (DataIntegrityViolationException e) {
+            if (RendezvousConstraintsInitializer.estChevauchement(e)) {
+                throw new ConflictException("Un créneau de la série vient d'être réservé");
+            }
+            throw e;
+        }
+    }
+
+    private static void appliquer(Rendezvous rdv, SerieModificationRequestDto modification) {
+        Duration duree = modification.getDuree() != null ? modification.getDuree()
+                : rdv.getDateHeureFin() != null ? Duration.between(rdv.getDateHeureDebut(), rdv.getDateHeureFin()) : null;
+        LocalDateTime debut = modification.getHeure() != null
+                ? rdv.getDateHeureDebut().toLocalDate().atTime(modification.getHeure()) : rdv.getDateHeureDebut();
+        rdv.setDateHeureDebut(debut);
+        rdv.setDateHeureFin(RendezvousServiceNew.resolveDateHeureFin(debut, null, duree));
+        if (modification.getMotif() != null) {
+            rdv.setMotif(modification.getMotif());
+        }
+        if (modification.getSalle() != null) {
+            rdv.setSalle(modification.getSalle());
+        }
+    }
+
+    // la série est portée en lazy par le rendez-vous : rechargée par son id
+    private SerieRendezVous serieDe(Rendezvous rendezvous) {
+        if (rendezvous.getSerie() == null) {
+            throw new BusinessException("Ce rendez-vous ne fait pas partie d'une série");
+        }
+        return serieRepository.findById(rendezvous.getSerie().getId())
+                .orElseThrow(() -> new BusinessException("Série non trouvée"));
+    }
+
+    private static SerieRendezVousDto resultat(SerieRendezVous serie, List<Rendezvous> occurrences) {
+        SerieRendezVousDto dto = SerieRendezVousDto.fromEntity(serie);
+        dto.setRendezvousIds(occurrences.stream().map(Rendezvous::getId).toList());
+        dto.setOccurrences(occurrences.stream().map(Rendezvous::getDateHeureDebut).toList());
+        return dto;
+    }
+
+    private void notifierMedecin(Integer medecinId, String message) {
+        notificationOutbox.publierPrivee(medecinId.longValue(), new NotificationDto(
+                "NEW_RDV",
+                message,
+                null,
+                LocalDateTime.now(),
+                "MEDECIN",
+                medecinId.longValue()));
+    }
+}
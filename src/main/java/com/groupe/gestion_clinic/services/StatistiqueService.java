@@ -0,0 +1,186 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.StatistiquePeriodeDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.JourneeConsolidee;
+import com.groupe.gestion_clinic.model.StatistiqueJournaliere;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import com.groupe.gestion_clinic.repositories.JourneeConsolideeRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.repositories.StatistiqueJournaliereRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * ---------------------- statistiques consolidées par jour --------------------------
+ *
+ * Un job nocturne (StatistiqueJob) écrit pour chaque jour passé une ligne d'agrégat par
+ * médecin (StatistiqueJournaliere) :
+ *  - les recalcul-jours derniers jours sont recalculés à chaque passage (annulations, clôtures
+ *    et factures tardives) ;
+ *  - les jours plus anciens absents de JourneeConsolidee sont rattrapés, au plus
+ *    rattrapage-jours par passage : un passage interrompu reprend là où il s'est arrêté.
+ * Chaque jour est consolidé dans sa propre transaction (suppression puis réécriture).
+ *
+ * Les séries (jour, semaine, mois, année) ne lisent que ces agrégats.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatistiqueService {
+
+    public enum Granularite {
+        JOUR,
+        SEMAINE,
+        MOIS,
+        ANNEE
+    }
+
+    // borne du nombre de points renvoyés par une série
+    private static final long JOURS_MAX = 20 * 366;
+
+    private final RendezvousRepository rendezvousRepository;
+    private final FactureRepository factureRepository;
+    private final StatistiqueJournaliereRepository statistiqueRepository;
+    private final JourneeConsolideeRepository journeeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.statistiques.recalcul-jours:7}")
+    private int recalculJours;
+
+    @Value("${app.statistiques.rattrapage-jours:1000}")
+    private int rattrapageJours;
+
+    // Passage nocturne ; retourne le nombre de jours consolidés
+    public int consolider() {
+        LocalDate hier = LocalDate.now().minusDays(1);
+        LocalDate debutRecalcul = hier.minusDays(recalculJours - 1L);
+        int consolides = 0;
+        for (LocalDate jour = debutRecalcul; !jour.isAfter(hier); jour = jour.plusDays(1)) {
+            consoliderJour(jour);
+            consolides++;
+        }
+        return consolides + rattraper(debutRecalcul.minusDays(1));
+    }
+
+    // Consolide les jours manquants depuis la première activité jusqu'à jusquA inclus
+    int rattraper(LocalDate jusquA) {
+        LocalDate premier = premierJour();
+        if (premier == null || premier.isAfter(jusquA)) {
+            return 0;
+        }
+        Set<LocalDate> faits = new HashSet<>(journeeRepository.findJours(premier, jusquA));
+        int consolides = 0;
+        for (LocalDate jour = premier; !jour.isAfter(jusquA) && consolides < rattrapageJours; jour = jour.plusDays(1)) {
+            if (!faits.contains(jour)) {
+                consoliderJour(jour);
+                consolides++;
+            }
+        }
+        if (consolides > 0) {
+            System.err.println("Statistiques : " + consolides + " jour(s) rattrapé(s) depuis le " + premier);
+        }
+        return consolides;
+    }
+
+    public void consoliderJour(LocalDate jour) {
+        LocalDateTime debut = jour.atStartOfDay();
+        LocalDateTime fin = debut.plusDays(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Integer, StatistiqueJournaliere> parMedecin = new HashMap<>();
+            for (Object[] ligne : rendezvousRepository.getStatsJournee(debut, fin)) {
+                StatistiqueJournaliere stat = ligneDe(parMedecin, jour, (Integer) ligne[0]);
+                stat.setRendezVous(((Number) ligne[1]).longValue());
+                stat.setAnnules(((Number) ligne[2]).longValue());
+                stat.setTermines(((Number) ligne[3]).longValue());
+                stat.setAbsents(((Number) ligne[4]).longValue());
+            }
+            for (Object[] facture : factureRepository.findMontantsParMedecin(debut, fin)) {
+                StatistiqueJournaliere stat = ligneDe(parMedecin, jour, (Integer) facture[0]);
+                stat.setChiffreAffaires(stat.getChiffreAffaires() + ((Number) facture[1]).doubleValue());
+            }
+            statistiqueRepository.supprimerJour(jour);
+            statistiqueRepository.saveAll(parMedecin.values());
+            journeeRepository.save(new JourneeConsolidee(jour, LocalDateTime.now()));
+        });
+    }
+
+    public List<StatistiquePeriodeDto> getSerie(Granularite granularite, LocalDate from, LocalDate to, Integer medecinId) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BusinessException("Période invalide");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > JOURS_MAX) {
+            throw new BusinessException("Période trop longue");
+        }
+        List<Object[]> jours = medecinId != null
+                ? statistiqueRepository.findSerieMedecin(medecinId, from, to)
+                : statistiqueRepository.findSerie(from, to);
+
+        List<StatistiquePeriodeDto> serie = new ArrayList<>();
+        StatistiquePeriodeDto courant = null;
+        for (Object[] ligne : jours) {
+            LocalDate jour = (LocalDate) ligne[0];
+            LocalDate debutPeriode = debutPeriode(granularite, jour);
+            if (courant == null || !courant.getDebut().equals(debutPeriode)) {
+                courant = StatistiquePeriodeDto.builder()
+                        .debut(debutPeriode)
+                        .fin(finPeriode(granularite, debutPeriode))
+                        .build();
+                serie.add(courant);
+            }
+            courant.setRendezVous(courant.getRendezVous() + ((Number) ligne[1]).longValue());
+            courant.setAnnules(courant.getAnnules() + ((Number) ligne[2]).longValue());
+            courant.setTermines(courant.getTermines() + ((Number) ligne[3]).longValue());
+            courant.setAbsents(courant.getAbsents() + ((Number) ligne[4]).longValue());
+            courant.setChiffreAffaires(courant.getChiffreAffaires() + ((Number) ligne[5]).doubleValue());
+        }
+        return serie;
+    }
+
+    private LocalDate premierJour() {
+        LocalDateTime premierRendezVous = rendezvousRepository.findPremierDebut();
+        LocalDateTime premiereFacture = factureRepository.findPremiereEmission();
+        if (premierRendezVous == null) {
+            return premiereFacture != null ? premiereFacture.toLocalDate() : null;
+        }
+        if (premiereFacture == null || premierRendezVous.isBefore(premiereFacture)) {
+            return premierRendezVous.toLocalDate();
+        }
+        return premiereFacture.toLocalDate();
+    }
+
+    private static StatistiqueJournaliere ligneDe(Map<Integer, StatistiqueJournaliere> parMedecin, LocalDate jour, Integer medecinId) {
+        return parMedecin.computeIfAbsent(medecinId, id -> StatistiqueJournaliere.builder().jour(jour).medecinId(id).build());
+    }
+
+    private static LocalDate debutPeriode(Granularite granularite, LocalDate jour) {
+        return switch (granularite) {
+            case JOUR -> jour;
+            case SEMAINE -> jour.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MOIS -> jour.withDayOfMonth(1);
+            case ANNEE -> jour.withDayOfYear(1);
+        };
+    }
+
+    private static LocalDate finPeriode(Granularite granularite, LocalDate debut) {
+        return switch (granularite) {
+            case JOUR -> debut;
+            case SEMAINE -> debut.plusDays(6);
+            case MOIS -> debut.with(TemporalAdjusters.lastDayOfMonth());
+            case ANNEE -> debut.with(TemporalAdjusters.lastDayOfYear());
+        };
+    }
+}
@@ -1,12 +1,16 @@
 package com.groupe.gestion_clinic.services.serviceImpl;
 
 import com.groupe.gestion_clinic.dto.FactureDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
 import com.groupe.gestion_clinic.model.Facture;
 import com.groupe.gestion_clinic.model.Prescription;
 import com.groupe.gestion_clinic.model.StatutFacture;
 import com.groupe.gestion_clinic.repositories.FactureRepository;
 import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
 import com.groupe.gestion_clinic.services.FacturationService;
+import com.groupe.gestion_clinic.services.NumeroFactureService;
+import com.groupe.gestion_clinic.services.PdfCacheService;
 import com.groupe.gestion_clinic.model.StatutFacturation;
 import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,8 +18,12 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -23,17 +31,23 @@ public class FacturationServiceImpl implements FacturationService {
     
     private final FactureRepository factureRepository;
     private final PrescriptionRepository prescriptionRepository;
+    private final NumeroFactureService numeroFactureService;
+    private final PdfCacheService pdfCacheService;
     
     @Override
     public FactureDto creerFacture(Integer prescriptionId, BigDecimal fraisConsultation, 
                                   BigDecimal fraisHospitalisation, BigDecimal fraisExamen) {
         Prescription prescription = prescriptionRepository.findById(prescriptionId)
                 .orElseThrow(() -> new RuntimeException("Prescription non trouvée"));
+        if (prescription.getFacture() != null || prescription.getStatutFacturation() == StatutFacturation.FACTUREE) {
+            throw new BusinessException("Prescription déjà facturée"
+                    + (prescription.getFacture() != null ? ": " + prescription.getFacture().getNumeroFacture() : ""));
+        }
         
         Double montantTotal = calculerMontantTotal(fraisConsultation, fraisHospitalisation, fraisExamen);
         
         Facture facture = Facture.builder()
-                .numeroFacture("FACT-" + System.currentTimeMillis())
+                .numeroFacture(numeroFactureService.prochainNumero())
                 .montantTotal(montantTotal)
                 .fraisConsultation(fraisConsultation != null ? fraisConsultation.doubleValue() : 0.0)
                 .fraisHospitalisation(fraisHospitalisation != null ? fraisHospitalisation.doubleValue() : 0.0)
@@ -45,9 +59,10 @@ public class FacturationServiceImpl implements FacturationService {
         
         Facture saved = factureRepository.save(facture);
         
-        // Marquer la prescription comme facturée (désactivé temporairement)
-        // prescription.setStatutFacturation(StatutFacturation.FACTUREE);
-        // prescriptionRepository.save(prescription);
+        // Marquer la prescription comme facturée : exclue de la facturation par lot
+        prescription.setFacture(saved);
+        prescription.setStatutFacturation(StatutFacturation.FACTUREE);
+        prescriptionRepository.save(prescription);
         
         // Notification email au patient (optionnel)
         try {
@@ -73,22 +88,31 @@ public class FacturationServiceImpl implements FacturationService {
     
     @Override
     public BigDecimal getRevenuAnnuel(int annee) {
-        return factureRepository.findAll().stream()
-                .filter(f -> f.getCreatedAt() != null && f.getCreatedAt().getYear() == annee)
-                .filter(f -> f.getStatut() == StatutFacture.PAYEE)
-                .map(f -> BigDecimal.valueOf(f.getMontantTotal() != null ? f.getMontantTotal() : 0.0))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        LocalDateTime debut = LocalDate.of(annee, 1, 1).atStartOfDay();
+        return BigDecimal.valueOf(factureRepository.sommeMontants(StatutFacture.PAYEE, debut, debut.plusYears(1)));
     }
     
     @Override
     public BigDecimal getRevenuMensuel(int annee, int mois) {
-        return factureRepository.findAll().stream()
-                .filter(f -> f.getCreatedAt() != null && 
-                           f.getCreatedAt().getYear() == annee && 
-                           f.getCreatedAt().getMonthValue() == mois)
-                .filter(f -> f.getStatut() == StatutFacture.PAYEE)
-                .map(f -> BigDecimal.valueOf(f.getMontantTotal() != null ? f.getMontantTotal() : 0.0))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (mois < 1 || mois > 12) {
+            throw new BusinessException("Mois invalide: " + mois);
+        }
+        LocalDateTime debut = LocalDate.of(annee, mois, 1).atStartOfDay();
+        return BigDecimal.valueOf(factureRepository.sommeMontants(StatutFacture.PAYEE, debut, debut.plusMonths(1)));
+    }
+    
+    // Les douze mois de l'année en une requête groupée ; un mois sans facture payée vaut 0
+    @Override
+    public Map<Integer, BigDecimal> getRevenusParMois(int annee) {
+        LocalDateTime debut = LocalDate.of(annee, 1, 1).atStartOfDay();
+        Map<Integer, BigDecimal> revenus = new LinkedHashMap<>();
+        for (int mois = 1; mois <= 12; mois++) {
+            revenus.put(mois, BigDecimal.ZERO);
+        }
+        for (Object[] ligne : factureRepository.sommeMontantsParMois(StatutFacture.PAYEE, debut, debut.plusYears(1))) {
+            revenus.put(((Number) ligne[0]).intValue(), BigDecimal.valueOf(((Number) ligne[1]).doubleValue()));
+        }
+        return revenus;
     }
     
     @Override
@@ -97,10 +121,47 @@ public class FacturationServiceImpl implements FacturationService {
         Facture facture = factureRepository.findById(factureId)
                 .orElseThrow(() -> new RuntimeException("Facture non trouvée"));
         
-        System.out.println("Génération PDF pour facture ID: " + factureId);
-        
         // Charger les prescriptions associées à cette facture
         List<Prescription> prescriptions = prescriptionRepository.findByFactureId(factureId);
+        
+        java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
+        ecrireFacturePdf(facture, prescriptions, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    // PDF servi depuis le cache disque, rendu seulement quand les données affichées ont changé
+    @Override
+    public PdfCacheService.Pdf getFacturePdf(Integer factureId) {
+        Facture facture = factureRepository.findById(factureId)
+                .orElseThrow(() -> new NotFoundException("Facture non trouvée: " + factureId));
+        List<Prescription> prescriptions = prescriptionRepository.findByFactureId(factureId);
+        return pdfCacheService.obtenir(PdfCacheService.FACTURE, factureId, sourcePdf(facture, prescriptions),
+                sortie -> ecrireFacturePdf(facture, prescriptions, sortie));
+    }
+    
+    // Valeurs imprimées sur la facture : leur empreinte identifie la version du PDF
+    private List<Object> sourcePdf(Facture facture, List<Prescription> prescriptions) {
+        List<Object> source = new ArrayList<>(Arrays.asList(
+                facture.getNumeroFacture(), facture.getCreatedAt(), facture.getStatut(), facture.getMontantTotal(),
+                facture.getFraisConsultation(), facture.getFraisHospitalisation(), facture.getFraisExamen()));
+        if (!prescriptions.isEmpty()) {
+            Prescription prescription = prescriptions.get(0);
+            source.add(prescription.getCreatedAt());
+            if (prescription.getRendezvous() != null) {
+                var rdv = prescription.getRendezvous();
+                if (rdv.getPatient() != null) {
+                    source.addAll(Arrays.asList(rdv.getPatient().getPrenom(), rdv.getPatient().getNom()));
+                }
+                if (rdv.getMedecin() != null) {
+                    source.addAll(Arrays.asList(rdv.getMedecin().getPrenom(), rdv.getMedecin().getNom()));
+                }
+            }
+        }
+        return source;
+    }
+    
+    private void ecrireFacturePdf(Facture facture, List<Prescription> prescriptions, java.io.OutputStream sortie) {
+        System.out.println("Génération PDF pour facture ID: " + facture.getId());
         System.out.println("Nombre de prescriptions trouvées: " + prescriptions.size());
         
         try (org.apache.pdfbox.pdmodel.PDDocument document = new org.apache.pdfbox.pdmodel.PDDocument()) {
@@ -256,9 +317,7 @@ public class FacturationServiceImpl implements FacturationService {
                 contentStream.endText();
             }
             
-            java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-            document.save(outputStream);
-            return outputStream.toByteArray();
+            document.save(sortie);
             
         } catch (Exception e) {
             throw new RuntimeException("Erreur génération PDF facture: " + e.getMessage());
@@ -277,6 +336,7 @@ public class FacturationServiceImpl implements FacturationService {
             
             facture.setStatut(statut);
             Facture savedFacture = factureRepository.save(facture);
+            pdfCacheService.invalider(PdfCacheService.FACTURE, factureId);
             
             System.out.println("Facture mise à jour avec succès");
             return FactureDto.fromEntity(savedFacture);
@@ -5,10 +5,13 @@ import com.groupe.gestion_clinic.dto.MedecinDto;
 import com.groupe.gestion_clinic.exceptions.NotFoundException;
 import com.groupe.gestion_clinic.model.Medecin;
 import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.services.AgendaService;
+import com.groupe.gestion_clinic.services.EffectifModifieEvent;
 import com.groupe.gestion_clinic.services.MedecinService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +25,8 @@ public class MedecinServiceImpl implements MedecinService {
 
     private final MedecinRepository medecinRepository;
     private final PasswordEncoder encoder;
+    private final AgendaService agendaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public MedecinDto createMedecin(MedecinDto medecinDto) {
@@ -33,7 +38,9 @@ public class MedecinServiceImpl implements MedecinService {
             medecinDto.setMotDePasse(encoder.encode(medecinDto.getMotDePasse()));
         }
         Medecin medecin = MedecinDto.toDto(medecinDto);
-        return MedecinDto.fromEntity(medecinRepository.save(medecin));
+        Medecin saved = medecinRepository.save(medecin);
+        eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.MEDECIN, 1));
+        return MedecinDto.fromEntity(saved);
     }
 
     @Override
@@ -54,8 +61,10 @@ public class MedecinServiceImpl implements MedecinService {
         medecin.setSpecialite(medecinDto.getSpecialite());
         medecin.setAdresse(AdressDto.toDto(medecinDto.getAdressDto()));
 
-
-        return MedecinDto.fromEntity(medecinRepository.save(medecin));
+        Medecin saved = medecinRepository.save(medecin);
+        // noms recopiés dans l'agenda
+        agendaService.renommerMedecin(saved);
+        return MedecinDto.fromEntity(saved);
     }
 
     @Override
@@ -89,6 +98,7 @@ public class MedecinServiceImpl implements MedecinService {
         }
        Medecin medecin = medecinRepository.findById(id).orElseThrow(()-> new NotFoundException("aucun Medecin trouvee"));
         medecinRepository.delete(medecin);
+        eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.MEDECIN, -1));
         return MedecinDto.fromEntity(medecin);
     }
 }
@@ -1,5 +1,6 @@
 package com.groupe.gestion_clinic.services.serviceImpl;
 
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.PatientDto;
 import com.groupe.gestion_clinic.dto.PatientHistoryDto;
 import com.groupe.gestion_clinic.dto.PrescriptionDto;
@@ -8,7 +9,11 @@ import com.groupe.gestion_clinic.model.Patient;
 import com.groupe.gestion_clinic.repositories.PatientRepository;
 import com.groupe.gestion_clinic.repositories.RendezvousRepository;
 import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import com.groupe.gestion_clinic.services.AgendaService;
+import com.groupe.gestion_clinic.services.EffectifModifieEvent;
 import com.groupe.gestion_clinic.services.PatientService;
+import com.groupe.gestion_clinic.services.PdfCacheService;
+import com.groupe.gestion_clinic.utils.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -16,10 +21,12 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import com.groupe.gestion_clinic.exceptions.NotFoundException;
 import java.util.List;
@@ -32,6 +39,12 @@ public class PatientServiceImpl implements PatientService {
     private final PatientRepository patientRepository;
     private final RendezvousRepository rendezvousRepository;
     private final PrescriptionRepository prescriptionRepository;
+    private final AgendaService agendaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PdfCacheService pdfCacheService;
+
+    // taille maximale d'une page en mode curseur, comme la liste des rendez-vous
+    private static final int TAILLE_PAGE_MAX = 100;
 
     @Override
     public PatientDto createPatient(PatientDto patientDto) {
@@ -39,7 +52,9 @@ public class PatientServiceImpl implements PatientService {
         if(patientRepository.findByEmail(patientDto.getEmail()).isPresent()) {
             throw new IllegalArgumentException("Patient with email already exists");
         }
-        return PatientDto.fromEntity(patientRepository.save(PatientDto.toEntity(patientDto)));
+        Patient saved = patientRepository.save(PatientDto.toEntity(patientDto));
+        eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.PATIENT, 1));
+        return PatientDto.fromEntity(saved);
     }
 
     @Override
@@ -59,7 +74,11 @@ public class PatientServiceImpl implements PatientService {
         dto.setNom(patientDto.getNom());
         dto.setPrenom(patientDto.getPrenom());
 
-        return PatientDto.fromEntity(patientRepository.save(PatientDto.toEntity(patientDto)));
+        Patient saved = patientRepository.save(PatientDto.toEntity(patientDto));
+        // noms recopiés dans l'agenda
+        agendaService.renommerPatient(saved);
+        pdfCacheService.invalider(PdfCacheService.HISTORIQUE, id);
+        return PatientDto.fromEntity(saved);
     }
 
     @Override
@@ -84,6 +103,15 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.findAll(pageable).map(PatientDto::fromEntity);
     }
 
+    public CursorPageDto<PatientDto> findAllCursor(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        org.springframework.data.domain.Pageable limit = org.springframework.data.domain.PageRequest.ofSize(Math.min(Math.max(size, 1), TAILLE_PAGE_MAX) + 1);
+        List<Patient> rows = position == null
+                ? patientRepository.findKeysetFirstPage(limit)
+                : patientRepository.findKeysetPageAfter(position.getCreatedAt(), position.getId(), limit);
+        return CursorPageDto.of(rows, limit.getPageSize() - 1, PatientDto::fromEntity);
+    }
+
 
     @Override
     public PatientDto deletePatient(Integer id) {
@@ -98,6 +126,8 @@ public class PatientServiceImpl implements PatientService {
                                     ()->new EntityNotFoundException("Patient with id " + id + " not found")
                                 );
         patientRepository.deleteById(id);
+        pdfCacheService.invalider(PdfCacheService.HISTORIQUE, id);
+        eventPublisher.publishEvent(new EffectifModifieEvent(EffectifModifieEvent.Effectif.PATIENT, -1));
         return PatientDto.fromEntity(patient);
     }
 
@@ -140,8 +170,21 @@ public class PatientServiceImpl implements PatientService {
 
     @Override
     public byte[] generatePatientHistoryPdf(Integer patientId) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        ecrireHistoriquePdf(getPatientHistory(patientId), byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    // Historique servi depuis le cache disque : l'empreinte de l'historique complet identifie la version
+    @Override
+    public PdfCacheService.Pdf getPatientHistoryPdf(Integer patientId) {
+        PatientHistoryDto history = getPatientHistory(patientId);
+        return pdfCacheService.obtenir(PdfCacheService.HISTORIQUE, patientId, history,
+                sortie -> ecrireHistoriquePdf(history, sortie));
+    }
+
+    private void ecrireHistoriquePdf(PatientHistoryDto history, OutputStream sortie) {
         try {
-            PatientHistoryDto history = getPatientHistory(patientId);
             PatientDto patient = history.getPatient();
             
             try (PDDocument document = new PDDocument()) {
@@ -354,9 +397,7 @@ public class PatientServiceImpl implements PatientService {
                     contentStream.endText();
                 }
                 
-                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                document.save(byteArrayOutputStream);
-                return byteArrayOutputStream.toByteArray();
+                document.save(sortie);
             }
         } catch (Exception e) {
             throw new RuntimeException("Erreur generation PDF: " + e.getMessage(), e);
@@ -1,5 +1,6 @@
 package com.groupe.gestion_clinic.services.serviceImpl;
 
+import com.groupe.gestion_clinic.dto.CursorPageDto;
 import com.groupe.gestion_clinic.dto.PrescriptionDto;
 import com.groupe.gestion_clinic.dto.requestDto.PrescriptionRequestDto;
 import com.groupe.gestion_clinic.dto.requestDto.MultiplePrescriptionRequestDto;
@@ -12,7 +13,9 @@ import com.groupe.gestion_clinic.model.Rendezvous;
 import com.groupe.gestion_clinic.notificationConfig.NotificationService;
 import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
 import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.services.PdfCacheService;
 import com.groupe.gestion_clinic.services.PrescriptionService;
+import com.groupe.gestion_clinic.utils.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -24,9 +27,12 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +43,10 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
     private final RendezvousRepository rendezvousRepository;
     private final NotificationService notificationService;
+    private final PdfCacheService pdfCacheService;
+
+    // taille maximale d'une page en mode curseur, comme la liste des rendez-vous
+    private static final int TAILLE_PAGE_MAX = 100;
 
     @Override
     public PrescriptionDto createPrescription(PrescriptionRequestDto requestDto) {
@@ -68,6 +78,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         prescription.setRendezvous(rendezvous);
 
         Prescription savedPrescription = prescriptionRepository.save(prescription);
+        invaliderPdf(savedPrescription);
         
         // Notification email au patient
         if (patient.getEmail() != null) {
@@ -89,6 +100,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     public PrescriptionDto updatePrescription(Integer id, PrescriptionRequestDto requestDto) {
         Prescription existingPrescription = prescriptionRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Prescription non trouvée avec l'ID : " + id));
+        invaliderPdf(existingPrescription);
 
         if (requestDto.getRendezvousId() != null && !requestDto.getRendezvousId().equals(existingPrescription.getRendezvous().getId())) {
             Rendezvous newRendezvous = rendezvousRepository.findById(requestDto.getRendezvousId())
@@ -103,12 +115,14 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         existingPrescription.setEffective(requestDto.getEffective() != null ? requestDto.getEffective() : existingPrescription.getEffective());
 
         Prescription updatedPrescription = prescriptionRepository.save(existingPrescription);
+        invaliderPdf(updatedPrescription);
         return PrescriptionDto.fromEntity(updatedPrescription);
     }
 
     @Override
     public void deletePrescription(Integer id) {
         Prescription prescription = prescriptionRepository.findById(id).orElseThrow(() -> new NotFoundException("Prescription non trouvée avec l'ID : " + id));
+        invaliderPdf(prescription);
         prescriptionRepository.delete(prescription);
     }
 
@@ -126,6 +140,15 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         return prescriptionRepository.findAll(pageable).map(PrescriptionDto::fromEntity);
     }
 
+    public CursorPageDto<PrescriptionDto> getAllPrescriptionsCursor(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        org.springframework.data.domain.Pageable limit = org.springframework.data.domain.PageRequest.ofSize(Math.min(Math.max(size, 1), TAILLE_PAGE_MAX) + 1);
+        List<Prescription> rows = position == null
+                ? prescriptionRepository.findKeysetFirstPage(limit)
+                : prescriptionRepository.findKeysetPageAfter(position.getCreatedAt(), position.getId(), limit);
+        return CursorPageDto.of(rows, limit.getPageSize() - 1, PrescriptionDto::fromEntity);
+    }
+
     @Override
     public List<PrescriptionDto> getPrescriptionsByRendezvousId(Integer rendezvousId) {
         List<Prescription> prescriptions = prescriptionRepository.findByRendezvousId(rendezvousId);
@@ -189,6 +212,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
 
             Prescription savedPrescription = prescriptionRepository.save(prescription);
             createdPrescriptions.add(PrescriptionDto.fromEntity(savedPrescription));
+            invaliderPdf(savedPrescription);
             
             // Notification email pour chaque prescription
             if (rendezvous.getPatient().getEmail() != null) {
@@ -207,6 +231,36 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         // Récupérer toutes les prescriptions du même rendez-vous
         List<Prescription> allPrescriptions = prescriptionRepository.findByRendezvousId(prescription.getRendezvous().getId());
 
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        ecrirePrescriptionPdf(prescription, allPrescriptions, byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    // Ordonnance servie depuis le cache disque, rendue seulement quand son contenu a changé
+    @Override
+    public PdfCacheService.Pdf getPrescriptionPdf(Integer prescriptionId) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId)
+                .orElseThrow(() -> new NotFoundException("Prescription non trouvée pour générer le PDF avec l'ID : " + prescriptionId));
+        List<Prescription> allPrescriptions = prescriptionRepository.findByRendezvousId(prescription.getRendezvous().getId());
+        return pdfCacheService.obtenir(PdfCacheService.PRESCRIPTION, prescriptionId, sourcePdf(prescription, allPrescriptions),
+                sortie -> ecrirePrescriptionPdf(prescription, allPrescriptions, sortie));
+    }
+
+    // Valeurs imprimées sur l'ordonnance : leur empreinte identifie la version du PDF
+    private List<Object> sourcePdf(Prescription prescription, List<Prescription> allPrescriptions) {
+        Medecin medecin = prescription.getRendezvous().getMedecin();
+        Patient patient = prescription.getRendezvous().getPatient();
+        List<Object> source = new ArrayList<>(Arrays.asList(
+                medecin.getPrenom(), medecin.getNom(), medecin.getSpecialite(),
+                patient.getPrenom(), patient.getNom(), patient.getDateNaissance(),
+                prescription.getPrescriptionDate(), prescription.getHospitalisationNecessaire(), prescription.getExamensNecessaires()));
+        for (Prescription ligne : allPrescriptions) {
+            source.addAll(Arrays.asList(ligne.getMedicament(), ligne.getDosage(), ligne.getPosologie()));
+        }
+        return source;
+    }
+
+    private void ecrirePrescriptionPdf(Prescription prescription, List<Prescription> allPrescriptions, OutputStream sortie) {
         try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage(PDRectangle.A4);
             document.addPage(page);
@@ -301,15 +355,29 @@ public class PrescriptionServiceImpl implements PrescriptionService {
                 contentStream.endText();
             }
 
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            document.save(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
+            document.save(sortie);
 
         } catch (IOException e) {
             throw new BusinessException("Erreur lors de la génération du PDF de la prescription : " + e.getMessage());
         }
     }
 
+    // Une prescription figure sur les ordonnances de son rendez-vous, l'historique du patient et sa facture
+    private void invaliderPdf(Prescription prescription) {
+        pdfCacheService.invalider(PdfCacheService.PRESCRIPTION, prescription.getId());
+        Rendezvous rendezvous = prescription.getRendezvous();
+        if (rendezvous != null) {
+            prescriptionRepository.findByRendezvousId(rendezvous.getId())
+                    .forEach(autre -> pdfCacheService.invalider(PdfCacheService.PRESCRIPTION, autre.getId()));
+            if (rendezvous.getPatient() != null) {
+                pdfCacheService.invalider(PdfCacheService.HISTORIQUE, rendezvous.getPatient().getId());
+            }
+        }
+        if (prescription.getFacture() != null) {
+            pdfCacheService.invalider(PdfCacheService.FACTURE, prescription.getFacture().getId());
+        }
+    }
+
     private void drawInfoBox(PDPageContentStream contentStream, PDType1Font fontBold, PDType1Font font,
                             float x, float y, String title, String line1, String line2, String line3) throws IOException {
         contentStream.setStrokingColor(0.8f, 0.8f, 0.8f);
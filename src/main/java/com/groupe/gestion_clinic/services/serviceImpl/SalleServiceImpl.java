@@ -0,0 +1,74 @@
+package com.groupe.gestion_clinic.services.serviceImpl;
+
+import com.groupe.gestion_clinic.dto.SalleDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.model.Salle;
+import com.groupe.gestion_clinic.repositories.SalleRepository;
+import com.groupe.gestion_clinic.services.SalleOccupationService;
+import com.groupe.gestion_clinic.services.SalleService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class SalleServiceImpl implements SalleService {
+
+    private final SalleRepository salleRepository;
+    private final SalleOccupationService salleOccupationService;
+
+    @Override
+    public SalleDto createSalle(SalleDto salleDto) {
+        if (salleDto == null || salleDto.getNom() == null || salleDto.getNom().isBlank()) {
+            throw new BusinessException("Le nom de la salle est requis");
+        }
+        salleRepository.findByNomIgnoreCase(salleDto.getNom().trim()).ifPresent(salle -> {
+            throw new BusinessException("Une salle porte déjà le nom " + salle.getNom());
+        });
+        Salle salle = salleRepository.save(SalleDto.toDto(salleDto));
+        salleOccupationService.invalider();
+        return SalleDto.fromEntity(salle);
+    }
+
+    // le nom n'est pas modifiable : il est référencé par les rendez-vous existants
+    @Override
+    public SalleDto updateSalle(Integer id, SalleDto salleDto) {
+        Salle salle = salleRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Salle non trouvée"));
+        salle.setDescription(salleDto.getDescription());
+        if (salleDto.getActive() != null) {
+            salle.setActive(salleDto.getActive());
+        }
+        salle = salleRepository.save(salle);
+        salleOccupationService.invalider();
+        return SalleDto.fromEntity(salle);
+    }
+
+    @Override
+    public SalleDto findById(Integer id) {
+        return salleRepository.findById(id)
+                .map(SalleDto::fromEntity)
+                .orElseThrow(() -> new NotFoundException("aucune Salle trouvee correspondant a l'ID:  " + id));
+    }
+
+    @Override
+    public List<SalleDto> findAll() {
+        return salleRepository.findAllByOrderByNomAsc().stream()
+                .map(SalleDto::fromEntity)
+                .toList();
+    }
+
+    // désactivation : la salle n'est plus réservable mais son historique reste lisible
+    @Override
+    public void deleteSalle(Integer id) {
+        Salle salle = salleRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Salle non trouvée"));
+        salle.setActive(false);
+        salleRepository.save(salle);
+        salleOccupationService.invalider();
+    }
+}
@@ -0,0 +1,98 @@
+package com.groupe.gestion_clinic.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/*
+ * Écriture incrémentale d'un flux iCalendar (RFC 5545) : chaque VEVENT est écrit dès qu'il
+ * est produit, rien n'est accumulé en mémoire. Les dates sont converties en UTC depuis le
+ * fuseau de la clinique, les textes échappés et les lignes repliées à 75 octets.
+ */
+public class ICalendarWriter {
+
+    private static final DateTimeFormatter FORMAT_UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int LONGUEUR_LIGNE = 75;
+
+    private final OutputStream out;
+    private final ZoneId fuseau;
+
+    public ICalendarWriter(OutputStream out, ZoneId fuseau) {
+        this.out = out;
+        this.fuseau = fuseau;
+    }
+
+    public void debut(String nom) throws IOException {
+        ligne("BEGIN:VCALENDAR");
+        ligne("VERSION:2.0");
+        ligne("PRODID:-//Gestion Clinic//Agenda//FR");
+        ligne("CALSCALE:GREGORIAN");
+        ligne("METHOD:PUBLISH");
+        ligne("X-WR-CALNAME:" + echapper(nom));
+    }
+
+    // statut : TENTATIVE, CONFIRMED ou CANCELLED
+    public void evenement(String uid, LocalDateTime dtstamp, LocalDateTime debut, LocalDateTime fin,
+                          String resume, String description, String lieu, String statut) throws IOException {
+        ligne("BEGIN:VEVENT");
+        ligne("UID:" + uid);
+        ligne("DTSTAMP:" + utc(dtstamp));
+        ligne("DTSTART:" + utc(debut));
+        ligne("DTEND:" + utc(fin));
+        ligne("SUMMARY:" + echapper(resume));
+        if (description != null && !description.isBlank()) {
+            ligne("DESCRIPTION:" + echapper(description));
+        }
+        if (lieu != null && !lieu.isBlank()) {
+            ligne("LOCATION:" + echapper(lieu));
+        }
+        ligne("STATUS:" + statut);
+        ligne("END:VEVENT");
+    }
+
+    public void fin() throws IOException {
+        ligne("END:VCALENDAR");
+        out.flush();
+    }
+
+    private String utc(LocalDateTime date) {
+        return date.atZone(fuseau).withZoneSameInstant(ZoneOffset.UTC).format(FORMAT_UTC);
+    }
+
+    static String echapper(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        return texte.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    // Repli à 75 octets sans couper un caractère UTF-8, suite de ligne préfixée d'un espace
+    private void ligne(String contenu) throws IOException {
+        byte[] octets = contenu.getBytes(StandardCharsets.UTF_8);
+        int debut = 0;
+        int limite = LONGUEUR_LIGNE;
+        while (octets.length - debut > limite) {
+            int coupure = debut + limite;
+            while ((octets[coupure] & 0xC0) == 0x80) {
+                coupure--;
+            }
+            out.write(octets, debut, coupure - debut);
+            out.write(CRLF);
+            out.write(' ');
+            debut = coupure;
+            limite = LONGUEUR_LIGNE - 1;
+        }
+        out.write(octets, debut, octets.length - debut);
+        out.write(CRLF);
+    }
+}
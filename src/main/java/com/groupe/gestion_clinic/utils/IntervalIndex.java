@@ -0,0 +1,49 @@
+package com.groupe.gestion_clinic.utils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Index d'intervalles [debut, fin[ par clé (médecin, patient, salle...), trié par début.
+ *
+ * Même règle que les requêtes de conflit de RendezvousRepository : seuls les intervalles dont
+ * le début tombe dans ]debut - dureeMax, fin[ sont examinés, et un intervalle sans fin
+ * exploitable (fin absente ou <= début) n'est comparé que sur son heure de début.
+ *
+ * Non thread-safe : prévu pour être construit et consulté par un seul traitement.
+ */
+public class IntervalIndex<K> {
+
+    private final Duration dureeMax;
+    private final Map<K, TreeMap<LocalDateTime, LocalDateTime>> intervalles = new HashMap<>();
+
+    public IntervalIndex(Duration dureeMax) {
+        this.dureeMax = dureeMax;
+    }
+
+    public boolean chevauche(K cle, LocalDateTime debut, LocalDateTime fin) {
+        TreeMap<LocalDateTime, LocalDateTime> parDebut = intervalles.get(cle);
+        if (cle == null || parDebut == null) {
+            return false;
+        }
+        for (LocalDateTime finExistante : parDebut.subMap(debut.minus(dureeMax), false, fin, false).values()) {
+            if (finExistante.isAfter(debut)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void ajouter(K cle, LocalDateTime debut, LocalDateTime fin) {
+        if (cle == null || debut == null) {
+            return;
+        }
+        // sans fin exploitable : occupe uniquement l'instant de début
+        LocalDateTime finEffective = fin != null && fin.isAfter(debut) ? fin : debut.plusNanos(1);
+        intervalles.computeIfAbsent(cle, k -> new TreeMap<>())
+                .merge(debut, finEffective, (a, b) -> a.isAfter(b) ? a : b);
+    }
+}
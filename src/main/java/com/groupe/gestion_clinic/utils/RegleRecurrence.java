@@ -0,0 +1,129 @@
+package com.groupe.gestion_clinic.utils;
+
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Règle de récurrence, sous-ensemble de RRULE (RFC 5545) :
+ *   FREQ=DAILY|WEEKLY|MONTHLY ; INTERVAL=n ; COUNT=n ; UNTIL=yyyyMMdd (ou yyyy-MM-dd)
+ *
+ * Les occurrences mensuelles sont calculées depuis la première (premier.plusMonths(i * n)) :
+ * un 31 donne le dernier jour des mois courts sans décaler les mois suivants.
+ */
+public class RegleRecurrence {
+
+    private static final DateTimeFormatter UNTIL_RRULE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    public enum Frequence { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequence frequence;
+    private final int intervalle;
+    private final Integer nombre;
+    private final LocalDate jusquA;
+
+    public RegleRecurrence(Frequence frequence, int intervalle, Integer nombre, LocalDate jusquA) {
+        this.frequence = frequence;
+        this.intervalle = intervalle;
+        this.nombre = nombre;
+        this.jusquA = jusquA;
+    }
+
+    public static RegleRecurrence parse(String regle) {
+        if (regle == null || regle.isBlank()) {
+            throw new BusinessException("Règle de récurrence manquante");
+        }
+        Frequence frequence = null;
+        int intervalle = 1;
+        Integer nombre = null;
+        LocalDate jusquA = null;
+        String texte = regle.trim().toUpperCase();
+        if (texte.startsWith("RRULE:")) {
+            texte = texte.substring("RRULE:".length());
+        }
+        try {
+            for (String partie : texte.split(";")) {
+                if (partie.isBlank()) {
+                    continue;
+                }
+                String[] cleValeur = partie.split("=", 2);
+                String valeur = cleValeur.length > 1 ? cleValeur[1].trim() : "";
+                switch (cleValeur[0].trim()) {
+                    case "FREQ" -> frequence = Frequence.valueOf(valeur);
+                    case "INTERVAL" -> intervalle = Integer.parseInt(valeur);
+                    case "COUNT" -> nombre = Integer.parseInt(valeur);
+                    case "UNTIL" -> jusquA = parseJusquA(valeur);
+                    default -> throw new BusinessException("Propriété de récurrence non supportée: " + cleValeur[0]);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Règle de récurrence invalide: " + regle);
+        }
+        if (frequence == null || intervalle < 1 || (nombre != null && nombre < 1)) {
+            throw new BusinessException("Règle de récurrence invalide: " + regle);
+        }
+        return new RegleRecurrence(frequence, intervalle, nombre, jusquA);
+    }
+
+    /*
+     * Occurrences à partir de premier (incluse), limitées par COUNT, UNTIL (inclus) et horizon,
+     * au plus maxOccurrences : au-delà la règle est refusée plutôt que tronquée en silence.
+     */
+    public List<LocalDateTime> occurrences(LocalDateTime premier, LocalDate horizon, int maxOccurrences) {
+        LocalDate limite = jusquA != null && jusquA.isBefore(horizon) ? jusquA : horizon;
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        for (int i = 0; nombre == null || i < nombre; i++) {
+            LocalDateTime occurrence = switch (frequence) {
+                case DAILY -> premier.plusDays((long) i * intervalle);
+                case WEEKLY -> premier.plusWeeks((long) i * intervalle);
+                case MONTHLY -> premier.plusMonths((long) i * intervalle);
+            };
+            if (occurrence.toLocalDate().isAfter(limite)) {
+                break;
+            }
+            if (occurrences.size() == maxOccurrences) {
+                throw new BusinessException("Une série ne peut pas dépasser " + maxOccurrences + " occurrences");
+            }
+            occurrences.add(occurrence);
+        }
+        return occurrences;
+    }
+
+    // Même règle arrêtée la veille de fin (la série d'origine lors d'un découpage "cette occurrence et les suivantes")
+    public RegleRecurrence arreteeAvant(LocalDate fin) {
+        return new RegleRecurrence(frequence, intervalle, null, fin.minusDays(1));
+    }
+
+    // Même règle, COUNT réduit de celles déjà passées (la nouvelle série issue d'un découpage)
+    public RegleRecurrence sansLesPremieres(int dejaPassees) {
+        return new RegleRecurrence(frequence, intervalle, nombre != null ? Math.max(1, nombre - dejaPassees) : null, jusquA);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder regle = new StringBuilder("FREQ=").append(frequence);
+        if (intervalle != 1) {
+            regle.append(";INTERVAL=").append(intervalle);
+        }
+        if (nombre != null) {
+            regle.append(";COUNT=").append(nombre);
+        }
+        if (jusquA != null) {
+            regle.append(";UNTIL=").append(jusquA.format(UNTIL_RRULE));
+        }
+        return regle.toString();
+    }
+
+    private static LocalDate parseJusquA(String valeur) {
+        // forme RRULE 20260131 ou 20260131T235959Z, ou ISO 2026-01-31
+        if (valeur.contains("-")) {
+            return LocalDate.parse(valeur.length() > 10 ? valeur.substring(0, 10) : valeur);
+        }
+        return LocalDate.parse(valeur.length() > 8 ? valeur.substring(0, 8) : valeur, UNTIL_RRULE);
+    }
+}
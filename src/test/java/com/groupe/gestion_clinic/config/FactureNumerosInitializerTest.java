@@ -0,0 +1,59 @@
+package com.groupe.gestion_clinic.config;
+
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class FactureNumerosInitializerTest {
+
+    @Autowired
+    private FactureNumerosInitializer factureNumerosInitializer;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void renumbersDuplicatesOnlyUntilUniqueConstraintExists() {
+        // contrainte posée par ddl-auto : rien à faire
+        assertEquals(0, factureNumerosInitializer.renumeroterDoublons());
+
+        // base héritée de l'ancienne numérotation, sans la contrainte
+        jdbcTemplate.execute("ALTER TABLE facture DROP CONSTRAINT " + FactureNumerosInitializer.CONTRAINTE);
+        Facture premiere = facture("FACT-2024-000007");
+        Facture seconde = facture("FACT-2024-000007");
+        Facture troisieme = facture("FACT-2024-000007");
+        Facture unique = facture("FACT-2024-000008");
+
+        assertEquals(2, factureNumerosInitializer.renumeroterDoublons());
+        assertEquals("FACT-2024-000007", numero(premiere));
+        assertEquals("FACT-2024-000007-" + seconde.getId(), numero(seconde));
+        assertEquals("FACT-2024-000007-" + troisieme.getId(), numero(troisieme));
+        assertEquals("FACT-2024-000008", numero(unique));
+
+        jdbcTemplate.execute("ALTER TABLE facture ADD CONSTRAINT " + FactureNumerosInitializer.CONTRAINTE + " UNIQUE (numero_facture)");
+        assertEquals(0, factureNumerosInitializer.renumeroterDoublons());
+    }
+
+    private Facture facture(String numero) {
+        return factureRepository.save(Facture.builder()
+                .numeroFacture(numero).montantTotal(10.0).statut(StatutFacture.IMPAYEE).build());
+    }
+
+    private String numero(Facture facture) {
+        return factureRepository.findById(facture.getId()).orElseThrow().getNumeroFacture();
+    }
+}
@@ -0,0 +1,88 @@
+package com.groupe.gestion_clinic.notificationConfig;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.NotificationOutbox;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutNotificationOutbox;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.NotificationOutboxRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.services.RendezvousServiceNew;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class NotificationOutboxServiceTest {
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void bookingWritesOutboxRowsThatTheDispatcherDrains() {
+        Integer medecin = medecinRepository.save(Medecin.builder()
+                .nom("Grey").prenom("Meredith").email("grey" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build()).getId();
+        Integer patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Jane").email("jane" + System.nanoTime() + "@clinic.test").build()).getId();
+        LocalDateTime debut = LocalDateTime.now().plusDays(30).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto rendezvous = rendezvousService.createRendezVous(demande(medecin, patient, debut));
+        // refusé : seule la notification de conflit est écrite
+        assertThrows(ConflictException.class, () -> rendezvousService.createRendezVous(demande(medecin, patient, debut)));
+
+        List<NotificationOutbox> notifications = pourMedecin(medecin);
+        assertEquals(2, notifications.size());
+        assertEquals("NEW_RDV", notifications.get(0).getObjMessage());
+        assertEquals(rendezvous.getId(), notifications.get(0).getRdvId());
+        assertEquals("CONFLICT_DETECTED", notifications.get(1).getObjMessage());
+        assertTrue(notifications.stream().allMatch(n -> n.getStatut() == StatutNotificationOutbox.EN_ATTENTE));
+
+        // les deux notifications du médecin et l'annonce publique du rendez-vous créé
+        assertEquals(3, notificationOutboxService.diffuser());
+        assertTrue(pourMedecin(medecin).stream().allMatch(n -> n.getStatut() == StatutNotificationOutbox.ENVOYEE));
+        assertEquals(0, notificationOutboxService.diffuser());
+    }
+
+    private List<NotificationOutbox> pourMedecin(Integer medecinId) {
+        return outboxRepository.findAll().stream()
+                .filter(n -> Long.valueOf(medecinId).equals(n.getDestinataireId()))
+                .sorted(Comparator.comparing(NotificationOutbox::getId))
+                .toList();
+    }
+
+    private RendezvousRequestDto demande(Integer medecinId, Integer patientId, LocalDateTime debut) {
+        return RendezvousRequestDto.builder()
+                .medecinId(medecinId).patientId(patientId)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build();
+    }
+}
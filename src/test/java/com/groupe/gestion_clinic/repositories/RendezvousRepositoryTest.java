@@ -0,0 +1,194 @@
+package com.groupe.gestion_clinic.repositories;
+
+import com.groupe.gestion_clinic.dto.RendezvousResumeDto;
+import com.groupe.gestion_clinic.dto.RendezvousSearchDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=info"
+})
+class RendezvousRepositoryTest {
+
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private Medecin medecin;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        medecin = medecinRepository.save(Medecin.builder()
+                .nom("House").prenom("Gregory").email("house@clinic.test")
+                .role(Role.MEDECIN).specialite("Diagnostic").build());
+        patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("John").email("john@clinic.test").build());
+    }
+
+    @Test
+    void detectsOverlappingIntervalsOnly() {
+        Rendezvous existing = save(DEBUT, DEBUT.plusMinutes(30), StatutRendezVous.PLANIFIE);
+
+        assertTrue(medecinConflict(DEBUT.plusMinutes(15), DEBUT.plusMinutes(45), null));
+        assertTrue(medecinConflict(DEBUT.minusMinutes(15), DEBUT.plusMinutes(15), null));
+        assertTrue(patientConflict(DEBUT.plusMinutes(10), DEBUT.plusMinutes(20), null));
+
+        // créneaux adjacents : pas de chevauchement
+        assertFalse(medecinConflict(DEBUT.plusMinutes(30), DEBUT.plusMinutes(60), null));
+        assertFalse(medecinConflict(DEBUT.minusMinutes(30), DEBUT, null));
+
+        // le rendez-vous modifié est exclu de la vérification
+        assertFalse(medecinConflict(DEBUT.plusMinutes(15), DEBUT.plusMinutes(45), existing.getId()));
+    }
+
+    @Test
+    void ignoresCancelledRendezVous() {
+        save(DEBUT, DEBUT.plusMinutes(30), StatutRendezVous.ANNULE);
+
+        assertFalse(medecinConflict(DEBUT, DEBUT.plusMinutes(30), null));
+        assertFalse(patientConflict(DEBUT, DEBUT.plusMinutes(30), null));
+    }
+
+    @Test
+    void legacyRendezVousWithoutEndAreComparedOnStartTime() {
+        save(DEBUT, null, StatutRendezVous.PLANIFIE);
+        save(DEBUT.plusHours(2), DEBUT.plusHours(2), StatutRendezVous.PLANIFIE);
+
+        assertTrue(medecinConflict(DEBUT, DEBUT.plusMinutes(30), null));
+        assertTrue(medecinConflict(DEBUT.plusHours(2).minusMinutes(10), DEBUT.plusHours(2).plusMinutes(20), null));
+        assertFalse(medecinConflict(DEBUT.plusMinutes(5), DEBUT.plusMinutes(35), null));
+    }
+
+    @Test
+    void searchReturnsPaginatedProjections() {
+        save(DEBUT, DEBUT.plusMinutes(30), StatutRendezVous.PLANIFIE);
+        save(DEBUT.plusDays(1), DEBUT.plusDays(1).plusMinutes(30), StatutRendezVous.PLANIFIE);
+        save(DEBUT.plusDays(2), DEBUT.plusDays(2).plusMinutes(30), StatutRendezVous.ANNULE);
+        entityManager.clear();
+
+        RendezvousSearchDto search = RendezvousSearchDto.builder()
+                .medecinId(medecin.getId().longValue())
+                .statut("planifie")
+                .dateDebut(DEBUT)
+                .dateFin(DEBUT.plusDays(3))
+                .build();
+        Page<RendezvousResumeDto> page = rendezvousRepository.findResumes(
+                RendezvousSpecifications.fromSearch(search), PageRequest.of(0, 1));
+
+        assertEquals(2, page.getTotalElements());
+        RendezvousResumeDto resume = page.getContent().get(0);
+        assertEquals(DEBUT.plusDays(1), resume.getDateHeureDebut());
+        assertEquals("Doe", resume.getPatientNom());
+        assertEquals("House", resume.getMedecinNom());
+    }
+
+    @Test
+    void keysetPagesWalkEveryRowOnceInCreationOrder() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, save(DEBUT.plusDays(i), DEBUT.plusDays(i).plusMinutes(30), StatutRendezVous.PLANIFIE).getId());
+        }
+        entityManager.clear();
+
+        List<Integer> walked = new ArrayList<>();
+        List<Rendezvous> page = rendezvousRepository.findKeysetFirstPage(PageRequest.ofSize(2));
+        while (!page.isEmpty()) {
+            page.forEach(rdv -> walked.add(rdv.getId()));
+            Rendezvous last = page.get(page.size() - 1);
+            page = rendezvousRepository.findKeysetPageAfter(last.getCreatedAt(), last.getId(), PageRequest.ofSize(2));
+        }
+
+        assertEquals(expected, walked);
+    }
+
+    /*
+     * Mini benchmark : la vérification de conflit ne doit pas ralentir quand l'historique
+     * du médecin est multiplié par 20 (parcours borné de l'index medecinId, dateHeureDebut).
+     */
+    @Test
+    void conflictCheckLatencyStaysFlatAsHistoryGrows() {
+        seedHistory(1_000, 0);
+        long small = timeConflictChecks();
+
+        seedHistory(19_000, 1_000);
+        long large = timeConflictChecks();
+
+        assertTrue(large < small * 4 + 50_000_000L,
+                "latence avec 20k rdv (" + large + " ns) vs 1k rdv (" + small + " ns)");
+    }
+
+    private void seedHistory(int count, int offset) {
+        List<Rendezvous> batch = new ArrayList<>();
+        for (int i = offset; i < offset + count; i++) {
+            LocalDateTime debut = DEBUT.minusDays(1).minusMinutes(30L * (i + 1));
+            batch.add(Rendezvous.builder()
+                    .medecin(medecin).patient(patient)
+                    .dateHeureDebut(debut).dateHeureFin(debut.plusMinutes(30))
+                    .statut(StatutRendezVous.TERMINE).build());
+        }
+        rendezvousRepository.saveAll(batch);
+        rendezvousRepository.flush();
+        entityManager.clear();
+    }
+
+    private long timeConflictChecks() {
+        for (int i = 0; i < 200; i++) {
+            medecinConflict(DEBUT.plusMinutes(i), DEBUT.plusMinutes(i + 30), null);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            medecinConflict(DEBUT.plusMinutes(i), DEBUT.plusMinutes(i + 30), null);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Rendezvous save(LocalDateTime debut, LocalDateTime fin, StatutRendezVous statut) {
+        return rendezvousRepository.saveAndFlush(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(debut).dateHeureFin(fin)
+                .statut(statut).build());
+    }
+
+    private boolean medecinConflict(LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        return rendezvousRepository.existsConflictingMedecinRendezVous(
+                medecin.getId(), start, end, start.minusHours(4), excludeId);
+    }
+
+    private boolean patientConflict(LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        return rendezvousRepository.existsConflictingPatientRendezVous(
+                patient.getId(), start, end, start.minusHours(4), excludeId);
+    }
+}
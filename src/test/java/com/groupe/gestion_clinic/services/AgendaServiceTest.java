@@ -0,0 +1,93 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class AgendaServiceTest {
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void agendaFollowsEveryWriteOnAppointments() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Bailey").prenom("Miranda").email("bailey" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Lou").email("lou" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime lundi = LocalDateTime.now().plusDays(40).withHour(8).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto cree = rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .medecinId(medecin.getId()).patientId(patient.getId())
+                .dateHeureDebut(lundi).duree(Duration.ofMinutes(20)).motif("Bilan").build());
+
+        List<RendezvousDto> semaine = semaine(medecin, lundi);
+        assertEquals(1, semaine.size());
+        RendezvousDto ligne = semaine.get(0);
+        assertEquals(cree.getId(), ligne.getId());
+        assertEquals("Lou Doe", ligne.getPatientNom());
+        assertEquals("Bailey", ligne.getMedecinDTO().getNom());
+        assertEquals(lundi.plusMinutes(20), ligne.getDateHeureFin());
+        assertEquals(StatutRendezVous.PLANIFIE, ligne.getStatut());
+
+        rendezvousService.updateRendezVousStatus(cree.getId(), StatutRendezVous.CONFIRME);
+        assertEquals(StatutRendezVous.CONFIRME, semaine(medecin, lundi).get(0).getStatut());
+
+        medecin.setNom("Bailey-Warren");
+        agendaService.renommerMedecin(medecinRepository.save(medecin));
+        assertEquals("Bailey-Warren", semaine(medecin, lundi).get(0).getMedecinDTO().getNom());
+
+        // rendez-vous écrit hors du service : rattrapé par completer()
+        Rendezvous direct = rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(lundi.plusDays(1)).dateHeureFin(lundi.plusDays(1).plusMinutes(30))
+                .statut(StatutRendezVous.PLANIFIE).build());
+        assertEquals(1, semaine(medecin, lundi).size());
+        agendaService.completer();
+        assertEquals(direct.getId(), semaine(medecin, lundi).get(1).getId());
+
+        rendezvousService.deleteRendezVous(cree.getId());
+        List<RendezvousDto> restants = semaine(medecin, lundi);
+        assertEquals(1, restants.size());
+        assertTrue(restants.stream().noneMatch(r -> r.getId().equals(cree.getId())));
+    }
+
+    private List<RendezvousDto> semaine(Medecin medecin, LocalDateTime lundi) {
+        return rendezvousService.getRendezVousBetweenDates(lundi.minusHours(1), lundi.plusDays(7), medecin.getId());
+    }
+}
@@ -0,0 +1,105 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class CalendrierServiceTest {
+
+    @Autowired
+    private CalendrierService calendrierService;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void streamsAgendaAndChangesEtagOnlyWhenAgendaChanges() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Shepherd").prenom("Derek").email("shepherd" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Ann").email("ann" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime debut = LocalDateTime.now().plusDays(10).withHour(14).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto rendezvous = rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .medecinId(medecin.getId()).patientId(patient.getId())
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(45))
+                .motif("Contrôle, tension; suivi post-opératoire de longue durée avec bilan complet à prévoir").build());
+
+        String etag = calendrierService.getEtag(medecin.getId());
+        assertEquals(etag, calendrierService.getEtag(medecin.getId()));
+
+        String agenda = agenda(medecin);
+        assertTrue(agenda.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(agenda.contains("UID:rdv-" + rendezvous.getId() + "@gestion-clinic\r\n"));
+        assertTrue(agenda.contains("STATUS:TENTATIVE\r\n"));
+        assertTrue(agenda.replace("\r\n ", "").contains("DESCRIPTION:Contrôle\\, tension\\; suivi"));
+        for (String ligne : agenda.split("\r\n")) {
+            assertTrue(ligne.getBytes(StandardCharsets.UTF_8).length <= 75, ligne);
+        }
+
+        // écriture hors du service (autre noeud) : l'ETag suit la base
+        Rendezvous enBase = rendezvousRepository.findById(rendezvous.getId()).orElseThrow();
+        enBase.setMotif("Bilan");
+        rendezvousRepository.save(enBase);
+        String modifie = calendrierService.getEtag(medecin.getId());
+        assertNotEquals(etag, modifie);
+
+        // UPDATE en masse
+        transactionTemplate.executeWithoutResult(status ->
+                rendezvousRepository.annulerTous(List.of(rendezvous.getId()), LocalDateTime.now()));
+        assertNotEquals(modifie, calendrierService.getEtag(medecin.getId()));
+        assertTrue(agenda(medecin).contains("STATUS:CANCELLED\r\n"));
+    }
+
+    @Test
+    void unknownDoctorHasNoEtag() {
+        assertThrows(NotFoundException.class, () -> calendrierService.getEtag(Integer.MAX_VALUE));
+        assertThrows(NotFoundException.class, () -> calendrierService.getEtag(Integer.MAX_VALUE));
+    }
+
+    private String agenda(Medecin medecin) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        calendrierService.ecrireAgenda(medecin, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.NotificationOutbox;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Prescription;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.NotificationOutboxRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class ClotureRendezVousServiceTest {
+
+    @Autowired
+    private ClotureRendezVousService clotureRendezVousService;
+
+    @MockitoSpyBean
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void closesPastAppointmentsAndNotifiesEachDoctorOnce() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Webber").prenom("Richard").email("webber" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Jim").email("jim" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime hier = LocalDateTime.now().minusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        Rendezvous confirme = rdv(medecin, patient, hier, StatutRendezVous.CONFIRME);
+        Rendezvous absent = rdv(medecin, patient, hier.plusHours(1), StatutRendezVous.PLANIFIE);
+        Rendezvous prescrit = rdv(medecin, patient, hier.plusHours(2), StatutRendezVous.PLANIFIE);
+        prescriptionRepository.save(Prescription.builder().medicament("Paracétamol").rendezvous(prescrit).build());
+        Rendezvous annule = rdv(medecin, patient, hier.plusHours(3), StatutRendezVous.ANNULE);
+        // fin trop récente (délai de clôture) et rendez-vous à venir : inchangés
+        Rendezvous recent = rdv(medecin, patient, LocalDateTime.now().minusMinutes(40), StatutRendezVous.PLANIFIE);
+        Rendezvous futur = rdv(medecin, patient, LocalDateTime.now().plusDays(2), StatutRendezVous.PLANIFIE);
+
+        assertEquals(3, clotureRendezVousService.cloturer());
+
+        assertEquals(StatutRendezVous.TERMINE, statut(confirme));
+        assertEquals(StatutRendezVous.ABSENT, statut(absent));
+        assertEquals(StatutRendezVous.TERMINE, statut(prescrit));
+        assertEquals(StatutRendezVous.ANNULE, statut(annule));
+        assertEquals(StatutRendezVous.PLANIFIE, statut(recent));
+        assertEquals(StatutRendezVous.PLANIFIE, statut(futur));
+
+        List<NotificationOutbox> notifications = outboxRepository.findAll().stream()
+                .filter(n -> Long.valueOf(medecin.getId()).equals(n.getDestinataireId()))
+                .toList();
+        assertEquals(1, notifications.size());
+        assertEquals("Clôture automatique : 2 rendez-vous terminé(s), 1 patient(s) absent(s)", notifications.get(0).getMessage());
+
+        assertEquals(0, clotureRendezVousService.cloturer());
+    }
+
+    @Test
+    void appointmentChangedAfterSelectionIsNotCounted() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Bailey").prenom("Miranda").email("bailey" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Jane").email("jane" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime avantHier = LocalDateTime.now().minusDays(2).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        Rendezvous absent = rdv(medecin, patient, avantHier, StatutRendezVous.PLANIFIE);
+        Rendezvous annule = rdv(medecin, patient, avantHier.plusHours(1), StatutRendezVous.PLANIFIE);
+
+        // annulé entre la lecture du lot et sa clôture
+        Answer<?> reelle = mockingDetails(rendezvousRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object lot = reelle.answer(invocation);
+            Rendezvous modifie = rendezvousRepository.findById(annule.getId()).orElseThrow();
+            modifie.setStatut(StatutRendezVous.ANNULE);
+            rendezvousRepository.save(modifie);
+            return lot;
+        }).when(rendezvousRepository).findRendezVousACloturer(any(), any(), any(), any(), any());
+
+        assertEquals(1, clotureRendezVousService.cloturer());
+
+        assertEquals(StatutRendezVous.ABSENT, statut(absent));
+        assertEquals(StatutRendezVous.ANNULE, statut(annule));
+        List<NotificationOutbox> notifications = outboxRepository.findAll().stream()
+                .filter(n -> Long.valueOf(medecin.getId()).equals(n.getDestinataireId()))
+                .toList();
+        assertEquals(1, notifications.size());
+        assertEquals("Clôture automatique : 0 rendez-vous terminé(s), 1 patient(s) absent(s)", notifications.get(0).getMessage());
+    }
+
+    private StatutRendezVous statut(Rendezvous rendezvous) {
+        return rendezvousRepository.findById(rendezvous.getId()).orElseThrow().getStatut();
+    }
+
+    private Rendezvous rdv(Medecin medecin, Patient patient, LocalDateTime debut, StatutRendezVous statut) {
+        return rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(debut).dateHeureFin(debut.plusMinutes(30))
+                .statut(statut).build());
+    }
+}
@@ -0,0 +1,114 @@
+package com.groupe.gestion_clinic.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class DashboardDiffusionServiceTest {
+
+    @Autowired
+    private DashboardDiffusionService diffusionService;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private SubscribableChannel brokerChannel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void burstOfBookingsIsPushedAsOneMessage() throws Exception {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Grey").prenom("Meredith").email("grey" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Kim").email("kim" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime debut = LocalDateTime.now().plusDays(60).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        // état initial envoyé avant l'écoute : les écarts du message attendu partent de là
+        diffusionService.diffuser();
+        Map<String, List<JsonNode>> recus = new ConcurrentHashMap<>();
+        CountDownLatch diffuse = new CountDownLatch(1);
+        MessageHandler ecoute = message -> {
+            try {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                recus.computeIfAbsent(destination, d -> new CopyOnWriteArrayList<>())
+                        .add(objectMapper.readTree((byte[]) message.getPayload()));
+                if (DashboardDiffusionService.TOPIC.equals(destination)) {
+                    diffuse.countDown();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        brokerChannel.subscribe(ecoute);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                RendezvousDto cree = rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                        .medecinId(medecin.getId()).patientId(patient.getId())
+                        .dateHeureDebut(debut.plusHours(i)).duree(Duration.ofMinutes(30)).motif("Suivi").build());
+                ids.add(0, cree.getId());
+            }
+            // un seul envoi planifié pour la rafale ; les messages par médecin partent avant /topic/dashboard
+            assertTrue(diffuse.await(10, TimeUnit.SECONDS));
+
+            List<JsonNode> dashboard = recus.getOrDefault(DashboardDiffusionService.TOPIC, List.of());
+            assertEquals(1, dashboard.size());
+            JsonNode message = dashboard.get(0);
+            assertEquals(3, message.get("deltas").get("totalRendezVous").asLong());
+            assertEquals(3, message.get("deltas").get("rendezVousEnAttente").asLong());
+            List<Integer> nouveaux = new ArrayList<>();
+            message.get("nouveaux").forEach(rdv -> nouveaux.add(rdv.get("id").asInt()));
+            assertEquals(ids, nouveaux);
+            assertEquals("Doe", message.get("nouveaux").get(0).get("patient").get("nom").asText());
+
+            List<JsonNode> parMedecin = recus.get(DashboardDiffusionService.TOPIC + "/medecin/" + medecin.getId());
+            assertEquals(1, parMedecin.size());
+            assertEquals(1, parMedecin.get(0).get("mesPatients").asLong());
+            assertEquals(3, parMedecin.get(0).get("rdvEnAttente").asLong());
+        } finally {
+            brokerChannel.unsubscribe(ecoute);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.DashboardStatsDto;
+import com.groupe.gestion_clinic.dto.MedecinStatsDto;
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @MockitoSpyBean
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Test
+    void countersFollowWriteEventsAndReconcileWithDatabase() {
+        DashboardStatsDto avant = dashboardService.reconcilier();
+
+        // écrits sans passer par les services : pris en compte à la réconciliation seulement
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Karev").prenom("Alex").email("karev" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient ann = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Ann").email("ann" + System.nanoTime() + "@clinic.test").build());
+        Patient bob = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Bob").email("bob" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime midi = LocalDate.now().atTime(12, 0);
+        LocalDateTime plusTard = midi.plusDays(20);
+
+        Rendezvous duJour = rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(ann)
+                .dateHeureDebut(midi).dateHeureFin(midi.plusMinutes(30))
+                .statut(StatutRendezVous.PLANIFIE).build());
+        agendaService.synchroniser(duJour.getId());
+        RendezvousDto futur = rendezvousService.createRendezVous(demande(medecin, ann, plusTard));
+        RendezvousDto confirme = rendezvousService.createRendezVous(demande(medecin, bob, plusTard.plusHours(1)));
+        rendezvousService.updateRendezVousStatus(confirme.getId(), StatutRendezVous.CONFIRME);
+
+        DashboardStatsDto apres = dashboardService.getStats();
+        assertEquals(avant.getTotalRendezVous() + 3, apres.getTotalRendezVous());
+        assertEquals(avant.getRendezVousAujourdhui() + 1, apres.getRendezVousAujourdhui());
+        assertEquals(avant.getRendezVousEnAttente() + 2, apres.getRendezVousEnAttente());
+        assertEquals(avant.getTotalPatients(), apres.getTotalPatients());
+        assertEquals(new MedecinStatsDto(2L, 1L, 2L), dashboardService.getMedecinStats(medecin.getId()));
+
+        rendezvousService.deleteRendezVous(futur.getId());
+        assertEquals(new MedecinStatsDto(2L, 1L, 1L), dashboardService.getMedecinStats(medecin.getId()));
+        rendezvousService.deleteRendezVous(duJour.getId());
+        assertEquals(new MedecinStatsDto(1L, 0L, 0L), dashboardService.getMedecinStats(medecin.getId()));
+
+        DashboardStatsDto reconcilie = dashboardService.reconcilier();
+        assertEquals(avant.getTotalPatients() + 2, reconcilie.getTotalPatients());
+        assertEquals(avant.getTotalMedecins() + 1, reconcilie.getTotalMedecins());
+        assertEquals(avant.getTotalRendezVous() + 1, reconcilie.getTotalRendezVous());
+        assertEquals(avant.getRendezVousEnAttente(), reconcilie.getRendezVousEnAttente());
+        assertEquals(new MedecinStatsDto(1L, 0L, 0L), dashboardService.getMedecinStats(medecin.getId()));
+    }
+
+    @Test
+    void countersStayReadableDuringReload() {
+        DashboardStatsDto avant = dashboardService.reconcilier();
+
+        // lecture depuis un autre thread pendant la requête de rechargement
+        AtomicReference<DashboardStatsDto> lue = new AtomicReference<>();
+        Answer<?> reelle = mockingDetails(rendezvousRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            lue.compareAndSet(null, CompletableFuture.supplyAsync(dashboardService::getStats).get(10, TimeUnit.SECONDS));
+            return reelle.answer(invocation);
+        }).when(rendezvousRepository).getDashboardStats(any(), any());
+
+        dashboardService.reconcilier();
+        assertEquals(avant, lue.get());
+    }
+
+    private RendezvousRequestDto demande(Medecin medecin, Patient patient, LocalDateTime debut) {
+        return RendezvousRequestDto.builder()
+                .medecinId(medecin.getId()).patientId(patient.getId())
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.CreneauDisponibleDto;
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class DisponibiliteServiceTest {
+
+    @Autowired
+    private DisponibiliteService disponibiliteService;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @MockitoSpyBean
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void calendarFollowsOverlapAdjacentSlotsAndCancellation() {
+        Integer medecin = medecin("shepherd").getId();
+        Integer patient = patient("p1").getId();
+        LocalDateTime dix = LocalDateTime.now().plusDays(10).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        // semaine chargée avant la réservation : la mise à jour incrémentale est exercée
+        assertTrue(disponibiliteService.estLibre(medecin, dix, dix.plusMinutes(30)));
+        RendezvousDto rendezvous = rendezvousService.createRendezVous(demande(medecin, patient, dix));
+
+        assertFalse(disponibiliteService.estLibre(medecin, dix, dix.plusMinutes(30)));
+        assertFalse(disponibiliteService.estLibre(medecin, dix.plusMinutes(15), dix.plusMinutes(45)));
+        assertFalse(disponibiliteService.estLibre(medecin, dix.minusMinutes(15), dix.plusMinutes(15)));
+        // créneaux contigus, fin exclue
+        assertTrue(disponibiliteService.estLibre(medecin, dix.minusMinutes(30), dix));
+        assertTrue(disponibiliteService.estLibre(medecin, dix.plusMinutes(30), dix.plusMinutes(60)));
+
+        List<CreneauDisponibleDto> creneaux = disponibiliteService.getProchainsCreneauxLibres(
+                medecin, null, dix.minusMinutes(30), Duration.ofMinutes(30), 3);
+        assertEquals(List.of(dix.minusMinutes(30), dix.plusMinutes(30), dix.plusMinutes(60)),
+                creneaux.stream().map(CreneauDisponibleDto::getDateHeureDebut).toList());
+
+        rendezvousService.cancelRendezVous(rendezvous.getId());
+        assertTrue(disponibiliteService.estLibre(medecin, dix, dix.plusMinutes(30)));
+    }
+
+    @Test
+    void bookingDuringReloadIsNotOverwritten() {
+        Integer medecin = medecin("robbins").getId();
+        Integer patient = patient("p2").getId();
+        LocalDateTime dix = LocalDateTime.now().plusDays(12).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        // la réservation est enregistrée et appliquée après la lecture de la semaine, avant son installation
+        AtomicBoolean reserve = new AtomicBoolean();
+        // espion d'un proxy de dépôt : la réponse par défaut délègue au dépôt réel
+        Answer<?> reelle = mockingDetails(rendezvousRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object lus = reelle.answer(invocation);
+            if (reserve.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> rendezvousService.createRendezVous(demande(medecin, patient, dix))).join();
+            }
+            return lus;
+        }).when(rendezvousRepository).findAllByMedecinAndPeriod(eq(medecin), any(), any());
+
+        assertFalse(disponibiliteService.estLibre(medecin, dix, dix.plusMinutes(30)));
+        assertTrue(reserve.get());
+    }
+
+    private RendezvousRequestDto demande(Integer medecinId, Integer patientId, LocalDateTime debut) {
+        return RendezvousRequestDto.builder()
+                .medecinId(medecinId).patientId(patientId)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build();
+    }
+
+    private Medecin medecin(String nom) {
+        return medecinRepository.save(Medecin.builder()
+                .nom(nom).prenom("Dr").email(nom + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+    }
+
+    private Patient patient(String nom) {
+        return patientRepository.save(Patient.builder()
+                .nom(nom).prenom("Test").email(nom + System.nanoTime() + "@clinic.test").build());
+    }
+}
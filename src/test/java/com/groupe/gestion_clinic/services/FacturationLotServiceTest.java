@@ -0,0 +1,170 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.LotFacturationDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.LotFacturation;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.ModeFacturation;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Prescription;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutFacturation;
+import com.groupe.gestion_clinic.model.StatutLotFacturation;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import com.groupe.gestion_clinic.repositories.LotFacturationRepository;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class FacturationLotServiceTest {
+
+    @Autowired
+    private FacturationLotService facturationLotService;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private LotFacturationRepository lotRepository;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void unbilledPrescriptionsAreInvoicedInResumableChunks() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Webber").prenom("Richard").email("webber" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient ann = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Ann").email("ann" + System.nanoTime() + "@clinic.test").build());
+        Patient bob = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Bob").email("bob" + System.nanoTime() + "@clinic.test").build());
+        LocalDateTime hier = LocalDateTime.now().minusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Rendezvous premier = rendezvous(medecin, ann, hier);
+        Rendezvous second = rendezvous(medecin, ann, hier.plusHours(1));
+        Rendezvous troisieme = rendezvous(medecin, bob, hier.plusHours(2));
+
+        Prescription hospitalisation = prescription(premier, true, null);
+        Prescription simple = prescription(premier, false, null);
+        Prescription examen = prescription(second, false, "Radio");
+        Prescription bobSimple = prescription(troisieme, false, "  ");
+        Facture existante = factureRepository.save(Facture.builder()
+                .numeroFacture("FACT-TEST-" + System.nanoTime()).montantTotal(1.0)
+                .statut(com.groupe.gestion_clinic.model.StatutFacture.PAYEE).build());
+        Prescription dejaFacturee = prescriptionRepository.save(Prescription.builder()
+                .medicament("Paracétamol").rendezvous(troisieme).facture(existante).build());
+
+        YearMonth mois = YearMonth.now();
+        ReflectionTestUtils.setField(facturationLotService, "tailleLot", 1);
+        try {
+            LotFacturationDto lot = facturationLotService.facturer(mois, ModeFacturation.PAR_PATIENT);
+            assertEquals(StatutLotFacturation.TERMINE, lot.getStatut());
+            assertEquals(2, lot.getPaquets());
+            assertEquals(4, lot.getPrescriptions());
+
+            // un patient, une facture : consultation par rendez-vous, hospitalisation et examens par rendez-vous concerné
+            Facture factureAnn = facture(hospitalisation);
+            assertEquals(factureAnn.getId(), facture(simple).getId());
+            assertEquals(factureAnn.getId(), facture(examen).getId());
+            assertEquals(2 * 10000 + 50000 + 15000, factureAnn.getMontantTotal());
+            assertEquals(50000, factureAnn.getFraisHospitalisation());
+            Facture factureBob = facture(bobSimple);
+            assertNotEquals(factureAnn.getId(), factureBob.getId());
+            assertEquals(10000, factureBob.getMontantTotal());
+            assertTrue(factureBob.getNumeroFacture().startsWith("FACT-" + LocalDate.now().getYear() + "-"));
+            assertEquals(existante.getId(), facture(dejaFacturee).getId());
+            assertEquals(StatutFacturation.FACTUREE, prescriptionRepository.findById(simple.getId()).orElseThrow().getStatutFacturation());
+
+            // rien de plus au passage suivant
+            assertEquals(0, facturationLotService.facturer(mois, ModeFacturation.PAR_PATIENT).getFactures());
+
+            // passage interrompu après le premier rendez-vous : la reprise part du curseur
+            Prescription avantCurseur = prescription(premier, false, null);
+            Prescription apresCurseur = prescription(troisieme, false, null);
+            LotFacturation interrompu = lotRepository.save(LotFacturation.builder()
+                    .mois(mois.atDay(1)).mode(ModeFacturation.PAR_RENDEZVOUS)
+                    .statut(StatutLotFacturation.ECHOUE).curseur(premier.getId())
+                    .prescriptions(7).factures(3).paquets(3).debut(LocalDateTime.now()).build());
+            LotFacturationDto repris = facturationLotService.facturer(mois, ModeFacturation.PAR_RENDEZVOUS);
+            assertEquals(interrompu.getId(), repris.getId());
+            assertEquals(StatutLotFacturation.TERMINE, repris.getStatut());
+            assertEquals(8, repris.getPrescriptions());
+            assertNull(facture(avantCurseur));
+            assertEquals(10000, facture(apresCurseur).getMontantTotal());
+
+            // créée avant la mise en service du lot : peut avoir été facturée une à une, laissée de côté
+            Prescription ancienne = prescription(troisieme, false, null);
+            ancienne.setCreatedAt(LocalDate.now().atStartOfDay().minusMinutes(1));
+            prescriptionRepository.save(ancienne);
+            Prescription recente = prescription(troisieme, false, null);
+            ReflectionTestUtils.setField(facturationLotService, "depuis", LocalDate.now().toString());
+            // recente et avantCurseur, laissée par la reprise
+            assertEquals(2, facturationLotService.facturer(mois, ModeFacturation.PAR_PATIENT).getPrescriptions());
+            assertNull(facture(ancienne));
+            assertEquals(10000, facture(recente).getMontantTotal());
+            assertThrows(BusinessException.class, () -> facturationLotService.facturer(mois.minusMonths(1), null));
+
+            ReflectionTestUtils.setField(facturationLotService, "depuis", "");
+            assertThrows(BusinessException.class, () -> facturationLotService.facturer(mois, null));
+        } finally {
+            ReflectionTestUtils.setField(facturationLotService, "tailleLot", 200);
+            ReflectionTestUtils.setField(facturationLotService, "depuis", "2000-01-01");
+        }
+    }
+
+    private Facture facture(Prescription prescription) {
+        return transactionTemplate.execute(status -> {
+            Facture facture = prescriptionRepository.findById(prescription.getId()).orElseThrow().getFacture();
+            return facture == null ? null : factureRepository.findById(facture.getId()).orElseThrow();
+        });
+    }
+
+    private Rendezvous rendezvous(Medecin medecin, Patient patient, LocalDateTime debut) {
+        return rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(debut).dateHeureFin(debut.plusMinutes(30))
+                .statut(StatutRendezVous.TERMINE).build());
+    }
+
+    private Prescription prescription(Rendezvous rendezvous, boolean hospitalisation, String examens) {
+        return prescriptionRepository.save(Prescription.builder()
+                .medicament("Ibuprofène").rendezvous(rendezvous)
+                .hospitalisationNecessaire(hospitalisation).examensNecessaires(examens).build());
+    }
+}
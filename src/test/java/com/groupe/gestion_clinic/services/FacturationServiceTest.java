@@ -0,0 +1,74 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.Prescription;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class FacturationServiceTest {
+
+    @Autowired
+    private FacturationService facturationService;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Test
+    void revenuesAreSummedInSqlForPaidInvoicesOnly() {
+        LocalDate aujourdhui = LocalDate.now();
+        int annee = aujourdhui.getYear();
+        int mois = aujourdhui.getMonthValue();
+        BigDecimal annuelAvant = facturationService.getRevenuAnnuel(annee);
+        BigDecimal mensuelAvant = facturationService.getRevenuMensuel(annee, mois);
+
+        factureRepository.save(Facture.builder().montantTotal(100.0).statut(StatutFacture.PAYEE).build());
+        factureRepository.save(Facture.builder().montantTotal(50.5).statut(StatutFacture.PAYEE).build());
+        factureRepository.save(Facture.builder().montantTotal(30.0).statut(StatutFacture.IMPAYEE).build());
+
+        assertEquals(0, annuelAvant.add(new BigDecimal("150.5")).compareTo(facturationService.getRevenuAnnuel(annee)));
+        assertEquals(0, mensuelAvant.add(new BigDecimal("150.5")).compareTo(facturationService.getRevenuMensuel(annee, mois)));
+
+        Map<Integer, BigDecimal> parMois = facturationService.getRevenusParMois(annee);
+        assertEquals(12, parMois.size());
+        assertEquals(0, facturationService.getRevenuMensuel(annee, mois).compareTo(parMois.get(mois)));
+        BigDecimal total = parMois.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, facturationService.getRevenuAnnuel(annee).compareTo(total));
+
+        // année sans facture : douze mois à zéro
+        assertEquals(0, facturationService.getRevenuAnnuel(1990).signum());
+        facturationService.getRevenusParMois(1990).values().forEach(revenu -> assertEquals(0, revenu.signum()));
+        assertThrows(BusinessException.class, () -> facturationService.getRevenuMensuel(annee, 13));
+    }
+
+    @Test
+    void alreadyBilledPrescriptionIsRejected() {
+        Prescription prescription = prescriptionRepository.save(Prescription.builder().medicament("Amoxicilline").build());
+        BigDecimal frais = new BigDecimal("10000");
+
+        facturationService.creerFacture(prescription.getId(), frais, null, null);
+        long factures = factureRepository.count();
+
+        assertThrows(BusinessException.class, () -> facturationService.creerFacture(prescription.getId(), frais, null, null));
+        assertEquals(factures, factureRepository.count());
+    }
+}
@@ -0,0 +1,79 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class FactureExportServiceTest {
+
+    @Autowired
+    private FactureExportService factureExportService;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Test
+    void invoicesOfThePeriodAreStreamedAsOneZip() throws Exception {
+        List<String> numeros = new ArrayList<>();
+        // plus de factures que la fenêtre de rendus d'un export
+        for (int i = 0; i < 20; i++) {
+            Facture facture = factureRepository.save(Facture.builder()
+                    .numeroFacture("FACT-EXPORT-" + System.nanoTime()).montantTotal(1000.0 * (i + 1))
+                    .fraisConsultation(1000.0 * (i + 1)).statut(StatutFacture.IMPAYEE).build());
+            numeros.add(facture.getNumeroFacture());
+        }
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        factureExportService.exporter(LocalDate.now(), LocalDate.now(), sortie);
+
+        Map<String, byte[]> entrees = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(sortie.toByteArray()))) {
+            for (ZipEntry entree = zip.getNextEntry(); entree != null; entree = zip.getNextEntry()) {
+                entrees.put(entree.getName(), zip.readAllBytes());
+            }
+        }
+        for (String numero : numeros) {
+            byte[] pdf = entrees.get(numero + ".pdf");
+            assertNotNull(pdf, numero);
+            assertEquals("%PDF", new String(pdf, 0, 4));
+        }
+        assertFalse(entrees.containsKey("erreurs.txt"));
+
+        // période sans facture : archive vide mais valide
+        ByteArrayOutputStream vide = new ByteArrayOutputStream();
+        factureExportService.exporter(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 3, 31), vide);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(vide.toByteArray()))) {
+            assertNull(zip.getNextEntry());
+        }
+
+        assertThrows(BusinessException.class,
+                () -> factureExportService.verifierPeriode(LocalDate.now(), LocalDate.now().minusDays(1)));
+        assertThrows(BusinessException.class,
+                () -> factureExportService.verifierPeriode(LocalDate.now().minusYears(2), LocalDate.now()));
+    }
+}
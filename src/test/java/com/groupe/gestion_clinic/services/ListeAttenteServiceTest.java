@@ -0,0 +1,133 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.ListeAttenteDto;
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.ListeAttenteRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.model.ListeAttente;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutListeAttente;
+import com.groupe.gestion_clinic.repositories.ListeAttenteRepository;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class ListeAttenteServiceTest {
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private ListeAttenteService listeAttenteService;
+
+    @Autowired
+    private ListeAttenteRepository listeAttenteRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void cancelledSlotIsBookedForFirstWaitingPatient() throws InterruptedException {
+        Integer medecin = medecinRepository.save(Medecin.builder()
+                .nom("Yang").prenom("Cristina").email("yang" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build()).getId();
+        Integer titulaire = patient("titulaire").getId();
+        Integer enAttente = patient("attente").getId();
+        LocalDateTime debut = LocalDateTime.now().plusDays(25).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto rendezvous = rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .medecinId(medecin).patientId(titulaire)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build());
+        // trop longue pour le créneau libéré, ignorée
+        listeAttenteService.inscrire(ListeAttenteRequestDto.builder()
+                .medecinId(medecin).patientId(titulaire).duree(Duration.ofMinutes(60)).reservationAuto(true).build());
+        ListeAttenteDto demande = listeAttenteService.inscrire(ListeAttenteRequestDto.builder()
+                .medecinId(medecin).patientId(enAttente).duree(Duration.ofMinutes(30)).reservationAuto(true).build());
+
+        rendezvousService.cancelRendezVous(rendezvous.getId());
+
+        ListeAttente entree = listeAttenteRepository.findById(demande.getId()).orElseThrow();
+        for (int i = 0; i < 100 && entree.getRendezvousId() == null; i++) {
+            Thread.sleep(50);
+            entree = listeAttenteRepository.findById(demande.getId()).orElseThrow();
+        }
+        assertEquals(StatutListeAttente.SATISFAIT, entree.getStatut());
+        assertNotNull(entree.getRendezvousId());
+
+        RendezvousDto remplacement = rendezvousService.getRendezVousById(entree.getRendezvousId());
+        assertEquals(debut, remplacement.getDateHeureDebut());
+        assertEquals(enAttente, remplacement.getPatientId());
+        assertEquals(1, listeAttenteService.getListeAttente(medecin).size());
+    }
+
+    @Test
+    void expiredOfferIsProposedToNextWaitingPatient() throws InterruptedException {
+        Integer medecin = medecinRepository.save(Medecin.builder()
+                .nom("Karev").prenom("Alex").email("karev" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build()).getId();
+        Integer titulaire = patient("titulaire").getId();
+        LocalDateTime debut = LocalDateTime.now().plusDays(26).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto rendezvous = rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .medecinId(medecin).patientId(titulaire)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build());
+        ListeAttenteDto premiere = listeAttenteService.inscrire(ListeAttenteRequestDto.builder()
+                .medecinId(medecin).patientId(patient("premier").getId()).duree(Duration.ofMinutes(30)).build());
+        ListeAttenteDto seconde = listeAttenteService.inscrire(ListeAttenteRequestDto.builder()
+                .medecinId(medecin).patientId(patient("second").getId()).duree(Duration.ofMinutes(30)).build());
+
+        rendezvousService.cancelRendezVous(rendezvous.getId());
+
+        ListeAttente proposee = listeAttenteRepository.findById(premiere.getId()).orElseThrow();
+        // statut pris par reclamer avant l'enregistrement de la proposition
+        for (int i = 0; i < 100 && proposee.getPropositionExpireLe() == null; i++) {
+            Thread.sleep(50);
+            proposee = listeAttenteRepository.findById(premiere.getId()).orElseThrow();
+        }
+        assertEquals(StatutListeAttente.PROPOSE, proposee.getStatut());
+        assertEquals(debut, proposee.getPropositionDebut());
+
+        // délai de réponse dépassé sans acceptation
+        proposee.setPropositionExpireLe(LocalDateTime.now().minusMinutes(1));
+        listeAttenteRepository.save(proposee);
+        listeAttenteService.expirerPropositions();
+
+        ListeAttente expiree = listeAttenteRepository.findById(premiere.getId()).orElseThrow();
+        assertEquals(StatutListeAttente.EN_ATTENTE, expiree.getStatut());
+        assertNull(expiree.getPropositionDebut());
+        ListeAttente suivante = listeAttenteRepository.findById(seconde.getId()).orElseThrow();
+        assertEquals(StatutListeAttente.PROPOSE, suivante.getStatut());
+        assertEquals(debut, suivante.getPropositionDebut());
+        assertThrows(BusinessException.class, () -> listeAttenteService.accepter(premiere.getId()));
+
+        ListeAttenteDto acceptee = listeAttenteService.accepter(seconde.getId());
+        assertEquals(StatutListeAttente.SATISFAIT, acceptee.getStatut());
+        assertEquals(debut, rendezvousService.getRendezVousById(acceptee.getRendezvousId()).getDateHeureDebut());
+    }
+
+    private Patient patient(String nom) {
+        return patientRepository.save(Patient.builder()
+                .nom(nom).prenom("Test").email(nom + System.nanoTime() + "@clinic.test").build());
+    }
+}
@@ -0,0 +1,78 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.repositories.CompteurFactureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class NumeroFactureServiceTest {
+
+    private static final int ANNEE = 1987;
+
+    @Autowired
+    private NumeroFactureService numeroFactureService;
+
+    @Autowired
+    private CompteurFactureRepository compteurRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void numbersAreUniqueAcrossNodesAndSequentialPerYear() throws Exception {
+        assertTrue(numeroFactureService.prochainNumero().startsWith("FACT-" + LocalDate.now().getYear() + "-"));
+
+        // deux noeuds sur le même compteur, blocs de 5
+        NumeroFactureService noeudA = noeud();
+        NumeroFactureService noeudB = noeud();
+        Set<Long> numeros = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                NumeroFactureService noeud = i % 2 == 0 ? noeudA : noeudB;
+                taches.add(pool.submit(() -> assertTrue(numeros.add(noeud.prochain(ANNEE)))));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(200, numeros.size());
+        // blocs entiers réservés : au plus un bloc entamé par noeud
+        long reserves = compteurRepository.findProchain(ANNEE) - 1;
+        assertEquals(1L, numeros.stream().mapToLong(Long::longValue).min().orElseThrow());
+        assertTrue(reserves - 200 < 2 * 5);
+        assertTrue(numeros.stream().allMatch(n -> n <= reserves));
+
+        // nouvelle année : la séquence repart de 1
+        assertEquals(1L, noeudA.prochain(ANNEE + 1));
+        assertEquals(6L, noeudB.prochain(ANNEE + 1));
+    }
+
+    private NumeroFactureService noeud() {
+        NumeroFactureService noeud = new NumeroFactureService(compteurRepository, transactionManager);
+        ReflectionTestUtils.setField(noeud, "tailleBloc", 5);
+        return noeud;
+    }
+}
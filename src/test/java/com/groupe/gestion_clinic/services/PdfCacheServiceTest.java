@@ -0,0 +1,138 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class PdfCacheServiceTest {
+
+    private static final String TYPE = "test";
+
+    // 3 documents dépassent la taille maximale, 2 y tiennent
+    private static final int TAILLE_DOCUMENT = 700 * 1024;
+
+    @TempDir
+    static Path repertoire;
+
+    @DynamicPropertySource
+    static void cache(DynamicPropertyRegistry registry) {
+        registry.add("app.pdf.cache.repertoire", repertoire::toString);
+        registry.add("app.pdf.cache.taille-max-mo", () -> "2");
+    }
+
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
+    @Autowired
+    private FacturationService facturationService;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void documentsAreRenderedOncePerVersionAndEvictedLeastRecentlyUsedFirst() throws IOException {
+        AtomicInteger rendus = new AtomicInteger();
+        PdfCacheService.Rendu document = sortie -> {
+            rendus.incrementAndGet();
+            byte[] contenu = new byte[TAILLE_DOCUMENT];
+            Arrays.fill(contenu, (byte) 'x');
+            sortie.write(contenu);
+        };
+        try {
+            PdfCacheService.Pdf premier = pdfCacheService.obtenir(TYPE, 1, "v1", document);
+            PdfCacheService.Pdf second = pdfCacheService.obtenir(TYPE, 1, "v1", document);
+            assertEquals(1, rendus.get());
+            assertEquals(TAILLE_DOCUMENT, second.taille());
+            assertArrayEquals(lire(premier), lire(second));
+
+            // nouvelle version : nouveau rendu, l'ancien fichier est supprimé
+            Path v1 = fichier(TYPE, 1);
+            pdfCacheService.obtenir(TYPE, 1, "v2", document);
+            assertEquals(2, rendus.get());
+            assertNotEquals(v1, fichier(TYPE, 1));
+            assertEquals(1, fichiers(TYPE, 1).size());
+
+            pdfCacheService.obtenir(TYPE, 2, "v1", document);
+            pdfCacheService.obtenir(TYPE, 1, "v2", document);
+            pdfCacheService.obtenir(TYPE, 3, "v1", document);
+            assertEquals(4, rendus.get());
+            assertTrue(fichiers(TYPE, 2).isEmpty());
+            assertEquals(1, fichiers(TYPE, 1).size());
+            assertEquals(1, fichiers(TYPE, 3).size());
+        } finally {
+            for (int id = 1; id <= 3; id++) {
+                pdfCacheService.invalider(TYPE, id);
+            }
+        }
+    }
+
+    @Test
+    void invoiceStatusChangeInvalidatesItsPdf() throws IOException {
+        Facture facture = factureRepository.save(Facture.builder()
+                .numeroFacture("FACT-PDF-" + System.nanoTime()).montantTotal(25000.0)
+                .fraisConsultation(25000.0).statut(StatutFacture.IMPAYEE).build());
+
+        byte[] contenu = lire(facturationService.getFacturePdf(facture.getId()));
+        assertEquals("%PDF", new String(contenu, 0, 4));
+        Path fichier = fichier(PdfCacheService.FACTURE, facture.getId());
+        facturationService.getFacturePdf(facture.getId());
+        assertEquals(fichier, fichier(PdfCacheService.FACTURE, facture.getId()));
+
+        transactionTemplate.executeWithoutResult(status -> facturationService.updateFactureStatus(facture.getId(), StatutFacture.PAYEE));
+        assertTrue(fichiers(PdfCacheService.FACTURE, facture.getId()).isEmpty());
+
+        facturationService.getFacturePdf(facture.getId());
+        assertNotEquals(fichier, fichier(PdfCacheService.FACTURE, facture.getId()));
+    }
+
+    // Fichiers <type>-<id>-<empreinte>.pdf présents dans le répertoire du cache
+    private static List<Path> fichiers(String type, Integer id) throws IOException {
+        try (Stream<Path> contenu = Files.list(repertoire)) {
+            return contenu
+                    .filter(fichier -> fichier.getFileName().toString().startsWith(type + "-" + id + "-"))
+                    .filter(fichier -> fichier.getFileName().toString().endsWith(".pdf"))
+                    .toList();
+        }
+    }
+
+    private static Path fichier(String type, Integer id) throws IOException {
+        List<Path> fichiers = fichiers(type, id);
+        assertEquals(1, fichiers.size());
+        return fichiers.get(0);
+    }
+
+    private static byte[] lire(PdfCacheService.Pdf pdf) throws IOException {
+        try (InputStream entree = pdf.contenu().getInputStream()) {
+            return entree.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.PdfJobDto;
+import com.groupe.gestion_clinic.exceptions.GoneException;
+import com.groupe.gestion_clinic.exceptions.NotFoundException;
+import com.groupe.gestion_clinic.exceptions.TooManyRequestsException;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class PdfJobServiceTest {
+
+    @Autowired
+    private PdfJobService pdfJobService;
+
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private SubscribableChannel brokerChannel;
+
+    @Test
+    void pdfIsRenderedOffTheRequestThreadAndNotified() throws Exception {
+        Facture facture = factureRepository.save(Facture.builder()
+                .numeroFacture("FACT-JOB-" + System.nanoTime()).montantTotal(10000.0)
+                .fraisConsultation(10000.0).statut(StatutFacture.IMPAYEE).build());
+        List<String> destinations = new CopyOnWriteArrayList<>();
+        MessageHandler ecoute = message -> destinations.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        brokerChannel.subscribe(ecoute);
+        try {
+            PdfJobDto job = pdfJobService.soumettre(PdfJobDto.Type.FACTURE, facture.getId());
+            PdfJobDto termine = attendre(job.getId());
+            assertEquals(PdfJobDto.Statut.TERMINE, termine.getStatut());
+            assertNotNull(termine.getRenduMs());
+            assertNotNull(termine.getTelechargement());
+            for (int i = 0; i < 2; i++) {
+                try (InputStream contenu = pdfJobService.telecharger(job.getId()).contenu().getInputStream()) {
+                    assertEquals("%PDF", new String(contenu.readNBytes(4)));
+                }
+            }
+            // notification envoyée juste après le passage à TERMINE
+            for (int i = 0; i < 40 && !destinations.contains(PdfJobService.TOPIC + job.getId()); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(destinations.contains(PdfJobService.TOPIC + job.getId()));
+
+            // version retirée du cache : pas de nouveau rendu au téléchargement
+            pdfCacheService.invalider(PdfCacheService.FACTURE, facture.getId());
+            assertThrows(GoneException.class, () -> pdfJobService.telecharger(job.getId()));
+            assertThrows(NotFoundException.class, () -> pdfJobService.telecharger("inconnu"));
+
+            PdfJobDto echoue = attendre(pdfJobService.soumettre(PdfJobDto.Type.FACTURE, -1).getId());
+            assertEquals(PdfJobDto.Statut.ECHOUE, echoue.getStatut());
+            assertNotNull(echoue.getErreur());
+        } finally {
+            brokerChannel.unsubscribe(ecoute);
+        }
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(pdfJobService, "executor");
+        CountDownLatch liberation = new CountDownLatch(1);
+        long rejets = (long) pdfJobService.getMetriques().get("rejets");
+        try {
+            Runnable bloquant = () -> {
+                try {
+                    liberation.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            // threads occupés, puis file remplie
+            for (int i = 0; i < executor.getMaximumPoolSize(); i++) {
+                executor.execute(bloquant);
+            }
+            while (executor.getActiveCount() < executor.getMaximumPoolSize()) {
+                Thread.onSpinWait();
+            }
+            while (executor.getQueue().remainingCapacity() > 0) {
+                executor.execute(bloquant);
+            }
+            TooManyRequestsException refus = assertThrows(TooManyRequestsException.class,
+                    () -> pdfJobService.soumettre(PdfJobDto.Type.FACTURE, 1));
+            assertTrue(refus.getRetryAfterSecondes() >= 1);
+            assertEquals(rejets + 1, pdfJobService.getMetriques().get("rejets"));
+            assertEquals(executor.getQueue().size(), pdfJobService.getMetriques().get("enFile"));
+        } finally {
+            liberation.countDown();
+        }
+    }
+
+    private PdfJobDto attendre(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            PdfJobDto job = pdfJobService.getJob(jobId);
+            if (job.getStatut() == PdfJobDto.Statut.TERMINE || job.getStatut() == PdfJobDto.Statut.ECHOUE) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job PDF non terminé: " + jobId);
+    }
+}
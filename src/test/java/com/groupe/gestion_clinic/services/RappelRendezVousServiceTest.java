@@ -0,0 +1,93 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RappelRendezVousRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Pipeline de rappel sur base H2 en mémoire, avec GreenMail comme serveur SMTP local.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class RappelRendezVousServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private RappelRendezVousService rappelRendezVousService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private RappelRendezVousRepository rappelRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sendsEachReminderOnce() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("House").prenom("Gregory").email("house@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("John").email("john@clinic.test").build());
+
+        LocalDateTime debut = LocalDateTime.now().plusHours(2);
+        rendezvousRepository.save(rdv(medecin, patient, debut, StatutRendezVous.PLANIFIE));
+        rendezvousRepository.save(rdv(medecin, patient, debut.plusHours(1), StatutRendezVous.ANNULE));
+        rendezvousRepository.save(rdv(medecin, patient, debut.plusDays(3), StatutRendezVous.PLANIFIE));
+
+        assertEquals(1, rappelRendezVousService.envoyerRappels());
+        // un email au médecin, un au patient
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(1, rappelRepository.count());
+
+        assertEquals(0, rappelRendezVousService.envoyerRappels());
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(1.0, meterRegistry.counter("clinic.rappels.envoyes").count());
+    }
+
+    private Rendezvous rdv(Medecin medecin, Patient patient, LocalDateTime debut, StatutRendezVous statut) {
+        return Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(debut).dateHeureFin(debut.plusMinutes(30))
+                .statut(statut).build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Réservations concurrentes sur le même médecin : aucun chevauchement ne doit être enregistré.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class RendezvousConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int TENTATIVES_PAR_THREAD = 40;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Grey").prenom("Meredith").email("grey@clinic.test")
+                .role(Role.MEDECIN).build());
+        List<Integer> patients = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            patients.add(patientRepository.save(Patient.builder()
+                    .nom("Patient" + i).prenom("Test").email("patient" + i + "@clinic.test").build()).getId());
+        }
+        LocalDateTime ouverture = LocalDateTime.now().plusDays(30).withHour(8).withMinute(0).withSecond(0).withNano(0);
+
+        AtomicInteger succes = new AtomicInteger();
+        AtomicInteger conflits = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> taches = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Integer patientId = patients.get(t);
+            taches.add(executor.submit(() -> {
+                depart.await();
+                for (int i = 0; i < TENTATIVES_PAR_THREAD; i++) {
+                    // créneaux de 30 min alignés sur 5 min : beaucoup de chevauchements partiels
+                    LocalDateTime debut = ouverture.plusMinutes(5L * ThreadLocalRandom.current().nextInt(120));
+                    try {
+                        rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                                .medecinId(medecin.getId()).patientId(patientId)
+                                .dateHeureDebut(debut).duree(Duration.ofMinutes(30))
+                                .build());
+                        succes.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflits.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        depart.countDown();
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(THREADS * TENTATIVES_PAR_THREAD, succes.get() + conflits.get());
+        List<Rendezvous> enregistres = rendezvousRepository.findAll().stream()
+                .filter(r -> r.getMedecin() != null && r.getMedecin().getId().equals(medecin.getId()))
+                .filter(r -> r.getStatut() != StatutRendezVous.ANNULE)
+                .sorted(Comparator.comparing(Rendezvous::getDateHeureDebut))
+                .toList();
+        assertEquals(succes.get(), enregistres.size());
+        assertTrue(conflits.get() > 0);
+        for (int i = 1; i < enregistres.size(); i++) {
+            assertFalse(enregistres.get(i).getDateHeureDebut().isBefore(enregistres.get(i - 1).getDateHeureFin()),
+                    "chevauchement: " + enregistres.get(i - 1).getId() + " / " + enregistres.get(i).getId());
+        }
+    }
+
+    @Test
+    void reactivatingCancelledAppointmentChecksConflicts() {
+        Integer medecin = medecinRepository.save(Medecin.builder()
+                .nom("Bailey").prenom("Miranda").email("bailey@clinic.test")
+                .role(Role.MEDECIN).build()).getId();
+        Integer patient1 = patientRepository.save(Patient.builder()
+                .nom("Annule").prenom("Test").email("annule@clinic.test").build()).getId();
+        Integer patient2 = patientRepository.save(Patient.builder()
+                .nom("Remplacant").prenom("Test").email("remplacant@clinic.test").build()).getId();
+        LocalDateTime debut = LocalDateTime.now().plusDays(40).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto annule = rendezvousService.createRendezVous(demande(medecin, patient1, debut));
+        rendezvousService.cancelRendezVous(annule.getId());
+        RendezvousDto remplacant = rendezvousService.createRendezVous(demande(medecin, patient2, debut.plusMinutes(15)));
+
+        // créneau repris entre-temps : la réactivation est refusée et le rendez-vous reste annulé
+        assertThrows(ConflictException.class,
+                () -> rendezvousService.updateRendezVousStatus(annule.getId(), StatutRendezVous.PLANIFIE));
+        assertEquals(StatutRendezVous.ANNULE, rendezvousRepository.findById(annule.getId()).orElseThrow().getStatut());
+
+        rendezvousService.cancelRendezVous(remplacant.getId());
+        assertEquals(StatutRendezVous.CONFIRME,
+                rendezvousService.updateRendezVousStatus(annule.getId(), StatutRendezVous.CONFIRME).getStatut());
+    }
+
+    @Test
+    void legacyOverlappingAppointmentCanStillBeClosed() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Hunt").prenom("Owen").email("hunt@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient1 = patientRepository.save(Patient.builder()
+                .nom("Ancien").prenom("Test").email("ancien1@clinic.test").build());
+        Patient patient2 = patientRepository.save(Patient.builder()
+                .nom("Ancien").prenom("Test").email("ancien2@clinic.test").build());
+        LocalDateTime debut = LocalDateTime.now().plusDays(45).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        // chevauchement enregistré avant le contrôle par intervalle
+        rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient1)
+                .dateHeureDebut(debut).dateHeureFin(debut.plusMinutes(30))
+                .statut(StatutRendezVous.PLANIFIE).build());
+        Rendezvous chevauchant = rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient2)
+                .dateHeureDebut(debut.plusMinutes(15)).dateHeureFin(debut.plusMinutes(45))
+                .statut(StatutRendezVous.PLANIFIE).build());
+
+        assertEquals(StatutRendezVous.CONFIRME,
+                rendezvousService.updateRendezVousStatus(chevauchant.getId(), StatutRendezVous.CONFIRME).getStatut());
+        assertEquals(StatutRendezVous.TERMINE,
+                rendezvousService.updateRendezVousStatus(chevauchant.getId(), StatutRendezVous.TERMINE).getStatut());
+    }
+
+    private RendezvousRequestDto demande(Integer medecinId, Integer patientId, LocalDateTime debut) {
+        return RendezvousRequestDto.builder()
+                .medecinId(medecinId).patientId(patientId)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).build();
+    }
+}
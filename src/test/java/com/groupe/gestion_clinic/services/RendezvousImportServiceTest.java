@@ -0,0 +1,118 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousImportLigneDto;
+import com.groupe.gestion_clinic.dto.RendezvousImportRapportDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class RendezvousImportServiceTest {
+
+    @Autowired
+    private RendezvousImportService importService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void csvImportReportsEachRow() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Shepherd").prenom("Derek").email("shepherd@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient1 = patientRepository.save(Patient.builder()
+                .nom("Import").prenom("Un").email("import1@clinic.test").build());
+        Patient patient2 = patientRepository.save(Patient.builder()
+                .nom("Import").prenom("Deux").email("import2@clinic.test").build());
+        LocalDateTime jour = LocalDateTime.now().plusDays(90).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient2)
+                .dateHeureDebut(jour.plusHours(3)).dateHeureFin(jour.plusHours(3).plusMinutes(30))
+                .statut(StatutRendezVous.PLANIFIE).build());
+
+        String csv = "patientId;medecinId;dateHeureDebut;duree;motif\n"
+                + patient1.getId() + ";" + medecin.getId() + ";" + jour + ";30;controle\n"
+                // chevauche la ligne précédente
+                + patient2.getId() + ";" + medecin.getId() + ";" + jour.plusMinutes(15) + ";30;\n"
+                // chevauche le rendez-vous déjà en base
+                + patient1.getId() + ";" + medecin.getId() + ";" + jour.plusHours(3).plusMinutes(10) + ";PT20M;\n"
+                + "\n"
+                + patient1.getId() + ";999999;" + jour.plusHours(5) + ";30;\n"
+                + patient1.getId() + ";" + medecin.getId() + ";demain;30;\n"
+                // motif plus long que la colonne : seule cette ligne est rejetée, pas le lot
+                + patient1.getId() + ";" + medecin.getId() + ";" + jour.plusHours(6) + ";30;" + "x".repeat(300) + "\n"
+                // adjacent : accepté
+                + patient2.getId() + ";" + medecin.getId() + ";" + jour.plusMinutes(30) + ";45;suivi\n";
+
+        RendezvousImportRapportDto rapport = importService.importerCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(7, rapport.getTotal());
+        assertEquals(2, rapport.getCrees());
+        assertEquals(5, rapport.getRejetes());
+        List<RendezvousImportLigneDto> lignes = rapport.getLignes();
+        assertEquals(List.of(2, 3, 4, 6, 7, 8, 9), lignes.stream().map(RendezvousImportLigneDto::getLigne).toList());
+        assertEquals(List.of("CREE", "CONFLIT", "CONFLIT", "INVALIDE", "INVALIDE", "INVALIDE", "CREE"),
+                lignes.stream().map(RendezvousImportLigneDto::getStatut).toList());
+
+        Rendezvous importe = rendezvousRepository.findById(lignes.get(6).getRendezvousId()).orElseThrow();
+        assertEquals(jour.plusMinutes(30), importe.getDateHeureDebut());
+        assertEquals(jour.plusMinutes(75), importe.getDateHeureFin());
+        assertEquals(StatutRendezVous.PLANIFIE, importe.getStatut());
+        assertEquals("suivi", importe.getMotif());
+        assertNotNull(importe.getCreatedAt());
+    }
+
+    @Test
+    void quotedFieldsKeepSeparators() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Bailey").prenom("Miranda").email("bailey@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Import").prenom("Trois").email("import3@clinic.test").build());
+        LocalDateTime jour = LocalDateTime.now().plusDays(95).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        // séparateur ',' fixé par l'en-tête : le ';' et la ',' du motif entre guillemets restent dans le champ
+        String csv = "medecinId,patientId,dateHeureDebut,duree,motif\n"
+                + medecin.getId() + "," + patient.getId() + "," + jour + ",30,\"bilan; suivi, \"\"urgent\"\"\"\n"
+                + medecin.getId() + "," + patient.getId() + "," + jour.plusHours(1) + ",30,\"sur\ndeux lignes\"\n"
+                + medecin.getId() + "," + patient.getId() + "," + jour.plusHours(2) + ",30,suivi\n";
+
+        RendezvousImportRapportDto rapport = importService.importerCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, rapport.getCrees());
+        List<RendezvousImportLigneDto> lignes = rapport.getLignes();
+        assertEquals(List.of(2, 3, 5), lignes.stream().map(RendezvousImportLigneDto::getLigne).toList());
+        assertEquals("bilan; suivi, \"urgent\"",
+                rendezvousRepository.findById(lignes.get(0).getRendezvousId()).orElseThrow().getMotif());
+        assertEquals("sur\ndeux lignes",
+                rendezvousRepository.findById(lignes.get(1).getRendezvousId()).orElseThrow().getMotif());
+    }
+}
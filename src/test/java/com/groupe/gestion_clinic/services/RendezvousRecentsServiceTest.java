@@ -0,0 +1,94 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class RendezvousRecentsServiceTest {
+
+    @Autowired
+    private RendezvousRecentsService recentsService;
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void recentListFollowsWritesWithoutQueryingOnRead() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Yang").prenom("Cristina").email("yang" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Sam").email("sam" + System.nanoTime() + "@clinic.test").build());
+        // plus tard que tous les rendez-vous des autres tests
+        LocalDateTime debut = LocalDateTime.now().plusYears(5).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto premier = creer(medecin, patient, debut);
+        RendezvousDto deuxieme = creer(medecin, patient, debut.plusHours(1));
+        RendezvousDto troisieme = creer(medecin, patient, debut.plusHours(2));
+
+        List<Map<String, Object>> recents = recentsService.getRecents();
+        assertEquals(List.of(troisieme.getId(), deuxieme.getId(), premier.getId()), ids(recents).subList(0, 3));
+        assertEquals(debut.plusHours(2).toString(), recents.get(0).get("dateHeure"));
+        assertEquals(Map.of("nom", "Doe", "prenom", "Sam"), recents.get(0).get("patient"));
+        assertEquals(Map.of("nom", "Yang", "prenom", "Cristina"), recents.get(0).get("medecin"));
+        // même liste tant qu'aucune écriture n'a eu lieu
+        assertEquals(recents, recentsService.getRecents());
+
+        rendezvousService.updateRendezVousStatus(deuxieme.getId(), StatutRendezVous.CONFIRME);
+        assertEquals("CONFIRME", recentsService.getRecents().get(1).get("statut"));
+
+        rendezvousService.deleteRendezVous(troisieme.getId());
+        assertEquals(List.of(deuxieme.getId(), premier.getId()), ids(recentsService.getRecents()).subList(0, 2));
+
+        // écrit hors des services (autre noeud) : visible après rechargement
+        Rendezvous direct = rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient).motif("Direct")
+                .dateHeureDebut(debut.plusDays(1)).dateHeureFin(debut.plusDays(1).plusMinutes(30))
+                .statut(StatutRendezVous.PLANIFIE).build());
+        assertEquals(deuxieme.getId(), ids(recentsService.getRecents()).get(0));
+        recentsService.recharger();
+        assertEquals(direct.getId(), ids(recentsService.getRecents()).get(0));
+        assertEquals("Direct", recentsService.getRecents().get(0).get("motif"));
+    }
+
+    private RendezvousDto creer(Medecin medecin, Patient patient, LocalDateTime debut) {
+        return rendezvousService.createRendezVous(RendezvousRequestDto.builder()
+                .medecinId(medecin.getId()).patientId(patient.getId())
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30)).motif("Contrôle").build());
+    }
+
+    private static List<Integer> ids(List<Map<String, Object>> recents) {
+        return recents.stream().map(rdv -> (Integer) rdv.get("id")).toList();
+    }
+}
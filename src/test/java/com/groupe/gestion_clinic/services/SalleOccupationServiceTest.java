@@ -0,0 +1,140 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.RendezvousDto;
+import com.groupe.gestion_clinic.dto.SalleDto;
+import com.groupe.gestion_clinic.dto.SalleOccupationDto;
+import com.groupe.gestion_clinic.dto.requestDto.RendezvousRequestDto;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class SalleOccupationServiceTest {
+
+    @Autowired
+    private RendezvousServiceNew rendezvousService;
+
+    @Autowired
+    private SalleService salleService;
+
+    @Autowired
+    private SalleOccupationService salleOccupationService;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoSpyBean
+    private RendezvousRepository rendezvousRepository;
+
+    @Test
+    void rejectsDoubleBookedRoomAndComputesUtilisation() {
+        String nom = "Salle " + System.nanoTime();
+        salleService.createSalle(SalleDto.builder().nom(nom).build());
+        Integer medecin1 = medecin("karev").getId();
+        Integer medecin2 = medecin("bailey").getId();
+        Integer patient1 = patient("p1").getId();
+        Integer patient2 = patient("p2").getId();
+        LocalDateTime debut = LocalDateTime.now().plusDays(20).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        RendezvousDto premier = rendezvousService.createRendezVous(demande(medecin1, patient1, debut, " " + nom.toLowerCase()));
+        assertEquals(nom, premier.getSalle());
+
+        // autre médecin, autre patient, même salle sur un créneau qui chevauche
+        assertThrows(ConflictException.class,
+                () -> rendezvousService.createRendezVous(demande(medecin2, patient2, debut.plusMinutes(15), nom)));
+
+        rendezvousService.createRendezVous(demande(medecin2, patient2, debut.plusMinutes(30), nom));
+        rendezvousService.cancelRendezVous(premier.getId());
+        rendezvousService.createRendezVous(demande(medecin2, patient1, debut, nom));
+
+        SalleOccupationDto occupation = salleOccupationService.getOccupation(debut.toLocalDate(), debut.toLocalDate()).stream()
+                .filter(o -> o.getSalle().equals(nom)).findFirst().orElseThrow();
+        assertEquals(2, occupation.getNombreRendezVous());
+        assertEquals(60, occupation.getMinutesOccupees());
+        assertEquals(600, occupation.getMinutesOuvertes());
+        assertEquals(0.1, occupation.getTauxOccupation(), 1e-9);
+    }
+
+    @Test
+    void indexStaysReadableDuringReloadAndReloadsAgainAfterConcurrentWrite() {
+        String nom = "Salle " + System.nanoTime();
+        salleService.createSalle(SalleDto.builder().nom(nom).build());
+        LocalDateTime debut = LocalDateTime.now().plusDays(25).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        RendezvousDto rdv = rendezvousService.createRendezVous(demande(medecin("webber").getId(), patient("p3").getId(), debut, nom));
+        assertTrue(salleOccupationService.estOccupee(nom, debut, debut.plusMinutes(30), Set.of()));
+
+        // pendant la première requête de rechargement, un autre thread lit l'index en place puis le modifie
+        AtomicInteger chargements = new AtomicInteger();
+        AtomicReference<Boolean> lue = new AtomicReference<>();
+        Answer<?> reelle = mockingDetails(rendezvousRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            if (chargements.incrementAndGet() == 1) {
+                CompletableFuture.runAsync(() -> {
+                    lue.set(salleOccupationService.estOccupee(nom, debut, debut.plusMinutes(30), Set.of()));
+                    salleOccupationService.liberer(rdv.getId());
+                }).get(10, TimeUnit.SECONDS);
+            }
+            return reelle.answer(invocation);
+        }).when(rendezvousRepository).findOccupationsSalles(any());
+
+        salleOccupationService.invalider();
+        List<SalleOccupationDto> occupation = salleOccupationService.getOccupation(debut.toLocalDate(), debut.toLocalDate());
+
+        assertTrue(lue.get());
+        // generation modifiée pendant la lecture : rechargée une seconde fois
+        assertEquals(2, chargements.get());
+        assertEquals(1, occupation.stream().filter(o -> o.getSalle().equals(nom)).findFirst().orElseThrow().getNombreRendezVous());
+        assertFalse(salleOccupationService.estOccupee(nom, debut.plusHours(2), debut.plusHours(3), Set.of()));
+    }
+
+    private RendezvousRequestDto demande(Integer medecinId, Integer patientId, LocalDateTime debut, String salle) {
+        return RendezvousRequestDto.builder()
+                .medecinId(medecinId).patientId(patientId)
+                .dateHeureDebut(debut).duree(Duration.ofMinutes(30))
+                .salle(salle).build();
+    }
+
+    private Medecin medecin(String nom) {
+        return medecinRepository.save(Medecin.builder()
+                .nom(nom).prenom("Dr").email(nom + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+    }
+
+    private Patient patient(String nom) {
+        return patientRepository.save(Patient.builder()
+                .nom(nom).prenom("Test").email(nom + System.nanoTime() + "@clinic.test").build());
+    }
+}
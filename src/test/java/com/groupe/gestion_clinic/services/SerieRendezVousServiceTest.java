@@ -0,0 +1,128 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.SerieRendezVousDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieModificationRequestDto;
+import com.groupe.gestion_clinic.dto.requestDto.SerieRendezVousRequestDto;
+import com.groupe.gestion_clinic.exceptions.BusinessException;
+import com.groupe.gestion_clinic.exceptions.ConflictException;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import com.groupe.gestion_clinic.repositories.SerieRendezVousRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class SerieRendezVousServiceTest {
+
+    @Autowired
+    private SerieRendezVousService serieService;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private SerieRendezVousRepository serieRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private Medecin medecin;
+    private Patient patient;
+    private LocalDateTime premier;
+
+    @BeforeEach
+    void setUp() {
+        long n = System.nanoTime();
+        medecin = medecinRepository.save(Medecin.builder()
+                .nom("Yang").prenom("Cristina").email("yang" + n + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        patient = patientRepository.save(Patient.builder()
+                .nom("Chronique").prenom("Patient").email("chronique" + n + "@clinic.test").build());
+        premier = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void rejectsWholeSeriesWhenAnyOccurrenceConflicts() {
+        rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(premier.plusWeeks(3).plusMinutes(15)).dateHeureFin(premier.plusWeeks(3).plusMinutes(45))
+                .statut(StatutRendezVous.PLANIFIE).build());
+        long series = serieRepository.count();
+
+        ConflictException e = assertThrows(ConflictException.class, () -> serieService.creerSerie(demande("FREQ=WEEKLY;COUNT=10")));
+
+        assertTrue(e.getMessage().startsWith("1 occurrence(s) en conflit"), e.getMessage());
+        assertEquals(series, serieRepository.count());
+    }
+
+    @Test
+    void rejectsRuleWithoutOccurrence() {
+        long series = serieRepository.count();
+        String regle = "FREQ=WEEKLY;UNTIL=" + premier.toLocalDate().minusDays(1);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> serieService.creerSerie(demande(regle)));
+
+        assertEquals("la règle ne produit aucune occurrence", e.getMessage());
+        assertEquals(series, serieRepository.count());
+    }
+
+    @Test
+    void editThisAndFollowingSplitsTheSeries() {
+        SerieRendezVousDto serie = serieService.creerSerie(demande("FREQ=WEEKLY;COUNT=10"));
+        assertEquals(10, serie.getRendezvousIds().size());
+        assertEquals(premier.plusWeeks(9), serie.getOccurrences().get(9));
+
+        Integer sixieme = serie.getRendezvousIds().get(5);
+        SerieRendezVousDto suite = serieService.modifierSerie(sixieme, SerieModificationRequestDto.builder()
+                .heure(LocalTime.of(14, 0)).duree(Duration.ofMinutes(45)).build());
+
+        assertNotEquals(serie.getId(), suite.getId());
+        assertEquals("FREQ=WEEKLY;COUNT=5", suite.getRegle());
+        assertEquals(serie.getRendezvousIds().subList(5, 10), suite.getRendezvousIds());
+        assertTrue(serieRepository.findById(serie.getId()).orElseThrow().getRegle().startsWith("FREQ=WEEKLY;UNTIL="));
+
+        Rendezvous inchange = rendezvousRepository.findById(serie.getRendezvousIds().get(4)).orElseThrow();
+        assertEquals(premier.plusWeeks(4), inchange.getDateHeureDebut());
+        Rendezvous modifie = rendezvousRepository.findById(sixieme).orElseThrow();
+        assertEquals(premier.plusWeeks(5).withHour(14), modifie.getDateHeureDebut());
+        assertEquals(premier.plusWeeks(5).withHour(14).plusMinutes(45), modifie.getDateHeureFin());
+
+        assertEquals(2, serieService.annulerSerie(serie.getRendezvousIds().get(8)));
+        List<StatutRendezVous> statuts = suite.getRendezvousIds().stream()
+                .map(id -> rendezvousRepository.findById(id).orElseThrow().getStatut()).toList();
+        assertEquals(List.of(StatutRendezVous.PLANIFIE, StatutRendezVous.PLANIFIE, StatutRendezVous.PLANIFIE,
+                StatutRendezVous.ANNULE, StatutRendezVous.ANNULE), statuts);
+    }
+
+    private SerieRendezVousRequestDto demande(String regle) {
+        return SerieRendezVousRequestDto.builder()
+                .medecinId(medecin.getId()).patientId(patient.getId())
+                .dateHeureDebut(premier).duree(Duration.ofMinutes(30))
+                .regle(regle).motif("suivi").build();
+    }
+}
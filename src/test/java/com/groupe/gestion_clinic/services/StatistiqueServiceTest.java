@@ -0,0 +1,105 @@
+package com.groupe.gestion_clinic.services;
+
+import com.groupe.gestion_clinic.dto.StatistiquePeriodeDto;
+import com.groupe.gestion_clinic.model.Facture;
+import com.groupe.gestion_clinic.model.Medecin;
+import com.groupe.gestion_clinic.model.Patient;
+import com.groupe.gestion_clinic.model.Prescription;
+import com.groupe.gestion_clinic.model.Rendezvous;
+import com.groupe.gestion_clinic.model.Role;
+import com.groupe.gestion_clinic.model.StatutFacture;
+import com.groupe.gestion_clinic.model.StatutRendezVous;
+import com.groupe.gestion_clinic.repositories.FactureRepository;
+import com.groupe.gestion_clinic.repositories.JourneeConsolideeRepository;
+import com.groupe.gestion_clinic.repositories.MedecinRepository;
+import com.groupe.gestion_clinic.repositories.PatientRepository;
+import com.groupe.gestion_clinic.repositories.PrescriptionRepository;
+import com.groupe.gestion_clinic.repositories.RendezvousRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class StatistiqueServiceTest {
+
+    @Autowired
+    private StatistiqueService statistiqueService;
+
+    @Autowired
+    private JourneeConsolideeRepository journeeRepository;
+
+    @Autowired
+    private RendezvousRepository rendezvousRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private MedecinRepository medecinRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void rollsUpDaysAndServesSeriesFromRollups() {
+        Medecin medecin = medecinRepository.save(Medecin.builder()
+                .nom("Yang").prenom("Cristina").email("yang" + System.nanoTime() + "@clinic.test")
+                .role(Role.MEDECIN).build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .nom("Doe").prenom("Sam").email("sam" + System.nanoTime() + "@clinic.test").build());
+        LocalDate jour = LocalDate.now().minusDays(500);
+
+        Rendezvous termine = rdv(medecin, patient, jour, 9, StatutRendezVous.TERMINE);
+        rdv(medecin, patient, jour, 10, StatutRendezVous.ANNULE);
+        rdv(medecin, patient, jour.plusDays(1), 9, StatutRendezVous.ABSENT);
+
+        // factures émises aujourd'hui, l'annulée ne compte pas dans le chiffre d'affaires
+        Facture facture = factureRepository.save(Facture.builder().montantTotal(120.0).statut(StatutFacture.IMPAYEE).build());
+        prescriptionRepository.save(Prescription.builder().medicament("Ibuprofène").rendezvous(termine).facture(facture).build());
+        Facture annulee = factureRepository.save(Facture.builder().montantTotal(50.0).statut(StatutFacture.ANNULEE).build());
+        prescriptionRepository.save(Prescription.builder().medicament("Ibuprofène").rendezvous(termine).facture(annulee).build());
+
+        statistiqueService.consoliderJour(jour);
+        statistiqueService.consoliderJour(jour);
+        statistiqueService.consoliderJour(jour.plusDays(1));
+        statistiqueService.consoliderJour(LocalDate.now());
+
+        List<StatistiquePeriodeDto> jours = statistiqueService.getSerie(
+                StatistiqueService.Granularite.JOUR, jour, jour.plusDays(1), medecin.getId());
+        assertEquals(2, jours.size());
+        assertEquals(new StatistiquePeriodeDto(jour, jour, 2, 1, 1, 0, 0.0), jours.get(0));
+        assertEquals(new StatistiquePeriodeDto(jour.plusDays(1), jour.plusDays(1), 1, 0, 0, 1, 0.0), jours.get(1));
+
+        List<StatistiquePeriodeDto> annees = statistiqueService.getSerie(
+                StatistiqueService.Granularite.ANNEE, jour, LocalDate.now(), medecin.getId());
+        assertEquals(3, annees.stream().mapToLong(StatistiquePeriodeDto::getRendezVous).sum());
+        assertEquals(120.0, annees.get(annees.size() - 1).getChiffreAffaires());
+        assertEquals(LocalDate.now().withDayOfYear(1), annees.get(annees.size() - 1).getDebut());
+
+        // passage nocturne : les jours sans activité entre-temps sont consolidés eux aussi
+        // 7 derniers jours recalculés, plus les 491 jours sans ligne de jour + 2 à J-8
+        assertEquals(7 + 491, statistiqueService.consolider());
+        assertTrue(journeeRepository.existsById(jour.plusDays(2)));
+        assertTrue(journeeRepository.existsById(LocalDate.now().minusDays(1)));
+    }
+
+    private Rendezvous rdv(Medecin medecin, Patient patient, LocalDate jour, int heure, StatutRendezVous statut) {
+        return rendezvousRepository.save(Rendezvous.builder()
+                .medecin(medecin).patient(patient)
+                .dateHeureDebut(jour.atTime(heure, 0)).dateHeureFin(jour.atTime(heure, 30))
+                .statut(statut).build());
+    }
+}